@@ -0,0 +1,411 @@
+package com.trade_risk_system.analytics;
+
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.util.MoneyUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar copy of executed trades for ad-hoc aggregates that
+ * would otherwise be GROUP BYs on the OLTP table.
+ *
+ * Rows are appended to fixed-size chunks of primitive arrays: epoch
+ * microseconds, quantity, price as an unscaled long at
+ * {@link MoneyUtils#PRICE_SCALE}, side, and dictionary-coded instrument and
+ * user ids. Appends are serialized; readers never lock. A reader takes the
+ * published row count first and only looks at rows below it, so it always
+ * sees complete rows.
+ *
+ * Scans split the chunks over a dedicated fork-join pool. Each worker skips
+ * chunks whose time range misses the query, filters a chunk into a selection
+ * vector of row positions, then aggregates the selected rows into arrays
+ * indexed by group. Both loops run over primitive arrays only.
+ */
+@Component
+public class TradeColumnStore implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeColumnStore.class);
+
+    static final int CHUNK_ROWS = 1 << 16;
+
+    /** Maximum number of time buckets one query may produce. */
+    static final int MAX_BUCKETS = 10_000;
+
+    /**
+     * Live appends for trades stamped this long before a rebuild started may
+     * still be missing from the rebuild's source; they are reconciled by id.
+     */
+    private static final Duration REBUILD_OVERLAP = Duration.ofMinutes(5);
+
+    public enum GroupBy {
+        INSTRUMENT, USER, TIME
+    }
+
+    /**
+     * Aggregate query; filters are optional except that TIME grouping needs
+     * both bounds.
+     *
+     * @param from inclusive lower bound on timestamp
+     * @param to   exclusive upper bound on timestamp
+     */
+    public record Query(GroupBy groupBy, Duration bucket, LocalDateTime from, LocalDateTime to, Long instrumentId,
+            Long userId) {
+    }
+
+    /**
+     * One group of a query result. The key is an instrument id, a user id, or
+     * a bucket index counted from the query's {@code from}.
+     */
+    public record Aggregate(long key, long trades, long buyQuantity, long sellQuantity, BigDecimal notional) {
+    }
+
+    /** Source of all executed trades for a rebuild. */
+    @FunctionalInterface
+    public interface RowSource {
+        void forEach(RowSink sink);
+    }
+
+    @FunctionalInterface
+    public interface RowSink {
+        void accept(long id, long userId, long instrumentId, int quantity, BigDecimal price, TradeSide side,
+                LocalDateTime timestamp);
+    }
+
+    private record PendingRow(long id, long userId, long instrumentId, int quantity, BigDecimal price,
+            TradeSide side, LocalDateTime timestamp) {
+    }
+
+    private final Object writeLock = new Object();
+    private final ForkJoinPool scanPool;
+    private volatile Columns columns = new Columns();
+    private List<PendingRow> pending;
+
+    public TradeColumnStore(@Value("${application.analytics.trades.parallelism:0}") int parallelism) {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.scanPool = new ForkJoinPool(workers, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("trade-analytics-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Appends one executed trade.
+     */
+    public void append(long id, long userId, long instrumentId, int quantity, BigDecimal price, TradeSide side,
+            LocalDateTime timestamp) {
+        synchronized (writeLock) {
+            if (pending != null) {
+                pending.add(new PendingRow(id, userId, instrumentId, quantity, price, side, timestamp));
+            }
+            columns.append(id, userId, instrumentId, quantity, price, side, timestamp);
+        }
+    }
+
+    /**
+     * Reloads every row from the source into fresh columns and swaps them in.
+     * Queries keep using the old columns until the swap. Trades appended while
+     * the rebuild runs are carried over unless the source already had them.
+     *
+     * @return rows in the store after the rebuild
+     */
+    public int rebuild(RowSource source) {
+        synchronized (writeLock) {
+            if (pending != null) {
+                throw new IllegalStateException("A rebuild is already running");
+            }
+            pending = new ArrayList<>();
+        }
+        long recentMicros = toMicros(LocalDateTime.now().minus(REBUILD_OVERLAP));
+        Columns next = new Columns();
+        Set<Long> recentIds = new HashSet<>();
+        try {
+            source.forEach((id, userId, instrumentId, quantity, price, side, timestamp) -> {
+                next.append(id, userId, instrumentId, quantity, price, side, timestamp);
+                if (toMicros(timestamp) >= recentMicros) {
+                    recentIds.add(id);
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (writeLock) {
+            for (PendingRow row : pending) {
+                if (!recentIds.contains(row.id())) {
+                    next.append(row.id(), row.userId(), row.instrumentId(), row.quantity(), row.price(), row.side(),
+                            row.timestamp());
+                }
+            }
+            pending = null;
+            columns = next;
+            return next.size;
+        }
+    }
+
+    public int size() {
+        return columns.size;
+    }
+
+    /**
+     * Runs an aggregate query over all rows.
+     */
+    public List<Aggregate> aggregate(Query query) {
+        Columns snapshot = columns;
+        int rows = snapshot.size;
+        Chunk[] chunks = snapshot.chunks;
+        int chunkCount = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+
+        Scan scan = Scan.of(query, snapshot);
+        if (scan == null || chunkCount == 0) {
+            return List.of();
+        }
+        int workers = Math.min(scanPool.getParallelism(), chunkCount);
+        Accumulator total;
+        try {
+            total = scanPool.submit(() -> IntStream.range(0, workers).parallel()
+                    .mapToObj(worker -> {
+                        Accumulator accumulator = new Accumulator(scan.groups());
+                        int[] selection = new int[CHUNK_ROWS];
+                        for (int c = worker; c < chunkCount; c += workers) {
+                            int length = Math.min(CHUNK_ROWS, rows - c * CHUNK_ROWS);
+                            scan.run(chunks[c], length, selection, accumulator);
+                        }
+                        return accumulator;
+                    })
+                    .reduce(Accumulator::merge)
+                    .orElseThrow()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning trades", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Trade scan failed", e.getCause());
+        }
+        return total.results(query.groupBy() == GroupBy.TIME ? null : scan.dictionary());
+    }
+
+    @Override
+    public void destroy() {
+        scanPool.shutdownNow();
+    }
+
+    static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1000;
+    }
+
+    /**
+     * Column arrays of up to {@link #CHUNK_ROWS} rows, with the chunk's time
+     * range for skipping. The range only ever widens, so a reader that sees a
+     * newer range than its rows still skips correctly.
+     */
+    private static final class Chunk {
+        final long[] micros = new long[CHUNK_ROWS];
+        final int[] quantities = new int[CHUNK_ROWS];
+        final long[] prices = new long[CHUNK_ROWS];
+        final boolean[] buys = new boolean[CHUNK_ROWS];
+        final int[] instruments = new int[CHUNK_ROWS];
+        final int[] users = new int[CHUNK_ROWS];
+        volatile long minMicros = Long.MAX_VALUE;
+        volatile long maxMicros = Long.MIN_VALUE;
+    }
+
+    /**
+     * Dense int codes for sparse ids, so group accumulators can be arrays.
+     */
+    private static final class Dictionary {
+        final Map<Long, Integer> codes = new ConcurrentHashMap<>();
+        volatile long[] ids = new long[1024];
+
+        int encode(long id) {
+            Integer code = codes.get(id);
+            if (code != null) {
+                return code;
+            }
+            int next = codes.size();
+            if (next == ids.length) {
+                ids = Arrays.copyOf(ids, next * 2);
+            }
+            ids[next] = id;
+            codes.put(id, next);
+            return next;
+        }
+
+        int code(long id) {
+            return codes.getOrDefault(id, -1);
+        }
+
+        int size() {
+            return codes.size();
+        }
+    }
+
+    private static final class Columns {
+        final Dictionary instruments = new Dictionary();
+        final Dictionary users = new Dictionary();
+        volatile Chunk[] chunks = new Chunk[16];
+        volatile int size;
+
+        void append(long id, long userId, long instrumentId, int quantity, BigDecimal price, TradeSide side,
+                LocalDateTime timestamp) {
+            int row = size;
+            int c = row / CHUNK_ROWS;
+            if (c == chunks.length) {
+                chunks = Arrays.copyOf(chunks, c * 2);
+            }
+            if (chunks[c] == null) {
+                chunks[c] = new Chunk();
+            }
+            Chunk chunk = chunks[c];
+            int i = row % CHUNK_ROWS;
+            long micros = toMicros(timestamp);
+            chunk.micros[i] = micros;
+            chunk.quantities[i] = quantity;
+            chunk.prices[i] = MoneyUtils.scale(price).unscaledValue().longValueExact();
+            chunk.buys[i] = side == TradeSide.BUY;
+            chunk.instruments[i] = instruments.encode(instrumentId);
+            chunk.users[i] = users.encode(userId);
+            chunk.minMicros = Math.min(chunk.minMicros, micros);
+            chunk.maxMicros = Math.max(chunk.maxMicros, micros);
+            // Publishes the row to readers
+            size = row + 1;
+        }
+    }
+
+    /**
+     * A query bound to one snapshot: filter codes and the group mapping.
+     */
+    private record Scan(GroupBy groupBy, long lowerMicros, long upperMicros, long bucketMicros, int instrumentCode,
+            int userCode, int groups, Dictionary dictionary) {
+
+        /** Null when a filter names an id that has no rows. */
+        static Scan of(Query query, Columns columns) {
+            long from = query.from() != null ? toMicros(query.from()) : Long.MIN_VALUE;
+            long to = query.to() != null ? toMicros(query.to()) : Long.MAX_VALUE;
+            int instrumentCode = query.instrumentId() != null ? columns.instruments.code(query.instrumentId()) : -1;
+            int userCode = query.userId() != null ? columns.users.code(query.userId()) : -1;
+            if ((query.instrumentId() != null && instrumentCode < 0) || (query.userId() != null && userCode < 0)) {
+                return null;
+            }
+            return switch (query.groupBy()) {
+                case INSTRUMENT -> new Scan(GroupBy.INSTRUMENT, from, to, 0, instrumentCode, userCode,
+                        columns.instruments.size(), columns.instruments);
+                case USER -> new Scan(GroupBy.USER, from, to, 0, instrumentCode, userCode,
+                        columns.users.size(), columns.users);
+                case TIME -> {
+                    if (query.from() == null || query.to() == null || query.bucket() == null
+                            || query.bucket().isNegative() || query.bucket().isZero()) {
+                        throw new BadRequestException("Time grouping needs from, to and a positive bucket");
+                    }
+                    long bucket = query.bucket().toNanos() / 1000;
+                    long buckets = (to - from + bucket - 1) / bucket;
+                    if (bucket == 0 || buckets > MAX_BUCKETS) {
+                        throw new BadRequestException("At most " + MAX_BUCKETS + " time buckets are allowed");
+                    }
+                    yield new Scan(GroupBy.TIME, from, to, bucket, instrumentCode, userCode, (int) buckets, null);
+                }
+            };
+        }
+
+        void run(Chunk chunk, int length, int[] selection, Accumulator accumulator) {
+            if (chunk.maxMicros < lowerMicros || chunk.minMicros >= upperMicros) {
+                return;
+            }
+            // Pass 1: filter into a selection vector without branching on the outcome
+            long[] micros = chunk.micros;
+            int[] instruments = chunk.instruments;
+            int[] users = chunk.users;
+            int selected = 0;
+            for (int i = 0; i < length; i++) {
+                selection[selected] = i;
+                boolean keep = micros[i] >= lowerMicros & micros[i] < upperMicros
+                        & (instrumentCode < 0 | instruments[i] == instrumentCode)
+                        & (userCode < 0 | users[i] == userCode);
+                selected += keep ? 1 : 0;
+            }
+            // Pass 2: aggregate the selected rows by group
+            int[] quantities = chunk.quantities;
+            long[] prices = chunk.prices;
+            boolean[] buys = chunk.buys;
+            for (int s = 0; s < selected; s++) {
+                int i = selection[s];
+                int group = switch (groupBy) {
+                    case INSTRUMENT -> instruments[i];
+                    case USER -> users[i];
+                    case TIME -> (int) ((micros[i] - lowerMicros) / bucketMicros);
+                };
+                long quantity = quantities[i];
+                accumulator.trades[group]++;
+                if (buys[i]) {
+                    accumulator.buyQuantity[group] += quantity;
+                } else {
+                    accumulator.sellQuantity[group] += quantity;
+                }
+                accumulator.notional[group] = Math.addExact(accumulator.notional[group],
+                        Math.multiplyExact(quantity, prices[i]));
+            }
+        }
+    }
+
+    private static final class Accumulator {
+        final long[] trades;
+        final long[] buyQuantity;
+        final long[] sellQuantity;
+        /** Unscaled at PRICE_SCALE. */
+        final long[] notional;
+
+        Accumulator(int groups) {
+            trades = new long[groups];
+            buyQuantity = new long[groups];
+            sellQuantity = new long[groups];
+            notional = new long[groups];
+        }
+
+        Accumulator merge(Accumulator other) {
+            for (int g = 0; g < trades.length; g++) {
+                trades[g] += other.trades[g];
+                buyQuantity[g] += other.buyQuantity[g];
+                sellQuantity[g] += other.sellQuantity[g];
+                notional[g] = Math.addExact(notional[g], other.notional[g]);
+            }
+            return this;
+        }
+
+        List<Aggregate> results(Dictionary dictionary) {
+            List<Aggregate> results = new ArrayList<>();
+            long[] ids = dictionary != null ? dictionary.ids : null;
+            for (int g = 0; g < trades.length; g++) {
+                if (trades[g] > 0) {
+                    results.add(new Aggregate(ids != null ? ids[g] : g, trades[g], buyQuantity[g], sellQuantity[g],
+                            BigDecimal.valueOf(notional[g], MoneyUtils.PRICE_SCALE)));
+                }
+            }
+            log.debug("Trade scan produced {} groups", results.size());
+            return results;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.trade_risk_system.archive;
+
+import com.trade_risk_system.dto.response.AuditLogResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed CSV archive of dropped audit log partitions.
+ * One file per partition, named after its time range:
+ * {@code audit_logs_<from>_<to>.csv.gz} with bounds as {@code yyyyMMddHHmmss}.
+ * The lower bound is lowered to the oldest row when a partition has none or
+ * holds older rows, as the first partition of a table does; files from before
+ * that carry {@code min} instead. Files are read in order of their upper
+ * bounds. Rows are written in (timestamp, id) order. Shards other than the
+ * global one archive into a {@code shard-<n>} subdirectory.
+ */
+@Component
+public class AuditArchiveStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditArchiveStore.class);
+
+    private static final String HEADER = "id,user_id,action,timestamp";
+    private static final String OPEN_BOUND = "min";
+    private static final DateTimeFormatter FILE_BOUND = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final Pattern FILE_NAME = Pattern.compile("audit_logs_(min|\\d{14})_(\\d{14})\\.csv\\.gz");
+
+    private final Path directory;
+
+    public AuditArchiveStore(@Value("${application.audit.archive.directory:archive/audit}") String directory) {
+        this(Path.of(directory));
+    }
+
+    private AuditArchiveStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * The archive of one shard's audit partitions.
+     */
+    public AuditArchiveStore forShard(int shard) {
+        return shard == 0 ? this : new AuditArchiveStore(directory.resolve("shard-" + shard));
+    }
+
+    /**
+     * Opens a writer for one partition's rows. The file only becomes visible
+     * to readers once {@link ArchiveWriter#commit()} is called.
+     */
+    public ArchiveWriter openWriter(LocalDateTime from, LocalDateTime to) throws IOException {
+        Files.createDirectories(directory);
+        return new ArchiveWriter(directory, from, to);
+    }
+
+    private static String fileName(LocalDateTime from, LocalDateTime to) {
+        return "audit_logs_" + (from == null ? OPEN_BOUND : from.format(FILE_BOUND))
+                + "_" + to.format(FILE_BOUND) + ".csv.gz";
+    }
+
+    /**
+     * Reads archived rows with {@code start <= timestamp < end}, optionally
+     * filtered by user and action, in (timestamp, id) order.
+     */
+    public List<AuditLogResponse> read(LocalDateTime start, LocalDateTime end, Long userId, String action,
+            int limit) {
+        List<AuditLogResponse> results = new ArrayList<>();
+        for (ArchiveFile file : filesOverlapping(start, end)) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file.path()), 64 * 1024), StandardCharsets.UTF_8))) {
+                reader.readLine(); // header
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    AuditLogResponse row = parse(line);
+                    if (row.timestamp().isBefore(start)) {
+                        continue;
+                    }
+                    if (!row.timestamp().isBefore(end)) {
+                        break;
+                    }
+                    if ((userId == null || userId.equals(row.userId()))
+                            && (action == null || action.equals(row.action()))) {
+                        results.add(row);
+                        if (results.size() >= limit) {
+                            return results;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read audit archive " + file.path(), e);
+            }
+        }
+        return results;
+    }
+
+    private List<ArchiveFile> filesOverlapping(LocalDateTime start, LocalDateTime end) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<ArchiveFile> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "audit_logs_*.csv.gz")) {
+            for (Path path : stream) {
+                Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                LocalDateTime from = matcher.group(1).equals(OPEN_BOUND)
+                        ? LocalDateTime.MIN
+                        : LocalDateTime.parse(matcher.group(1), FILE_BOUND);
+                LocalDateTime to = LocalDateTime.parse(matcher.group(2), FILE_BOUND);
+                if (from.isBefore(end) && to.isAfter(start)) {
+                    files.add(new ArchiveFile(path, to));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list audit archive " + directory, e);
+        }
+        // Partition ranges do not overlap, so upper bounds order the files even when lower ones are unknown
+        files.sort(Comparator.comparing(ArchiveFile::to));
+        return files;
+    }
+
+    private static AuditLogResponse parse(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return new AuditLogResponse(
+                Long.valueOf(fields.get(0)),
+                fields.get(1).isEmpty() ? null : Long.valueOf(fields.get(1)),
+                fields.get(2),
+                LocalDateTime.parse(fields.get(3)));
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record ArchiveFile(Path path, LocalDateTime to) {
+    }
+
+    /**
+     * Streams rows into a temporary file that is atomically renamed on commit.
+     */
+    public static final class ArchiveWriter implements Closeable {
+
+        private final Path directory;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final Path temp;
+        private final BufferedWriter writer;
+        private LocalDateTime oldest;
+        private long rows;
+        private boolean committed;
+
+        private ArchiveWriter(Path directory, LocalDateTime from, LocalDateTime to) throws IOException {
+            this.directory = directory;
+            this.from = from;
+            this.to = to;
+            this.temp = directory.resolve(fileName(from, to) + ".tmp");
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024), StandardCharsets.UTF_8));
+            writer.write(HEADER);
+            writer.newLine();
+        }
+
+        public void write(long id, Long userId, String action, LocalDateTime timestamp) throws IOException {
+            writer.write(Long.toString(id));
+            writer.write(',');
+            writer.write(userId == null ? "" : userId.toString());
+            writer.write(',');
+            writer.write(escape(action));
+            writer.write(',');
+            writer.write(timestamp.toString());
+            writer.newLine();
+            if (rows == 0) {
+                oldest = timestamp;
+            }
+            rows++;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * Flushes the file and publishes it under its final name, whose lower
+         * bound is the partition's or the oldest row's, whichever is earlier.
+         */
+        public Path commit() throws IOException {
+            writer.close();
+            LocalDateTime lower = from;
+            if (oldest != null && (lower == null || oldest.isBefore(lower))) {
+                lower = oldest.truncatedTo(ChronoUnit.SECONDS);
+            }
+            Path target = directory.resolve(fileName(lower != null ? lower : to, to));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return target;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                writer.close();
+                Files.deleteIfExists(temp);
+                log.warn("Discarded incomplete audit archive {}", temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.trade_risk_system.archive;
+
+import java.time.LocalDate;
+
+/**
+ * Width of one time-range partition.
+ */
+public enum PartitionGranularity {
+    DAY,
+    MONTH;
+
+    /**
+     * Start of the period containing the given date.
+     */
+    public LocalDate floor(LocalDate date) {
+        return this == DAY ? date : date.withDayOfMonth(1);
+    }
+
+    /**
+     * Start of the period following the one containing the given date.
+     */
+    public LocalDate next(LocalDate date) {
+        return this == DAY ? floor(date).plusDays(1) : floor(date).plusMonths(1);
+    }
+}
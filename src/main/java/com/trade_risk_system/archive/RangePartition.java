@@ -0,0 +1,18 @@
+package com.trade_risk_system.archive;
+
+import java.time.LocalDateTime;
+
+/**
+ * One partition of a table range-partitioned on a DATETIME column.
+ *
+ * @param name       partition name
+ * @param lowerBound inclusive lower bound, or null for a first partition that holds
+ *                   every older row
+ * @param upperBound exclusive upper bound, or null for the MAXVALUE partition
+ */
+public record RangePartition(String name, LocalDateTime lowerBound, LocalDateTime upperBound) {
+
+    public boolean isCatchAll() {
+        return upperBound == null;
+    }
+}
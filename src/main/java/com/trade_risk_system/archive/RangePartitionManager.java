@@ -0,0 +1,269 @@
+package com.trade_risk_system.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the partitions of a MySQL table that is {@code RANGE COLUMNS}
+ * partitioned on a DATETIME column.
+ *
+ * Layout convention: one partition per period named {@code p_yyyyMMdd} after
+ * its lower bound, plus a trailing {@code p_future VALUES LESS THAN (MAXVALUE)}
+ * catch-all that new periods are split off from. Partitions created by a
+ * migration may use other names; only their bounds matter.
+ *
+ * MySQL stores only upper bounds. Each partition's lower bound is the upper
+ * bound of the one before it; the first partition's comes from its name, so
+ * it stays known after older partitions are dropped. A first partition with
+ * another name (a migration's history partition) has no lower bound.
+ *
+ * The migrations end their history partition at a fixed date. Applied after
+ * that date, newer rows land in the catch-all and are moved into periods by
+ * {@link #ensureFuturePartitions}; applied before it, the history partition
+ * would hold the current periods, so {@link #repairHistoryPartition} splits
+ * them off at startup.
+ */
+public class RangePartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(RangePartitionManager.class);
+
+    public static final String CATCH_ALL = "p_future";
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_]+");
+    private static final Pattern PERIOD_NAME = Pattern.compile("p_(\\d{8})");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter BOUND_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd[ HH:mm:ss]")
+            .optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true).optionalEnd()
+            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+            .toFormatter();
+    private static final DateTimeFormatter SQL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final PartitionGranularity granularity;
+
+    public RangePartitionManager(JdbcTemplate jdbcTemplate, String table, PartitionGranularity granularity) {
+        if (!IDENTIFIER.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid table name: " + table);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.granularity = granularity;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Lists the table's partitions in bound order; empty if the table is not
+     * partitioned.
+     */
+    public List<RangePartition> listPartitions() {
+        List<String[]> rows = jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM INFORMATION_SCHEMA.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new String[] { rs.getString(1), rs.getString(2) },
+                table);
+
+        List<RangePartition> partitions = new ArrayList<>(rows.size());
+        LocalDateTime lower = rows.isEmpty() ? null : boundFromName(rows.get(0)[0], parseBound(rows.get(0)[1]));
+        for (String[] row : rows) {
+            LocalDateTime upper = parseBound(row[1]);
+            partitions.add(new RangePartition(row[0], lower, upper));
+            lower = upper;
+        }
+        return partitions;
+    }
+
+    /**
+     * Makes sure partitions exist up to the end of the period {@code periodsAhead}
+     * periods after the one containing {@code today}, splitting them off the
+     * catch-all partition.
+     *
+     * @return names of the partitions created
+     */
+    public List<String> ensureFuturePartitions(LocalDate today, int periodsAhead) {
+        List<RangePartition> partitions = listPartitions();
+        if (partitions.isEmpty()) {
+            log.warn("Table {} is not partitioned; skipping partition maintenance", table);
+            return List.of();
+        }
+
+        LocalDate target = granularity.next(today);
+        for (int i = 0; i < periodsAhead; i++) {
+            target = granularity.next(target);
+        }
+
+        LocalDate lower = partitions.stream()
+                .map(RangePartition::upperBound)
+                .filter(bound -> bound != null)
+                .reduce((first, second) -> second)
+                .map(LocalDateTime::toLocalDate)
+                .orElse(granularity.floor(today));
+
+        List<String> names = new ArrayList<>();
+        List<String> definitions = new ArrayList<>();
+        while (lower.isBefore(target)) {
+            LocalDate upper = granularity.next(lower);
+            String name = "p_" + lower.format(NAME_FORMAT);
+            names.add(name);
+            definitions.add("PARTITION " + name + " VALUES LESS THAN ('" + upper.atStartOfDay().format(SQL_FORMAT) + "')");
+            lower = upper;
+        }
+        if (names.isEmpty()) {
+            return names;
+        }
+
+        boolean hasCatchAll = partitions.get(partitions.size() - 1).isCatchAll();
+        if (hasCatchAll) {
+            String catchAll = partitions.get(partitions.size() - 1).name();
+            definitions.add("PARTITION " + catchAll + " VALUES LESS THAN (MAXVALUE)");
+            jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + catchAll
+                    + " INTO (" + String.join(", ", definitions) + ")");
+        } else {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD PARTITION (" + String.join(", ", definitions) + ")");
+        }
+        log.info("PARTITIONS_CREATED | Table: {} | Partitions: {}", table, names);
+        return names;
+    }
+
+    /**
+     * Splits the periods from the one containing {@code today} onwards off a
+     * history partition (a first partition without a lower bound) that reaches
+     * past the start of that period, so the history partition only holds rows
+     * older than the periods being maintained. Nothing is done otherwise.
+     *
+     * @return names of the partitions created
+     */
+    public List<String> repairHistoryPartition(LocalDate today) {
+        List<RangePartition> partitions = listPartitions();
+        if (partitions.isEmpty()) {
+            return List.of();
+        }
+        RangePartition history = partitions.get(0);
+        LocalDateTime current = granularity.floor(today).atStartOfDay();
+        if (history.lowerBound() != null || history.isCatchAll() || !history.upperBound().isAfter(current)) {
+            return List.of();
+        }
+
+        List<String> names = new ArrayList<>();
+        List<String> definitions = new ArrayList<>();
+        definitions.add("PARTITION " + history.name() + " VALUES LESS THAN ('" + current.format(SQL_FORMAT) + "')");
+        LocalDate lower = current.toLocalDate();
+        while (lower.atStartOfDay().isBefore(history.upperBound())) {
+            LocalDateTime upper = granularity.next(lower).atStartOfDay();
+            if (upper.isAfter(history.upperBound())) {
+                upper = history.upperBound();
+            }
+            String name = "p_" + lower.format(NAME_FORMAT);
+            names.add(name);
+            definitions.add("PARTITION " + name + " VALUES LESS THAN ('" + upper.format(SQL_FORMAT) + "')");
+            lower = upper.toLocalDate();
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + history.name()
+                + " INTO (" + String.join(", ", definitions) + ")");
+        log.info("PARTITIONS_REPAIRED | Table: {} | History ends: {} | Partitions: {}", table, current, names);
+        return names;
+    }
+
+    /**
+     * Partitions whose whole range lies before {@code cutoff}, oldest first.
+     * The catch-all partition is never returned.
+     */
+    public List<RangePartition> partitionsEndingBefore(LocalDateTime cutoff) {
+        return listPartitions().stream()
+                .filter(partition -> !partition.isCatchAll())
+                .filter(partition -> !partition.upperBound().isAfter(cutoff))
+                .toList();
+    }
+
+    /**
+     * Lower bound of the oldest partition still holding data, if any.
+     */
+    public Optional<LocalDateTime> oldestRetainedBound() {
+        List<RangePartition> partitions = listPartitions();
+        return partitions.isEmpty() ? Optional.empty() : Optional.ofNullable(partitions.get(0).lowerBound());
+    }
+
+    public void dropPartition(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid partition name: " + name);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + name);
+        log.info("PARTITION_DROPPED | Table: {} | Partition: {}", table, name);
+    }
+
+    /**
+     * Runs the work while holding a MySQL named lock for this table, so only
+     * one instance maintains partitions at a time.
+     *
+     * @return the work's result, or empty if another instance holds the lock
+     */
+    public <T> Optional<T> withMaintenanceLock(Supplier<T> work) {
+        String lockName = "partition_maintenance:" + table;
+        return jdbcTemplate.execute((ConnectionCallback<Optional<T>>) connection -> {
+            try (PreparedStatement acquire = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+                acquire.setString(1, lockName);
+                try (ResultSet rs = acquire.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        log.info("Partition maintenance for {} is running elsewhere; skipping", table);
+                        return Optional.empty();
+                    }
+                }
+            }
+            try {
+                return Optional.ofNullable(work.get());
+            } finally {
+                try (PreparedStatement release = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, lockName);
+                    release.execute();
+                }
+            }
+        });
+    }
+
+    /**
+     * Lower bound encoded in a {@code p_yyyyMMdd} name, or null if the name
+     * does not follow the convention or does not fit below the upper bound.
+     */
+    static LocalDateTime boundFromName(String name, LocalDateTime upper) {
+        Matcher matcher = PERIOD_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            LocalDateTime bound = LocalDate.parse(matcher.group(1), NAME_FORMAT).atStartOfDay();
+            return upper == null || bound.isBefore(upper) ? bound : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        return LocalDateTime.parse(value, BOUND_FORMAT);
+    }
+}
@@ -0,0 +1,477 @@
+package com.trade_risk_system.archive;
+
+import com.trade_risk_system.dto.common.KeysetCursor;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import com.trade_risk_system.util.MoneyUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Columnar archive of dropped trade partitions.
+ * One file per partition, named {@code trades_<from>_<to>.tcol} like the audit
+ * archive, with the lower bound lowered to the oldest row when needed and
+ * files read in order of their upper bounds. Rows are stored in (timestamp, id) order in row groups of up to
+ * {@value #ROW_GROUP_ROWS} rows. Each group starts with an uncompressed header
+ * (row count, min and max timestamp, compressed length) so readers can skip
+ * groups outside a query's range without inflating them. The group body is
+ * deflate-compressed and holds one column after the other: ids and timestamps
+ * delta-encoded, prices as unscaled longs at {@link MoneyUtils#PRICE_SCALE},
+ * and symbol, side and status dictionary-encoded.
+ *
+ * Shards other than the global one archive into a {@code shard-<n>}
+ * subdirectory.
+ */
+@Component
+public class TradeArchiveStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeArchiveStore.class);
+
+    static final int ROW_GROUP_ROWS = 16_384;
+
+    private static final int MAGIC = 0x54524331; // "TRC1"
+    private static final int GROUP_HEADER_BYTES = Integer.BYTES + 2 * Long.BYTES + Integer.BYTES;
+    private static final String OPEN_BOUND = "min";
+    private static final DateTimeFormatter FILE_BOUND = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final Pattern FILE_NAME = Pattern.compile("trades_(min|\\d{14})_(\\d{14})\\.tcol");
+
+    /**
+     * Rows to read; every field is optional.
+     *
+     * @param from   inclusive lower bound on timestamp
+     * @param to     exclusive upper bound on timestamp
+     * @param before only rows before this position in (timestamp, id) order
+     */
+    public record Filter(Long instrumentId, Long userId, LocalDateTime from, LocalDateTime to,
+            KeysetCursor before) {
+
+        boolean matches(TradeResponse row) {
+            return (instrumentId == null || instrumentId.equals(row.instrumentId()))
+                    && (userId == null || userId.equals(row.userId()))
+                    && (from == null || !row.timestamp().isBefore(from))
+                    && (to == null || row.timestamp().isBefore(to))
+                    && (before == null || row.timestamp().isBefore(before.timestamp())
+                            || (row.timestamp().equals(before.timestamp()) && row.id() < before.id()));
+        }
+
+        /** Whether a row group may hold matching rows; bounds are compared loosely. */
+        boolean overlaps(long minMicros, long maxMicros) {
+            return (from == null || maxMicros >= toMicros(from))
+                    && (to == null || minMicros <= toMicros(to))
+                    && (before == null || minMicros <= toMicros(before.timestamp()));
+        }
+    }
+
+    private final Path directory;
+
+    public TradeArchiveStore(@Value("${application.trades.archive.directory:archive/trades}") String directory) {
+        this(Path.of(directory));
+    }
+
+    private TradeArchiveStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * The archive of one shard's trade partitions.
+     */
+    public TradeArchiveStore forShard(int shard) {
+        return shard == 0 ? this : new TradeArchiveStore(directory.resolve("shard-" + shard));
+    }
+
+    /**
+     * Opens a writer for one partition's rows. The file only becomes visible
+     * to readers once {@link ArchiveWriter#commit()} is called.
+     */
+    public ArchiveWriter openWriter(LocalDateTime from, LocalDateTime to) throws IOException {
+        Files.createDirectories(directory);
+        return new ArchiveWriter(directory, from, to);
+    }
+
+    private static String fileName(LocalDateTime from, LocalDateTime to) {
+        return "trades_" + (from == null ? OPEN_BOUND : from.format(FILE_BOUND))
+                + "_" + to.format(FILE_BOUND) + ".tcol";
+    }
+
+    /**
+     * End of the archived time range: everything before it may be archived.
+     * Null when nothing is archived.
+     */
+    public LocalDateTime archivedUntil() {
+        List<ArchiveFile> files = listFiles();
+        return files.isEmpty() ? null : files.get(files.size() - 1).to();
+    }
+
+    /**
+     * Visits archived rows matching the filter in (timestamp, id) order, or
+     * the reverse, until the visitor returns false.
+     */
+    public void scan(Filter filter, boolean newestFirst, Predicate<TradeResponse> visitor) {
+        List<ArchiveFile> files = new ArrayList<>();
+        for (ArchiveFile file : listFiles()) {
+            if ((filter.from() == null || file.to().isAfter(filter.from()))
+                    && (filter.to() == null || file.from().isBefore(filter.to()))
+                    && (filter.before() == null || !file.from().isAfter(filter.before().timestamp()))) {
+                files.add(file);
+            }
+        }
+        if (newestFirst) {
+            Collections.reverse(files);
+        }
+        for (ArchiveFile file : files) {
+            if (!scanFile(file.path(), filter, newestFirst, visitor)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads up to {@code limit} matching rows after skipping {@code skip} of them.
+     */
+    public List<TradeResponse> read(Filter filter, boolean newestFirst, long skip, int limit) {
+        List<TradeResponse> rows = new ArrayList<>(Math.min(limit, ROW_GROUP_ROWS));
+        long[] skipped = { 0 };
+        if (limit > 0) {
+            scan(filter, newestFirst, row -> {
+                if (skipped[0] < skip) {
+                    skipped[0]++;
+                    return true;
+                }
+                rows.add(row);
+                return rows.size() < limit;
+            });
+        }
+        return rows;
+    }
+
+    private boolean scanFile(Path path, Filter filter, boolean newestFirst, Predicate<TradeResponse> visitor) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = readFully(channel, 0, Integer.BYTES);
+            if (magic.getInt() != MAGIC) {
+                throw new IOException("Not a trade archive file");
+            }
+            List<GroupHeader> groups = new ArrayList<>();
+            long position = Integer.BYTES;
+            while (true) {
+                ByteBuffer header = readFully(channel, position, GROUP_HEADER_BYTES);
+                int rows = header.getInt();
+                if (rows == 0) {
+                    break;
+                }
+                GroupHeader group = new GroupHeader(rows, header.getLong(), header.getLong(), header.getInt(),
+                        position + GROUP_HEADER_BYTES);
+                if (filter.overlaps(group.minMicros(), group.maxMicros())) {
+                    groups.add(group);
+                }
+                position = group.bodyPosition() + group.compressedLength();
+            }
+            if (newestFirst) {
+                Collections.reverse(groups);
+            }
+            for (GroupHeader group : groups) {
+                ByteBuffer body = readFully(channel, group.bodyPosition(), group.compressedLength());
+                Columns columns = Columns.decode(body.array(), group.rows());
+                for (int i = 0; i < group.rows(); i++) {
+                    TradeResponse row = columns.row(newestFirst ? group.rows() - 1 - i : i);
+                    if (filter.matches(row) && !visitor.test(row)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read trade archive " + path, e);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated trade archive file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private List<ArchiveFile> listFiles() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<ArchiveFile> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "trades_*.tcol")) {
+            for (Path path : stream) {
+                Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                LocalDateTime from = matcher.group(1).equals(OPEN_BOUND)
+                        ? LocalDateTime.MIN
+                        : LocalDateTime.parse(matcher.group(1), FILE_BOUND);
+                files.add(new ArchiveFile(path, from, LocalDateTime.parse(matcher.group(2), FILE_BOUND)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list trade archive " + directory, e);
+        }
+        // Partition ranges do not overlap, so upper bounds order the files even when lower ones are unknown
+        files.sort(Comparator.comparing(ArchiveFile::to));
+        return files;
+    }
+
+    static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    private record ArchiveFile(Path path, LocalDateTime from, LocalDateTime to) {
+    }
+
+    private record GroupHeader(int rows, long minMicros, long maxMicros, int compressedLength, long bodyPosition) {
+    }
+
+    /**
+     * One decoded row group.
+     */
+    private record Columns(long[] ids, long[] userIds, long[] instrumentIds, String[] symbols, int[] quantities,
+            long[] prices, String[] sides, String[] statuses, long[] micros) {
+
+        static Columns decode(byte[] compressed, int rows) throws IOException {
+            try (DataInputStream in = new DataInputStream(
+                    new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+                return new Columns(readDeltas(in, rows), readLongs(in, rows), readLongs(in, rows),
+                        readDictionary(in, rows), readInts(in, rows), readLongs(in, rows),
+                        readDictionary(in, rows), readDictionary(in, rows), readDeltas(in, rows));
+            }
+        }
+
+        TradeResponse row(int i) {
+            return new TradeResponse(ids[i], userIds[i], instrumentIds[i], symbols[i], quantities[i],
+                    BigDecimal.valueOf(prices[i], MoneyUtils.PRICE_SCALE), TradeSide.valueOf(sides[i]),
+                    TradeStatus.valueOf(statuses[i]), fromMicros(micros[i]));
+        }
+
+        private static long[] readLongs(DataInputStream in, int rows) throws IOException {
+            long[] values = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = in.readLong();
+            }
+            return values;
+        }
+
+        private static long[] readDeltas(DataInputStream in, int rows) throws IOException {
+            long[] values = readLongs(in, rows);
+            for (int i = 1; i < rows; i++) {
+                values[i] += values[i - 1];
+            }
+            return values;
+        }
+
+        private static int[] readInts(DataInputStream in, int rows) throws IOException {
+            int[] values = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = in.readInt();
+            }
+            return values;
+        }
+
+        private static String[] readDictionary(DataInputStream in, int rows) throws IOException {
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = in.readUTF();
+            }
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = dictionary[in.readInt()];
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Buffers rows into column arrays, writes a compressed row group every
+     * {@value #ROW_GROUP_ROWS} rows, and atomically publishes the file on commit.
+     * Rows must be written in (timestamp, id) order.
+     */
+    public static final class ArchiveWriter implements Closeable {
+
+        private final Path directory;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final Path temp;
+        private final DataOutputStream out;
+        private final long[] ids = new long[ROW_GROUP_ROWS];
+        private final long[] userIds = new long[ROW_GROUP_ROWS];
+        private final long[] instrumentIds = new long[ROW_GROUP_ROWS];
+        private final String[] symbols = new String[ROW_GROUP_ROWS];
+        private final int[] quantities = new int[ROW_GROUP_ROWS];
+        private final long[] prices = new long[ROW_GROUP_ROWS];
+        private final String[] sides = new String[ROW_GROUP_ROWS];
+        private final String[] statuses = new String[ROW_GROUP_ROWS];
+        private final long[] micros = new long[ROW_GROUP_ROWS];
+        private int buffered;
+        private long rows;
+        private long oldestMicros;
+        private boolean committed;
+
+        private ArchiveWriter(Path directory, LocalDateTime from, LocalDateTime to) throws IOException {
+            this.directory = directory;
+            this.from = from;
+            this.to = to;
+            this.temp = directory.resolve(fileName(from, to) + ".tmp");
+            this.out = new DataOutputStream(Files.newOutputStream(temp));
+            out.writeInt(MAGIC);
+        }
+
+        public void write(long id, long userId, long instrumentId, String symbol, int quantity, BigDecimal price,
+                String side, String status, LocalDateTime timestamp) throws IOException {
+            ids[buffered] = id;
+            userIds[buffered] = userId;
+            instrumentIds[buffered] = instrumentId;
+            symbols[buffered] = symbol != null ? symbol : "";
+            quantities[buffered] = quantity;
+            prices[buffered] = MoneyUtils.scale(price).unscaledValue().longValueExact();
+            sides[buffered] = side;
+            statuses[buffered] = status;
+            micros[buffered] = toMicros(timestamp);
+            if (rows == 0) {
+                oldestMicros = micros[buffered];
+            }
+            buffered++;
+            rows++;
+            if (buffered == ROW_GROUP_ROWS) {
+                flushGroup();
+            }
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * Writes the last row group and publishes the file under its final
+         * name, whose lower bound is the partition's or the oldest row's,
+         * whichever is earlier.
+         */
+        public Path commit() throws IOException {
+            flushGroup();
+            out.writeInt(0);
+            out.writeLong(0);
+            out.writeLong(0);
+            out.writeInt(0);
+            out.close();
+            LocalDateTime lower = from;
+            if (rows > 0) {
+                LocalDateTime oldest = fromMicros(oldestMicros).truncatedTo(ChronoUnit.SECONDS);
+                if (lower == null || oldest.isBefore(lower)) {
+                    lower = oldest;
+                }
+            }
+            Path target = directory.resolve(fileName(lower != null ? lower : to, to));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return target;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temp);
+                log.warn("Discarded incomplete trade archive {}", temp);
+            }
+        }
+
+        private void flushGroup() throws IOException {
+            if (buffered == 0) {
+                return;
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream(buffered * 16);
+            try (DataOutputStream columns = new DataOutputStream(
+                    new DeflaterOutputStream(body, new Deflater(Deflater.BEST_COMPRESSION), 64 * 1024))) {
+                writeDeltas(columns, ids);
+                writeLongs(columns, userIds);
+                writeLongs(columns, instrumentIds);
+                writeDictionary(columns, symbols);
+                for (int i = 0; i < buffered; i++) {
+                    columns.writeInt(quantities[i]);
+                }
+                writeLongs(columns, prices);
+                writeDictionary(columns, sides);
+                writeDictionary(columns, statuses);
+                writeDeltas(columns, micros);
+            }
+            out.writeInt(buffered);
+            out.writeLong(micros[0]);
+            out.writeLong(micros[buffered - 1]);
+            out.writeInt(body.size());
+            body.writeTo(out);
+            buffered = 0;
+        }
+
+        private void writeLongs(DataOutputStream columns, long[] values) throws IOException {
+            for (int i = 0; i < buffered; i++) {
+                columns.writeLong(values[i]);
+            }
+        }
+
+        private void writeDeltas(DataOutputStream columns, long[] values) throws IOException {
+            columns.writeLong(values[0]);
+            for (int i = 1; i < buffered; i++) {
+                columns.writeLong(values[i] - values[i - 1]);
+            }
+        }
+
+        private void writeDictionary(DataOutputStream columns, String[] values) throws IOException {
+            Map<String, Integer> dictionary = new LinkedHashMap<>();
+            for (int i = 0; i < buffered; i++) {
+                dictionary.putIfAbsent(values[i], dictionary.size());
+            }
+            columns.writeInt(dictionary.size());
+            for (String value : dictionary.keySet()) {
+                columns.writeUTF(value);
+            }
+            for (int i = 0; i < buffered; i++) {
+                columns.writeInt(dictionary.get(values[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.trade_risk_system.batch;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * {@code /actuator/batch}: progress and throughput of each job's latest
+ * execution on this instance. A POST to {@code /actuator/batch/{job}} starts
+ * or restarts the job, for today unless {@code businessDate} is given.
+ */
+@Component
+@Endpoint(id = "batch")
+public class BatchEndpoint {
+
+    private final BatchJobLauncher launcher;
+
+    public BatchEndpoint(BatchJobLauncher launcher) {
+        this.launcher = launcher;
+    }
+
+    @ReadOperation
+    public Map<String, Object> jobs() {
+        return Map.of("jobs", launcher.jobNames(), "executions", launcher.reports());
+    }
+
+    @ReadOperation
+    public BatchJobProgress.JobReport job(@Selector String name) {
+        return launcher.report(name).orElse(null);
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(@Selector String name, @Nullable String businessDate) {
+        LocalDate date = businessDate != null ? LocalDate.parse(businessDate) : LocalDate.now();
+        boolean accepted = launcher.start(name, date);
+        return Map.of("job", name, "businessDate", date, "accepted", accepted);
+    }
+}
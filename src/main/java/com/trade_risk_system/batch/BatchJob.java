@@ -0,0 +1,11 @@
+package com.trade_risk_system.batch;
+
+import java.util.List;
+
+/**
+ * A named sequence of steps, run once per business date by
+ * {@link BatchJobLauncher}. Each step finishes on every shard before the next
+ * one starts.
+ */
+public record BatchJob(String name, List<BatchStep<?>> steps) {
+}
@@ -0,0 +1,468 @@
+package com.trade_risk_system.batch;
+
+import com.trade_risk_system.datasource.WorkloadContext;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.exception.ResourceNotFoundException;
+import com.trade_risk_system.sharding.ShardContext;
+import com.trade_risk_system.sharding.ShardDirectory;
+import com.trade_risk_system.sharding.ShardIds;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@link BatchJob}s: restartable, checkpointed and partitioned by
+ * portfolio id range.
+ * Each step splits every shard's portfolio ids into
+ * {@code partitions-per-shard} ranges and works through them on
+ * {@code parallelism} threads, {@code chunk-size} portfolios per transaction.
+ * A chunk commits with its checkpoint, so a failed or interrupted execution
+ * restarted for the same business date resumes after the last committed
+ * chunk. Transient database errors are retried with backoff; any other
+ * failure writes the chunk again item by item and skips the items that still
+ * fail, up to {@code skip-limit} per step. Only one instance runs a job at a
+ * time.
+ */
+@Component
+public class BatchJobLauncher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchJobLauncher.class);
+
+    private static final String RANGE_SQL = "SELECT MIN(id), MAX(id) FROM portfolios";
+    private static final String CHUNK_SQL = "SELECT id FROM portfolios WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+
+    private record ChunkResult(long lastId, long read, long written, long skipped) {
+    }
+
+    private static class SkipLimitExceededException extends RuntimeException {
+        SkipLimitExceededException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final Map<String, BatchJob> jobs;
+    private final BatchJobRepository repository;
+    private final ShardDirectory shardDirectory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final TransactionTemplate itemTransaction;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService workers;
+    private final ExecutorService coordinator;
+    private final Map<String, BatchJobProgress> progress = new ConcurrentHashMap<>();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    @Value("${application.batch.partitions-per-shard:8}")
+    private int partitionsPerShard;
+
+    @Value("${application.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${application.batch.retry-limit:3}")
+    private int retryLimit;
+
+    @Value("${application.batch.retry-backoff:200ms}")
+    private Duration retryBackoff;
+
+    @Value("${application.batch.skip-limit:100}")
+    private long skipLimit;
+
+    public BatchJobLauncher(List<BatchJob> jobs,
+            BatchJobRepository repository,
+            ShardDirectory shardDirectory,
+            JdbcTemplate jdbcTemplate,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${application.batch.parallelism:3}") int parallelism) {
+        this.jobs = jobs.stream().collect(Collectors.toUnmodifiableMap(BatchJob::name, Function.identity()));
+        this.repository = repository;
+        this.shardDirectory = shardDirectory;
+        this.jdbcTemplate = jdbcTemplate;
+        // Steps are plain JDBC; unlike the JPA transaction manager, this one
+        // supports the savepoints used to skip single items
+        PlatformTransactionManager transactionManager = new DataSourceTransactionManager(
+                Objects.requireNonNull(jdbcTemplate.getDataSource()));
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.itemTransaction = new TransactionTemplate(transactionManager);
+        this.itemTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.workers = Executors.newFixedThreadPool(Math.max(1, parallelism), daemonThreads("batch-worker-"));
+        this.coordinator = Executors.newSingleThreadExecutor(daemonThreads("batch-job-"));
+    }
+
+    /**
+     * Runs the job for the business date and blocks until it ends. Returns
+     * empty when another instance is running it.
+     */
+    public Optional<BatchJobProgress.JobReport> run(String jobName, LocalDate businessDate) {
+        BatchJob job = requireJob(jobName);
+        if (!running.add(jobName)) {
+            throw new BadRequestException("Batch job " + jobName + " is already running");
+        }
+        try {
+            return WorkloadContext.call(WorkloadType.ANALYTICS, () -> ShardContext.call(ShardIds.GLOBAL_SHARD,
+                    () -> withJobLock(jobName, () -> execute(job, businessDate))));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            running.remove(jobName);
+        }
+    }
+
+    /**
+     * Starts the job in the background.
+     *
+     * @return false if it is already running on this instance
+     */
+    public boolean start(String jobName, LocalDate businessDate) {
+        requireJob(jobName);
+        if (running.contains(jobName)) {
+            return false;
+        }
+        coordinator.submit(() -> {
+            try {
+                run(jobName, businessDate);
+            } catch (RuntimeException e) {
+                log.error("Batch job {} for {} could not run: {}", jobName, businessDate, e.getMessage(), e);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Progress of each job's latest execution on this instance.
+     */
+    public List<BatchJobProgress.JobReport> reports() {
+        return progress.values().stream()
+                .map(BatchJobProgress::report)
+                .sorted(Comparator.comparing(BatchJobProgress.JobReport::job))
+                .toList();
+    }
+
+    public Optional<BatchJobProgress.JobReport> report(String jobName) {
+        return Optional.ofNullable(progress.get(jobName)).map(BatchJobProgress::report);
+    }
+
+    public Set<String> jobNames() {
+        return jobs.keySet();
+    }
+
+    /**
+     * Runs the job on the calling thread without the cross-instance lock.
+     */
+    BatchJobProgress.JobReport execute(BatchJob job, LocalDate businessDate) {
+        BatchJobProgress jobProgress = new BatchJobProgress(job, businessDate);
+        BatchJobRepository.JobExecution execution = ShardContext.call(ShardIds.GLOBAL_SHARD,
+                () -> repository.startExecution(job.name(), businessDate));
+        jobProgress.started(execution);
+        progress.put(job.name(), jobProgress);
+        if (execution.status() == BatchStatus.COMPLETED) {
+            log.info("BATCH_JOB_SKIPPED | Job: {} | Date: {} | Reason: already completed", job.name(), businessDate);
+            jobProgress.finish(BatchStatus.COMPLETED, "Already completed");
+            return jobProgress.report();
+        }
+
+        log.info("BATCH_JOB_START | Job: {} | Date: {} | Restart: {}", job.name(), businessDate,
+                execution.restarted());
+        long start = System.nanoTime();
+        String message = null;
+        try {
+            for (BatchStep<?> step : job.steps()) {
+                runStep(job, step, businessDate, jobProgress.step(step.name()));
+            }
+            jobProgress.finish(BatchStatus.COMPLETED, null);
+        } catch (RuntimeException e) {
+            message = e.getMessage();
+            jobProgress.finish(BatchStatus.FAILED, message);
+            log.error("Batch job {} for {} failed: {}", job.name(), businessDate, message, e);
+        }
+        String exitMessage = message;
+        ShardContext.call(ShardIds.GLOBAL_SHARD, () -> {
+            repository.finishExecution(execution.id(), jobProgress.status(), exitMessage);
+            return null;
+        });
+        log.info("BATCH_JOB_DONE | Job: {} | Date: {} | Status: {} | Duration: {}ms", job.name(), businessDate,
+                jobProgress.status(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return jobProgress.report();
+    }
+
+    private <T> void runStep(BatchJob job, BatchStep<T> step, LocalDate businessDate,
+            BatchJobProgress.StepProgress stepProgress) {
+        stepProgress.start();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int shard = 0; shard < shardDirectory.getShardCount(); shard++) {
+            int target = shard;
+            List<BatchJobRepository.StepPartition> partitions = ShardContext.call(target,
+                    () -> repository.partitions(job.name(), businessDate, step.name(), idRanges()));
+            for (BatchJobRepository.StepPartition partition : partitions) {
+                stepProgress.addPartition(partition);
+                if (partition.status() != BatchStatus.COMPLETED) {
+                    tasks.add(() -> WorkloadContext.call(WorkloadType.ANALYTICS, () -> ShardContext.call(target,
+                            () -> {
+                                runPartition(step, partition, stepProgress);
+                                return null;
+                            })));
+                }
+            }
+        }
+
+        List<Future<Void>> futures = tasks.stream().map(workers::submit).toList();
+        int failed = 0;
+        Throwable firstFailure = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failed++;
+                if (firstFailure == null) {
+                    firstFailure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                stepProgress.finish(BatchStatus.FAILED);
+                throw new IllegalStateException("Interrupted while running step " + step.name(), e);
+            }
+        }
+
+        stepProgress.finish(failed == 0 ? BatchStatus.COMPLETED : BatchStatus.FAILED);
+        BatchJobProgress.StepReport report = stepProgress.report();
+        log.info("BATCH_STEP_DONE | Job: {} | Step: {} | Status: {} | Written: {} | Skipped: {} | Retries: {} "
+                + "| Duration: {}ms | Rate: {}/s", job.name(), step.name(), report.status(), report.written(),
+                report.skipped(), report.retries(), report.durationMs(), report.itemsPerSecond());
+        if (failed > 0) {
+            throw new IllegalStateException("Step " + step.name() + " failed in " + failed + " partition(s): "
+                    + firstFailure.getMessage(), firstFailure);
+        }
+    }
+
+    private <T> void runPartition(BatchStep<T> step, BatchJobRepository.StepPartition partition,
+            BatchJobProgress.StepProgress stepProgress) {
+        try {
+            long afterId = partition.checkpointId();
+            ChunkResult chunk;
+            while ((chunk = runChunk(step, partition, afterId, stepProgress)) != null) {
+                afterId = chunk.lastId();
+            }
+            repository.finishPartition(partition, BatchStatus.COMPLETED);
+            stepProgress.partitionCompleted();
+        } catch (RuntimeException e) {
+            log.error("Batch step {} failed in partition {} after id {}: {}", step.name(),
+                    partition.partitionNo(), partition.checkpointId(), e.getMessage());
+            try {
+                repository.finishPartition(partition, BatchStatus.FAILED);
+            } catch (RuntimeException markFailure) {
+                e.addSuppressed(markFailure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Processes the next chunk after {@code afterId}, or returns null when the
+     * partition is done.
+     */
+    private <T> ChunkResult runChunk(BatchStep<T> step, BatchJobRepository.StepPartition partition, long afterId,
+            BatchJobProgress.StepProgress stepProgress) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("Batch worker interrupted");
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ChunkResult result = null;
+        for (int attempt = 0; result == null; attempt++) {
+            try {
+                result = chunkTransaction.execute(status -> chunk(step, partition, afterId, stepProgress, false));
+                if (result == null) {
+                    return null;
+                }
+            } catch (TransientDataAccessException | RecoverableDataAccessException e) {
+                if (attempt >= retryLimit) {
+                    throw e;
+                }
+                stepProgress.retries.incrementAndGet();
+                log.warn("BATCH_CHUNK_RETRY | Step: {} | After: {} | Attempt: {} | Error: {}", step.name(), afterId,
+                        attempt + 1, e.getMessage());
+                sleep(retryBackoff.multipliedBy(attempt + 1L));
+            } catch (SkipLimitExceededException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                log.warn("BATCH_CHUNK_FAILED | Step: {} | After: {} | Error: {} | Retrying item by item",
+                        step.name(), afterId, e.getMessage());
+                result = chunkTransaction.execute(status -> chunk(step, partition, afterId, stepProgress, true));
+                if (result == null) {
+                    return null;
+                }
+            }
+        }
+
+        String job = partition.jobName();
+        sample.stop(meterRegistry.timer("batch.chunk.duration", "job", job, "step", step.name()));
+        meterRegistry.counter("batch.items", "job", job, "step", step.name(), "outcome", "written")
+                .increment(result.written());
+        if (result.skipped() > 0) {
+            meterRegistry.counter("batch.items", "job", job, "step", step.name(), "outcome", "skipped")
+                    .increment(result.skipped());
+        }
+        stepProgress.chunkDone(result.read(), result.written(), result.skipped());
+        return result;
+    }
+
+    private <T> ChunkResult chunk(BatchStep<T> step, BatchJobRepository.StepPartition partition, long afterId,
+            BatchJobProgress.StepProgress stepProgress, boolean itemByItem) {
+        List<Long> ids = jdbcTemplate.queryForList(CHUNK_SQL, Long.class, afterId, partition.lastId(), chunkSize);
+        if (ids.isEmpty()) {
+            return null;
+        }
+        long lastId = ids.get(ids.size() - 1);
+        LocalDate businessDate = partition.businessDate();
+        List<T> items = step.read(businessDate, afterId, lastId);
+        long written = 0;
+        long skipped = 0;
+        if (!itemByItem) {
+            if (!items.isEmpty()) {
+                step.write(businessDate, items);
+            }
+            written = items.size();
+        } else {
+            for (T item : items) {
+                try {
+                    itemTransaction.executeWithoutResult(status -> step.write(businessDate, List.of(item)));
+                    written++;
+                } catch (RuntimeException e) {
+                    skipped++;
+                    log.warn("BATCH_ITEM_SKIPPED | Job: {} | Step: {} | Item: {} | Error: {}", partition.jobName(),
+                            step.name(), step.keyOf(item), e.getMessage());
+                    if (stepProgress.skipped.get() + skipped > skipLimit) {
+                        throw new SkipLimitExceededException("Step " + step.name() + " exceeded its skip limit of "
+                                + skipLimit, e);
+                    }
+                }
+            }
+        }
+        repository.checkpoint(partition, lastId, items.size(), written, skipped);
+        return new ChunkResult(lastId, items.size(), written, skipped);
+    }
+
+    /**
+     * Splits the current shard's portfolio ids into equal ranges. The last one
+     * is open-ended so portfolios created during the run are included.
+     */
+    private Supplier<List<long[]>> idRanges() {
+        return () -> {
+            long[] bounds = jdbcTemplate.queryForObject(RANGE_SQL, (rs, rowNum) -> {
+                long min = rs.getLong(1);
+                return rs.wasNull() ? null : new long[] { min, rs.getLong(2) };
+            });
+            List<long[]> ranges = new ArrayList<>();
+            if (bounds == null) {
+                ranges.add(new long[] { 0, Long.MAX_VALUE });
+                return ranges;
+            }
+            long width = Math.max(1, (bounds[1] - bounds[0]) / Math.max(1, partitionsPerShard) + 1);
+            long afterId = bounds[0] - 1;
+            while (true) {
+                long lastId = afterId + width;
+                if (lastId >= bounds[1]) {
+                    ranges.add(new long[] { afterId, Long.MAX_VALUE });
+                    return ranges;
+                }
+                ranges.add(new long[] { afterId, lastId });
+                afterId = lastId;
+            }
+        };
+    }
+
+    private <T> Optional<T> withJobLock(String jobName, Supplier<T> work) {
+        String lockName = "batch_job:" + jobName;
+        return jdbcTemplate.execute((ConnectionCallback<Optional<T>>) connection -> {
+            try (PreparedStatement acquire = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+                acquire.setString(1, lockName);
+                try (ResultSet rs = acquire.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        log.info("Batch job {} is running elsewhere; skipping", jobName);
+                        return Optional.empty();
+                    }
+                }
+            }
+            try {
+                return Optional.ofNullable(work.get());
+            } finally {
+                try (PreparedStatement release = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, lockName);
+                    release.execute();
+                }
+            }
+        });
+    }
+
+    private BatchJob requireJob(String jobName) {
+        BatchJob job = jobs.get(jobName);
+        if (job == null) {
+            throw new ResourceNotFoundException("Batch job not found: " + jobName);
+        }
+        return job;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+}
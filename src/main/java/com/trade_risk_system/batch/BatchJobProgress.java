@@ -0,0 +1,126 @@
+package com.trade_risk_system.batch;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of one job execution on this instance, reported through the
+ * {@code batch} actuator endpoint. Counts include work done by earlier runs of
+ * a restarted execution.
+ */
+public class BatchJobProgress {
+
+    public record JobReport(String job, LocalDate businessDate, BatchStatus status, boolean restarted,
+            LocalDateTime startedAt, LocalDateTime endedAt, String message, List<StepReport> steps) {
+    }
+
+    public record StepReport(String step, BatchStatus status, int partitions, int partitionsCompleted,
+            long read, long written, long skipped, long retries, long durationMs, double itemsPerSecond) {
+    }
+
+    static class StepProgress {
+
+        private final String name;
+        private volatile BatchStatus status;
+        private final AtomicInteger partitions = new AtomicInteger();
+        private final AtomicInteger partitionsCompleted = new AtomicInteger();
+        final AtomicLong read = new AtomicLong();
+        final AtomicLong written = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        /** Items written by this run, for the throughput figure. */
+        private final AtomicLong writtenThisRun = new AtomicLong();
+        private volatile long startNanos;
+        private volatile long endNanos;
+
+        StepProgress(String name) {
+            this.name = name;
+        }
+
+        void start() {
+            status = BatchStatus.STARTED;
+            startNanos = System.nanoTime();
+        }
+
+        void addPartition(BatchJobRepository.StepPartition partition) {
+            partitions.incrementAndGet();
+            if (partition.status() == BatchStatus.COMPLETED) {
+                partitionsCompleted.incrementAndGet();
+            }
+            read.addAndGet(partition.readCount());
+            written.addAndGet(partition.writeCount());
+            skipped.addAndGet(partition.skipCount());
+        }
+
+        void chunkDone(long chunkRead, long chunkWritten, long chunkSkipped) {
+            read.addAndGet(chunkRead);
+            written.addAndGet(chunkWritten);
+            writtenThisRun.addAndGet(chunkWritten);
+            skipped.addAndGet(chunkSkipped);
+        }
+
+        void partitionCompleted() {
+            partitionsCompleted.incrementAndGet();
+        }
+
+        void finish(BatchStatus finalStatus) {
+            status = finalStatus;
+            endNanos = System.nanoTime();
+        }
+
+        StepReport report() {
+            long elapsed = startNanos == 0 ? 0 : (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+            double seconds = elapsed / 1e9;
+            return new StepReport(name, status, partitions.get(), partitionsCompleted.get(), read.get(),
+                    written.get(), skipped.get(), retries.get(), Duration.ofNanos(elapsed).toMillis(),
+                    seconds > 0 ? Math.round(writtenThisRun.get() / seconds * 10) / 10.0 : 0);
+        }
+    }
+
+    private final String job;
+    private final LocalDate businessDate;
+    private final Map<String, StepProgress> steps = new LinkedHashMap<>();
+    private volatile BatchStatus status = BatchStatus.STARTED;
+    private volatile boolean restarted;
+    private volatile LocalDateTime startedAt = LocalDateTime.now();
+    private volatile LocalDateTime endedAt;
+    private volatile String message;
+
+    BatchJobProgress(BatchJob job, LocalDate businessDate) {
+        this.job = job.name();
+        this.businessDate = businessDate;
+        for (BatchStep<?> step : job.steps()) {
+            steps.put(step.name(), new StepProgress(step.name()));
+        }
+    }
+
+    StepProgress step(String name) {
+        return steps.get(name);
+    }
+
+    void started(BatchJobRepository.JobExecution execution) {
+        restarted = execution.restarted();
+        startedAt = execution.startedAt();
+    }
+
+    void finish(BatchStatus finalStatus, String finalMessage) {
+        status = finalStatus;
+        message = finalMessage;
+        endedAt = LocalDateTime.now();
+    }
+
+    BatchStatus status() {
+        return status;
+    }
+
+    public JobReport report() {
+        return new JobReport(job, businessDate, status, restarted, startedAt, endedAt, message,
+                steps.values().stream().map(StepProgress::report).toList());
+    }
+}
@@ -0,0 +1,141 @@
+package com.trade_risk_system.batch;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Job executions and step checkpoints, in plain JDBC.
+ * Executions are read and written on the global shard; partitions on the
+ * shard whose portfolios they cover. Every method works on whichever shard
+ * is current, so callers set it.
+ */
+@Component
+public class BatchJobRepository {
+
+    public record JobExecution(long id, String jobName, LocalDate businessDate, BatchStatus status,
+            LocalDateTime startedAt, boolean restarted) {
+    }
+
+    /**
+     * Portfolios with ids in {@code (afterId, lastId]}, done up to and
+     * including {@code checkpointId}.
+     */
+    public record StepPartition(String jobName, LocalDate businessDate, String stepName, int partitionNo,
+            long afterId, long lastId, long checkpointId, BatchStatus status,
+            long readCount, long writeCount, long skipCount) {
+    }
+
+    private static final RowMapper<StepPartition> PARTITION_MAPPER = (rs, rowNum) -> new StepPartition(
+            rs.getString("job_name"),
+            rs.getObject("business_date", LocalDate.class),
+            rs.getString("step_name"),
+            rs.getInt("partition_no"),
+            rs.getLong("after_id"),
+            rs.getLong("last_id"),
+            rs.getLong("checkpoint_id"),
+            BatchStatus.valueOf(rs.getString("status")),
+            rs.getLong("read_count"),
+            rs.getLong("write_count"),
+            rs.getLong("skip_count"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BatchJobRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Starts the job for the business date, or restarts its earlier execution.
+     * A completed execution is returned unchanged.
+     */
+    public JobExecution startExecution(String jobName, LocalDate businessDate) {
+        List<JobExecution> existing = jdbcTemplate.query(
+                "SELECT id, status, started_at FROM batch_job_executions WHERE job_name = ? AND business_date = ?",
+                (rs, rowNum) -> new JobExecution(rs.getLong("id"), jobName, businessDate,
+                        BatchStatus.valueOf(rs.getString("status")),
+                        rs.getObject("started_at", LocalDateTime.class), true),
+                jobName, businessDate);
+        LocalDateTime now = LocalDateTime.now();
+        if (existing.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO batch_job_executions (job_name, business_date, status, started_at) "
+                    + "VALUES (?, ?, ?, ?)", jobName, businessDate, BatchStatus.STARTED.name(), now);
+            Long id = jdbcTemplate.queryForObject(
+                    "SELECT id FROM batch_job_executions WHERE job_name = ? AND business_date = ?",
+                    Long.class, jobName, businessDate);
+            return new JobExecution(id, jobName, businessDate, BatchStatus.STARTED, now, false);
+        }
+        JobExecution execution = existing.get(0);
+        if (execution.status() == BatchStatus.COMPLETED) {
+            return execution;
+        }
+        jdbcTemplate.update("UPDATE batch_job_executions SET status = ?, ended_at = NULL, exit_message = NULL "
+                + "WHERE id = ?", BatchStatus.STARTED.name(), execution.id());
+        return new JobExecution(execution.id(), jobName, businessDate, BatchStatus.STARTED,
+                execution.startedAt(), true);
+    }
+
+    public void finishExecution(long id, BatchStatus status, String message) {
+        jdbcTemplate.update("UPDATE batch_job_executions SET status = ?, ended_at = ?, exit_message = ? WHERE id = ?",
+                status.name(), LocalDateTime.now(),
+                message != null && message.length() > 1000 ? message.substring(0, 1000) : message, id);
+    }
+
+    /**
+     * The step's partitions on the current shard, created from the given
+     * ranges on the step's first run. A restart reuses the stored ranges.
+     *
+     * @param rangeSupplier {@code [afterId, lastId]} pairs, only asked for on
+     *                      the first run
+     */
+    public List<StepPartition> partitions(String jobName, LocalDate businessDate, String stepName,
+            Supplier<List<long[]>> rangeSupplier) {
+        List<StepPartition> stored = findPartitions(jobName, businessDate, stepName);
+        if (!stored.isEmpty()) {
+            return stored;
+        }
+        List<long[]> ranges = rangeSupplier.get();
+        List<Object[]> rows = new ArrayList<>(ranges.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            rows.add(new Object[] { jobName, businessDate, stepName, i, range[0], range[1], range[0],
+                    BatchStatus.STARTED.name(), now });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO batch_step_partitions (job_name, business_date, step_name, "
+                + "partition_no, after_id, last_id, checkpoint_id, status, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        return findPartitions(jobName, businessDate, stepName);
+    }
+
+    /**
+     * Moves the partition's checkpoint forward; called in the chunk's
+     * transaction.
+     */
+    public void checkpoint(StepPartition partition, long checkpointId, long read, long written, long skipped) {
+        jdbcTemplate.update("UPDATE batch_step_partitions SET checkpoint_id = ?, read_count = read_count + ?, "
+                + "write_count = write_count + ?, skip_count = skip_count + ?, updated_at = ? "
+                + "WHERE job_name = ? AND business_date = ? AND step_name = ? AND partition_no = ?",
+                checkpointId, read, written, skipped, LocalDateTime.now(),
+                partition.jobName(), partition.businessDate(), partition.stepName(), partition.partitionNo());
+    }
+
+    public void finishPartition(StepPartition partition, BatchStatus status) {
+        jdbcTemplate.update("UPDATE batch_step_partitions SET status = ?, updated_at = ? "
+                + "WHERE job_name = ? AND business_date = ? AND step_name = ? AND partition_no = ?",
+                status.name(), LocalDateTime.now(),
+                partition.jobName(), partition.businessDate(), partition.stepName(), partition.partitionNo());
+    }
+
+    private List<StepPartition> findPartitions(String jobName, LocalDate businessDate, String stepName) {
+        return jdbcTemplate.query("SELECT * FROM batch_step_partitions "
+                + "WHERE job_name = ? AND business_date = ? AND step_name = ? ORDER BY partition_no",
+                PARTITION_MAPPER, jobName, businessDate, stepName);
+    }
+}
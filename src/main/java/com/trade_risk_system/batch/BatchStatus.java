@@ -0,0 +1,8 @@
+package com.trade_risk_system.batch;
+
+/**
+ * State of a job execution or step partition.
+ */
+public enum BatchStatus {
+    STARTED, COMPLETED, FAILED
+}
@@ -0,0 +1,35 @@
+package com.trade_risk_system.batch;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One step of a {@link BatchJob}, run chunk by chunk over ranges of
+ * portfolio ids.
+ * A chunk's read, write and checkpoint share one transaction on the
+ * partition's shard, so each chunk is written exactly once even across
+ * restarts. When a chunk fails for a non-transient reason it is written
+ * again one item at a time, which is why {@link #write} must also accept a
+ * single item, and items that still fail are skipped.
+ *
+ * @param <T> item type, usually one row per portfolio or position
+ */
+public interface BatchStep<T> {
+
+    String name();
+
+    /**
+     * Reads the items of portfolios with ids in {@code (afterId, lastId]}.
+     */
+    List<T> read(LocalDate businessDate, long afterId, long lastId);
+
+    /**
+     * Writes the items, preferably with one JDBC batch.
+     */
+    void write(LocalDate businessDate, List<T> items);
+
+    /**
+     * Identifies an item in skip logs.
+     */
+    Object keyOf(T item);
+}
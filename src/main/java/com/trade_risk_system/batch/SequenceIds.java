@@ -0,0 +1,29 @@
+package com.trade_risk_system.batch;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Takes ids from the pooled sequence tables (see V7) for rows inserted with
+ * plain JDBC, without overlapping the blocks Hibernate hands out.
+ */
+public final class SequenceIds {
+
+    /** allocationSize of every pooled sequence generator. */
+    public static final int BLOCK = 50;
+
+    private SequenceIds() {
+        // Utility class — no instantiation
+    }
+
+    /**
+     * Reserves {@code count} consecutive ids and returns the first.
+     * A reader of next_val N uses ids in (N - 50, N], so raising next_val by
+     * {@code count} frees (N - 50, N - 50 + count] for the caller. Must run in
+     * a transaction; the sequence row stays locked until it ends.
+     */
+    public static long reserve(JdbcTemplate jdbcTemplate, String sequence, int count) {
+        Long next = jdbcTemplate.queryForObject("SELECT next_val FROM " + sequence + " FOR UPDATE", Long.class);
+        jdbcTemplate.update("UPDATE " + sequence + " SET next_val = next_val + ?", count);
+        return next - BLOCK + 1;
+    }
+}
@@ -0,0 +1,25 @@
+package com.trade_risk_system.batch.eod;
+
+import com.trade_risk_system.batch.BatchJob;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class EndOfDayJobConfig {
+
+    public static final String JOB_NAME = "end-of-day";
+
+    /**
+     * Marks portfolios to market first, so the snapshots taken after it all
+     * see the same prices.
+     */
+    @Bean
+    public BatchJob endOfDayJob(MarkToMarketStep markToMarket,
+            PositionSnapshotStep positionSnapshot,
+            PnlSnapshotStep pnlSnapshot,
+            RiskSnapshotStep riskSnapshot) {
+        return new BatchJob(JOB_NAME, List.of(markToMarket, positionSnapshot, pnlSnapshot, riskSnapshot));
+    }
+}
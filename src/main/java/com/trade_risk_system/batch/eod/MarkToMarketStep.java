@@ -0,0 +1,45 @@
+package com.trade_risk_system.batch.eod;
+
+import com.trade_risk_system.batch.BatchStep;
+import com.trade_risk_system.service.PortfolioRevaluationService;
+import com.trade_risk_system.service.PortfolioRevaluationService.Valuation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Revalues portfolios from their positions at current prices, correcting any
+ * drift left by incremental updates. Only portfolios whose value or
+ * unrealized P&L changed are written; a portfolio changed by a trade since it
+ * was read is left alone, since the trade valued it exactly.
+ */
+@Component
+public class MarkToMarketStep implements BatchStep<Valuation> {
+
+    private final PortfolioRevaluationService revaluationService;
+
+    public MarkToMarketStep(PortfolioRevaluationService revaluationService) {
+        this.revaluationService = revaluationService;
+    }
+
+    @Override
+    public String name() {
+        return "mark-to-market";
+    }
+
+    @Override
+    public List<Valuation> read(LocalDate businessDate, long afterId, long lastId) {
+        return revaluationService.findStale(afterId, lastId);
+    }
+
+    @Override
+    public void write(LocalDate businessDate, List<Valuation> items) {
+        revaluationService.apply(items);
+    }
+
+    @Override
+    public Object keyOf(Valuation item) {
+        return item.portfolioId();
+    }
+}
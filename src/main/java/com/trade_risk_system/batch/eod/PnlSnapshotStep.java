@@ -0,0 +1,67 @@
+package com.trade_risk_system.batch.eod;
+
+import com.trade_risk_system.batch.BatchStep;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records each portfolio's realized and unrealized P&L for the business date
+ * in {@code pnl_snapshots}.
+ */
+@Component
+public class PnlSnapshotStep implements BatchStep<PnlSnapshotStep.PnlRow> {
+
+    public record PnlRow(long portfolioId, BigDecimal realizedPnl, BigDecimal unrealizedPnl,
+            BigDecimal totalValue) {
+    }
+
+    private static final String READ_SQL = "SELECT id, realized_pnl, unrealized_pnl, total_value "
+            + "FROM portfolios WHERE id > ? AND id <= ?";
+
+    private static final String WRITE_SQL = "INSERT INTO pnl_snapshots "
+            + "(portfolio_id, as_of_date, realized_pnl, unrealized_pnl, total_value, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE realized_pnl = VALUES(realized_pnl), "
+            + "unrealized_pnl = VALUES(unrealized_pnl), total_value = VALUES(total_value), "
+            + "created_at = VALUES(created_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PnlSnapshotStep(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "pnl-snapshot";
+    }
+
+    @Override
+    public List<PnlRow> read(LocalDate businessDate, long afterId, long lastId) {
+        return jdbcTemplate.query(READ_SQL, (rs, rowNum) -> new PnlRow(rs.getLong(1), rs.getBigDecimal(2),
+                rs.getBigDecimal(3), rs.getBigDecimal(4)), afterId, lastId);
+    }
+
+    @Override
+    public void write(LocalDate businessDate, List<PnlRow> items) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(WRITE_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.portfolioId());
+            ps.setObject(2, businessDate);
+            ps.setBigDecimal(3, item.realizedPnl());
+            ps.setBigDecimal(4, item.unrealizedPnl());
+            ps.setBigDecimal(5, item.totalValue());
+            ps.setObject(6, now);
+        });
+    }
+
+    @Override
+    public Object keyOf(PnlRow item) {
+        return item.portfolioId();
+    }
+}
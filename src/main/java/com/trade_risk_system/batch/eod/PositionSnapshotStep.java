@@ -0,0 +1,68 @@
+package com.trade_risk_system.batch.eod;
+
+import com.trade_risk_system.batch.BatchStep;
+import com.trade_risk_system.util.MoneyUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Copies every open position, with its mark and market value, into
+ * {@code position_snapshots} for the business date.
+ */
+@Component
+public class PositionSnapshotStep implements BatchStep<PositionSnapshotStep.PositionRow> {
+
+    public record PositionRow(long portfolioId, long instrumentId, int quantity, BigDecimal avgPrice,
+            BigDecimal markPrice) {
+    }
+
+    private static final String READ_SQL = "SELECT p.portfolio_id, p.instrument_id, p.quantity, p.avg_price, "
+            + "COALESCE(i.current_price, p.avg_price) "
+            + "FROM positions p JOIN instruments i ON i.id = p.instrument_id "
+            + "WHERE p.portfolio_id > ? AND p.portfolio_id <= ?";
+
+    private static final String WRITE_SQL = "INSERT INTO position_snapshots "
+            + "(as_of_date, portfolio_id, instrument_id, quantity, avg_price, mark_price, market_value) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), avg_price = VALUES(avg_price), "
+            + "mark_price = VALUES(mark_price), market_value = VALUES(market_value)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PositionSnapshotStep(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "position-snapshot";
+    }
+
+    @Override
+    public List<PositionRow> read(LocalDate businessDate, long afterId, long lastId) {
+        return jdbcTemplate.query(READ_SQL, (rs, rowNum) -> new PositionRow(rs.getLong(1), rs.getLong(2),
+                rs.getInt(3), rs.getBigDecimal(4), rs.getBigDecimal(5)), afterId, lastId);
+    }
+
+    @Override
+    public void write(LocalDate businessDate, List<PositionRow> items) {
+        jdbcTemplate.batchUpdate(WRITE_SQL, items, items.size(), (ps, item) -> {
+            ps.setObject(1, businessDate);
+            ps.setLong(2, item.portfolioId());
+            ps.setLong(3, item.instrumentId());
+            ps.setInt(4, item.quantity());
+            ps.setBigDecimal(5, item.avgPrice());
+            ps.setBigDecimal(6, item.markPrice());
+            ps.setBigDecimal(7, MoneyUtils.scale(item.markPrice().multiply(BigDecimal.valueOf(item.quantity()))));
+        });
+    }
+
+    @Override
+    public Object keyOf(PositionRow item) {
+        return item.portfolioId() + "/" + item.instrumentId();
+    }
+}
@@ -0,0 +1,99 @@
+package com.trade_risk_system.batch.eod;
+
+import com.trade_risk_system.batch.BatchStep;
+import com.trade_risk_system.batch.SequenceIds;
+import com.trade_risk_system.util.MoneyUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes a risk snapshot per portfolio to {@code risk_metrics}, with the same
+ * figures as {@code RiskService.calculatePortfolioRisk} but computed by one
+ * aggregate query per chunk.
+ */
+@Component
+public class RiskSnapshotStep implements BatchStep<RiskSnapshotStep.RiskRow> {
+
+    public record RiskRow(long portfolioId, BigDecimal totalExposure, BigDecimal concentrationRisk,
+            BigDecimal riskScore, BigDecimal realizedPnl, BigDecimal unrealizedPnl) {
+    }
+
+    private static final String READ_SQL = "SELECT pf.id, pf.realized_pnl, pf.unrealized_pnl, "
+            + "COALESCE(SUM(COALESCE(i.current_price, p.avg_price) * p.quantity), 0), "
+            + "COALESCE(MAX(COALESCE(i.current_price, p.avg_price) * p.quantity), 0) "
+            + "FROM portfolios pf "
+            + "LEFT JOIN positions p ON p.portfolio_id = pf.id "
+            + "LEFT JOIN instruments i ON i.id = p.instrument_id "
+            + "WHERE pf.id > ? AND pf.id <= ? "
+            + "GROUP BY pf.id, pf.realized_pnl, pf.unrealized_pnl";
+
+    private static final String WRITE_SQL = "INSERT INTO risk_metrics (id, portfolio_id, total_exposure, "
+            + "concentration_risk, risk_score, realized_pnl, unrealized_pnl, timestamp) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RiskSnapshotStep(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "risk-snapshot";
+    }
+
+    @Override
+    public List<RiskRow> read(LocalDate businessDate, long afterId, long lastId) {
+        return jdbcTemplate.query(READ_SQL, (rs, rowNum) -> {
+            BigDecimal exposure = rs.getBigDecimal(4);
+            BigDecimal largest = rs.getBigDecimal(5);
+            BigDecimal concentration = exposure.signum() > 0
+                    ? largest.divide(exposure, MoneyUtils.RATIO_SCALE, MoneyUtils.ROUNDING)
+                    : BigDecimal.ZERO;
+            return new RiskRow(rs.getLong(1), MoneyUtils.scale(exposure), concentration,
+                    MoneyUtils.scale(concentration.multiply(BigDecimal.valueOf(100))),
+                    rs.getBigDecimal(2), rs.getBigDecimal(3));
+        }, afterId, lastId);
+    }
+
+    @Override
+    public void write(LocalDate businessDate, List<RiskRow> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        long firstId = SequenceIds.reserve(jdbcTemplate, "risk_metrics_seq", items.size());
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(WRITE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RiskRow item = items.get(i);
+                ps.setLong(1, firstId + i);
+                ps.setLong(2, item.portfolioId());
+                ps.setBigDecimal(3, item.totalExposure());
+                ps.setBigDecimal(4, item.concentrationRisk());
+                ps.setBigDecimal(5, item.riskScore());
+                ps.setBigDecimal(6, item.realizedPnl());
+                ps.setBigDecimal(7, item.unrealizedPnl());
+                ps.setObject(8, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+    }
+
+    @Override
+    public Object keyOf(RiskRow item) {
+        return item.portfolioId();
+    }
+}
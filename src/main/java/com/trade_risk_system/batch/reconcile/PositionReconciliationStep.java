@@ -0,0 +1,270 @@
+package com.trade_risk_system.batch.reconcile;
+
+import com.trade_risk_system.archive.TradeArchiveStore;
+import com.trade_risk_system.batch.BatchStep;
+import com.trade_risk_system.batch.SequenceIds;
+import com.trade_risk_system.model.enums.MismatchKind;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import com.trade_risk_system.service.CacheEvictionService;
+import com.trade_risk_system.service.TradePartitionService;
+import com.trade_risk_system.util.MoneyUtils;
+import com.trade_risk_system.util.StreamingQueries;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds each portfolio's holdings from its executed trades and diffs them
+ * against the stored positions and total value.
+ * Trades are replayed oldest first with the same rules as
+ * {@code TradeService.updatePosition}: archived trades first, then the live
+ * table streamed row by row, so memory is bounded by the chunk's holdings
+ * rather than by trade history. Positions and trades are read in the chunk's
+ * transaction and therefore from one consistent snapshot.
+ *
+ * In repair mode each difference is corrected with a guarded write that only
+ * applies if the row is unchanged since it was read; a difference a
+ * concurrent trade got to first is reported as not repaired and is picked up
+ * by the next run.
+ */
+public class PositionReconciliationStep implements BatchStep<PositionReconciliationStep.Mismatch> {
+
+    public record Mismatch(long portfolioId, Long instrumentId, MismatchKind kind, Long positionId,
+            Long positionVersion, Integer expectedQuantity, Integer actualQuantity, BigDecimal expectedAvgPrice,
+            BigDecimal actualAvgPrice, BigDecimal expectedValue, BigDecimal actualValue) {
+    }
+
+    private record StoredPosition(long id, int quantity, BigDecimal avgPrice, long version) {
+    }
+
+    private static final class Holding {
+        int quantity;
+        BigDecimal avgPrice;
+
+        Holding(int quantity, BigDecimal avgPrice) {
+            this.quantity = quantity;
+            this.avgPrice = avgPrice;
+        }
+    }
+
+    private static final TradeArchiveStore.Filter ALL_ARCHIVED = new TradeArchiveStore.Filter(null, null, null, null,
+            null);
+
+    private static final String LIVE_TRADES_SQL = "SELECT pf.id, t.instrument_id, t.side, t.quantity, t.price "
+            + "FROM portfolios pf JOIN trades t ON t.user_id = pf.user_id "
+            + "WHERE pf.id > ? AND pf.id <= ? AND t.status = 'EXECUTED' "
+            + "ORDER BY pf.id, t.timestamp, t.id";
+
+    private static final String INSERT_MISSING_SQL = "INSERT INTO positions "
+            + "(id, portfolio_id, instrument_id, quantity, avg_price, version) "
+            + "SELECT ?, ?, ?, ?, ?, 0 FROM DUAL WHERE NOT EXISTS "
+            + "(SELECT 1 FROM positions WHERE portfolio_id = ? AND instrument_id = ?)";
+
+    private static final String REVALUE_SQL = "UPDATE portfolios pf SET version = version + 1, "
+            + "total_value = (SELECT COALESCE(SUM(COALESCE(i.current_price, p.avg_price) * p.quantity), 0) "
+            + "FROM positions p JOIN instruments i ON i.id = p.instrument_id WHERE p.portfolio_id = pf.id), "
+            + "unrealized_pnl = (SELECT COALESCE(SUM((COALESCE(i.current_price, p.avg_price) - p.avg_price) "
+            + "* p.quantity), 0) "
+            + "FROM positions p JOIN instruments i ON i.id = p.instrument_id WHERE p.portfolio_id = pf.id) "
+            + "WHERE pf.id = ?";
+
+    private static final String REPORT_SQL = "INSERT INTO reconciliation_mismatches (job_name, business_date, "
+            + "portfolio_id, instrument_id, kind, expected_quantity, actual_quantity, expected_avg_price, "
+            + "actual_avg_price, expected_value, actual_value, repaired, detected_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final String jobName;
+    private final boolean repair;
+    private final JdbcTemplate jdbcTemplate;
+    private final TradePartitionService tradePartitionService;
+    private final CacheEvictionService cacheEvictionService;
+    private final int fetchSize;
+
+    public PositionReconciliationStep(String jobName, boolean repair, JdbcTemplate jdbcTemplate,
+            TradePartitionService tradePartitionService, CacheEvictionService cacheEvictionService,
+            int fetchSize) {
+        this.jobName = jobName;
+        this.repair = repair;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tradePartitionService = tradePartitionService;
+        this.cacheEvictionService = cacheEvictionService;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public String name() {
+        return repair ? "reconcile-and-repair" : "reconcile";
+    }
+
+    @Override
+    public List<Mismatch> read(LocalDate businessDate, long afterId, long lastId) {
+        Map<Long, Long> portfolioByUser = new HashMap<>();
+        Map<Long, BigDecimal> totalValues = new HashMap<>();
+        jdbcTemplate.query("SELECT id, user_id, total_value FROM portfolios WHERE id > ? AND id <= ?", rs -> {
+            portfolioByUser.put(rs.getLong(2), rs.getLong(1));
+            BigDecimal totalValue = rs.getBigDecimal(3);
+            totalValues.put(rs.getLong(1), totalValue != null ? totalValue : BigDecimal.ZERO);
+        }, afterId, lastId);
+
+        Map<Long, Map<Long, StoredPosition>> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT id, portfolio_id, instrument_id, quantity, avg_price, version FROM positions "
+                + "WHERE portfolio_id > ? AND portfolio_id <= ?", rs -> {
+                    stored.computeIfAbsent(rs.getLong(2), id -> new HashMap<>()).put(rs.getLong(3),
+                            new StoredPosition(rs.getLong(1), rs.getInt(4), rs.getBigDecimal(5), rs.getLong(6)));
+                }, afterId, lastId);
+
+        // Archived trades all precede the live ones
+        Map<Long, Map<Long, Holding>> books = new HashMap<>();
+        tradePartitionService.forEachArchived(ALL_ARCHIVED, trade -> {
+            Long portfolioId = portfolioByUser.get(trade.userId());
+            if (portfolioId != null && trade.status() == TradeStatus.EXECUTED) {
+                apply(books.computeIfAbsent(portfolioId, id -> new HashMap<>()), trade.instrumentId(),
+                        trade.side(), trade.quantity(), trade.price());
+            }
+            return true;
+        });
+        jdbcTemplate.query(StreamingQueries.forwardOnly(LIVE_TRADES_SQL, fetchSize, afterId, lastId), rs -> {
+            apply(books.computeIfAbsent(rs.getLong(1), id -> new HashMap<>()), rs.getLong(2),
+                    TradeSide.valueOf(rs.getString(3)), rs.getInt(4), rs.getBigDecimal(5));
+        });
+
+        Map<Long, BigDecimal> prices = currentPrices(books, stored);
+        List<Mismatch> mismatches = new ArrayList<>();
+        for (Long portfolioId : new TreeSet<>(totalValues.keySet())) {
+            diff(portfolioId, books.getOrDefault(portfolioId, Map.of()), stored.getOrDefault(portfolioId, Map.of()),
+                    totalValues.get(portfolioId), prices, mismatches);
+        }
+        return mismatches;
+    }
+
+    @Override
+    public void write(LocalDate businessDate, List<Mismatch> items) {
+        boolean[] repaired = new boolean[items.size()];
+        if (repair) {
+            repair(items, repaired);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Mismatch m = items.get(i);
+            rows.add(new Object[] { jobName, businessDate, m.portfolioId(), m.instrumentId(), m.kind().name(),
+                    m.expectedQuantity(), m.actualQuantity(), m.expectedAvgPrice(), m.actualAvgPrice(),
+                    m.expectedValue(), m.actualValue(), repaired[i], now });
+        }
+        jdbcTemplate.batchUpdate(REPORT_SQL, rows);
+    }
+
+    @Override
+    public Object keyOf(Mismatch item) {
+        return item.portfolioId() + (item.instrumentId() != null ? "/" + item.instrumentId() : "");
+    }
+
+    private static void apply(Map<Long, Holding> book, long instrumentId, TradeSide side, int quantity,
+            BigDecimal price) {
+        Holding holding = book.get(instrumentId);
+        if (side == TradeSide.BUY) {
+            if (holding == null) {
+                book.put(instrumentId, new Holding(quantity, price));
+            } else {
+                holding.avgPrice = MoneyUtils.averagePrice(holding.avgPrice, holding.quantity, price, quantity);
+                holding.quantity += quantity;
+            }
+        } else if (holding == null) {
+            // A sell without a holding; kept so the report shows it
+            book.put(instrumentId, new Holding(-quantity, BigDecimal.ZERO));
+        } else {
+            holding.quantity -= quantity;
+            if (holding.quantity == 0) {
+                book.remove(instrumentId);
+            }
+        }
+    }
+
+    private static void diff(long portfolioId, Map<Long, Holding> book, Map<Long, StoredPosition> positions,
+            BigDecimal totalValue, Map<Long, BigDecimal> prices, List<Mismatch> out) {
+        Set<Long> instruments = new TreeSet<>(book.keySet());
+        instruments.addAll(positions.keySet());
+        BigDecimal expectedValue = BigDecimal.ZERO;
+        for (Long instrumentId : instruments) {
+            Holding holding = book.get(instrumentId);
+            StoredPosition position = positions.get(instrumentId);
+            if (holding != null) {
+                BigDecimal mark = prices.get(instrumentId) != null ? prices.get(instrumentId) : holding.avgPrice;
+                expectedValue = expectedValue.add(mark.multiply(BigDecimal.valueOf(holding.quantity)));
+            }
+            if (position == null) {
+                out.add(new Mismatch(portfolioId, instrumentId, MismatchKind.MISSING_POSITION, null, null,
+                        holding.quantity, null, holding.avgPrice, null, null, null));
+            } else if (holding == null) {
+                out.add(new Mismatch(portfolioId, instrumentId, MismatchKind.UNEXPECTED_POSITION, position.id(),
+                        position.version(), null, position.quantity(), null, position.avgPrice(), null, null));
+            } else if (holding.quantity != position.quantity()
+                    || holding.avgPrice.compareTo(position.avgPrice()) != 0) {
+                out.add(new Mismatch(portfolioId, instrumentId, MismatchKind.POSITION_DIFFERS, position.id(),
+                        position.version(), holding.quantity, position.quantity(), holding.avgPrice,
+                        position.avgPrice(), null, null));
+            }
+        }
+        expectedValue = MoneyUtils.scale(expectedValue);
+        if (expectedValue.compareTo(totalValue) != 0) {
+            out.add(new Mismatch(portfolioId, null, MismatchKind.TOTAL_VALUE_DIFFERS, null, null, null, null, null,
+                    null, expectedValue, totalValue));
+        }
+    }
+
+    private Map<Long, BigDecimal> currentPrices(Map<Long, Map<Long, Holding>> books,
+            Map<Long, Map<Long, StoredPosition>> stored) {
+        Set<Long> ids = new HashSet<>();
+        books.values().forEach(book -> ids.addAll(book.keySet()));
+        stored.values().forEach(positions -> ids.addAll(positions.keySet()));
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        if (ids.isEmpty()) {
+            return prices;
+        }
+        // Ids are longs, so inlining them is safe
+        String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        jdbcTemplate.query("SELECT id, current_price FROM instruments WHERE id IN (" + in + ")", rs -> {
+            prices.put(rs.getLong(1), rs.getBigDecimal(2));
+        });
+        return prices;
+    }
+
+    private void repair(List<Mismatch> items, boolean[] repaired) {
+        Set<Long> touched = new LinkedHashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            Mismatch m = items.get(i);
+            touched.add(m.portfolioId());
+            repaired[i] = switch (m.kind()) {
+                case MISSING_POSITION -> m.expectedQuantity() > 0 && jdbcTemplate.update(INSERT_MISSING_SQL,
+                        SequenceIds.reserve(jdbcTemplate, "positions_seq", 1), m.portfolioId(), m.instrumentId(),
+                        m.expectedQuantity(), m.expectedAvgPrice(), m.portfolioId(), m.instrumentId()) == 1;
+                case UNEXPECTED_POSITION -> jdbcTemplate.update(
+                        "DELETE FROM positions WHERE id = ? AND version = ?",
+                        m.positionId(), m.positionVersion()) == 1;
+                case POSITION_DIFFERS -> m.expectedQuantity() > 0 && jdbcTemplate.update(
+                        "UPDATE positions SET quantity = ?, avg_price = ?, version = version + 1 "
+                                + "WHERE id = ? AND version = ?",
+                        m.expectedQuantity(), m.expectedAvgPrice(), m.positionId(), m.positionVersion()) == 1;
+                // Revalued below, from the repaired positions
+                case TOTAL_VALUE_DIFFERS -> true;
+            };
+        }
+        jdbcTemplate.batchUpdate(REVALUE_SQL, touched.stream().map(id -> new Object[] { id }).toList());
+        for (Long portfolioId : touched) {
+            cacheEvictionService.evictPortfolioCache(portfolioId);
+            cacheEvictionService.evictRiskCache(portfolioId);
+        }
+    }
+}
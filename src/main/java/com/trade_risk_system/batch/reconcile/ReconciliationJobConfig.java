@@ -0,0 +1,44 @@
+package com.trade_risk_system.batch.reconcile;
+
+import com.trade_risk_system.batch.BatchJob;
+import com.trade_risk_system.service.CacheEvictionService;
+import com.trade_risk_system.service.TradePartitionService;
+import com.trade_risk_system.util.StreamingQueries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@Configuration
+public class ReconciliationJobConfig {
+
+    public static final String REPORT_JOB_NAME = "reconcile-positions";
+    public static final String REPAIR_JOB_NAME = "repair-positions";
+
+    @Value("${application.trades.export.fetch-size:" + StreamingQueries.MYSQL_ROW_STREAMING + "}")
+    private int fetchSize;
+
+    /**
+     * Reports differences between stored positions and the trade log without
+     * changing anything.
+     */
+    @Bean
+    public BatchJob reconcilePositionsJob(JdbcTemplate jdbcTemplate, TradePartitionService tradePartitionService,
+            CacheEvictionService cacheEvictionService) {
+        return new BatchJob(REPORT_JOB_NAME, List.of(new PositionReconciliationStep(REPORT_JOB_NAME, false,
+                jdbcTemplate, tradePartitionService, cacheEvictionService, fetchSize)));
+    }
+
+    /**
+     * Reports the same differences and rewrites positions and totals to match
+     * the trade log.
+     */
+    @Bean
+    public BatchJob repairPositionsJob(JdbcTemplate jdbcTemplate, TradePartitionService tradePartitionService,
+            CacheEvictionService cacheEvictionService) {
+        return new BatchJob(REPAIR_JOB_NAME, List.of(new PositionReconciliationStep(REPAIR_JOB_NAME, true,
+                jdbcTemplate, tradePartitionService, cacheEvictionService, fetchSize)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.trade_risk_system.config;
+
+import com.trade_risk_system.service.CacheWarmupService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports cache warm-up progress; part of the readiness health group.
+ * OUT_OF_SERVICE while the warm-up is pending or running, UP afterwards
+ * (including when it timed out or failed, since warm-up is best effort).
+ */
+@Component("cacheWarmup")
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmupService cacheWarmupService;
+
+    public CacheWarmupHealthIndicator(CacheWarmupService cacheWarmupService) {
+        this.cacheWarmupService = cacheWarmupService;
+    }
+
+    @Override
+    public Health health() {
+        CacheWarmupService.Report report = cacheWarmupService.getReport();
+        Health.Builder builder = switch (report.status()) {
+            case PENDING, RUNNING -> Health.outOfService();
+            default -> Health.up();
+        };
+        return builder
+                .withDetail("status", report.status())
+                .withDetail("entriesLoaded", report.entriesLoaded())
+                .withDetail("durationMs", report.durationMs())
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.trade_risk_system.config;
+
+import com.trade_risk_system.service.CacheWarmupService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the cache warm-up once the context (and Flyway) is up.
+ * Spring Boot only switches readiness to ACCEPTING_TRAFFIC after all runners
+ * have returned, so the readiness probe stays DOWN until warm-up finishes or
+ * its time budget expires.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class CacheWarmupRunner implements ApplicationRunner {
+
+    private final CacheWarmupService cacheWarmupService;
+
+    public CacheWarmupRunner(CacheWarmupService cacheWarmupService) {
+        this.cacheWarmupService = cacheWarmupService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        cacheWarmupService.warmUp();
+    }
+}
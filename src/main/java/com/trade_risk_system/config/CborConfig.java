@@ -0,0 +1,24 @@
+package com.trade_risk_system.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serves and accepts CBOR ({@code application/cbor}) next to JSON, for
+ * clients that send or read trades and risk at high rates. Request and
+ * response bodies are the same records as in JSON, built by the same Jackson
+ * configuration. Decimals go out as CBOR decimal fractions: the unscaled
+ * value as an integer (a long for every amount this system holds) with its
+ * scale, so prices keep their exact digits without a text round trip.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
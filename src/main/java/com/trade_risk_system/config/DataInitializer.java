@@ -6,9 +6,12 @@ import com.trade_risk_system.model.enums.Role;
 import com.trade_risk_system.repository.InstrumentRepository;
 import com.trade_risk_system.repository.UserRepository;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // seed before the cache warm-up runs
 public class DataInitializer implements CommandLineRunner {
 
     private final UserRepository userRepository;
@@ -0,0 +1,93 @@
+package com.trade_risk_system.config;
+
+import com.trade_risk_system.util.MoneyUtils;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Merges duplicate positions (same portfolio and instrument) just before V13
+ * makes that pair unique, so the migration cannot fail on data older trade
+ * execution left behind. The oldest row is kept with the summed quantity and
+ * the quantity-weighted average price; the others are deleted. Market value
+ * and cost basis of the portfolio are unchanged.
+ */
+@Component
+public class PositionDuplicateMerger implements Callback {
+
+    private static final Logger log = LoggerFactory.getLogger(PositionDuplicateMerger.class);
+
+    static final MigrationVersion UNIQUE_POSITION_VERSION = MigrationVersion.fromVersion("13");
+
+    private static final String DUPLICATES = "SELECT p.id, p.portfolio_id, p.instrument_id, p.quantity, p.avg_price "
+            + "FROM positions p JOIN (SELECT portfolio_id, instrument_id FROM positions "
+            + "GROUP BY portfolio_id, instrument_id HAVING COUNT(*) > 1) d "
+            + "ON d.portfolio_id = p.portfolio_id AND d.instrument_id = p.instrument_id "
+            + "ORDER BY p.portfolio_id, p.instrument_id, p.id";
+
+    @Override
+    public boolean supports(Event event, Context context) {
+        return event == Event.BEFORE_EACH_MIGRATE && context.getMigrationInfo() != null
+                && UNIQUE_POSITION_VERSION.equals(context.getMigrationInfo().getVersion());
+    }
+
+    @Override
+    public boolean canHandleInTransaction(Event event, Context context) {
+        return true;
+    }
+
+    @Override
+    public void handle(Event event, Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        List<Row> rows = jdbcTemplate.query(DUPLICATES, (rs, rowNum) -> new Row(
+                rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4), rs.getBigDecimal(5)));
+
+        int merged = 0;
+        for (int start = 0; start < rows.size();) {
+            Row keep = rows.get(start);
+            int quantity = keep.quantity();
+            BigDecimal avgPrice = keep.avgPrice() != null ? keep.avgPrice() : BigDecimal.ZERO;
+            int end = start + 1;
+            while (end < rows.size() && rows.get(end).sameKey(keep)) {
+                Row duplicate = rows.get(end++);
+                BigDecimal price = duplicate.avgPrice() != null ? duplicate.avgPrice() : BigDecimal.ZERO;
+                if (quantity + duplicate.quantity() != 0) {
+                    avgPrice = MoneyUtils.averagePrice(avgPrice, quantity, price, duplicate.quantity());
+                }
+                quantity += duplicate.quantity();
+            }
+            jdbcTemplate.update("UPDATE positions SET quantity = ?, avg_price = ? WHERE id = ?",
+                    quantity, MoneyUtils.scale(avgPrice), keep.id());
+            jdbcTemplate.update("DELETE FROM positions WHERE portfolio_id = ? AND instrument_id = ? AND id <> ?",
+                    keep.portfolioId(), keep.instrumentId(), keep.id());
+            log.warn("POSITION_DUPLICATES_MERGED | Portfolio: {} | Instrument: {} | Rows: {} | Quantity: {}",
+                    keep.portfolioId(), keep.instrumentId(), end - start, quantity);
+            merged++;
+            start = end;
+        }
+        if (merged > 0) {
+            log.info("Merged duplicate positions of {} portfolio/instrument pairs before V13", merged);
+        }
+    }
+
+    @Override
+    public String getCallbackName() {
+        return "positionDuplicateMerger";
+    }
+
+    private record Row(long id, long portfolioId, long instrumentId, int quantity, BigDecimal avgPrice) {
+
+        boolean sameKey(Row other) {
+            return portfolioId == other.portfolioId && instrumentId == other.instrumentId;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.trade_risk_system.config;
 
+import com.trade_risk_system.service.ResourceVersionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
@@ -14,6 +15,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -53,6 +56,19 @@ public class RedisConfig implements CachingConfigurer {
                 .build();
     }
 
+    /**
+     * Delivers cache version bumps published by other instances; see
+     * {@link ResourceVersionService}.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheVersionListenerContainer(RedisConnectionFactory connectionFactory,
+            ResourceVersionService resourceVersionService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(resourceVersionService, new ChannelTopic(ResourceVersionService.CHANNEL));
+        return container;
+    }
+
     @Bean("pageableCacheKeyGenerator")
     public KeyGenerator pageableCacheKeyGenerator() {
         return (target, method, params) -> {
@@ -0,0 +1,46 @@
+package com.trade_risk_system.controller;
+
+import com.trade_risk_system.analytics.TradeColumnStore;
+import com.trade_risk_system.dto.common.ApiResponse;
+import com.trade_risk_system.dto.response.TradeAggregateResponse;
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.service.TradeAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final TradeAnalyticsService tradeAnalyticsService;
+
+    @GetMapping("/trades")
+    public ResponseEntity<ApiResponse<List<TradeAggregateResponse>>> getTradeAggregates(
+            @RequestParam(defaultValue = "INSTRUMENT") TradeColumnStore.GroupBy groupBy,
+            @RequestParam(defaultValue = "1h") String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long instrumentId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "100") int limit) {
+        Duration width;
+        try {
+            width = DurationStyle.detectAndParse(bucket);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid bucket: " + bucket);
+        }
+        return ResponseEntity.ok(ApiResponse.success(
+                tradeAnalyticsService.aggregate(groupBy, width, from, to, instrumentId, userId, limit)));
+    }
+}
@@ -0,0 +1,51 @@
+package com.trade_risk_system.controller;
+
+import com.trade_risk_system.dto.common.ApiResponse;
+import com.trade_risk_system.dto.response.AuditLogResponse;
+import com.trade_risk_system.service.AuditPartitionService;
+import com.trade_risk_system.service.AuditService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    private final AuditService auditService;
+    private final AuditPartitionService auditPartitionService;
+
+    public AuditController(AuditService auditService, AuditPartitionService auditPartitionService) {
+        this.auditService = auditService;
+        this.auditPartitionService = auditPartitionService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<AuditLogResponse>>> getAuditLogs(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(ApiResponse.fromCursorPage(
+                auditService.getAuditLogs(userId, action, start, end, cursor, limit)));
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<ApiResponse<List<AuditLogResponse>>> getArchivedAuditLogs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(
+                auditPartitionService.queryArchive(start, end, userId, action, limit)));
+    }
+}
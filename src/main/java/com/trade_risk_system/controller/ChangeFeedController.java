@@ -0,0 +1,38 @@
+package com.trade_risk_system.controller;
+
+import com.trade_risk_system.dto.common.ApiResponse;
+import com.trade_risk_system.dto.response.ChangeFeedResponse;
+import com.trade_risk_system.service.ChangeFeedService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    public ChangeFeedController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    /**
+     * Changes after the cursor. With {@code waitSeconds} the request is held
+     * until a change arrives or the wait ends (long-poll).
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<ApiResponse<ChangeFeedResponse>>> getChanges(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long portfolioId,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(defaultValue = "0") long waitSeconds) {
+        return changeFeedService.awaitChanges(cursor, portfolioId, limit, Duration.ofSeconds(waitSeconds))
+                .thenApply(changes -> ResponseEntity.ok(ApiResponse.success(changes)));
+    }
+}
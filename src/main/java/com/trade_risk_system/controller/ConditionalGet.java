@@ -0,0 +1,55 @@
+package com.trade_risk_system.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for resources versioned by
+ * {@link com.trade_risk_system.service.ResourceVersionService}. The ETag is
+ * compared with {@code If-None-Match} before the body is built, so a
+ * {@code 304 Not Modified} costs no cache or database read.
+ */
+final class ConditionalGet {
+
+    /** Clients may keep the response but must revalidate it before reuse. */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * The body with its ETag, or null once the response has been made a 304
+     * because the client's copy is current. A null ETag skips the check.
+     */
+    static <T> ResponseEntity<T> ok(WebRequest request, String etag, Supplier<T> body) {
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        // checkNotModified also sets the ETag header on the response
+        if (etag != null && request.checkNotModified(representation(request, etag))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(body.get());
+    }
+
+    /**
+     * A strong ETag names one encoding, so a CBOR request gets a different
+     * one from JSON; the same Accept header always selects the same encoding.
+     */
+    private static String representation(WebRequest request, String etag) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains("cbor")) {
+            return etag;
+        }
+        return etag + ".c" + Integer.toHexString(accept.hashCode());
+    }
+}
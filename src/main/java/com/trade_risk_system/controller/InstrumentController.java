@@ -1,30 +1,45 @@
 package com.trade_risk_system.controller;
 
 import com.trade_risk_system.dto.common.ApiResponse;
+import com.trade_risk_system.dto.request.InstrumentBulkRequest;
 import com.trade_risk_system.dto.request.InstrumentRequest;
+import com.trade_risk_system.dto.request.PriceUpdateRequest;
+import com.trade_risk_system.dto.response.InstrumentImportResponse;
 import com.trade_risk_system.dto.response.InstrumentResponse;
+import com.trade_risk_system.service.InstrumentImportService;
 import com.trade_risk_system.service.InstrumentService;
+import com.trade_risk_system.service.ResourceVersionService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/instruments")
 public class InstrumentController {
 
     private final InstrumentService instrumentService;
+    private final InstrumentImportService instrumentImportService;
+    private final ResourceVersionService resourceVersionService;
 
-    public InstrumentController(InstrumentService instrumentService) {
+    public InstrumentController(InstrumentService instrumentService,
+            InstrumentImportService instrumentImportService,
+            ResourceVersionService resourceVersionService) {
         this.instrumentService = instrumentService;
+        this.instrumentImportService = instrumentImportService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @GetMapping
     public ResponseEntity<ApiResponse<?>> getAllInstruments(
-            @PageableDefault(size = 20) Pageable pageable) {
-        return ResponseEntity.ok(ApiResponse.fromPage(instrumentService.getAllInstruments(pageable)));
+            @PageableDefault(size = 20) Pageable pageable, WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersionService.etag("instruments-list"),
+                () -> ApiResponse.fromPage(instrumentService.getAllInstruments(pageable)));
     }
 
     @PostMapping
@@ -35,9 +50,35 @@ public class InstrumentController {
                 .body(ApiResponse.success("Instrument created successfully", response));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<InstrumentImportResponse>> upsertInstruments(
+            @Valid @RequestBody InstrumentBulkRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Instruments upserted",
+                instrumentImportService.upsert(request.instruments())));
+    }
+
+    /**
+     * Streams a CSV request body ({@code symbol,name,price} per line) into the
+     * instrument table.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "text/plain" })
+    public ResponseEntity<ApiResponse<InstrumentImportResponse>> importInstruments(InputStream csv) {
+        return ResponseEntity.ok(ApiResponse.success("Instruments imported", instrumentImportService.importCsv(csv)));
+    }
+
+    @PatchMapping("/{id}/price")
+    public ResponseEntity<ApiResponse<InstrumentResponse>> updatePrice(
+            @PathVariable Long id,
+            @Valid @RequestBody PriceUpdateRequest request) {
+        InstrumentResponse response = instrumentService.updatePrice(id, request.price());
+        return ResponseEntity.ok(ApiResponse.success("Price updated successfully", response));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<InstrumentResponse>> getInstrumentById(@PathVariable Long id) {
-        InstrumentResponse response = instrumentService.getInstrumentById(id);
-        return ResponseEntity.ok(ApiResponse.success(response));
+    public ResponseEntity<ApiResponse<InstrumentResponse>> getInstrumentById(@PathVariable Long id,
+            WebRequest request) {
+        // Instrument writes clear the whole cache, so its epoch versions every entry
+        return ConditionalGet.ok(request, resourceVersionService.etag("instruments"),
+                () -> ApiResponse.success(instrumentService.getInstrumentById(id)));
     }
 }
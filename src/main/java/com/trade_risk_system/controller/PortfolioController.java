@@ -2,23 +2,41 @@ package com.trade_risk_system.controller;
 
 import com.trade_risk_system.dto.common.ApiResponse;
 import com.trade_risk_system.dto.request.PortfolioRequestDTO;
+import com.trade_risk_system.dto.request.RevaluationRequest;
+import com.trade_risk_system.dto.response.PnlSnapshotResponse;
 import com.trade_risk_system.dto.response.PortfolioResponse;
+import com.trade_risk_system.dto.response.RevaluationResponse;
+import com.trade_risk_system.service.PnlService;
+import com.trade_risk_system.service.PortfolioRevaluationService;
 import com.trade_risk_system.service.PortfolioService;
+import com.trade_risk_system.service.ResourceVersionService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/portfolios")
 public class PortfolioController {
 
     private final PortfolioService portfolioService;
+    private final PnlService pnlService;
+    private final PortfolioRevaluationService revaluationService;
+    private final ResourceVersionService resourceVersionService;
 
-    public PortfolioController(PortfolioService portfolioService) {
+    public PortfolioController(PortfolioService portfolioService, PnlService pnlService,
+            PortfolioRevaluationService revaluationService, ResourceVersionService resourceVersionService) {
         this.portfolioService = portfolioService;
+        this.pnlService = pnlService;
+        this.revaluationService = revaluationService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @PostMapping
@@ -29,10 +47,25 @@ public class PortfolioController {
                 .body(ApiResponse.success("Portfolio created successfully", response));
     }
 
+    @PostMapping("/revaluation")
+    public ResponseEntity<ApiResponse<RevaluationResponse>> revalue(
+            @Valid @RequestBody(required = false) RevaluationRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Portfolios revalued", revaluationService.revalue(request)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<PortfolioResponse>> getPortfolioById(@PathVariable Long id) {
-        PortfolioResponse response = portfolioService.getPortfolioById(id);
-        return ResponseEntity.ok(ApiResponse.success(response));
+    public ResponseEntity<ApiResponse<PortfolioResponse>> getPortfolioById(@PathVariable Long id,
+            WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersionService.etag("portfolios", id),
+                () -> ApiResponse.success(portfolioService.getPortfolioById(id)));
+    }
+
+    @GetMapping("/{id}/pnl")
+    public ResponseEntity<ApiResponse<List<PnlSnapshotResponse>>> getPnlHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return ResponseEntity.ok(ApiResponse.success(pnlService.getPnlHistory(id, start, end)));
     }
 
     @GetMapping
@@ -0,0 +1,37 @@
+package com.trade_risk_system.controller;
+
+import com.trade_risk_system.dto.common.ApiResponse;
+import com.trade_risk_system.dto.response.ReconciliationMismatchResponse;
+import com.trade_risk_system.model.enums.MismatchKind;
+import com.trade_risk_system.service.ReconciliationService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reconciliation")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @GetMapping("/mismatches")
+    public ResponseEntity<ApiResponse<List<ReconciliationMismatchResponse>>> getMismatches(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate businessDate,
+            @RequestParam(required = false) MismatchKind kind,
+            @PageableDefault(size = 50) Pageable pageable) {
+        return ResponseEntity.ok(ApiResponse.fromPage(
+                reconciliationService.getMismatches(businessDate, kind, pageable)));
+    }
+}
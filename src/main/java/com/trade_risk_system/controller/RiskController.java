@@ -1,8 +1,13 @@
 package com.trade_risk_system.controller;
 
 import com.trade_risk_system.dto.common.ApiResponse;
+import com.trade_risk_system.dto.request.RiskBatchRequest;
+import com.trade_risk_system.dto.response.RiskBatchResponse;
 import com.trade_risk_system.dto.response.RiskResponse;
+import com.trade_risk_system.service.ResourceVersionService;
+import com.trade_risk_system.service.RiskBatchService;
 import com.trade_risk_system.service.RiskService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -11,9 +16,12 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 
@@ -23,10 +31,18 @@ import java.time.LocalDateTime;
 public class RiskController {
 
     private final RiskService riskService;
+    private final RiskBatchService riskBatchService;
+    private final ResourceVersionService resourceVersionService;
 
     @GetMapping("/{portfolioId}")
-    public ResponseEntity<ApiResponse<RiskResponse>> getRisk(@PathVariable Long portfolioId) {
-        return ResponseEntity.ok(ApiResponse.success(riskService.calculatePortfolioRisk(portfolioId)));
+    public ResponseEntity<ApiResponse<RiskResponse>> getRisk(@PathVariable Long portfolioId, WebRequest request) {
+        return ConditionalGet.ok(request, resourceVersionService.etag("risk", portfolioId),
+                () -> ApiResponse.success(riskService.calculatePortfolioRisk(portfolioId)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<RiskBatchResponse>> getRisks(@Valid @RequestBody RiskBatchRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(riskBatchService.getRisks(request)));
     }
 
     @GetMapping("/{portfolioId}/history")
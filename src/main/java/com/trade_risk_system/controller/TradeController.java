@@ -3,15 +3,19 @@ package com.trade_risk_system.controller;
 import com.trade_risk_system.dto.common.ApiResponse;
 import com.trade_risk_system.dto.request.TradeRequest;
 import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.service.ConcurrentTradeExecutor;
+import com.trade_risk_system.service.TradeExportService;
 import com.trade_risk_system.service.TradeService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 
@@ -20,14 +24,19 @@ import java.time.LocalDateTime;
 public class TradeController {
 
     private final TradeService tradeService;
+    private final ConcurrentTradeExecutor tradeExecutor;
+    private final TradeExportService tradeExportService;
 
-    public TradeController(TradeService tradeService) {
+    public TradeController(TradeService tradeService, ConcurrentTradeExecutor tradeExecutor,
+            TradeExportService tradeExportService) {
         this.tradeService = tradeService;
+        this.tradeExecutor = tradeExecutor;
+        this.tradeExportService = tradeExportService;
     }
 
     @PostMapping
     public ResponseEntity<ApiResponse<TradeResponse>> executeTrade(@Valid @RequestBody TradeRequest request) {
-        TradeResponse response = tradeService.executeTrade(request, request.userId());
+        TradeResponse response = tradeExecutor.executeTrade(request, request.userId());
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Trade executed successfully", response));
     }
@@ -40,11 +49,37 @@ public class TradeController {
             @PageableDefault(size = 20, sort = "timestamp", direction = Sort.Direction.DESC) Pageable pageable) {
 
         if (instrumentId != null) {
-            return ResponseEntity.ok(ApiResponse.fromPage(tradeService.getTradesByInstrument(instrumentId, pageable)));
+            return ResponseEntity.ok(ApiResponse.fromSlice(tradeService.getTradesByInstrument(instrumentId, pageable)));
         }
         if (start != null && end != null) {
-            return ResponseEntity.ok(ApiResponse.fromPage(tradeService.getTradesByDateRange(start, end, pageable)));
+            return ResponseEntity.ok(ApiResponse.fromSlice(tradeService.getTradesByDateRange(start, end, pageable)));
         }
-        return ResponseEntity.ok(ApiResponse.fromPage(tradeService.getAllTrades(pageable)));
+        return ResponseEntity.ok(ApiResponse.fromSlice(tradeService.getAllTrades(pageable)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTrades(
+            @RequestParam(defaultValue = "NDJSON") TradeExportService.Format format,
+            @RequestParam(required = false) Long instrumentId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        TradeExportService.Filter filter = new TradeExportService.Filter(instrumentId, userId, start, end);
+        StreamingResponseBody body = out -> tradeExportService.export(filter, format, out);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"trades." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<?>> getTradesByCursor(
+            @RequestParam(required = false) Long instrumentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(ApiResponse.fromCursorPage(
+                tradeService.getTradesPage(instrumentId, start, end, cursor, limit)));
     }
 }
@@ -0,0 +1,234 @@
+package com.trade_risk_system.datasource;
+
+import com.trade_risk_system.sharding.ShardIds;
+import com.trade_risk_system.sharding.ShardRoutingDataSource;
+import com.trade_risk_system.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the application DataSource.
+ *
+ * Primary connections come from one Hikari pool per {@link WorkloadType}
+ * (bulkheads), each configured from {@code spring.datasource.hikari} with
+ * overrides under {@code application.datasource.workloads.pools.<workload>},
+ * so a burst of analytics queries cannot take the connections trade execution
+ * needs. With {@code application.datasource.routing.enabled}, read-only
+ * transactions are sent to replicas on top of that. With extra shards under
+ * {@code application.datasource.sharding.shards}, each shard gets the same set
+ * of pools (named {@code <shard>-<workload>}) and connections follow the
+ * {@link com.trade_risk_system.sharding.ShardContext}. Every pool publishes the
+ * {@code hikaricp.connections.*} metrics tagged with its pool name.
+ */
+@Configuration
+@EnableConfigurationProperties({ ReplicaRoutingProperties.class, ShardingProperties.class })
+public class DataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    private static final String WORKLOAD_POOLS = "application.datasource.workloads.pools.";
+
+    @Bean(destroyMethod = "close")
+    public DataSourcePools dataSourcePools(DataSourceProperties properties, Environment environment,
+            ReplicaRoutingProperties replicaProperties, ShardingProperties shardingProperties,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${application.datasource.workloads.enabled:true}") boolean workloadsEnabled,
+            @Value("${application.datasource.workloads.default:INTERACTIVE}") WorkloadType defaultWorkload) {
+        Binder binder = Binder.get(environment);
+
+        HikariConfig base = new HikariConfig();
+        base.setJdbcUrl(properties.determineUrl());
+        base.setUsername(properties.determineUsername());
+        base.setPassword(properties.determinePassword());
+        base.setDriverClassName(properties.determineDriverClassName());
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(base));
+
+        ShardBuilder builder = new ShardBuilder(binder, meterRegistry.getIfAvailable(), workloadsEnabled,
+                defaultWorkload, replicaProperties.enabled());
+        List<ShardDataSources> shards = new ArrayList<>();
+        shards.add(builder.build(ShardIds.GLOBAL_SHARD, "", base, replicaProperties.replicas()));
+
+        List<ShardingProperties.Shard> configured = shardingProperties.shards();
+        for (int i = 0; i < configured.size(); i++) {
+            ShardingProperties.Shard shard = configured.get(i);
+            String name = StringUtils.hasText(shard.name()) ? shard.name() : "shard-" + (i + 1);
+            HikariConfig shardBase = new HikariConfig();
+            base.copyStateTo(shardBase);
+            shardBase.setJdbcUrl(shard.url());
+            if (shard.username() != null) {
+                shardBase.setUsername(shard.username());
+            }
+            if (shard.password() != null) {
+                shardBase.setPassword(shard.password());
+            }
+            shards.add(builder.build(i + 1, name + "-", shardBase, shard.replicas()));
+        }
+        if (shards.size() > 1) {
+            log.info("Sharding enabled | Shards: {}", shards.stream().map(ShardDataSources::name).toList());
+        }
+        return new DataSourcePools(builder.pools, shards);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaRoutingProperties properties) {
+        return new ReadYourWritesTracker(properties.readYourWritesMargin());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.datasource.routing.enabled", havingValue = "true")
+    public ReplicaHealthMonitor replicaHealthMonitor(DataSourcePools pools, ReadYourWritesTracker tracker,
+            ReplicaRoutingProperties properties) {
+        // Replicas stay out of rotation until the first scheduled check, which runs at startup
+        return new ReplicaHealthMonitor(pools.replicas(), tracker, properties.lagQuery(), properties.maxLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourcePools pools, ReadYourWritesTracker tracker) {
+        Map<Integer, DataSource> shards = new HashMap<>();
+        for (ShardDataSources shard : pools.shards()) {
+            shards.put(shard.id(), shard.replicas().isEmpty()
+                    ? shard.primary()
+                    : new ReplicaRoutingDataSource(shard.primary(), shard.replicas(), tracker));
+        }
+        DataSource target = shards.size() == 1
+                ? shards.get(ShardIds.GLOBAL_SHARD)
+                : new ShardRoutingDataSource(shards);
+        // Defers pool selection to the first statement, after the shard, @Workload and read-only flags are known
+        return new LazyConnectionDataSourceProxy(target);
+    }
+
+    /**
+     * Creates the pools of one shard: its workload pools and its replicas.
+     */
+    private static final class ShardBuilder {
+
+        private final Binder binder;
+        private final MeterRegistry registry;
+        private final boolean workloadsEnabled;
+        private final WorkloadType defaultWorkload;
+        private final boolean replicasEnabled;
+        private final List<HikariDataSource> pools = new ArrayList<>();
+
+        private ShardBuilder(Binder binder, MeterRegistry registry, boolean workloadsEnabled,
+                WorkloadType defaultWorkload, boolean replicasEnabled) {
+            this.binder = binder;
+            this.registry = registry;
+            this.workloadsEnabled = workloadsEnabled;
+            this.defaultWorkload = defaultWorkload;
+            this.replicasEnabled = replicasEnabled;
+        }
+
+        ShardDataSources build(int id, String prefix, HikariConfig base,
+                List<ReplicaRoutingProperties.Replica> configuredReplicas) {
+            DataSource primary;
+            if (workloadsEnabled) {
+                Map<WorkloadType, HikariDataSource> workloadPools = new EnumMap<>(WorkloadType.class);
+                for (WorkloadType workload : WorkloadType.values()) {
+                    HikariDataSource pool = pool(base, prefix + workload.key());
+                    binder.bind(WORKLOAD_POOLS + workload.key(), Bindable.ofInstance((HikariConfig) pool));
+                    workloadPools.put(workload, pool);
+                }
+                primary = new WorkloadRoutingDataSource(workloadPools, defaultWorkload);
+                log.info("Workload pools | {}", workloadPools.values().stream()
+                        .map(pool -> pool.getPoolName() + "=" + pool.getMaximumPoolSize()).toList());
+            } else {
+                primary = pool(base, prefix + "primary");
+            }
+
+            List<ReplicaNode> replicas = new ArrayList<>();
+            if (replicasEnabled) {
+                for (int i = 0; i < configuredReplicas.size(); i++) {
+                    ReplicaRoutingProperties.Replica replica = configuredReplicas.get(i);
+                    String name = prefix
+                            + (StringUtils.hasText(replica.name()) ? replica.name() : "replica-" + (i + 1));
+                    HikariDataSource pool = pool(base, name);
+                    pool.setJdbcUrl(replica.url());
+                    if (replica.username() != null) {
+                        pool.setUsername(replica.username());
+                    }
+                    if (replica.password() != null) {
+                        pool.setPassword(replica.password());
+                    }
+                    pool.setMaximumPoolSize(replica.maximumPoolSize());
+                    pool.setReadOnly(true);
+                    // Replicas may be down at startup; the health monitor keeps them out of rotation
+                    pool.setInitializationFailTimeout(-1);
+                    replicas.add(new ReplicaNode(name, pool));
+                }
+                if (!replicas.isEmpty()) {
+                    log.info("Read replica routing enabled | Replicas: {}",
+                            replicas.stream().map(ReplicaNode::getName).toList());
+                }
+            }
+            String name = prefix.isEmpty() ? "shard-" + id : prefix.substring(0, prefix.length() - 1);
+            return new ShardDataSources(id, name, primary, replicas);
+        }
+
+        private HikariDataSource pool(HikariConfig base, String name) {
+            HikariDataSource pool = new HikariDataSource();
+            base.copyStateTo(pool);
+            pool.setPoolName(name);
+            if (registry != null) {
+                pool.setMetricRegistry(registry);
+            }
+            pools.add(pool);
+            return pool;
+        }
+    }
+
+    /**
+     * The DataSources of one shard.
+     *
+     * @param primary  writable database, routed by workload
+     * @param replicas read replicas, empty when replica routing is off
+     */
+    public record ShardDataSources(int id, String name, DataSource primary, List<ReplicaNode> replicas) {
+    }
+
+    /**
+     * Owns the connection pools so they are closed on shutdown.
+     */
+    public record DataSourcePools(List<HikariDataSource> pools, List<ShardDataSources> shards)
+            implements AutoCloseable {
+
+        public ShardDataSources shard(int id) {
+            return shards.get(id);
+        }
+
+        /**
+         * Replicas of all shards.
+         */
+        public List<ReplicaNode> replicas() {
+            return shards.stream().flatMap(shard -> shard.replicas().stream()).toList();
+        }
+
+        @Override
+        public void close() {
+            pools.forEach(HikariDataSource::close);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.trade_risk_system.datasource;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each user last committed a write, so their reads only go to
+ * replicas that have caught up since then. Users are identified by the
+ * authenticated principal's name; unauthenticated work is not tracked.
+ */
+public class ReadYourWritesTracker {
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final long marginMillis;
+
+    public ReadYourWritesTracker(Duration margin) {
+        this.marginMillis = margin.toMillis();
+    }
+
+    /**
+     * The current user, or null when no one is authenticated.
+     */
+    public String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    public void recordWrite(String user) {
+        if (user != null) {
+            lastWrites.put(user, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Whether a replica lagging by {@code lagMillis} already has the user's
+     * last write, allowing {@code margin} for the lag measurement's coarseness.
+     */
+    public boolean hasCaughtUp(String user, long lagMillis) {
+        Long lastWrite = user != null ? lastWrites.get(user) : null;
+        if (lastWrite == null) {
+            return true;
+        }
+        if (lagMillis == Long.MAX_VALUE) {
+            return false;
+        }
+        return System.currentTimeMillis() - lastWrite > lagMillis + marginMillis;
+    }
+
+    /**
+     * Forgets writes older than {@code maxAge}; any replica within the lag limit has them.
+     */
+    public void prune(Duration maxAge) {
+        long cutoff = System.currentTimeMillis() - maxAge.toMillis() - marginMillis;
+        lastWrites.values().removeIf(lastWrite -> lastWrite < cutoff);
+    }
+}
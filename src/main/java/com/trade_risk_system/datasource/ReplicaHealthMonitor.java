@@ -0,0 +1,80 @@
+package com.trade_risk_system.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Periodically checks each replica: it must answer the lag query, be
+ * replicating, and lag by no more than {@code max-lag}. Lag is read from
+ * {@code Seconds_Behind_Source} (or {@code Seconds_Behind_Master}), or from the
+ * first column when the query returns a plain number.
+ */
+public class ReplicaHealthMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final List<ReplicaNode> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    public ReplicaHealthMonitor(List<ReplicaNode> replicas, ReadYourWritesTracker tracker, String lagQuery,
+            Duration maxLag) {
+        this.replicas = replicas;
+        this.tracker = tracker;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${application.datasource.routing.health-check-interval:5s}")
+    public void checkAll() {
+        replicas.forEach(this::check);
+        tracker.prune(maxLag);
+    }
+
+    void check(ReplicaNode replica) {
+        boolean wasHealthy = replica.isHealthy();
+        try (Connection connection = replica.getDataSource().getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(lagQuery)) {
+            Long lagSeconds = rs.next() ? readLagSeconds(rs) : null;
+            if (lagSeconds == null) {
+                replica.markUnhealthy();
+                log.warn("REPLICA_UNHEALTHY | Replica: {} | Reason: not replicating", replica.getName());
+            } else if (lagSeconds * 1000 > maxLag.toMillis()) {
+                replica.markUnhealthy();
+                log.warn("REPLICA_UNHEALTHY | Replica: {} | Reason: lag {}s exceeds {}", replica.getName(),
+                        lagSeconds, maxLag);
+            } else {
+                replica.markHealthy(lagSeconds * 1000);
+                if (!wasHealthy) {
+                    log.info("REPLICA_HEALTHY | Replica: {} | Lag: {}s", replica.getName(), lagSeconds);
+                }
+            }
+        } catch (SQLException e) {
+            replica.markUnhealthy();
+            log.warn("REPLICA_UNHEALTHY | Replica: {} | Reason: {}", replica.getName(), e.getMessage());
+        }
+    }
+
+    private static Long readLagSeconds(ResultSet rs) throws SQLException {
+        for (String column : new String[] { "Seconds_Behind_Source", "Seconds_Behind_Master" }) {
+            try {
+                long lag = rs.getLong(rs.findColumn(column));
+                return rs.wasNull() ? null : lag;
+            } catch (SQLException e) {
+                // column not present; try the next form
+            }
+        }
+        long lag = rs.getLong(1);
+        return rs.wasNull() ? null : lag;
+    }
+}
@@ -0,0 +1,49 @@
+package com.trade_risk_system.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * A read replica and its last observed health and replication lag.
+ */
+public class ReplicaNode {
+
+    private final String name;
+    private final DataSource dataSource;
+
+    private volatile boolean healthy;
+    private volatile long lagMillis = Long.MAX_VALUE;
+
+    public ReplicaNode(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Replication lag at the last check; {@code Long.MAX_VALUE} if unknown.
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    void markHealthy(long lagMillis) {
+        this.lagMillis = lagMillis;
+        this.healthy = true;
+    }
+
+    void markUnhealthy() {
+        this.lagMillis = Long.MAX_VALUE;
+        this.healthy = false;
+    }
+}
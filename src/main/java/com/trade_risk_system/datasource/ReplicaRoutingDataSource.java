@@ -0,0 +1,81 @@
+package com.trade_risk_system.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica, round-robin, and
+ * everything else to the primary.
+ *
+ * A replica is only chosen for a user once it has caught up with that user's
+ * last committed write; if none qualifies the read falls back to the primary.
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy} so the connection
+ * is fetched after the transaction's read-only flag has been set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final String PRIMARY = "primary";
+
+    private final List<ReplicaNode> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaNode> replicas, ReadYourWritesTracker tracker) {
+        this.replicas = List.copyOf(replicas);
+        this.tracker = tracker;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = tracker.currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite(user);
+            return PRIMARY;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            ReplicaNode replica = replicas.get((start + i) % size);
+            if (replica.isHealthy() && tracker.hasCaughtUp(user, replica.getLagMillis())) {
+                return replica.getName();
+            }
+        }
+        log.debug("No replica eligible for read by {}; using primary", user);
+        return PRIMARY;
+    }
+
+    private void trackWrite(String user) {
+        if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        tracker.recordWrite(user);
+                    }
+                }
+            });
+        }
+    }
+}
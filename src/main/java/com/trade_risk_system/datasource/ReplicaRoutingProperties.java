@@ -0,0 +1,29 @@
+package com.trade_risk_system.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replica routing settings ({@code application.datasource.routing}).
+ *
+ * @param enabled              route read-only transactions to replicas
+ * @param replicas             replica connection settings; pool settings and credentials default to the primary's
+ * @param maxLag               replicas lagging further than this are taken out of rotation
+ * @param readYourWritesMargin extra time a replica must be past a user's last write
+ * @param lagQuery             query returning the replica's lag in seconds
+ */
+@ConfigurationProperties("application.datasource.routing")
+public record ReplicaRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("30s") Duration maxLag,
+        @DefaultValue("1s") Duration readYourWritesMargin,
+        @DefaultValue("SHOW REPLICA STATUS") String lagQuery) {
+
+    public record Replica(String name, String url, String username, String password,
+            @DefaultValue("10") int maximumPoolSize) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.trade_risk_system.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Sets the {@link WorkloadContext} for {@link Workload}-annotated beans. Runs
+ * outside the transaction interceptor so the transaction's connection comes
+ * from the right pool.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadAspect {
+
+    @Around("@within(com.trade_risk_system.datasource.Workload) "
+            + "|| @annotation(com.trade_risk_system.datasource.Workload)")
+    public Object bindWorkload(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(method, Workload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), Workload.class);
+        }
+        WorkloadType previous = WorkloadContext.enter(workload.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+}
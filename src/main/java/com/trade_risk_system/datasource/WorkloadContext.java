@@ -0,0 +1,51 @@
+package com.trade_risk_system.datasource;
+
+import java.util.concurrent.Callable;
+
+/**
+ * The workload of the code running on the current thread, as set by
+ * {@link WorkloadAspect} or, for work handed to other threads, {@link #call}.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadType> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    /**
+     * The current workload, or null when none is set.
+     */
+    public static WorkloadType current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sets the current workload and returns the previous one for {@link #restore}.
+     */
+    static WorkloadType enter(WorkloadType workload) {
+        WorkloadType previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    /**
+     * Runs the task with the given workload set on the current thread.
+     */
+    public static <T> T call(WorkloadType workload, Callable<T> task) throws Exception {
+        WorkloadType previous = enter(workload);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static void restore(WorkloadType previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.trade_risk_system.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the connection pool for the current thread's {@link WorkloadType}.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final WorkloadType defaultWorkload;
+
+    public WorkloadRoutingDataSource(Map<WorkloadType, ? extends DataSource> pools, WorkloadType defaultWorkload) {
+        this.defaultWorkload = defaultWorkload;
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(defaultWorkload));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        WorkloadType workload = WorkloadContext.current();
+        return workload != null ? workload : defaultWorkload;
+    }
+}
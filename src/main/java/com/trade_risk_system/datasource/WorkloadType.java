@@ -0,0 +1,21 @@
+package com.trade_risk_system.datasource;
+
+/**
+ * Connection pools that isolate workloads from each other.
+ */
+public enum WorkloadType {
+
+    /** Trade execution and other latency-sensitive writes. */
+    TRADING,
+
+    /** Request-scoped reads and light writes from the API. */
+    INTERACTIVE,
+
+    /** History queries, exports, risk aggregation and maintenance jobs. */
+    ANALYTICS;
+
+    /** Key used under {@code application.datasource.workloads.pools}. */
+    public String key() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,28 @@
+package com.trade_risk_system.diagnostics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's DataSource in a {@link QueryCountingDataSource}.
+ * Only the bean named {@code dataSource} is wrapped: with replica routing the
+ * underlying pools are beans too, and wrapping them would count twice.
+ */
+@Component
+@ConditionalOnProperty(name = "application.diagnostics.query-stats.enabled", matchIfMissing = true)
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                && !(bean instanceof QueryCountingDataSource)) {
+            return new QueryCountingDataSource(dataSource);
+        }
+        return bean;
+    }
+}
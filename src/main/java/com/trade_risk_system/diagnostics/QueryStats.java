@@ -0,0 +1,61 @@
+package com.trade_risk_system.diagnostics;
+
+/**
+ * JDBC statement count and time for the unit of work running on the current
+ * thread, normally one HTTP request. Statements are recorded by
+ * {@link QueryCountingDataSource}; nothing is recorded on threads without an
+ * open scope.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    private QueryStats() {
+    }
+
+    /**
+     * Opens a scope on the current thread, replacing any previous one.
+     */
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * The current thread's scope, or null if none is open.
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static void record(long elapsedNanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.nanos += elapsedNanos;
+        }
+    }
+
+    /**
+     * Statements executed so far; a JDBC batch counts as one.
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+}
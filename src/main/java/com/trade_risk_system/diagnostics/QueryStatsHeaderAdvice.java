@@ -0,0 +1,39 @@
+package com.trade_risk_system.diagnostics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Diagnostic mode: adds {@code X-Query-Count} and {@code X-Query-Time-Ms}
+ * headers with the statements run so far, just before the body is written.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "application.diagnostics.query-stats.header-enabled", havingValue = "true")
+public class QueryStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String COUNT_HEADER = "X-Query-Count";
+    public static final String TIME_HEADER = "X-Query-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            response.getHeaders().set(COUNT_HEADER, Integer.toString(stats.getStatements()));
+            response.getHeaders().set(TIME_HEADER, Long.toString(stats.getMillis()));
+        }
+        return body;
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 @Data
 @NoArgsConstructor
@@ -23,6 +24,10 @@ public class ApiResponse<T> {
     private Integer pageNumber;
     private Integer pageSize;
 
+    // Keyset pagination metadata
+    private String nextCursor;
+    private Boolean hasNext;
+
     public ApiResponse(boolean success, String message, T data) {
         this.success = success;
         this.message = message;
@@ -53,6 +58,31 @@ public class ApiResponse<T> {
                 .build();
     }
 
+    /**
+     * Offset page without totals; backed by a query that never runs COUNT(*).
+     */
+    public static <T> ApiResponse<java.util.List<T>> fromSlice(Slice<T> slice) {
+        return ApiResponse.<java.util.List<T>>builder()
+                .success(true)
+                .message("Operation successful")
+                .data(slice.getContent())
+                .pageNumber(slice.getNumber())
+                .pageSize(slice.getSize())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    public static <T> ApiResponse<java.util.List<T>> fromCursorPage(CursorPage<T> page) {
+        return ApiResponse.<java.util.List<T>>builder()
+                .success(true)
+                .message("Operation successful")
+                .data(page.content())
+                .pageSize(page.content().size())
+                .nextCursor(page.nextCursor())
+                .hasNext(page.nextCursor() != null)
+                .build();
+    }
+
     public static <T> ApiResponse<T> error(String message) {
         return new ApiResponse<>(false, message, null);
     }
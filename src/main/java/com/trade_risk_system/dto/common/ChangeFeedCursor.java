@@ -0,0 +1,69 @@
+package com.trade_risk_system.dto.common;
+
+import com.trade_risk_system.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Position in the change feed: the last sequence number read from each shard,
+ * in shard order. Shards missing from the list have not been read yet.
+ * Clients receive it as an opaque URL-safe token and send it back unchanged to
+ * fetch the changes that follow it.
+ */
+public record ChangeFeedCursor(List<Long> seqs) {
+
+    public static final ChangeFeedCursor START = new ChangeFeedCursor(List.of());
+
+    public ChangeFeedCursor {
+        seqs = List.copyOf(seqs);
+    }
+
+    /** Last sequence number read from the shard, or 0 if none. */
+    public long after(int shard) {
+        return shard < seqs.size() ? seqs.get(shard) : 0;
+    }
+
+    /** Cursor with the shard moved on to {@code seq}. */
+    public ChangeFeedCursor advance(int shard, long seq) {
+        List<Long> next = new ArrayList<>(seqs);
+        while (next.size() <= shard) {
+            next.add(0L);
+        }
+        next.set(shard, Math.max(next.get(shard), seq));
+        return new ChangeFeedCursor(next);
+    }
+
+    public String encode() {
+        StringBuilder raw = new StringBuilder();
+        for (Long seq : seqs) {
+            raw.append(raw.isEmpty() ? "" : ".").append(seq);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeFeedCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            List<Long> seqs = new ArrayList<>();
+            if (!raw.isEmpty()) {
+                for (String part : raw.split("\\.", -1)) {
+                    long seq = Long.parseLong(part);
+                    if (seq < 0) {
+                        throw new IllegalArgumentException("Negative sequence number");
+                    }
+                    seqs.add(seq);
+                }
+            }
+            return new ChangeFeedCursor(seqs);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
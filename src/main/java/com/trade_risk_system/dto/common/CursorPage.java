@@ -0,0 +1,25 @@
+package com.trade_risk_system.dto.common;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated result.
+ *
+ * @param content    rows of this page
+ * @param nextCursor opaque cursor for the next page, or null on the last page
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+
+    /**
+     * Builds a page from a query that fetched {@code limit + 1} rows; the extra
+     * row only signals that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, limit);
+        return new CursorPage<>(List.copyOf(content), cursorOf.apply(content.get(limit - 1)).encode());
+    }
+}
@@ -0,0 +1,41 @@
+package com.trade_risk_system.dto.common;
+
+import com.trade_risk_system.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a result ordered by (timestamp DESC, id DESC).
+ * Clients receive it as an opaque URL-safe token and send it back unchanged to
+ * fetch the rows that follow it.
+ */
+public record KeysetCursor(LocalDateTime timestamp, Long id) {
+
+    /**
+     * Cursor placed just after {@code end}, for the first page of a range whose
+     * upper bound is exclusive.
+     */
+    public static KeysetCursor before(LocalDateTime end) {
+        return new KeysetCursor(end, Long.MAX_VALUE);
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
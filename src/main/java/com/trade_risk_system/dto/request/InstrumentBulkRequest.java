@@ -0,0 +1,15 @@
+package com.trade_risk_system.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Instruments to create or update by symbol. Items are validated one by one,
+ * so an invalid item is reported without rejecting the others.
+ */
+public record InstrumentBulkRequest(
+                @NotEmpty(message = "Instruments are required")
+                @Size(max = 50000, message = "At most 50000 instruments") List<InstrumentRequest> instruments) {
+}
@@ -0,0 +1,10 @@
+package com.trade_risk_system.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record PriceUpdateRequest(
+                @NotNull(message = "Price is required") @Positive(message = "Price must be positive") BigDecimal price) {
+}
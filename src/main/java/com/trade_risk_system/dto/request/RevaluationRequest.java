@@ -0,0 +1,14 @@
+package com.trade_risk_system.dto.request;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Portfolios to revalue: the listed ids, the holders of an instrument, or
+ * every portfolio when both are empty.
+ */
+public record RevaluationRequest(
+                @Size(max = 10000, message = "At most 10000 portfolio ids") List<Long> portfolioIds,
+                Long instrumentId) {
+}
@@ -0,0 +1,14 @@
+package com.trade_risk_system.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Portfolios whose risk to return in one response.
+ */
+public record RiskBatchRequest(
+                @NotEmpty(message = "Portfolio ids are required")
+                @Size(max = 1000, message = "At most 1000 portfolio ids") List<Long> portfolioIds) {
+}
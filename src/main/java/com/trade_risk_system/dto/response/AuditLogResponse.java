@@ -0,0 +1,10 @@
+package com.trade_risk_system.dto.response;
+
+import java.time.LocalDateTime;
+
+public record AuditLogResponse(
+                Long id,
+                Long userId,
+                String action,
+                LocalDateTime timestamp) {
+}
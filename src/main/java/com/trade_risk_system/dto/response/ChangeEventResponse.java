@@ -0,0 +1,27 @@
+package com.trade_risk_system.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.trade_risk_system.model.enums.ChangeEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * New state of one position, portfolio or risk snapshot. Only the fields of
+ * its entity are present; a deleted position carries just its key.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeEventResponse(
+        ChangeEntity entity,
+        Long portfolioId,
+        Long instrumentId,
+        Boolean deleted,
+        Integer quantity,
+        BigDecimal avgPrice,
+        BigDecimal totalValue,
+        BigDecimal realizedPnl,
+        BigDecimal unrealizedPnl,
+        BigDecimal riskScore,
+        BigDecimal totalExposure,
+        LocalDateTime changedAt) {
+}
@@ -0,0 +1,13 @@
+package com.trade_risk_system.dto.response;
+
+import java.util.List;
+
+/**
+ * Changes after the request's cursor, oldest first per shard.
+ *
+ * @param cursor  token to send with the next request; unchanged when there
+ *                were no changes
+ * @param hasMore whether more changes were already waiting past this batch
+ */
+public record ChangeFeedResponse(List<ChangeEventResponse> changes, String cursor, boolean hasMore) {
+}
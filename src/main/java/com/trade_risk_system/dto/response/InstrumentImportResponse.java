@@ -0,0 +1,25 @@
+package com.trade_risk_system.dto.response;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk instrument upsert or file import. {@code duplicates} rows
+ * were superseded by a later row for the same symbol. {@code errors} holds at
+ * most the configured number of rejected rows; {@code failed} counts them all.
+ */
+public record InstrumentImportResponse(
+                long rows,
+                int inserted,
+                int updated,
+                int unchanged,
+                int duplicates,
+                int failed,
+                List<RowError> errors,
+                long totalMs) {
+
+        /**
+         * A rejected row: its line in the file, or its position in the request.
+         */
+        public record RowError(long line, String symbol, String message) {
+        }
+}
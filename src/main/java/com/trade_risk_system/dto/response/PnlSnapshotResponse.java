@@ -0,0 +1,12 @@
+package com.trade_risk_system.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record PnlSnapshotResponse(
+                Long portfolioId,
+                LocalDate asOfDate,
+                BigDecimal realizedPnl,
+                BigDecimal unrealizedPnl,
+                BigDecimal totalValue) {
+}
@@ -6,5 +6,7 @@ public record PortfolioResponse(
                 Long id,
                 Long userId,
                 String username,
-                BigDecimal totalValue) {
+                BigDecimal totalValue,
+                BigDecimal realizedPnl,
+                BigDecimal unrealizedPnl) {
 }
@@ -0,0 +1,23 @@
+package com.trade_risk_system.dto.response;
+
+import com.trade_risk_system.model.enums.MismatchKind;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record ReconciliationMismatchResponse(
+                Long id,
+                String jobName,
+                LocalDate businessDate,
+                Long portfolioId,
+                Long instrumentId,
+                MismatchKind kind,
+                Integer expectedQuantity,
+                Integer actualQuantity,
+                BigDecimal expectedAvgPrice,
+                BigDecimal actualAvgPrice,
+                BigDecimal expectedValue,
+                BigDecimal actualValue,
+                boolean repaired,
+                LocalDateTime detectedAt) {
+}
@@ -0,0 +1,17 @@
+package com.trade_risk_system.dto.response;
+
+/**
+ * Outcome of a bulk revaluation. {@code skipped} portfolios changed under the
+ * revaluation and were left as the concurrent write set them.
+ */
+public record RevaluationResponse(
+                long portfolios,
+                long stale,
+                long revalued,
+                long skipped,
+                int chunks,
+                long readMs,
+                long writeMs,
+                long commitAndEvictMs,
+                long totalMs) {
+}
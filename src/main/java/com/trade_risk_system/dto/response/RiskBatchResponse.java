@@ -0,0 +1,15 @@
+package com.trade_risk_system.dto.response;
+
+import java.util.List;
+
+/**
+ * Risk of many portfolios, in request order. {@code cached} entries came from
+ * Redis and {@code computed} ones were calculated for this request;
+ * {@code notFound} lists the ids with no portfolio.
+ */
+public record RiskBatchResponse(
+                List<RiskResponse> risks,
+                List<Long> notFound,
+                int cached,
+                int computed) {
+}
@@ -8,5 +8,7 @@ public record RiskResponse(
                 BigDecimal totalExposure,
                 BigDecimal concentrationRisk,
                 BigDecimal riskScore,
+                BigDecimal realizedPnl,
+                BigDecimal unrealizedPnl,
                 LocalDateTime timestamp) {
 }
@@ -0,0 +1,25 @@
+package com.trade_risk_system.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One group of a trade aggregate. Exactly one of instrumentId, userId and
+ * bucketStart is set, depending on the grouping.
+ *
+ * @param imbalance (buy - sell) / (buy + sell) quantity, from -1 to 1
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TradeAggregateResponse(
+                Long instrumentId,
+                Long userId,
+                LocalDateTime bucketStart,
+                long trades,
+                long buyQuantity,
+                long sellQuantity,
+                long volume,
+                BigDecimal notional,
+                BigDecimal imbalance) {
+}
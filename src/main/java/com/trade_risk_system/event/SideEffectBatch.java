@@ -0,0 +1,54 @@
+package com.trade_risk_system.event;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Side effects collected during one transaction.
+ * Registered as a transaction synchronization by {@link SideEffectBus} and
+ * handed back to it for dispatch once the transaction has committed.
+ * Discarded on rollback.
+ */
+class SideEffectBatch implements TransactionSynchronization {
+
+    record AuditRecord(String action, Long userId) {
+    }
+
+    private final SideEffectBus bus;
+
+    final Map<String, Set<Object>> evictions = new LinkedHashMap<>();
+    final Set<String> clears = new LinkedHashSet<>();
+    final List<AuditRecord> audits = new ArrayList<>();
+    final List<Runnable> callbacks = new ArrayList<>();
+
+    SideEffectBatch(SideEffectBus bus) {
+        this.bus = bus;
+    }
+
+    void evict(String cacheName, Object key) {
+        evictions.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key);
+    }
+
+    void clear(String cacheName) {
+        clears.add(cacheName);
+    }
+
+    void audit(String action, Long userId) {
+        audits.add(new AuditRecord(action, userId));
+    }
+
+    void callback(Runnable callback) {
+        callbacks.add(callback);
+    }
+
+    @Override
+    public void afterCommit() {
+        bus.dispatch(this);
+    }
+}
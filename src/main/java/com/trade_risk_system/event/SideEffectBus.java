@@ -0,0 +1,123 @@
+package com.trade_risk_system.event;
+
+import com.trade_risk_system.service.AuditService;
+import com.trade_risk_system.service.CachePipelineService;
+import com.trade_risk_system.service.ResourceVersionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Transactional side-effect bus.
+ * Cache evictions, audit records and arbitrary callbacks raised inside a
+ * transaction are collected per transaction and dispatched together after it
+ * commits, so concurrent readers can never re-cache pre-commit state and a
+ * rolled-back operation leaves no trace. All key evictions of a transaction go
+ * to Redis in a single round trip, and then bump the resources' ETag versions.
+ *
+ * Outside a transaction, side effects are dispatched immediately.
+ */
+@Component
+public class SideEffectBus {
+
+    private static final Logger log = LoggerFactory.getLogger(SideEffectBus.class);
+
+    private final CachePipelineService cachePipelineService;
+    private final CacheManager cacheManager;
+    private final AuditService auditService;
+    private final ResourceVersionService resourceVersionService;
+
+    public SideEffectBus(CachePipelineService cachePipelineService,
+            CacheManager cacheManager,
+            AuditService auditService,
+            ResourceVersionService resourceVersionService) {
+        this.cachePipelineService = cachePipelineService;
+        this.cacheManager = cacheManager;
+        this.auditService = auditService;
+        this.resourceVersionService = resourceVersionService;
+    }
+
+    /**
+     * Evicts a single cache entry after commit.
+     */
+    public void evict(String cacheName, Object key) {
+        submit(batch -> batch.evict(cacheName, key));
+    }
+
+    /**
+     * Clears a whole cache after commit.
+     */
+    public void clear(String cacheName) {
+        submit(batch -> batch.clear(cacheName));
+    }
+
+    /**
+     * Records an audit action after commit.
+     */
+    public void audit(String action, Long userId) {
+        submit(batch -> batch.audit(action, userId));
+    }
+
+    /**
+     * Runs a callback after commit. Callbacks run after evictions and audits.
+     */
+    public void afterCommit(Runnable callback) {
+        submit(batch -> batch.callback(callback));
+    }
+
+    private void submit(Consumer<SideEffectBatch> effect) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            SideEffectBatch batch = new SideEffectBatch(this);
+            effect.accept(batch);
+            dispatch(batch);
+            return;
+        }
+        effect.accept(transactionBatch());
+    }
+
+    private SideEffectBatch transactionBatch() {
+        // Synchronizations are suspended with their transaction, so a REQUIRES_NEW
+        // call gets its own batch and the outer batch is untouched.
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof SideEffectBatch batch) {
+                return batch;
+            }
+        }
+        SideEffectBatch batch = new SideEffectBatch(this);
+        TransactionSynchronizationManager.registerSynchronization(batch);
+        return batch;
+    }
+
+    void dispatch(SideEffectBatch batch) {
+        for (String cacheName : batch.clears) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                // invalidate() is immediate; clear() would be deferred to a commit that has already happened
+                cache.invalidate();
+                log.debug("Cache cleared [{}]", cacheName);
+            }
+        }
+        batch.evictions.keySet().removeAll(batch.clears);
+        cachePipelineService.evict(batch.evictions);
+        // After the evictions, so a reader that sees a new ETag cannot read the old entry
+        resourceVersionService.changed(batch.evictions, batch.clears);
+
+        for (SideEffectBatch.AuditRecord record : batch.audits) {
+            auditService.logAction(record.action(), record.userId());
+        }
+
+        for (Runnable callback : batch.callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                log.error("After-commit callback failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.trade_risk_system.exception;
+
+public class CursorExpiredException extends RuntimeException {
+    public CursorExpiredException(String message) {
+        super(message);
+    }
+}
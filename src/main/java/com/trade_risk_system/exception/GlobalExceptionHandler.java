@@ -1,6 +1,7 @@
 package com.trade_risk_system.exception;
 
 import com.trade_risk_system.dto.common.ApiResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -52,6 +53,18 @@ public class GlobalExceptionHandler {
                                 .body(ApiResponse.error(ex.getMessage()));
         }
 
+        @ExceptionHandler(CursorExpiredException.class)
+        public ResponseEntity<ApiResponse<Void>> handleCursorExpiredException(CursorExpiredException ex) {
+                return ResponseEntity.status(HttpStatus.GONE)
+                                .body(ApiResponse.error(ex.getMessage()));
+        }
+
+        @ExceptionHandler(OptimisticLockingFailureException.class)
+        public ResponseEntity<ApiResponse<Void>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                                .body(ApiResponse.error("The position was changed by concurrent trades; please retry"));
+        }
+
         @ExceptionHandler(MethodArgumentNotValidException.class)
         public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationExceptions(
                         MethodArgumentNotValidException ex) {
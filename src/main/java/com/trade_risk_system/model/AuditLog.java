@@ -17,7 +17,9 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "audit_logs", indexes = {
-        @jakarta.persistence.Index(name = "idx_audit_user", columnList = "user_id")
+        @jakarta.persistence.Index(name = "idx_audit_user_ts", columnList = "user_id, timestamp, id"),
+        @jakarta.persistence.Index(name = "idx_audit_action_ts", columnList = "action, timestamp, id"),
+        @jakarta.persistence.Index(name = "idx_audit_ts", columnList = "timestamp, id")
 })
 @Data
 @NoArgsConstructor
@@ -36,5 +38,6 @@ public class AuditLog {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @Column(nullable = false)
     private LocalDateTime timestamp;
 }
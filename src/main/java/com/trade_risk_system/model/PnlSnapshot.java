@@ -0,0 +1,53 @@
+package com.trade_risk_system.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "pnl_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_pnl_portfolio_date", columnNames = { "portfolio_id", "as_of_date" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PnlSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "portfolio_id", nullable = false)
+    private Portfolio portfolio;
+
+    @Column(nullable = false)
+    private LocalDate asOfDate;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal realizedPnl;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal unrealizedPnl;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal totalValue;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -34,4 +34,17 @@ public class Portfolio {
 
     @Column(precision = 19, scale = 4)
     private BigDecimal totalValue;
+
+    /** Booked on every sell: (sell price - average price) * quantity. */
+    @Builder.Default
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal realizedPnl = BigDecimal.ZERO;
+
+    /** (mark - average price) * quantity over open positions. */
+    @Builder.Default
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal unrealizedPnl = BigDecimal.ZERO;
+
+    @jakarta.persistence.Version
+    private Long version;
 }
@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,6 +21,9 @@ import java.math.BigDecimal;
 @Table(name = "positions", indexes = {
         @jakarta.persistence.Index(name = "idx_position_portfolio", columnList = "portfolio_id"),
         @jakarta.persistence.Index(name = "idx_position_instrument", columnList = "instrument_id")
+}, uniqueConstraints = {
+        @jakarta.persistence.UniqueConstraint(name = "uk_position_portfolio_instrument",
+                columnNames = { "portfolio_id", "instrument_id" })
 })
 @Data
 @NoArgsConstructor
@@ -28,7 +32,8 @@ import java.math.BigDecimal;
 public class Position {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "positions_seq")
+    @SequenceGenerator(name = "positions_seq", sequenceName = "positions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
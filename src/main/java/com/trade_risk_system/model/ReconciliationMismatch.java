@@ -0,0 +1,75 @@
+package com.trade_risk_system.model;
+
+import com.trade_risk_system.model.enums.MismatchKind;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A difference between stored and replayed holdings, written by the
+ * position reconciliation jobs with plain JDBC and read through JPA.
+ */
+@Entity
+@Table(name = "reconciliation_mismatches", indexes = {
+        @Index(name = "idx_recon_date_portfolio", columnList = "business_date, portfolio_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationMismatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String jobName;
+
+    @Column(nullable = false)
+    private LocalDate businessDate;
+
+    @Column(nullable = false)
+    private Long portfolioId;
+
+    private Long instrumentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private MismatchKind kind;
+
+    private Integer expectedQuantity;
+
+    private Integer actualQuantity;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal expectedAvgPrice;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal actualAvgPrice;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal expectedValue;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal actualValue;
+
+    @Column(nullable = false)
+    private boolean repaired;
+
+    @Column(nullable = false)
+    private LocalDateTime detectedAt;
+}
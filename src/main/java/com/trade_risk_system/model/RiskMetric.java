@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -27,7 +28,8 @@ import lombok.NoArgsConstructor;
 public class RiskMetric {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "risk_metrics_seq")
+    @SequenceGenerator(name = "risk_metrics_seq", sequenceName = "risk_metrics_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -43,5 +45,11 @@ public class RiskMetric {
     @Column(precision = 19, scale = 4)
     private BigDecimal riskScore;
 
+    @Column(precision = 19, scale = 4)
+    private BigDecimal realizedPnl;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal unrealizedPnl;
+
     private LocalDateTime timestamp;
 }
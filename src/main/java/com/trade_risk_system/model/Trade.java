@@ -12,6 +12,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -22,8 +23,9 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "trades", indexes = {
-        @jakarta.persistence.Index(name = "idx_trade_user", columnList = "user_id"),
-        @jakarta.persistence.Index(name = "idx_trade_instrument", columnList = "instrument_id")
+        @jakarta.persistence.Index(name = "idx_trade_ts", columnList = "timestamp, id"),
+        @jakarta.persistence.Index(name = "idx_trade_user_ts", columnList = "user_id, timestamp, id"),
+        @jakarta.persistence.Index(name = "idx_trade_instrument_ts", columnList = "instrument_id, timestamp, id")
 })
 @Data
 @NoArgsConstructor
@@ -32,7 +34,9 @@ import lombok.NoArgsConstructor;
 public class Trade {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled ids (table-emulated sequence on MySQL) let Hibernate batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trades_seq")
+    @SequenceGenerator(name = "trades_seq", sequenceName = "trades_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -57,5 +61,7 @@ public class Trade {
     @Column(nullable = false)
     private TradeStatus status;
 
+    // Partitioning column (V9): part of the primary key, so always set
+    @Column(nullable = false)
     private LocalDateTime timestamp;
 }
@@ -0,0 +1,10 @@
+package com.trade_risk_system.model.enums;
+
+public enum ChangeEntity {
+    /** A position's quantity or average price; deleted when it is closed. */
+    POSITION,
+    /** A portfolio's total value and P&L. */
+    PORTFOLIO,
+    /** A new risk snapshot of a portfolio. */
+    RISK
+}
@@ -0,0 +1,12 @@
+package com.trade_risk_system.model.enums;
+
+public enum MismatchKind {
+    /** The trades leave a holding that has no stored position. */
+    MISSING_POSITION,
+    /** A stored position that the trades do not account for. */
+    UNEXPECTED_POSITION,
+    /** Quantity or average price differs from the replayed holding. */
+    POSITION_DIFFERS,
+    /** The portfolio's total value differs from its replayed holdings at current prices. */
+    TOTAL_VALUE_DIFFERS
+}
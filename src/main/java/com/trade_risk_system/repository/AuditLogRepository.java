@@ -1,12 +1,37 @@
 package com.trade_risk_system.repository;
 
+import com.trade_risk_system.dto.response.AuditLogResponse;
 import com.trade_risk_system.model.AuditLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-    List<AuditLog> findByUserId(Long userId);
+
+    /**
+     * Seeks the next page after (cursorTimestamp, cursorId) in (timestamp DESC, id DESC)
+     * order. Served by idx_audit_user_ts / idx_audit_action_ts / idx_audit_ts; no count
+     * query is issued.
+     */
+    @Query("SELECT new com.trade_risk_system.dto.response.AuditLogResponse(a.id, a.user.id, a.action, a.timestamp) "
+            + "FROM AuditLog a "
+            + "WHERE (:userId IS NULL OR a.user.id = :userId) "
+            + "AND (:action IS NULL OR a.action = :action) "
+            + "AND a.timestamp >= :start AND a.timestamp < :end "
+            + "AND (a.timestamp < :cursorTimestamp OR (a.timestamp = :cursorTimestamp AND a.id < :cursorId)) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLogResponse> findPageBefore(
+            @Param("userId") Long userId,
+            @Param("action") String action,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
 }
@@ -1,9 +1,15 @@
 package com.trade_risk_system.repository;
 
+import com.trade_risk_system.dto.response.InstrumentResponse;
 import com.trade_risk_system.model.Instrument;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +17,24 @@ public interface InstrumentRepository extends JpaRepository<Instrument, Long> {
     Optional<Instrument> findBySymbol(String symbol);
 
     boolean existsBySymbol(String symbol);
+
+    /** Serializes price changes so each one is applied against the price it replaces. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Instrument i WHERE i.id = :id")
+    Optional<Instrument> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Share-locks the traded instrument and every instrument the user's
+     * portfolio holds, in id order. A pessimistic trade takes these before the
+     * portfolio, as price updates do, so no price of the portfolio can change
+     * until the trade has valued it and committed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT i FROM Instrument i WHERE i.id = :instrumentId OR i.id IN "
+            + "(SELECT p.instrument.id FROM Position p WHERE p.portfolio.user.id = :userId) ORDER BY i.id")
+    List<Instrument> findForTradeForShare(@Param("instrumentId") Long instrumentId, @Param("userId") Long userId);
+
+    @Query("SELECT new com.trade_risk_system.dto.response.InstrumentResponse(i.id, i.symbol, i.name, i.currentPrice) "
+            + "FROM Instrument i")
+    List<InstrumentResponse> findAllAsResponses();
 }
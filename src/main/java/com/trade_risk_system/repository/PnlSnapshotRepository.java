@@ -0,0 +1,24 @@
+package com.trade_risk_system.repository;
+
+import com.trade_risk_system.dto.response.PnlSnapshotResponse;
+import com.trade_risk_system.model.PnlSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PnlSnapshotRepository extends JpaRepository<PnlSnapshot, Long> {
+
+        @Query("SELECT new com.trade_risk_system.dto.response.PnlSnapshotResponse("
+                        + "s.portfolio.id, s.asOfDate, s.realizedPnl, s.unrealizedPnl, s.totalValue) "
+                        + "FROM PnlSnapshot s WHERE s.portfolio.id = :portfolioId "
+                        + "AND s.asOfDate BETWEEN :start AND :end ORDER BY s.asOfDate")
+        List<PnlSnapshotResponse> findResponses(
+                        @Param("portfolioId") Long portfolioId,
+                        @Param("start") LocalDate start,
+                        @Param("end") LocalDate end);
+}
@@ -1,12 +1,63 @@
 package com.trade_risk_system.repository;
 
+import com.trade_risk_system.dto.response.PortfolioResponse;
 import com.trade_risk_system.model.Portfolio;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
     Optional<Portfolio> findByUserId(Long userId);
+
+    /**
+     * Same as {@link #findByUserId} with the row locked until commit, so trades
+     * of one portfolio apply their P&L one after another.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Portfolio p WHERE p.user.id = :userId")
+    Optional<Portfolio> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    @Query(value = "SELECT new com.trade_risk_system.dto.response.PortfolioResponse(p.id, u.id, u.username, p.totalValue, "
+            + "p.realizedPnl, p.unrealizedPnl) "
+            + "FROM Portfolio p JOIN p.user u",
+            countQuery = "SELECT COUNT(p) FROM Portfolio p")
+    Page<PortfolioResponse> findAllAsResponses(Pageable pageable);
+
+    @Query("SELECT new com.trade_risk_system.dto.response.PortfolioResponse(p.id, u.id, u.username, p.totalValue, "
+            + "p.realizedPnl, p.unrealizedPnl) "
+            + "FROM Portfolio p JOIN p.user u WHERE EXISTS "
+            + "(SELECT 1 FROM Trade t WHERE t.user = u AND t.timestamp >= :since)")
+    List<PortfolioResponse> findActiveSinceAsResponses(@Param("since") LocalDateTime since, Limit limit);
+
+    /**
+     * Moves the mark of one instrument from {@code oldPrice} to {@code newPrice}
+     * in the value and unrealized P&L of every portfolio holding it. A null old
+     * price means positions were marked at their average price. The version is
+     * bumped so an optimistic trade that read the old figures is retried.
+     *
+     * @return portfolios updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Portfolio pf SET pf.version = pf.version + 1, "
+            + "pf.totalValue = COALESCE(pf.totalValue, 0) + (SELECT SUM((:newPrice - COALESCE(:oldPrice, p.avgPrice)) "
+            + "* p.quantity) FROM Position p WHERE p.portfolio = pf AND p.instrument.id = :instrumentId), "
+            + "pf.unrealizedPnl = pf.unrealizedPnl + (SELECT SUM((:newPrice - COALESCE(:oldPrice, p.avgPrice)) "
+            + "* p.quantity) FROM Position p WHERE p.portfolio = pf AND p.instrument.id = :instrumentId) "
+            + "WHERE EXISTS (SELECT 1 FROM Position p WHERE p.portfolio = pf AND p.instrument.id = :instrumentId)")
+    int applyPriceChange(@Param("instrumentId") Long instrumentId,
+            @Param("oldPrice") BigDecimal oldPrice,
+            @Param("newPrice") BigDecimal newPrice);
 }
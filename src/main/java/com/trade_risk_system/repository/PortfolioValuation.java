@@ -0,0 +1,27 @@
+package com.trade_risk_system.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Aggregate over a portfolio's open positions.
+ *
+ * @param marketValue quantity times mark, summed
+ * @param costBasis   quantity times average price, summed
+ */
+public record PortfolioValuation(BigDecimal marketValue, BigDecimal costBasis) {
+
+    public BigDecimal unrealizedPnl() {
+        return marketValue.subtract(costBasis);
+    }
+
+    public static PortfolioValuation sum(List<PortfolioValuation> positions) {
+        BigDecimal marketValue = BigDecimal.ZERO;
+        BigDecimal costBasis = BigDecimal.ZERO;
+        for (PortfolioValuation position : positions) {
+            marketValue = marketValue.add(position.marketValue());
+            costBasis = costBasis.add(position.costBasis());
+        }
+        return new PortfolioValuation(marketValue, costBasis);
+    }
+}
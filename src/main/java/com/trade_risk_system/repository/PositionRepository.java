@@ -21,6 +21,41 @@ public interface PositionRepository extends JpaRepository<Position, Long> {
             @Param("portfolioId") Long portfolioId,
             @Param("instrumentId") Long instrumentId);
 
+    /**
+     * Same as {@link #findByPortfolioIdAndInstrumentId} without the row lock,
+     * for optimistic trades; the version column catches concurrent changes.
+     */
+    @Query("SELECT p FROM Position p WHERE p.portfolio.id = :portfolioId AND p.instrument.id = :instrumentId")
+    Optional<Position> findUnlockedByPortfolioIdAndInstrumentId(
+            @Param("portfolioId") Long portfolioId,
+            @Param("instrumentId") Long instrumentId);
+
     @Query("SELECT p FROM Position p JOIN FETCH p.instrument WHERE p.portfolio.id = :portfolioId")
     List<Position> findByPortfolioIdWithInstrument(@Param("portfolioId") Long portfolioId);
+
+    /**
+     * Market value and cost basis of a portfolio in one statement. The mark is
+     * the current price, falling back to the average price when the instrument
+     * has no current price.
+     */
+    @Query("SELECT new com.trade_risk_system.repository.PortfolioValuation("
+            + "COALESCE(SUM(COALESCE(i.currentPrice, p.avgPrice) * p.quantity), 0), "
+            + "COALESCE(SUM(p.avgPrice * p.quantity), 0)) "
+            + "FROM Position p JOIN p.instrument i WHERE p.portfolio.id = :portfolioId")
+    PortfolioValuation valueByPortfolioId(@Param("portfolioId") Long portfolioId);
+
+    /**
+     * Valuation of each position of a portfolio, as a locking read, so it sees
+     * the latest committed prices rather than the transaction's snapshot.
+     * Row by row because locking reads cannot aggregate on every database;
+     * add them up with {@link PortfolioValuation#sum}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT new com.trade_risk_system.repository.PortfolioValuation("
+            + "COALESCE(i.currentPrice, p.avgPrice) * p.quantity, p.avgPrice * p.quantity) "
+            + "FROM Position p JOIN p.instrument i WHERE p.portfolio.id = :portfolioId")
+    List<PortfolioValuation> valuePositionsForShare(@Param("portfolioId") Long portfolioId);
+
+    @Query("SELECT DISTINCT p.portfolio.id FROM Position p WHERE p.instrument.id = :instrumentId")
+    List<Long> findPortfolioIdsByInstrumentId(@Param("instrumentId") Long instrumentId);
 }
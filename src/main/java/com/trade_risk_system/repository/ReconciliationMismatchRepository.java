@@ -0,0 +1,30 @@
+package com.trade_risk_system.repository;
+
+import com.trade_risk_system.dto.response.ReconciliationMismatchResponse;
+import com.trade_risk_system.model.ReconciliationMismatch;
+import com.trade_risk_system.model.enums.MismatchKind;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatch, Long> {
+
+        @Query(value = "SELECT new com.trade_risk_system.dto.response.ReconciliationMismatchResponse("
+                        + "m.id, m.jobName, m.businessDate, m.portfolioId, m.instrumentId, m.kind, "
+                        + "m.expectedQuantity, m.actualQuantity, m.expectedAvgPrice, m.actualAvgPrice, "
+                        + "m.expectedValue, m.actualValue, m.repaired, m.detectedAt) "
+                        + "FROM ReconciliationMismatch m WHERE m.businessDate = :businessDate "
+                        + "AND (:kind IS NULL OR m.kind = :kind)",
+                        countQuery = "SELECT COUNT(m) FROM ReconciliationMismatch m "
+                                        + "WHERE m.businessDate = :businessDate AND (:kind IS NULL OR m.kind = :kind)")
+        Page<ReconciliationMismatchResponse> findResponses(
+                        @Param("businessDate") LocalDate businessDate,
+                        @Param("kind") MismatchKind kind,
+                        Pageable pageable);
+}
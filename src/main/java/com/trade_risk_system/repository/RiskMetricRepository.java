@@ -1,20 +1,35 @@
 package com.trade_risk_system.repository;
 
+import com.trade_risk_system.dto.response.RiskResponse;
 import com.trade_risk_system.model.RiskMetric;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 
 @Repository
 public interface RiskMetricRepository extends JpaRepository<RiskMetric, Long> {
-        Page<RiskMetric> findByPortfolioId(Long portfolioId, Pageable pageable);
+        @Query(value = "SELECT new com.trade_risk_system.dto.response.RiskResponse("
+                        + "m.portfolio.id, m.totalExposure, m.concentrationRisk, m.riskScore, m.realizedPnl, m.unrealizedPnl, "
+                        + "m.timestamp) "
+                        + "FROM RiskMetric m WHERE m.portfolio.id = :portfolioId",
+                        countQuery = "SELECT COUNT(m) FROM RiskMetric m WHERE m.portfolio.id = :portfolioId")
+        Page<RiskResponse> findResponsesByPortfolioId(@Param("portfolioId") Long portfolioId, Pageable pageable);
 
-        Page<RiskMetric> findByPortfolioIdAndTimestampBetween(
-                        Long portfolioId,
-                        LocalDateTime start,
-                        LocalDateTime end,
+        @Query(value = "SELECT new com.trade_risk_system.dto.response.RiskResponse("
+                        + "m.portfolio.id, m.totalExposure, m.concentrationRisk, m.riskScore, m.realizedPnl, m.unrealizedPnl, "
+                        + "m.timestamp) "
+                        + "FROM RiskMetric m WHERE m.portfolio.id = :portfolioId "
+                        + "AND m.timestamp BETWEEN :start AND :end",
+                        countQuery = "SELECT COUNT(m) FROM RiskMetric m WHERE m.portfolio.id = :portfolioId "
+                                        + "AND m.timestamp BETWEEN :start AND :end")
+        Page<RiskResponse> findResponsesByPortfolioIdAndTimestampBetween(
+                        @Param("portfolioId") Long portfolioId,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end,
                         Pageable pageable);
 }
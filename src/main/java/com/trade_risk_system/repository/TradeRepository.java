@@ -1,14 +1,18 @@
 package com.trade_risk_system.repository;
 
+import com.trade_risk_system.dto.response.TradeResponse;
 import com.trade_risk_system.model.Trade;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface TradeRepository extends JpaRepository<Trade, Long> {
@@ -16,14 +20,75 @@ public interface TradeRepository extends JpaRepository<Trade, Long> {
         @Query("SELECT t FROM Trade t WHERE t.user.id = (SELECT p.user.id FROM Portfolio p WHERE p.id = :portfolioId)")
         Page<Trade> findByPortfolioId(@Param("portfolioId") Long portfolioId, Pageable pageable);
 
-        Page<Trade> findByInstrumentId(Long instrumentId, Pageable pageable);
+        // Slice queries fetch one extra row instead of running COUNT(*). They project
+        // straight into TradeResponse, joining the instrument in the same statement.
+        @Query("SELECT new com.trade_risk_system.dto.response.TradeResponse("
+                        + "t.id, t.user.id, i.id, i.symbol, t.quantity, t.price, t.side, t.status, t.timestamp) "
+                        + "FROM Trade t JOIN t.instrument i")
+        Slice<TradeResponse> findResponsesBy(Pageable pageable);
 
-        Page<Trade> findByTimestampBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
+        @Query("SELECT new com.trade_risk_system.dto.response.TradeResponse("
+                        + "t.id, t.user.id, i.id, i.symbol, t.quantity, t.price, t.side, t.status, t.timestamp) "
+                        + "FROM Trade t JOIN t.instrument i WHERE i.id = :instrumentId")
+        Slice<TradeResponse> findResponsesByInstrumentId(@Param("instrumentId") Long instrumentId, Pageable pageable);
+
+        @Query("SELECT new com.trade_risk_system.dto.response.TradeResponse("
+                        + "t.id, t.user.id, i.id, i.symbol, t.quantity, t.price, t.side, t.status, t.timestamp) "
+                        + "FROM Trade t JOIN t.instrument i WHERE t.timestamp BETWEEN :start AND :end")
+        Slice<TradeResponse> findResponsesByTimestampBetween(
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end,
+                        Pageable pageable);
+
+        long countByInstrumentId(Long instrumentId);
+
+        long countByTimestampBetween(LocalDateTime start, LocalDateTime end);
 
         @Query("SELECT t FROM Trade t WHERE t.instrument.id = :instrumentId AND t.timestamp BETWEEN :start AND :end")
-        Page<Trade> findByInstrumentIdAndTimestampBetween(
+        Slice<Trade> findByInstrumentIdAndTimestampBetween(
                         @Param("instrumentId") Long instrumentId,
                         @Param("start") LocalDateTime start,
                         @Param("end") LocalDateTime end,
                         Pageable pageable);
+
+        /**
+         * Seeks the next page after (cursorTimestamp, cursorId) in (timestamp DESC, id DESC)
+         * order within [start, end). Every bound is on the leading column of idx_trade_ts:
+         * {@code timestamp <= :cursorTimestamp} restates the seek so the optimizer gets one
+         * range to scan, and the OR only filters rows tied on the cursor's timestamp. The
+         * range on timestamp is also pruned to the partitions it covers.
+         */
+        @Query("SELECT new com.trade_risk_system.dto.response.TradeResponse("
+                        + "t.id, t.user.id, i.id, i.symbol, t.quantity, t.price, t.side, t.status, t.timestamp) "
+                        + "FROM Trade t JOIN t.instrument i "
+                        + "WHERE t.timestamp >= :start AND t.timestamp < :end "
+                        + "AND t.timestamp <= :cursorTimestamp "
+                        + "AND (t.timestamp < :cursorTimestamp OR t.id < :cursorId) "
+                        + "ORDER BY t.timestamp DESC, t.id DESC")
+        List<TradeResponse> findPageBefore(
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end,
+                        @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                        @Param("cursorId") Long cursorId,
+                        Limit limit);
+
+        /**
+         * {@link #findPageBefore} for one instrument, a range scan of idx_trade_instrument_ts.
+         * A separate query rather than an optional filter, which would hide the index.
+         */
+        @Query("SELECT new com.trade_risk_system.dto.response.TradeResponse("
+                        + "t.id, t.user.id, i.id, i.symbol, t.quantity, t.price, t.side, t.status, t.timestamp) "
+                        + "FROM Trade t JOIN t.instrument i "
+                        + "WHERE t.instrument.id = :instrumentId "
+                        + "AND t.timestamp >= :start AND t.timestamp < :end "
+                        + "AND t.timestamp <= :cursorTimestamp "
+                        + "AND (t.timestamp < :cursorTimestamp OR t.id < :cursorId) "
+                        + "ORDER BY t.timestamp DESC, t.id DESC")
+        List<TradeResponse> findPageBeforeByInstrumentId(
+                        @Param("instrumentId") Long instrumentId,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end,
+                        @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                        @Param("cursorId") Long cursorId,
+                        Limit limit);
 }
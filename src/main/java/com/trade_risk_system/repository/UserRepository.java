@@ -1,9 +1,14 @@
 package com.trade_risk_system.repository;
 
 import com.trade_risk_system.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +16,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    @Query("SELECT u FROM User u WHERE EXISTS "
+            + "(SELECT 1 FROM Trade t WHERE t.user = u AND t.timestamp >= :since)")
+    List<User> findActiveSince(@Param("since") LocalDateTime since, Limit limit);
 }
@@ -28,6 +28,13 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
+        return toUserDetails(user);
+    }
+
+    /**
+     * Maps a user entity to the security principal cached under "userDetails".
+     */
+    public UserDetails toUserDetails(User user) {
         return new org.springframework.security.core.userdetails.User(
                 user.getUsername(),
                 user.getPassword(),
@@ -40,6 +40,7 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(jwtAuthenticationEntryPoint))
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/metrics/**", "/actuator/batch/**").hasRole("ADMIN")
                         .requestMatchers("/", "/api/auth/**", "/actuator/**", "/error").permitAll()
                         .requestMatchers(
                                 "/v3/api-docs",
@@ -54,7 +55,12 @@ public class SecurityConfig {
                         .permitAll()
                         .requestMatchers("/api/instruments/**").hasRole("ADMIN")
                         .requestMatchers("/api/trades/**").hasRole("TRADER")
+                        .requestMatchers("/api/reconciliation/**").hasRole("ADMIN")
+                        .requestMatchers("/api/audit/**").hasAnyRole("ADMIN", "RISK_MANAGER")
+                        .requestMatchers("/api/analytics/**").hasAnyRole("ADMIN", "RISK_MANAGER")
+                        .requestMatchers("/api/changes/**").hasAnyRole("ADMIN", "RISK_MANAGER")
                         .requestMatchers("/api/risk/**").authenticated()
+                        .requestMatchers("/api/portfolios/revaluation").hasRole("ADMIN")
                         .requestMatchers("/api/portfolios/**").authenticated()
                         .anyRequest().authenticated())
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -0,0 +1,223 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.sharding.ShardContext;
+import com.trade_risk_system.sharding.ShardDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background writer for audit log rows.
+ * Actions are queued on a bounded, lock-free queue and flushed by a single
+ * thread with JDBC batch inserts, either when {@code flush-size} rows are
+ * waiting or every {@code flush-interval}, whichever comes first. Rows carry
+ * the user id directly; no {@code User} entity is loaded. Each row goes to
+ * the shard of its user's portfolio.
+ *
+ * When the queue is full the configured overflow policy applies:
+ * CALLER_RUNS writes the row synchronously on the calling thread, DROP
+ * discards it and counts the loss. Pending rows are flushed on shutdown.
+ */
+@Component
+public class AuditLogWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs (action, user_id, timestamp) VALUES (?, ?, ?)";
+
+    public enum OverflowPolicy {
+        CALLER_RUNS, DROP
+    }
+
+    record PendingAudit(String action, Long userId, LocalDateTime timestamp) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardDirectory shardDirectory;
+
+    private final ConcurrentLinkedQueue<PendingAudit> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Value("${application.audit.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${application.audit.writer.flush-size:500}")
+    private int flushSize;
+
+    @Value("${application.audit.writer.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    @Value("${application.audit.writer.overflow-policy:CALLER_RUNS}")
+    private OverflowPolicy overflowPolicy;
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate, ShardDirectory shardDirectory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardDirectory = shardDirectory;
+    }
+
+    /**
+     * Queues an audit row. Never blocks on the database unless the queue is
+     * full and the overflow policy is CALLER_RUNS, or the writer is stopped.
+     */
+    public void submit(String action, Long userId) {
+        PendingAudit audit = new PendingAudit(action, userId, LocalDateTime.now());
+        if (!running) {
+            write(List.of(audit));
+            return;
+        }
+
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                long total = dropped.incrementAndGet();
+                log.warn("AUDIT_QUEUE_FULL | Dropped: {} for user {} | Total dropped: {}", action, userId, total);
+            } else {
+                write(List.of(audit));
+            }
+            return;
+        }
+
+        queue.offer(audit);
+        if (!running) {
+            // stop() may have made its final drain between the check above and the offer
+            drainAndWrite(Integer.MAX_VALUE);
+            return;
+        }
+        if (queued.get() >= flushSize) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    public int getQueueSize() {
+        return queued.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::runWriter, "audit-log-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+        log.info("Audit log writer started | Capacity: {} | Flush size: {} | Flush interval: {}",
+                queueCapacity, flushSize, flushInterval);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(Duration.ofSeconds(30).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Anything queued after the writer's last drain
+        drainAndWrite(Integer.MAX_VALUE);
+        log.info("Audit log writer stopped | Dropped: {}", dropped.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server has stopped accepting requests, so in-flight
+     * requests can still queue their audit rows.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void runWriter() {
+        long intervalNanos = flushInterval.toNanos();
+        while (running) {
+            if (queued.get() < flushSize) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            while (drainAndWrite(flushSize) == flushSize) {
+                // keep flushing full batches while the queue is backed up
+            }
+        }
+        drainAndWrite(Integer.MAX_VALUE);
+    }
+
+    private int drainAndWrite(int max) {
+        List<PendingAudit> batch = new ArrayList<>(Math.min(max, flushSize));
+        PendingAudit audit;
+        while (batch.size() < max && (audit = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(audit);
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+        return batch.size();
+    }
+
+    private void write(List<PendingAudit> batch) {
+        if (!shardDirectory.isSharded()) {
+            writeToShard(batch);
+            return;
+        }
+        Map<Integer, List<PendingAudit>> byShard = new TreeMap<>();
+        for (PendingAudit audit : batch) {
+            byShard.computeIfAbsent(shardDirectory.shardOfUser(audit.userId()), shard -> new ArrayList<>())
+                    .add(audit);
+        }
+        byShard.forEach((shard, rows) -> ShardContext.call(shard, () -> {
+            writeToShard(rows);
+            return null;
+        }));
+    }
+
+    private void writeToShard(List<PendingAudit> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, audit) -> {
+                ps.setString(1, audit.action());
+                ps.setLong(2, audit.userId());
+                ps.setTimestamp(3, Timestamp.valueOf(audit.timestamp()));
+            });
+            log.debug("Audit batch written: {} rows", batch.size());
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                PendingAudit failed = batch.get(0);
+                log.error("Failed to persist audit log {} for user {}: {}",
+                        failed.action(), failed.userId(), e.getMessage());
+                return;
+            }
+            // One bad row (e.g. unknown user id) fails the whole batch; salvage the rest
+            log.warn("Audit batch of {} rows failed, retrying row by row: {}", batch.size(), e.getMessage());
+            batch.forEach(single -> writeToShard(List.of(single)));
+        }
+    }
+}
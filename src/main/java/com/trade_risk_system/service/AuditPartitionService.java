@@ -0,0 +1,172 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.archive.AuditArchiveStore;
+import com.trade_risk_system.archive.PartitionGranularity;
+import com.trade_risk_system.archive.RangePartition;
+import com.trade_risk_system.archive.RangePartitionManager;
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.response.AuditLogResponse;
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.sharding.ShardContext;
+import com.trade_risk_system.sharding.ShardDirectory;
+import com.trade_risk_system.sharding.ShardExecutor;
+import com.trade_risk_system.sharding.ShardIds;
+import com.trade_risk_system.util.StreamingQueries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Maintains the time partitions of {@code audit_logs}.
+ * Future partitions are created ahead of time; partitions that fall entirely
+ * outside the retention window are streamed to a compressed archive file and
+ * then dropped, which is a metadata-only operation instead of a locking DELETE.
+ * Every shard's {@code audit_logs} is maintained the same way, one shard after
+ * the other, each with its own archive.
+ */
+@Service
+@Workload(WorkloadType.ANALYTICS)
+public class AuditPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPartitionService.class);
+
+    private static final String ARCHIVE_SQL = "SELECT id, user_id, action, timestamp FROM audit_logs PARTITION (%s) "
+            + "ORDER BY timestamp, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditArchiveStore archiveStore;
+    private final RangePartitionManager partitionManager;
+    private final ShardDirectory shardDirectory;
+    private final ShardExecutor shardExecutor;
+
+    @Value("${application.audit.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.audit.partitioning.future-partitions:3}")
+    private int futurePartitions;
+
+    @Value("${application.audit.partitioning.retention:365d}")
+    private Duration retention;
+
+    @Value("${application.audit.archive.max-query-rows:10000}")
+    private int maxQueryRows;
+
+    public AuditPartitionService(JdbcTemplate jdbcTemplate,
+            AuditArchiveStore archiveStore,
+            @Value("${application.audit.partitioning.granularity:MONTH}") PartitionGranularity granularity,
+            ShardDirectory shardDirectory,
+            ShardExecutor shardExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveStore = archiveStore;
+        this.partitionManager = new RangePartitionManager(jdbcTemplate, "audit_logs", granularity);
+        this.shardDirectory = shardDirectory;
+        this.shardExecutor = shardExecutor;
+    }
+
+    /**
+     * Splits current periods off the migration's history partition if it
+     * reaches into them, then creates upcoming partitions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        if (enabled) {
+            shardExecutor.forEachShard(shard -> partitionManager.withMaintenanceLock(() -> {
+                partitionManager.repairHistoryPartition(LocalDate.now());
+                return partitionManager.ensureFuturePartitions(LocalDate.now(), futurePartitions);
+            }));
+        }
+    }
+
+    /**
+     * Creates upcoming partitions, then archives and drops expired ones.
+     */
+    @Scheduled(cron = "${application.audit.partitioning.cron:0 15 0 * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        shardExecutor.forEachShard(shard -> partitionManager.withMaintenanceLock(() -> {
+            partitionManager.ensureFuturePartitions(LocalDate.now(), futurePartitions);
+            return archiveExpired(LocalDateTime.now().minus(retention), archiveStore.forShard(shard));
+        }));
+    }
+
+    /**
+     * Archives and drops every partition of the current shard that ends at or
+     * before the cutoff.
+     *
+     * @return archive files written
+     */
+    public List<Path> archiveExpired(LocalDateTime cutoff) {
+        Integer shard = ShardContext.current();
+        return archiveExpired(cutoff, archiveStore.forShard(shard != null ? shard : ShardIds.GLOBAL_SHARD));
+    }
+
+    private List<Path> archiveExpired(LocalDateTime cutoff, AuditArchiveStore store) {
+        List<Path> archived = new ArrayList<>();
+        for (RangePartition partition : partitionManager.partitionsEndingBefore(cutoff)) {
+            long start = System.nanoTime();
+            try (AuditArchiveStore.ArchiveWriter writer = store.openWriter(
+                    partition.lowerBound(), partition.upperBound())) {
+                jdbcTemplate.query(
+                        StreamingQueries.forwardOnly(ARCHIVE_SQL.formatted(partition.name()),
+                                StreamingQueries.MYSQL_ROW_STREAMING),
+                        rs -> {
+                            try {
+                                writer.write(rs.getLong(1), rs.getObject(2, Long.class), rs.getString(3),
+                                        rs.getObject(4, LocalDateTime.class));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                Path file = writer.commit();
+                partitionManager.dropPartition(partition.name());
+                archived.add(file);
+                log.info("AUDIT_PARTITION_ARCHIVED | Partition: {} | Rows: {} | File: {} | Duration: {}ms",
+                        partition.name(), writer.getRows(), file,
+                        Duration.ofNanos(System.nanoTime() - start).toMillis());
+            } catch (IOException | RuntimeException e) {
+                // Keep the partition; the next run retries it
+                log.error("Failed to archive audit partition {}: {}", partition.name(), e.getMessage(), e);
+                break;
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Reads archived audit rows straight from the archive files.
+     */
+    public List<AuditLogResponse> queryArchive(LocalDateTime start, LocalDateTime end, Long userId, String action,
+            int limit) {
+        if (!start.isBefore(end)) {
+            throw new BadRequestException("start must be before end");
+        }
+        int rows = Math.min(Math.max(limit, 1), maxQueryRows);
+        if (!shardDirectory.isSharded()) {
+            return archiveStore.read(start, end, userId, action, rows);
+        }
+        List<AuditLogResponse> merged = new ArrayList<>();
+        for (int shard = 0; shard < shardDirectory.getShardCount(); shard++) {
+            merged.addAll(archiveStore.forShard(shard).read(start, end, userId, action, rows));
+        }
+        merged.sort(Comparator.comparing(AuditLogResponse::timestamp).thenComparing(AuditLogResponse::id));
+        return merged.size() > rows ? merged.subList(0, rows) : merged;
+    }
+}
@@ -1,56 +1,87 @@
 package com.trade_risk_system.service;
 
-import com.trade_risk_system.model.AuditLog;
-import com.trade_risk_system.model.User;
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.common.CursorPage;
+import com.trade_risk_system.dto.common.KeysetCursor;
+import com.trade_risk_system.dto.response.AuditLogResponse;
+import com.trade_risk_system.exception.BadRequestException;
 import com.trade_risk_system.repository.AuditLogRepository;
-import com.trade_risk_system.repository.UserRepository;
+import com.trade_risk_system.sharding.ShardExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Service for managing system audit logs.
- * Audit logs are persisted in a separate transaction to ensure traceability
- * even if the calling operation fails (depending on propagation).
+ * Audit rows are handed to the {@link AuditLogWriter}, which persists them
+ * asynchronously in JDBC batches outside the caller's transaction, so
+ * auditing never adds a transaction or a user lookup to the calling path.
+ * Audit rows live on the shard of the user's portfolio; queries gather them
+ * from all shards.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuditService {
 
+    /** Default look-back when a query gives no start. */
+    static final int DEFAULT_WINDOW_DAYS = 30;
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final Comparator<AuditLogResponse> NEWEST_FIRST = Comparator
+            .comparing(AuditLogResponse::timestamp).thenComparing(AuditLogResponse::id).reversed();
+
+    private final AuditLogWriter auditLogWriter;
     private final AuditLogRepository auditLogRepository;
-    private final UserRepository userRepository;
+    private final ShardExecutor shardExecutor;
 
     /**
      * Records a system action performed by a user.
-     * 
+     *
      * @param action The name of the action being performed (e.g., TRADE_EXECUTED)
      * @param userId The ID of the user performing the action
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logAction(String action, Long userId) {
-        try {
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
-                log.warn("Could not log audit action: User not found with id {}", userId);
-                return;
-            }
-
-            AuditLog auditLog = AuditLog.builder()
-                    .action(action)
-                    .user(user)
-                    .timestamp(LocalDateTime.now())
-                    .build();
-
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log saved: {} for user {}", action, userId);
-        } catch (Exception e) {
-            // Silently fail to not interrupt main transaction
-            log.error("Failed to persist audit log: {}", e.getMessage());
+        if (userId == null) {
+            log.warn("Could not log audit action {}: no user id", action);
+            return;
         }
+        auditLogWriter.submit(action, userId);
+    }
+
+    /**
+     * Returns one page of audit logs, newest first, using keyset pagination.
+     *
+     * @param userId optional user filter
+     * @param action optional action filter
+     * @param start  inclusive lower bound; defaults to 30 days before end
+     * @param end    exclusive upper bound; defaults to now
+     * @param cursor cursor from the previous page, or null for the first page
+     * @param limit  page size, capped at 500
+     */
+    @Transactional(readOnly = true)
+    @Workload(WorkloadType.ANALYTICS)
+    public CursorPage<AuditLogResponse> getAuditLogs(Long userId, String action, LocalDateTime start,
+            LocalDateTime end, String cursor, int limit) {
+        LocalDateTime upper = end != null ? end : LocalDateTime.now();
+        LocalDateTime lower = start != null ? start : upper.minusDays(DEFAULT_WINDOW_DAYS);
+        if (!lower.isBefore(upper)) {
+            throw new BadRequestException("start must be before end");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        KeysetCursor position = cursor != null ? KeysetCursor.decode(cursor) : KeysetCursor.before(upper);
+
+        List<AuditLogResponse> rows = shardExecutor.scatterSorted(NEWEST_FIRST, pageSize + 1,
+                () -> auditLogRepository.findPageBefore(userId, action, lower, upper,
+                        position.timestamp(), position.id(), Limit.of(pageSize + 1)));
+        return CursorPage.of(rows, pageSize, row -> new KeysetCursor(row.timestamp(), row.id()));
     }
 }
@@ -1,9 +1,6 @@
 package com.trade_risk_system.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import com.trade_risk_system.event.SideEffectBus;
 import org.springframework.stereotype.Service;
 
 /**
@@ -13,16 +10,17 @@ import org.springframework.stereotype.Service;
  *
  * Integration contract: Any future endpoint that modifies User, Portfolio,
  * Instrument, or Position data MUST call the appropriate eviction method.
+ *
+ * Evictions are queued on the {@link SideEffectBus} and applied after the
+ * surrounding transaction commits, batched with the rest of its evictions.
  */
 @Service
 public class CacheEvictionService {
 
-    private static final Logger log = LoggerFactory.getLogger(CacheEvictionService.class);
-
-    private final CacheManager cacheManager;
+    private final SideEffectBus sideEffectBus;
 
-    public CacheEvictionService(CacheManager cacheManager) {
-        this.cacheManager = cacheManager;
+    public CacheEvictionService(SideEffectBus sideEffectBus) {
+        this.sideEffectBus = sideEffectBus;
     }
 
     /**
@@ -59,18 +57,10 @@ public class CacheEvictionService {
     }
 
     private void evictKey(String cacheName, Object key) {
-        Cache cache = cacheManager.getCache(cacheName);
-        if (cache != null) {
-            cache.evict(key);
-            log.debug("Cache evicted [{}:{}]", cacheName, key);
-        }
+        sideEffectBus.evict(cacheName, key);
     }
 
     private void clearCache(String cacheName) {
-        Cache cache = cacheManager.getCache(cacheName);
-        if (cache != null) {
-            cache.clear();
-            log.debug("Cache cleared [{}]", cacheName);
-        }
+        sideEffectBus.clear(cacheName);
     }
 }
@@ -0,0 +1,205 @@
+package com.trade_risk_system.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-key Redis operations against the Spring caches.
+ * Keys are built exactly as {@code RedisCache} builds them (prefix, conversion
+ * service, key serializer), so entries written or removed here are the same
+ * entries {@code @Cacheable} reads.
+ *
+ * Operations bypass the transaction-aware cache decorator and take effect
+ * immediately; callers are expected to run after commit.
+ */
+@Service
+public class CachePipelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(CachePipelineService.class);
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+
+    public CachePipelineService(CacheManager cacheManager, StringRedisTemplate redisTemplate) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Removes the given keys from their caches with a single multi-key DEL.
+     *
+     * @param keysByCache cache name to the keys to evict from it
+     */
+    public void evict(Map<String, ? extends Collection<?>> keysByCache) {
+        if (keysByCache.isEmpty()) {
+            return;
+        }
+        if (!(cacheManager instanceof RedisCacheManager)) {
+            keysByCache.forEach((cacheName, keys) -> {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null) {
+                    keys.forEach(cache::evict);
+                }
+            });
+            return;
+        }
+
+        List<byte[]> rawKeys = new ArrayList<>();
+        keysByCache.forEach((cacheName, keys) -> keys.forEach(key -> rawKeys.add(rawKey(cacheName, key))));
+        if (rawKeys.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands()
+                    .del(rawKeys.toArray(new byte[0][])));
+            log.debug("Cache batch evicted {} keys across {}", rawKeys.size(), keysByCache.keySet());
+        } catch (RuntimeException e) {
+            log.warn("Cache batch EVICT failed {}: {}", keysByCache.keySet(), e.getMessage());
+        }
+    }
+
+    /**
+     * Reads entries from a cache with a single MGET, using the cache's own
+     * value serializer.
+     *
+     * @param cacheName source cache
+     * @param keys      cache keys to read
+     * @param type      expected value type; entries of another type count as misses
+     * @return cache key to value for the keys found, in the order given; empty if Redis is unavailable
+     */
+    public <K, V> Map<K, V> getAll(String cacheName, Collection<K> keys, Class<V> type) {
+        Map<K, V> found = new LinkedHashMap<>();
+        if (keys.isEmpty()) {
+            return found;
+        }
+        if (!(cacheManager instanceof RedisCacheManager)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                keys.forEach(key -> {
+                    Cache.ValueWrapper wrapper = cache.get(key);
+                    if (wrapper != null && type.isInstance(wrapper.get())) {
+                        found.put(key, type.cast(wrapper.get()));
+                    }
+                });
+            }
+            return found;
+        }
+
+        RedisCacheConfiguration config = configurationFor(cacheName);
+        List<K> ordered = new ArrayList<>(keys);
+        byte[][] rawKeys = ordered.stream().map(key -> rawKey(cacheName, key)).toArray(byte[][]::new);
+        try {
+            List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection
+                    .stringCommands().mGet(rawKeys));
+            for (int i = 0; values != null && i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(values.get(i)));
+                    if (type.isInstance(value)) {
+                        found.put(ordered.get(i), type.cast(value));
+                    }
+                }
+            }
+            log.debug("Cache batch get [{}]: {} of {} keys found", cacheName, found.size(), ordered.size());
+        } catch (RuntimeException e) {
+            log.warn("Cache batch GET failed [{}]: {}", cacheName, e.getMessage());
+            found.clear();
+        }
+        return found;
+    }
+
+    /**
+     * Writes entries into a cache in one pipelined round trip, using the cache's
+     * own value serializer and TTL.
+     *
+     * @param cacheName target cache
+     * @param entries   cache key to value; null values are skipped
+     * @return number of entries written
+     */
+    public int putAll(String cacheName, Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        if (!(cacheManager instanceof RedisCacheManager)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                return 0;
+            }
+            entries.forEach((key, value) -> {
+                if (value != null) {
+                    cache.put(key, value);
+                }
+            });
+            return entries.size();
+        }
+
+        RedisCacheConfiguration config = configurationFor(cacheName);
+        List<RawEntry> writes = new ArrayList<>(entries.size());
+        entries.forEach((key, value) -> {
+            if (value != null) {
+                Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                writes.add(new RawEntry(rawKey(cacheName, key),
+                        ByteUtils.getBytes(config.getValueSerializationPair().write(value)),
+                        ttl == null || ttl.isZero() || ttl.isNegative()
+                                ? Expiration.persistent()
+                                : Expiration.from(ttl)));
+            }
+        });
+
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (RawEntry entry : writes) {
+                    connection.stringCommands().set(entry.key(), entry.value(), entry.expiration(),
+                            RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+            log.debug("Cache batch put {} entries into [{}]", writes.size(), cacheName);
+            return writes.size();
+        } catch (RuntimeException e) {
+            log.warn("Cache batch PUT failed [{}]: {}", cacheName, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Builds the raw Redis key for a cache entry.
+     */
+    byte[] rawKey(String cacheName, Object key) {
+        RedisCacheConfiguration config = configurationFor(cacheName);
+        String converted = key instanceof String s ? s : config.getConversionService().convert(key, String.class);
+        String prefixed = config.usePrefix() ? config.getKeyPrefixFor(cacheName) + converted : converted;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(prefixed));
+    }
+
+    RedisCacheConfiguration configurationFor(String cacheName) {
+        if (cacheManager instanceof RedisCacheManager redisCacheManager) {
+            RedisCacheConfiguration config = redisCacheManager.getCacheConfigurations().get(cacheName);
+            if (config != null) {
+                return config;
+            }
+        }
+        return RedisCacheConfiguration.defaultCacheConfig();
+    }
+
+    private record RawEntry(byte[] key, byte[] value, Expiration expiration) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.datasource.WorkloadContext;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.response.InstrumentResponse;
+import com.trade_risk_system.dto.response.PortfolioResponse;
+import com.trade_risk_system.repository.InstrumentRepository;
+import com.trade_risk_system.repository.PortfolioRepository;
+import com.trade_risk_system.repository.UserRepository;
+import com.trade_risk_system.security.CustomUserDetailsService;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Preloads hot reference data into the Redis caches at startup.
+ * Each cache is filled from one set-based query and written back with
+ * pipelined SETs, so a fresh deploy does not send its first wave of traffic
+ * straight to MySQL. Loaders run in parallel and are abandoned when the time
+ * budget runs out; warm-up is best effort and never fails startup.
+ */
+@Service
+public class CacheWarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, TIMED_OUT, FAILED, DISABLED
+    }
+
+    public record Report(Status status, Map<String, Integer> entriesLoaded, long durationMs) {
+    }
+
+    private final InstrumentRepository instrumentRepository;
+    private final UserRepository userRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final CachePipelineService cachePipelineService;
+    private final ShardExecutor shardExecutor;
+
+    @Value("${application.cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.cache.warmup.parallelism:3}")
+    private int parallelism;
+
+    @Value("${application.cache.warmup.time-budget:30s}")
+    private Duration timeBudget;
+
+    @Value("${application.cache.warmup.active-window:7d}")
+    private Duration activeWindow;
+
+    @Value("${application.cache.warmup.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${application.cache.warmup.batch-size:500}")
+    private int batchSize;
+
+    private volatile Report report = new Report(Status.PENDING, Map.of(), 0);
+
+    public CacheWarmupService(InstrumentRepository instrumentRepository,
+            UserRepository userRepository,
+            PortfolioRepository portfolioRepository,
+            CustomUserDetailsService userDetailsService,
+            CachePipelineService cachePipelineService,
+            ShardExecutor shardExecutor) {
+        this.instrumentRepository = instrumentRepository;
+        this.userRepository = userRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.userDetailsService = userDetailsService;
+        this.cachePipelineService = cachePipelineService;
+        this.shardExecutor = shardExecutor;
+    }
+
+    /**
+     * Runs the warm-up and blocks until it finishes or the time budget expires.
+     */
+    public Report warmUp() {
+        if (!enabled) {
+            report = new Report(Status.DISABLED, Map.of(), 0);
+            return report;
+        }
+
+        long start = System.nanoTime();
+        report = new Report(Status.RUNNING, Map.of(), 0);
+        LocalDateTime since = LocalDateTime.now().minus(activeWindow);
+
+        Map<String, Callable<Integer>> loaders = new LinkedHashMap<>();
+        loaders.put("instruments", () -> load("instruments",
+                instrumentRepository.findAllAsResponses(), InstrumentResponse::id));
+        // Activity is per shard: each shard knows the users and portfolios trading on it
+        loaders.put("userDetails", () -> load("userDetails",
+                shardExecutor.scatter(shard -> userRepository.findActiveSince(since, Limit.of(maxEntries)).stream()
+                        .map(userDetailsService::toUserDetails)
+                        .toList()).stream().flatMap(List::stream).toList(),
+                UserDetails::getUsername));
+        loaders.put("portfolios", () -> load("portfolios",
+                shardExecutor.scatter(shard -> portfolioRepository.findActiveSinceAsResponses(since,
+                        Limit.of(maxEntries))).stream().flatMap(List::stream).toList(),
+                PortfolioResponse::id));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), warmupThreadFactory());
+        Map<String, Integer> loaded = new LinkedHashMap<>();
+        Status status = Status.COMPLETED;
+        try {
+            List<Callable<Integer>> tasks = loaders.values().stream()
+                    .map(loader -> (Callable<Integer>) () -> WorkloadContext.call(WorkloadType.ANALYTICS, loader))
+                    .toList();
+            List<Future<Integer>> futures = executor.invokeAll(tasks, timeBudget.toMillis(), TimeUnit.MILLISECONDS);
+            List<String> names = new ArrayList<>(loaders.keySet());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    loaded.put(names.get(i), futures.get(i).get());
+                } catch (CancellationException e) {
+                    log.warn("CACHE_WARMUP_TIMEOUT | Cache: {} | Budget: {}", names.get(i), timeBudget);
+                    status = Status.TIMED_OUT;
+                } catch (ExecutionException e) {
+                    log.warn("CACHE_WARMUP_FAILED | Cache: {} | Error: {}", names.get(i), e.getCause().getMessage());
+                    if (status == Status.COMPLETED) {
+                        status = Status.FAILED;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = Status.TIMED_OUT;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        report = new Report(status, Map.copyOf(loaded), durationMs);
+        log.info("CACHE_WARMUP_DONE | Status: {} | Loaded: {} | Duration: {}ms", status, loaded, durationMs);
+        return report;
+    }
+
+    public Report getReport() {
+        return report;
+    }
+
+    private <T> int load(String cacheName, List<T> values, Function<T, Object> keyFunction) {
+        int written = 0;
+        Map<Object, Object> batch = new LinkedHashMap<>();
+        for (T value : values) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            batch.put(keyFunction.apply(value), value);
+            if (batch.size() >= batchSize) {
+                written += cachePipelineService.putAll(cacheName, batch);
+                batch.clear();
+            }
+        }
+        written += cachePipelineService.putAll(cacheName, batch);
+        log.debug("Cache warmed [{}] with {} entries", cacheName, written);
+        return written;
+    }
+
+    private static ThreadFactory warmupThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
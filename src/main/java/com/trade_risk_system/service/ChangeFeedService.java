@@ -0,0 +1,430 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.dto.common.ChangeFeedCursor;
+import com.trade_risk_system.dto.response.ChangeEventResponse;
+import com.trade_risk_system.dto.response.ChangeFeedResponse;
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.exception.CursorExpiredException;
+import com.trade_risk_system.model.enums.ChangeEntity;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Serves position, portfolio and risk changes in order, so clients can keep a
+ * copy of that state current by reading only what changed.
+ *
+ * Database triggers (see V14) append an event to {@code change_events} in the
+ * transaction that made the change. Every {@code sequence-interval} the
+ * sequencer numbers the committed events of each shard in one transaction
+ * under the {@code change_feed_state} row lock, so sequence numbers grow in
+ * the order events become visible and a reader never skips one. Clients read
+ * with a cursor holding the last number they saw on each shard; a long-poll
+ * waits up to {@code max-wait} for the first change past it.
+ *
+ * Every event carries the full new state of its row, so compaction removes
+ * events that a newer one for the same row replaces, once they are older than
+ * {@code compact-after}. Deletions are kept for {@code tombstone-retention};
+ * a cursor that predates a purged deletion is rejected and its client must
+ * reload the state and start again from a fresh cursor.
+ */
+@Service
+public class ChangeFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    private static final String LOCK_STATE_SQL = "SELECT last_seq FROM change_feed_state WHERE id = 1 FOR UPDATE";
+
+    private static final String UNSEQUENCED_SQL = "SELECT id FROM change_events WHERE seq IS NULL ORDER BY id LIMIT ?";
+
+    private static final String ASSIGN_SQL = "UPDATE change_events SET seq = ? WHERE id = ?";
+
+    private static final String ADVANCE_SQL = "UPDATE change_feed_state SET last_seq = ? WHERE id = 1";
+
+    private static final String LAST_SEQ_SQL = "SELECT last_seq FROM change_feed_state WHERE id = 1";
+
+    private static final String PURGED_THROUGH_SQL = "SELECT purged_through FROM change_feed_state WHERE id = 1";
+
+    private static final String READ_SQL = "SELECT seq, entity, deleted, portfolio_id, instrument_id, quantity, "
+            + "avg_price, total_value, realized_pnl, unrealized_pnl, risk_score, total_exposure, changed_at "
+            + "FROM change_events WHERE seq > ? %s ORDER BY seq LIMIT ?";
+
+    private static final String HORIZON_SQL = "SELECT MAX(seq) FROM change_events WHERE changed_at < ?";
+
+    private static final String SUPERSEDED_SQL = "SELECT e.id, e.seq FROM change_events e "
+            + "WHERE e.seq > ? AND e.seq <= ? AND EXISTS (SELECT 1 FROM change_events n "
+            + "WHERE n.portfolio_id = e.portfolio_id AND n.entity = e.entity "
+            + "AND n.instrument_id = e.instrument_id AND n.seq > e.seq) "
+            + "ORDER BY e.seq LIMIT ?";
+
+    private static final String LAST_TOMBSTONE_SQL = "SELECT MAX(seq) FROM change_events "
+            + "WHERE deleted = TRUE AND seq <= ?";
+
+    private static final String TOMBSTONES_SQL = "SELECT id FROM change_events "
+            + "WHERE deleted = TRUE AND seq <= ? ORDER BY seq LIMIT ?";
+
+    private static final String PURGE_SQL = "UPDATE change_feed_state "
+            + "SET purged_through = GREATEST(purged_through, ?) WHERE id = 1";
+
+    /** Events removed by one compaction run on the current shard. */
+    public record Compaction(int superseded, int tombstones) {
+    }
+
+    private record Change(long seq, ChangeEventResponse event) {
+    }
+
+    /** A shard's changes past the cursor, and the last number handed out before they were read. */
+    private record ShardChanges(long head, List<Change> changes) {
+    }
+
+    private static final class Waiter {
+
+        private ChangeFeedCursor cursor;
+        private final Long portfolioId;
+        private final int limit;
+        private final long deadline;
+        private final CompletableFuture<ChangeFeedResponse> result = new CompletableFuture<>();
+
+        Waiter(ChangeFeedCursor cursor, Long portfolioId, int limit, long deadline) {
+            this.cursor = cursor;
+            this.portfolioId = portfolioId;
+            this.limit = limit;
+            this.deadline = deadline;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardExecutor shardExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate sequencerTransaction;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    @Value("${application.changes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.changes.max-wait:30s}")
+    private Duration maxWait;
+
+    @Value("${application.changes.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${application.changes.compact-after:1h}")
+    private Duration compactAfter;
+
+    @Value("${application.changes.tombstone-retention:7d}")
+    private Duration tombstoneRetention;
+
+    @Value("${application.changes.compaction-chunk-size:1000}")
+    private int chunkSize;
+
+    public ChangeFeedService(JdbcTemplate jdbcTemplate, ShardExecutor shardExecutor,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardExecutor = shardExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sequencerTransaction = new TransactionTemplate(transactionManager);
+        // Each statement must see rows committed while the state lock was awaited
+        this.sequencerTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Up to {@code limit} changes after the cursor, or none if nothing changed.
+     *
+     * @param token       cursor from the previous response, or null to read
+     *                    from the oldest retained change
+     * @param portfolioId only changes of this portfolio, or null for all
+     * @throws CursorExpiredException if deletions after the cursor were purged
+     */
+    public ChangeFeedResponse getChanges(String token, Long portfolioId, int limit) {
+        return read(ChangeFeedCursor.decode(token), portfolioId, checkLimit(limit));
+    }
+
+    /**
+     * Like {@link #getChanges}, but when nothing changed after the cursor the
+     * result completes with the first changes made within {@code wait}, or
+     * with an empty response once it has passed.
+     */
+    public CompletableFuture<ChangeFeedResponse> awaitChanges(String token, Long portfolioId, int limit,
+            Duration wait) {
+        ChangeFeedCursor cursor = ChangeFeedCursor.decode(token);
+        int checkedLimit = checkLimit(limit);
+        ChangeFeedResponse response = read(cursor, portfolioId, checkedLimit);
+        if (!response.changes().isEmpty() || wait == null || wait.isZero() || wait.isNegative()) {
+            return CompletableFuture.completedFuture(response);
+        }
+        Duration bounded = wait.compareTo(maxWait) > 0 ? maxWait : wait;
+        Waiter waiter = new Waiter(ChangeFeedCursor.decode(response.cursor()), portfolioId, checkedLimit,
+                System.nanoTime() + bounded.toNanos());
+        waiters.add(waiter);
+        return waiter.result;
+    }
+
+    /**
+     * Numbers committed events on every shard.
+     */
+    @Scheduled(fixedDelayString = "${application.changes.sequence-interval:200ms}")
+    public void sequenceAll() {
+        if (enabled) {
+            shardExecutor.forEachShard(shard -> sequence());
+        }
+    }
+
+    /**
+     * Numbers the committed events of the current shard in id order.
+     *
+     * @return events numbered
+     */
+    public int sequence() {
+        int total = 0;
+        while (true) {
+            int numbered = sequencerTransaction.execute(status -> {
+                long lastSeq = jdbcTemplate.queryForObject(LOCK_STATE_SQL, Long.class);
+                List<Long> ids = jdbcTemplate.queryForList(UNSEQUENCED_SQL, Long.class, chunkSize);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                jdbcTemplate.batchUpdate(ASSIGN_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, lastSeq + i + 1);
+                        ps.setLong(2, ids.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return ids.size();
+                    }
+                });
+                jdbcTemplate.update(ADVANCE_SQL, lastSeq + ids.size());
+                return ids.size();
+            });
+            total += numbered;
+            if (numbered < chunkSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.debug("CHANGE_FEED_SEQUENCED | Events: {}", total);
+        }
+        return total;
+    }
+
+    /**
+     * Answers waiting long-polls that have changes to read or have run out
+     * of time.
+     */
+    @Scheduled(fixedDelayString = "${application.changes.poll-interval:250ms}")
+    public void wakeWaiters() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        List<Long> heads = shardExecutor.scatter(shard -> jdbcTemplate.queryForObject(LAST_SEQ_SQL, Long.class));
+        long now = System.nanoTime();
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext();) {
+            Waiter waiter = it.next();
+            if (waiter.result.isDone()) {
+                it.remove();
+                continue;
+            }
+            try {
+                if (isBehind(waiter.cursor, heads)) {
+                    ChangeFeedResponse response = read(waiter.cursor, waiter.portfolioId, waiter.limit);
+                    if (!response.changes().isEmpty()) {
+                        waiter.result.complete(response);
+                        it.remove();
+                        continue;
+                    }
+                    // Nothing for this filter up to the heads; skip them next time
+                    waiter.cursor = ChangeFeedCursor.decode(response.cursor());
+                }
+                if (now >= waiter.deadline) {
+                    waiter.result.complete(new ChangeFeedResponse(List.of(), waiter.cursor.encode(), false));
+                    it.remove();
+                }
+            } catch (RuntimeException e) {
+                waiter.result.completeExceptionally(e);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Compacts the change log of every shard.
+     */
+    @Scheduled(cron = "${application.changes.compaction-cron:0 */10 * * * *}")
+    public void compactAll() {
+        if (!enabled) {
+            return;
+        }
+        shardExecutor.forEachShard(shard -> {
+            Compaction compaction = compact(LocalDateTime.now());
+            if (compaction.superseded() > 0 || compaction.tombstones() > 0) {
+                log.info("CHANGE_FEED_COMPACTED | Shard: {} | Superseded: {} | Tombstones: {}",
+                        shard, compaction.superseded(), compaction.tombstones());
+            }
+        });
+    }
+
+    /**
+     * Removes, on the current shard, events replaced by a newer event for the
+     * same row and older than {@code compact-after}, and deletions older than
+     * {@code tombstone-retention}. Each chunk is deleted in its own
+     * transaction.
+     */
+    public Compaction compact(LocalDateTime now) {
+        int superseded = 0;
+        Long horizon = jdbcTemplate.queryForObject(HORIZON_SQL, Long.class, now.minus(compactAfter));
+        long afterSeq = 0;
+        while (horizon != null) {
+            List<long[]> chunk = jdbcTemplate.query(SUPERSEDED_SQL,
+                    (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) }, afterSeq, horizon, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            superseded += deleteEvents(chunk.stream().map(row -> row[0]).toList());
+            afterSeq = chunk.get(chunk.size() - 1)[1];
+        }
+
+        int tombstones = 0;
+        Long tombstoneHorizon = jdbcTemplate.queryForObject(HORIZON_SQL, Long.class, now.minus(tombstoneRetention));
+        Long purgeThrough = tombstoneHorizon == null ? null
+                : jdbcTemplate.queryForObject(LAST_TOMBSTONE_SQL, Long.class, tombstoneHorizon);
+        if (purgeThrough != null) {
+            // Published before the deletions, so a reader that misses a
+            // deletion always sees that its cursor has expired
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(PURGE_SQL, purgeThrough));
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(TOMBSTONES_SQL, Long.class, purgeThrough, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                tombstones += deleteEvents(ids);
+            }
+        }
+        return new Compaction(superseded, tombstones);
+    }
+
+    private int deleteEvents(List<Long> ids) {
+        // Ids are longs, so inlining them is safe
+        String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.update("DELETE FROM change_events WHERE id IN (" + in + ")"));
+    }
+
+    private int checkLimit(int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new BadRequestException("limit must be between 1 and " + maxLimit);
+        }
+        return limit;
+    }
+
+    private static boolean isBehind(ChangeFeedCursor cursor, List<Long> heads) {
+        for (int shard = 0; shard < heads.size(); shard++) {
+            if (heads.get(shard) > cursor.after(shard)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads every shard past the cursor and merges the changes by time,
+     * keeping for each shard an unbroken run from its cursor so the new
+     * cursor never passes an unreturned change.
+     */
+    private ChangeFeedResponse read(ChangeFeedCursor cursor, Long portfolioId, int limit) {
+        List<ShardChanges> shards = shardExecutor.scatter(
+                shard -> readShard(cursor.after(shard), portfolioId, limit));
+
+        List<ChangeEventResponse> merged = new ArrayList<>();
+        int[] taken = new int[shards.size()];
+        Comparator<Change> order = Comparator.comparing(change -> change.event().changedAt());
+        while (merged.size() < limit) {
+            int next = -1;
+            for (int shard = 0; shard < shards.size(); shard++) {
+                List<Change> changes = shards.get(shard).changes();
+                if (taken[shard] < changes.size() && (next < 0
+                        || order.compare(changes.get(taken[shard]), shards.get(next).changes().get(taken[next])) < 0)) {
+                    next = shard;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            merged.add(shards.get(next).changes().get(taken[next]++).event());
+        }
+
+        ChangeFeedCursor nextCursor = cursor;
+        boolean hasMore = false;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            List<Change> changes = shards.get(shard).changes();
+            if (taken[shard] < changes.size()) {
+                hasMore = true;
+            }
+            if (taken[shard] == changes.size() && changes.size() <= limit) {
+                // Every change up to the head was returned
+                nextCursor = nextCursor.advance(shard, shards.get(shard).head());
+            } else if (taken[shard] > 0) {
+                nextCursor = nextCursor.advance(shard, changes.get(taken[shard] - 1).seq());
+            }
+        }
+        return new ChangeFeedResponse(merged, nextCursor.encode(), hasMore);
+    }
+
+    private ShardChanges readShard(long afterSeq, Long portfolioId, int limit) {
+        // The head is read first: every change numbered up to it is already visible
+        long head = jdbcTemplate.queryForObject(LAST_SEQ_SQL, Long.class);
+        List<Change> changes = portfolioId != null
+                ? jdbcTemplate.query(READ_SQL.formatted("AND portfolio_id = ?"), ChangeFeedService::mapChange,
+                        afterSeq, portfolioId, limit + 1)
+                : jdbcTemplate.query(READ_SQL.formatted(""), ChangeFeedService::mapChange, afterSeq, limit + 1);
+        // Read after the changes: if a purge removed one of them, its mark is visible here
+        long purgedThrough = jdbcTemplate.queryForObject(PURGED_THROUGH_SQL, Long.class);
+        if (afterSeq > 0 && afterSeq < purgedThrough) {
+            throw new CursorExpiredException(
+                    "Cursor is older than the retained change history; reload the state and start a new feed");
+        }
+        return new ShardChanges(head, changes);
+    }
+
+    private static Change mapChange(ResultSet rs, int rowNum) throws SQLException {
+        ChangeEntity entity = ChangeEntity.valueOf(rs.getString("entity"));
+        boolean deleted = rs.getBoolean("deleted");
+        long instrumentId = rs.getLong("instrument_id");
+        return new Change(rs.getLong("seq"), new ChangeEventResponse(
+                entity,
+                rs.getLong("portfolio_id"),
+                instrumentId != 0 ? instrumentId : null,
+                deleted ? Boolean.TRUE : null,
+                rs.getObject("quantity", Integer.class),
+                rs.getBigDecimal("avg_price"),
+                rs.getBigDecimal("total_value"),
+                rs.getBigDecimal("realized_pnl"),
+                rs.getBigDecimal("unrealized_pnl"),
+                rs.getBigDecimal("risk_score"),
+                rs.getBigDecimal("total_exposure"),
+                rs.getObject("changed_at", LocalDateTime.class)));
+    }
+}
@@ -0,0 +1,122 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.dto.request.TradeRequest;
+import com.trade_risk_system.dto.response.TradeResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs trades under the configured {@link TradeConcurrencyMode}.
+ * Pessimistic trades run once. An optimistic trade that loses a race on its
+ * portfolio or position (a stale version, or a second insert of the same new
+ * position) is rolled back and run again from the start, up to
+ * {@code max-attempts} times, sleeping a random time below an exponentially
+ * growing bound in between so colliding trades spread out instead of colliding
+ * again.
+ */
+@Service
+@Slf4j
+public class ConcurrentTradeExecutor {
+
+    /** Unique key on positions (portfolio_id, instrument_id), added in V13. */
+    private static final String POSITION_KEY = "uk_position_portfolio_instrument";
+
+    private final TradeService tradeService;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    @Value("${application.trades.concurrency.mode:PESSIMISTIC}")
+    private TradeConcurrencyMode mode;
+
+    @Value("${application.trades.concurrency.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${application.trades.concurrency.backoff:5ms}")
+    private Duration backoff;
+
+    @Value("${application.trades.concurrency.max-backoff:100ms}")
+    private Duration maxBackoff;
+
+    public ConcurrentTradeExecutor(TradeService tradeService, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.tradeService = tradeService;
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.retries = Counter.builder("trades.concurrency.retries")
+                .description("Optimistic trades run again after a conflict")
+                .register(registry);
+        this.exhausted = Counter.builder("trades.concurrency.exhausted")
+                .description("Optimistic trades that still conflicted on their last attempt")
+                .register(registry);
+    }
+
+    /**
+     * Executes the trade, retrying optimistic conflicts. Inside a caller's
+     * transaction the trade cannot be rolled back on its own, so it runs once.
+     *
+     * @throws OptimisticLockingFailureException if every attempt conflicted
+     */
+    public TradeResponse executeTrade(TradeRequest request, Long userId) {
+        if (mode != TradeConcurrencyMode.OPTIMISTIC || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return tradeService.executeTrade(request, userId);
+        }
+        for (int attempt = 1;; attempt++) {
+            try {
+                return tradeService.executeTrade(request, userId);
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                // Two first buys of an instrument collide on the position's unique
+                // key; any other integrity violation is a real error
+                if (e instanceof DataIntegrityViolationException violation && !isPositionKeyCollision(violation)) {
+                    throw violation;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("TRADE_CONFLICT_EXHAUSTED | User: {} | Instrument: {} | Attempts: {}",
+                            userId, request.instrumentId(), attempt);
+                    throw e;
+                }
+                retries.increment();
+                log.debug("TRADE_CONFLICT_RETRY | User: {} | Instrument: {} | Attempt: {}",
+                        userId, request.instrumentId(), attempt);
+                sleep(attempt);
+            }
+        }
+    }
+
+    /**
+     * Whether the violation is a second insert of the same position. Decided
+     * by the constraint name when the driver reports one, otherwise by it
+     * being a duplicate key.
+     */
+    static boolean isPositionKeyCollision(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(POSITION_KEY);
+            }
+        }
+        return e instanceof DuplicateKeyException;
+    }
+
+    private void sleep(int attempt) {
+        long bound = Math.min(maxBackoff.toNanos(), backoff.toNanos() << Math.min(attempt - 1, 20));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry a trade", e);
+        }
+    }
+}
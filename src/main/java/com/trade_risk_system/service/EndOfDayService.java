@@ -0,0 +1,34 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.batch.BatchJobLauncher;
+import com.trade_risk_system.batch.eod.EndOfDayJobConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Runs the end-of-day batch: mark-to-market, then position, P&L and risk
+ * snapshots for every portfolio on every shard. A failed run is resumed by
+ * starting it again for the same business date.
+ */
+@Service
+public class EndOfDayService {
+
+    private final BatchJobLauncher batchJobLauncher;
+
+    @Value("${application.batch.eod.enabled:true}")
+    private boolean enabled;
+
+    public EndOfDayService(BatchJobLauncher batchJobLauncher) {
+        this.batchJobLauncher = batchJobLauncher;
+    }
+
+    @Scheduled(cron = "${application.batch.eod.cron:0 30 23 * * *}")
+    public void runEndOfDay() {
+        if (enabled) {
+            batchJobLauncher.run(EndOfDayJobConfig.JOB_NAME, LocalDate.now());
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.dto.request.InstrumentRequest;
+import com.trade_risk_system.dto.response.InstrumentImportResponse;
+import com.trade_risk_system.dto.response.InstrumentImportResponse.RowError;
+import com.trade_risk_system.event.SideEffectBus;
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.sharding.ReferenceDataReplicator;
+import com.trade_risk_system.util.MoneyUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates and updates instruments by symbol in bulk, from a request body or
+ * a streamed CSV file.
+ *
+ * Rows are validated like {@code POST /api/instruments} and deduplicated by
+ * symbol in memory, the last row winning. They are then written in chunks of
+ * {@code batch-size}, one transaction each: existing rows are read and locked
+ * with one {@code IN} query, and new and changed rows are written in one JDBC
+ * batch each. A changed price re-marks positions as
+ * {@link InstrumentService#updatePrice} does. Changed instruments are
+ * replicated to the other shards after each chunk commits, and the instrument
+ * caches are cleared once, after the last chunk.
+ */
+@Service
+public class InstrumentImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(InstrumentImportService.class);
+
+    private static final String LOCK_SQL = "SELECT id, symbol, name, current_price FROM instruments "
+            + "WHERE symbol IN (:symbols) FOR UPDATE";
+
+    private static final String IDS_SQL = "SELECT id FROM instruments WHERE symbol IN (:symbols)";
+
+    private static final String INSERT_SQL = "INSERT INTO instruments (symbol, name, current_price) VALUES (?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE instruments SET name = ?, current_price = ? WHERE id = ?";
+
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+
+    private record Row(long line, String symbol, String name, BigDecimal price) {
+    }
+
+    private record Existing(long id, String name, BigDecimal price) {
+    }
+
+    private record PriceChange(long instrumentId, BigDecimal oldPrice, BigDecimal newPrice) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final CacheEvictionService cacheEvictionService;
+    private final SideEffectBus sideEffectBus;
+    private final ReferenceDataReplicator referenceDataReplicator;
+    private final PnlService pnlService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.instruments.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${application.instruments.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public InstrumentImportService(JdbcTemplate jdbcTemplate,
+            CacheEvictionService cacheEvictionService,
+            SideEffectBus sideEffectBus,
+            ReferenceDataReplicator referenceDataReplicator,
+            PnlService pnlService,
+            Validator validator,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.cacheEvictionService = cacheEvictionService;
+        this.sideEffectBus = sideEffectBus;
+        this.referenceDataReplicator = referenceDataReplicator;
+        this.pnlService = pnlService;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Upserts the given instruments; errors name the item's 1-based position.
+     */
+    public InstrumentImportResponse upsert(List<InstrumentRequest> instruments) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        for (int i = 0; i < instruments.size(); i++) {
+            progress.seen++;
+            progress.accept(i + 1, instruments.get(i));
+        }
+        return write(progress, start);
+    }
+
+    /**
+     * Reads a UTF-8 CSV of {@code symbol,name,price} rows, with an optional
+     * header line, and upserts them; errors name the file line.
+     *
+     * @throws BadRequestException if the file is not valid UTF-8
+     */
+    public InstrumentImportResponse importCsv(InputStream csv) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        // Reports malformed bytes instead of silently replacing them
+        BufferedReader reader = new BufferedReader(Channels.newReader(Channels.newChannel(csv),
+                StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT),
+                -1), READ_BUFFER_CHARS);
+        long line = 0;
+        try {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (line == 1 && text.startsWith("\uFEFF")) {
+                    text = text.substring(1);
+                }
+                if (text.isBlank() || (line == 1 && isHeader(text))) {
+                    continue;
+                }
+                progress.seen++;
+                List<String> fields = parseCsvLine(text);
+                if (fields == null) {
+                    progress.reject(line, null, "Unterminated quoted field");
+                } else if (fields.size() != 3) {
+                    progress.reject(line, fields.get(0).trim(),
+                            "Expected 3 fields (symbol,name,price), found " + fields.size());
+                } else {
+                    progress.accept(line, toRequest(line, fields, progress));
+                }
+            }
+        } catch (CharacterCodingException e) {
+            // The decoder runs a buffer ahead of the lines read, so the bad line is not known
+            throw new BadRequestException("File is not valid UTF-8; nothing was imported");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return write(progress, start);
+    }
+
+    private InstrumentRequest toRequest(long line, List<String> fields, Progress progress) {
+        String price = fields.get(2).trim();
+        if (price.isEmpty()) {
+            return new InstrumentRequest(fields.get(0).trim(), fields.get(1).trim(), null);
+        }
+        try {
+            return new InstrumentRequest(fields.get(0).trim(), fields.get(1).trim(), new BigDecimal(price));
+        } catch (NumberFormatException e) {
+            progress.reject(line, fields.get(0).trim(), "Price is not a number: " + price);
+            return null;
+        }
+    }
+
+    private InstrumentImportResponse write(Progress progress, long start) {
+        // A symbol keeps the position of its first row and the values of its last; write in file order
+        List<Row> rows = new ArrayList<>(progress.rows.values());
+        rows.sort(Comparator.comparingLong(Row::line));
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Row> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeChunk(chunk, progress));
+            } catch (DataAccessException e) {
+                // A symbol created concurrently, or a failing shard; the other chunks still go in
+                log.warn("INSTRUMENT_IMPORT_CHUNK_FAILED | Rows: {} | Error: {}", chunk.size(), e.getMessage());
+                chunk.forEach(row -> progress.reject(row.line(), row.symbol(),
+                        "Chunk failed: " + e.getMostSpecificCause().getMessage()));
+            }
+            log.info("INSTRUMENT_IMPORT_PROGRESS | Rows: {}/{} | Inserted: {} | Updated: {} | Failed: {}",
+                    Math.min(from + batchSize, rows.size()), rows.size(), progress.inserted, progress.updated,
+                    progress.failed);
+        }
+        if (progress.inserted + progress.updated > 0) {
+            cacheEvictionService.evictInstrumentCaches();
+        }
+
+        InstrumentImportResponse response = new InstrumentImportResponse(progress.seen, progress.inserted,
+                progress.updated, progress.unchanged, progress.duplicates, progress.failed, progress.errors,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        log.info("INSTRUMENT_IMPORT | Rows: {} | Inserted: {} | Updated: {} | Unchanged: {} | Duplicates: {} "
+                + "| Failed: {} | Total: {}ms", response.rows(), response.inserted(), response.updated(),
+                response.unchanged(), response.duplicates(), response.failed(), response.totalMs());
+        return response;
+    }
+
+    /**
+     * Writes one chunk in the caller's transaction; replication and price
+     * changes on the other shards follow its commit.
+     */
+    private void writeChunk(List<Row> chunk, Progress progress) {
+        Map<String, Existing> existing = new HashMap<>();
+        namedJdbcTemplate.query(LOCK_SQL, symbols(chunk), rs -> {
+            existing.put(rs.getString(2), new Existing(rs.getLong(1), rs.getString(3), rs.getBigDecimal(4)));
+        });
+
+        List<Row> inserts = new ArrayList<>();
+        List<Row> updates = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        List<PriceChange> priceChanges = new ArrayList<>();
+        int unchanged = 0;
+        for (Row row : chunk) {
+            Existing current = existing.get(row.symbol());
+            if (current == null) {
+                inserts.add(row);
+            } else if (current.price() == null || current.price().compareTo(row.price()) != 0) {
+                updates.add(row);
+                updatedIds.add(current.id());
+                priceChanges.add(new PriceChange(current.id(), current.price(), row.price()));
+            } else if (!row.name().equals(current.name())) {
+                updates.add(row);
+                updatedIds.add(current.id());
+            } else {
+                unchanged++;
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, row) -> {
+            ps.setString(1, row.symbol());
+            ps.setString(2, row.name());
+            ps.setBigDecimal(3, row.price());
+        });
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, row) -> {
+            ps.setString(1, row.name());
+            ps.setBigDecimal(2, row.price());
+            ps.setLong(3, existing.get(row.symbol()).id());
+        });
+        for (PriceChange change : priceChanges) {
+            pnlService.applyPriceChange(change.instrumentId(), change.oldPrice(), change.newPrice());
+        }
+
+        List<Long> changedIds = new ArrayList<>(updatedIds);
+        if (!inserts.isEmpty()) {
+            changedIds.addAll(namedJdbcTemplate.queryForList(IDS_SQL,
+                    symbols(inserts), Long.class));
+        }
+        sideEffectBus.afterCommit(() -> {
+            referenceDataReplicator.replicateInstruments(changedIds);
+            for (PriceChange change : priceChanges) {
+                pnlService.applyPriceChangeToOtherShards(change.instrumentId(), change.oldPrice(),
+                        change.newPrice());
+            }
+        });
+        progress.chunkWritten(inserts.size(), updates.size(), unchanged);
+    }
+
+    private static MapSqlParameterSource symbols(List<Row> rows) {
+        return new MapSqlParameterSource("symbols", rows.stream().map(Row::symbol).toList());
+    }
+
+    private static boolean isHeader(String line) {
+        List<String> fields = parseCsvLine(line);
+        return fields != null && fields.get(0).trim().equalsIgnoreCase("symbol");
+    }
+
+    /**
+     * Splits one CSV line on commas; fields may be double-quoted, with
+     * {@code ""} for a quote. Returns null for an unterminated quote.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Rows accepted so far, by symbol, and the counts and errors of the run. */
+    private final class Progress {
+
+        private final Map<String, Row> rows = new LinkedHashMap<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long seen;
+        private int inserted;
+        private int updated;
+        private int unchanged;
+        private int duplicates;
+        private int failed;
+
+        void accept(long line, InstrumentRequest request) {
+            if (request == null) {
+                return;
+            }
+            List<String> violations = validator.validate(request).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .toList();
+            if (!violations.isEmpty()) {
+                reject(line, request.symbol(), String.join("; ", violations));
+                return;
+            }
+            Row row = new Row(line, request.symbol(), request.name(), MoneyUtils.scale(request.currentPrice()));
+            if (rows.put(request.symbol(), row) != null) {
+                duplicates++;
+            }
+        }
+
+        void reject(long line, String symbol, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, symbol, message));
+            }
+        }
+
+        void chunkWritten(int chunkInserted, int chunkUpdated, int chunkUnchanged) {
+            inserted += chunkInserted;
+            updated += chunkUpdated;
+            unchanged += chunkUnchanged;
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.trade_risk_system.service;
 
 import com.trade_risk_system.dto.request.InstrumentRequest;
 import com.trade_risk_system.dto.response.InstrumentResponse;
+import com.trade_risk_system.event.SideEffectBus;
 import com.trade_risk_system.exception.DuplicateResourceException;
 import com.trade_risk_system.exception.ResourceNotFoundException;
 import com.trade_risk_system.model.Instrument;
 import com.trade_risk_system.repository.InstrumentRepository;
+import com.trade_risk_system.sharding.ReferenceDataReplicator;
+import com.trade_risk_system.util.MoneyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
@@ -14,6 +17,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 @Service
 @Transactional(readOnly = true)
 public class InstrumentService {
@@ -22,11 +28,20 @@ public class InstrumentService {
 
     private final InstrumentRepository instrumentRepository;
     private final CacheEvictionService cacheEvictionService;
+    private final SideEffectBus sideEffectBus;
+    private final ReferenceDataReplicator referenceDataReplicator;
+    private final PnlService pnlService;
 
     public InstrumentService(InstrumentRepository instrumentRepository,
-            CacheEvictionService cacheEvictionService) {
+            CacheEvictionService cacheEvictionService,
+            SideEffectBus sideEffectBus,
+            ReferenceDataReplicator referenceDataReplicator,
+            PnlService pnlService) {
         this.instrumentRepository = instrumentRepository;
         this.cacheEvictionService = cacheEvictionService;
+        this.sideEffectBus = sideEffectBus;
+        this.referenceDataReplicator = referenceDataReplicator;
+        this.pnlService = pnlService;
     }
 
     @Transactional
@@ -45,9 +60,39 @@ public class InstrumentService {
         Instrument savedInstrument = instrumentRepository.save(instrument);
         log.info("Instrument created: {}", savedInstrument.getId());
         cacheEvictionService.evictInstrumentCaches();
+        // Instruments are replicated to every shard
+        Long instrumentId = savedInstrument.getId();
+        sideEffectBus.afterCommit(() -> referenceDataReplicator.replicateInstruments(List.of(instrumentId)));
         return mapToResponse(savedInstrument);
     }
 
+    /**
+     * Sets an instrument's current price and re-marks every position in it.
+     * Portfolios on the global shard are revalued in this transaction; the
+     * price and the revaluation reach the other shards after commit.
+     */
+    @Transactional
+    public InstrumentResponse updatePrice(Long id, BigDecimal price) {
+        Instrument instrument = instrumentRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Instrument not found with id: " + id));
+        BigDecimal oldPrice = instrument.getCurrentPrice();
+        BigDecimal newPrice = MoneyUtils.scale(price);
+        if (oldPrice != null && oldPrice.compareTo(newPrice) == 0) {
+            return mapToResponse(instrument);
+        }
+        instrument.setCurrentPrice(newPrice);
+        int revalued = pnlService.applyPriceChange(id, oldPrice, newPrice);
+        log.info("INSTRUMENT_PRICE_UPDATED | Instrument: {} | Old: {} | New: {} | Portfolios: {}",
+                id, oldPrice, newPrice, revalued);
+
+        cacheEvictionService.evictInstrumentCaches();
+        sideEffectBus.afterCommit(() -> {
+            referenceDataReplicator.replicateInstruments(List.of(id));
+            pnlService.applyPriceChangeToOtherShards(id, oldPrice, newPrice);
+        });
+        return mapToResponse(instrument);
+    }
+
     @Cacheable(value = "instruments-list", keyGenerator = "pageableCacheKeyGenerator")
     public Page<InstrumentResponse> getAllInstruments(Pageable pageable) {
         log.debug("Fetching all instruments, page: {}", pageable.getPageNumber());
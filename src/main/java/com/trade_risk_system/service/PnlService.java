@@ -0,0 +1,122 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.response.PnlSnapshotResponse;
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.repository.PnlSnapshotRepository;
+import com.trade_risk_system.repository.PortfolioRepository;
+import com.trade_risk_system.repository.PositionRepository;
+import com.trade_risk_system.sharding.ShardExecutor;
+import com.trade_risk_system.sharding.ShardIds;
+import com.trade_risk_system.sharding.ShardKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps portfolio P&L current outside the trade path and serves its daily
+ * history, which the end-of-day batch records.
+ *
+ * Trades maintain realized and unrealized P&L themselves (see
+ * {@link TradeService#executeTrade}). A price change moves the unrealized
+ * P&L and value of every portfolio holding the instrument by
+ * {@code quantity * (new - old)} in one set-based update per shard, so no
+ * portfolio is recomputed from scratch.
+ */
+@Service
+public class PnlService {
+
+    private static final Logger log = LoggerFactory.getLogger(PnlService.class);
+
+    static final int MAX_HISTORY_DAYS = 366;
+
+    private final PortfolioRepository portfolioRepository;
+    private final PositionRepository positionRepository;
+    private final PnlSnapshotRepository pnlSnapshotRepository;
+    private final CacheEvictionService cacheEvictionService;
+    private final ShardExecutor shardExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    public PnlService(PortfolioRepository portfolioRepository,
+            PositionRepository positionRepository,
+            PnlSnapshotRepository pnlSnapshotRepository,
+            CacheEvictionService cacheEvictionService,
+            ShardExecutor shardExecutor,
+            PlatformTransactionManager transactionManager) {
+        this.portfolioRepository = portfolioRepository;
+        this.positionRepository = positionRepository;
+        this.pnlSnapshotRepository = pnlSnapshotRepository;
+        this.cacheEvictionService = cacheEvictionService;
+        this.shardExecutor = shardExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Re-marks one instrument on the current shard, in the caller's
+     * transaction, and evicts the affected portfolio and risk entries after
+     * commit.
+     *
+     * @param oldPrice the price being replaced; null if there was none
+     * @return portfolios revalued
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int applyPriceChange(Long instrumentId, BigDecimal oldPrice, BigDecimal newPrice) {
+        List<Long> portfolioIds = positionRepository.findPortfolioIdsByInstrumentId(instrumentId);
+        if (portfolioIds.isEmpty()) {
+            return 0;
+        }
+        int updated = portfolioRepository.applyPriceChange(instrumentId, oldPrice, newPrice);
+        for (Long portfolioId : portfolioIds) {
+            cacheEvictionService.evictPortfolioCache(portfolioId);
+            cacheEvictionService.evictRiskCache(portfolioId);
+        }
+        return updated;
+    }
+
+    /**
+     * Applies a price change that was committed on the global shard to every
+     * other shard, each in its own transaction.
+     */
+    public void applyPriceChangeToOtherShards(Long instrumentId, BigDecimal oldPrice, BigDecimal newPrice) {
+        shardExecutor.forEachShard(shard -> {
+            if (shard == ShardIds.GLOBAL_SHARD) {
+                return;
+            }
+            try {
+                Integer updated = transactionTemplate.execute(
+                        status -> applyPriceChange(instrumentId, oldPrice, newPrice));
+                log.debug("Price change of instrument {} applied to {} portfolios on shard {}",
+                        instrumentId, updated, shard);
+            } catch (RuntimeException e) {
+                // Left for the next full revaluation of the shard
+                log.error("Failed to apply price change of instrument {} on shard {}: {}",
+                        instrumentId, shard, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Daily P&L snapshots of one portfolio, oldest first.
+     */
+    @Transactional(readOnly = true)
+    @Workload(WorkloadType.ANALYTICS)
+    public List<PnlSnapshotResponse> getPnlHistory(@ShardKey(ShardKey.Type.PORTFOLIO) Long portfolioId,
+            LocalDate start, LocalDate end) {
+        LocalDate upper = end != null ? end : LocalDate.now();
+        LocalDate lower = start != null ? start : upper.minusDays(30);
+        if (lower.isAfter(upper) || lower.plusDays(MAX_HISTORY_DAYS).isBefore(upper)) {
+            throw new BadRequestException("start must be before end and at most " + MAX_HISTORY_DAYS
+                    + " days earlier");
+        }
+        return pnlSnapshotRepository.findResponses(portfolioId, lower, upper);
+    }
+}
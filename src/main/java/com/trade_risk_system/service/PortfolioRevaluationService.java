@@ -0,0 +1,235 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.request.RevaluationRequest;
+import com.trade_risk_system.dto.response.RevaluationResponse;
+import com.trade_risk_system.sharding.ShardExecutor;
+import com.trade_risk_system.util.MoneyUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes portfolio value and unrealized P&L from positions at current
+ * prices, in set-based reads and JDBC batch writes.
+ *
+ * Each chunk of portfolios is one transaction: one grouped read finds the
+ * portfolios whose stored figures are stale, one batch update corrects them,
+ * and their {@code portfolios} and {@code risk} cache entries are evicted
+ * after commit in a single Redis pipeline. A portfolio changed by a trade
+ * since it was read is left alone, since the trade valued it exactly.
+ * The end-of-day mark-to-market step uses the same read and write.
+ */
+@Service
+public class PortfolioRevaluationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioRevaluationService.class);
+
+    public record Valuation(long portfolioId, BigDecimal previousValue, BigDecimal previousUnrealizedPnl,
+            BigDecimal totalValue, BigDecimal unrealizedPnl) {
+    }
+
+    private static final String VALUE_SQL = "SELECT pf.id, pf.total_value, pf.unrealized_pnl, "
+            + "COALESCE(SUM(COALESCE(i.current_price, p.avg_price) * p.quantity), 0), "
+            + "COALESCE(SUM(p.avg_price * p.quantity), 0) "
+            + "FROM portfolios pf "
+            + "LEFT JOIN positions p ON p.portfolio_id = pf.id "
+            + "LEFT JOIN instruments i ON i.id = p.instrument_id "
+            + "WHERE %s "
+            + "GROUP BY pf.id, pf.total_value, pf.unrealized_pnl";
+
+    // A value is never negative, so -1 stands for a missing one
+    private static final String WRITE_SQL = "UPDATE portfolios SET total_value = ?, unrealized_pnl = ?, version = version + 1 "
+            + "WHERE id = ? AND COALESCE(total_value, -1) = ? AND unrealized_pnl = ?";
+
+    private static final BigDecimal NO_VALUE = BigDecimal.ONE.negate();
+
+    private static final String RANGE = "pf.id > ? AND pf.id <= ?";
+
+    private static final String NEXT_IDS_SQL = "SELECT id FROM portfolios WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String NEXT_HOLDER_IDS_SQL = "SELECT DISTINCT portfolio_id FROM positions "
+            + "WHERE instrument_id = ? AND portfolio_id > ? ORDER BY portfolio_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheEvictionService cacheEvictionService;
+    private final ShardExecutor shardExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.portfolios.revaluation.chunk-size:500}")
+    private int chunkSize;
+
+    public PortfolioRevaluationService(JdbcTemplate jdbcTemplate,
+            CacheEvictionService cacheEvictionService,
+            ShardExecutor shardExecutor,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheEvictionService = cacheEvictionService;
+        this.shardExecutor = shardExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Revalues the requested portfolios on every shard, one chunk per
+     * transaction, and reports counts and where the time went.
+     */
+    @Workload(WorkloadType.ANALYTICS)
+    public RevaluationResponse revalue(RevaluationRequest request) {
+        List<Long> portfolioIds = request != null && request.portfolioIds() != null
+                ? new ArrayList<>(new TreeSet<>(request.portfolioIds()))
+                : List.of();
+        Long instrumentId = request != null ? request.instrumentId() : null;
+        Progress progress = new Progress();
+        long start = System.nanoTime();
+
+        shardExecutor.forEachShard(shard -> {
+            if (!portfolioIds.isEmpty()) {
+                for (int from = 0; from < portfolioIds.size(); from += chunkSize) {
+                    revalueChunk(progress,
+                            inList(portfolioIds.subList(from, Math.min(from + chunkSize, portfolioIds.size()))));
+                }
+                return;
+            }
+            long afterId = 0;
+            while (true) {
+                List<Long> chunk = instrumentId != null
+                        ? jdbcTemplate.queryForList(NEXT_HOLDER_IDS_SQL, Long.class, instrumentId, afterId, chunkSize)
+                        : jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, afterId, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                long lastId = chunk.get(chunk.size() - 1);
+                if (instrumentId != null) {
+                    revalueChunk(progress, inList(chunk));
+                } else {
+                    revalueChunk(progress, RANGE, afterId, lastId);
+                }
+                afterId = lastId;
+            }
+        });
+
+        RevaluationResponse response = progress.report(System.nanoTime() - start);
+        log.info("PORTFOLIO_REVALUATION | Portfolios: {} | Stale: {} | Revalued: {} | Skipped: {} | Chunks: {} "
+                + "| Read: {}ms | Write: {}ms | Commit+evict: {}ms | Total: {}ms",
+                response.portfolios(), response.stale(), response.revalued(), response.skipped(), response.chunks(),
+                response.readMs(), response.writeMs(), response.commitAndEvictMs(), response.totalMs());
+        return response;
+    }
+
+    /**
+     * Portfolios with ids in {@code (afterId, lastId]} whose stored value or
+     * unrealized P&L differs from their positions at current prices.
+     */
+    public List<Valuation> findStale(long afterId, long lastId) {
+        return findStale(new int[1], RANGE, afterId, lastId);
+    }
+
+    /**
+     * Writes the valuations in one JDBC batch, in the caller's transaction,
+     * and evicts the portfolios written after commit.
+     *
+     * @return portfolios written; the rest changed since they were read
+     */
+    public int apply(List<Valuation> valuations) {
+        if (valuations.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(WRITE_SQL, valuations, valuations.size(), (ps, item) -> {
+            ps.setBigDecimal(1, item.totalValue());
+            ps.setBigDecimal(2, item.unrealizedPnl());
+            ps.setLong(3, item.portfolioId());
+            ps.setBigDecimal(4, item.previousValue() != null ? item.previousValue() : NO_VALUE);
+            ps.setBigDecimal(5, item.previousUnrealizedPnl());
+        });
+        int written = 0;
+        for (int i = 0; i < valuations.size(); i++) {
+            // Drivers that cannot report a count return SUCCESS_NO_INFO (-2)
+            if (counts[0][i] != 0) {
+                written++;
+                cacheEvictionService.evictPortfolioCache(valuations.get(i).portfolioId());
+                cacheEvictionService.evictRiskCache(valuations.get(i).portfolioId());
+            }
+        }
+        return written;
+    }
+
+    private List<Valuation> findStale(int[] seen, String condition, Object... args) {
+        List<Valuation> stale = new ArrayList<>();
+        jdbcTemplate.query(VALUE_SQL.formatted(condition), rs -> {
+            seen[0]++;
+            BigDecimal previousValue = rs.getBigDecimal(2);
+            BigDecimal previousUnrealized = rs.getBigDecimal(3);
+            BigDecimal marketValue = MoneyUtils.scale(rs.getBigDecimal(4));
+            BigDecimal unrealized = MoneyUtils.scale(rs.getBigDecimal(4).subtract(rs.getBigDecimal(5)));
+            if (previousValue == null || previousValue.compareTo(marketValue) != 0
+                    || previousUnrealized.compareTo(unrealized) != 0) {
+                stale.add(new Valuation(rs.getLong(1), previousValue, previousUnrealized, marketValue,
+                        unrealized));
+            }
+        }, args);
+        return stale;
+    }
+
+    private static String inList(List<Long> portfolioIds) {
+        // Ids are longs, so inlining them is safe
+        return "pf.id IN (" + portfolioIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")";
+    }
+
+    private void revalueChunk(Progress progress, String condition, Object... args) {
+        long start = System.nanoTime();
+        long[] phases = new long[2];
+        int[] seen = new int[1];
+        List<Valuation> stale = new ArrayList<>();
+        int written = transactionTemplate.execute(status -> {
+            stale.addAll(findStale(seen, condition, args));
+            phases[0] = System.nanoTime();
+            int count = apply(stale);
+            phases[1] = System.nanoTime();
+            return count;
+        });
+        long end = System.nanoTime();
+        progress.chunkDone(seen[0], stale.size(), written, phases[0] - start, phases[1] - phases[0],
+                end - phases[1]);
+    }
+
+    /** Totals across chunks and shards; chunks run one at a time. */
+    private static final class Progress {
+
+        private long portfolios;
+        private long stale;
+        private long revalued;
+        private int chunks;
+        private long readNanos;
+        private long writeNanos;
+        private long commitNanos;
+
+        void chunkDone(int chunkPortfolios, int chunkStale, int chunkRevalued, long read, long write,
+                long commit) {
+            portfolios += chunkPortfolios;
+            stale += chunkStale;
+            revalued += chunkRevalued;
+            chunks++;
+            readNanos += read;
+            writeNanos += write;
+            commitNanos += commit;
+        }
+
+        RevaluationResponse report(long totalNanos) {
+            return new RevaluationResponse(portfolios, stale, revalued, stale - revalued, chunks,
+                    Duration.ofNanos(readNanos).toMillis(), Duration.ofNanos(writeNanos).toMillis(),
+                    Duration.ofNanos(commitNanos).toMillis(), Duration.ofNanos(totalNanos).toMillis());
+        }
+    }
+}
@@ -8,13 +8,24 @@ import com.trade_risk_system.model.Portfolio;
 import com.trade_risk_system.model.User;
 import com.trade_risk_system.repository.PortfolioRepository;
 import com.trade_risk_system.repository.UserRepository;
+import com.trade_risk_system.sharding.ReferenceDataReplicator;
+import com.trade_risk_system.sharding.ShardContext;
+import com.trade_risk_system.sharding.ShardDirectory;
+import com.trade_risk_system.sharding.ShardExecutor;
+import com.trade_risk_system.sharding.ShardIds;
+import com.trade_risk_system.sharding.ShardKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
 
 @Service
 @Transactional(readOnly = true)
@@ -25,38 +36,80 @@ public class PortfolioService {
     private final PortfolioRepository portfolioRepository;
     private final UserRepository userRepository;
     private final CacheEvictionService cacheEvictionService;
+    private final ShardDirectory shardDirectory;
+    private final ShardExecutor shardExecutor;
+    private final ReferenceDataReplicator referenceDataReplicator;
+    private final TransactionTemplate transactionTemplate;
 
     public PortfolioService(PortfolioRepository portfolioRepository,
             UserRepository userRepository,
-            CacheEvictionService cacheEvictionService) {
+            CacheEvictionService cacheEvictionService,
+            ShardDirectory shardDirectory,
+            ShardExecutor shardExecutor,
+            ReferenceDataReplicator referenceDataReplicator,
+            PlatformTransactionManager transactionManager) {
         this.portfolioRepository = portfolioRepository;
         this.userRepository = userRepository;
         this.cacheEvictionService = cacheEvictionService;
+        this.shardDirectory = shardDirectory;
+        this.shardExecutor = shardExecutor;
+        this.referenceDataReplicator = referenceDataReplicator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    /**
+     * Creates the user's portfolio on the shard picked for the user. The user
+     * is read on the global shard and copied to the portfolio's shard in the
+     * same transaction as the portfolio; the shard directory entry is written
+     * last. With a single shard this is one transaction on the one database.
+     *
+     * The directory entry cannot be written in the shard's transaction, so a
+     * failure between the two leaves a portfolio nobody can find by user. The
+     * shard is picked from the user id alone, so a retry lands on the same
+     * shard, finds that portfolio and registers it instead of failing.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PortfolioResponse createPortfolio(PortfolioRequestDTO request) {
         log.info("Creating portfolio for user: {}", request.userId());
         User user = userRepository.findById(request.userId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + request.userId()));
 
-        if (portfolioRepository.findByUserId(request.userId()).isPresent()) {
+        if (shardDirectory.isSharded() && shardDirectory.findShardOfUser(user.getId()).isPresent()) {
             throw new DuplicateResourceException("User already has a portfolio");
         }
 
-        Portfolio portfolio = Portfolio.builder()
-                .user(user)
-                .totalValue(java.math.BigDecimal.ZERO)
-                .build();
+        int shard = shardDirectory.placePortfolio(user.getId());
+        Portfolio savedPortfolio = ShardContext.call(shard, () -> transactionTemplate.execute(status -> {
+            Optional<Portfolio> existing = portfolioRepository.findByUserId(user.getId());
+            if (existing.isPresent()) {
+                if (shardDirectory.findShardOfUser(user.getId()).isPresent()) {
+                    throw new DuplicateResourceException("User already has a portfolio");
+                }
+                log.warn("PORTFOLIO_REGISTRATION_REPAIR | User: {} | Portfolio: {} | Shard: {}",
+                        user.getId(), existing.get().getId(), shard);
+                // Same row as the lazy reference; the response is built after this transaction
+                existing.get().setUser(user);
+                return existing.get();
+            }
+            if (shard != ShardIds.GLOBAL_SHARD) {
+                referenceDataReplicator.copyUser(user);
+            }
+            Portfolio portfolio = Portfolio.builder()
+                    .user(user)
+                    .totalValue(java.math.BigDecimal.ZERO)
+                    .build();
+            Portfolio saved = portfolioRepository.save(portfolio);
+            cacheEvictionService.evictPortfolioCache(saved.getId());
+            return saved;
+        }));
+        shardDirectory.register(user.getId(), savedPortfolio.getId(), shard);
 
-        Portfolio savedPortfolio = portfolioRepository.save(portfolio);
-        log.info("Portfolio created: {}", savedPortfolio.getId());
-        cacheEvictionService.evictPortfolioCache(savedPortfolio.getId());
+        log.info("Portfolio created: {} | Shard: {}", savedPortfolio.getId(), shard);
         return mapToResponse(savedPortfolio);
     }
 
     @Cacheable(value = "portfolios", key = "#id")
-    public PortfolioResponse getPortfolioById(Long id) {
+    public PortfolioResponse getPortfolioById(@ShardKey(ShardKey.Type.PORTFOLIO) Long id) {
         Portfolio portfolio = portfolioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Portfolio not found with id: " + id));
         return mapToResponse(portfolio);
@@ -64,8 +117,7 @@ public class PortfolioService {
 
     public Page<PortfolioResponse> getAllPortfolios(Pageable pageable) {
         log.debug("Fetching all portfolios, page: {}", pageable.getPageNumber());
-        return portfolioRepository.findAll(pageable)
-                .map(this::mapToResponse);
+        return shardExecutor.scatterPage(pageable, PortfolioResponse.class, portfolioRepository::findAllAsResponses);
     }
 
     private PortfolioResponse mapToResponse(Portfolio portfolio) {
@@ -73,6 +125,8 @@ public class PortfolioService {
                 portfolio.getId(),
                 portfolio.getUser().getId(),
                 portfolio.getUser().getUsername(),
-                portfolio.getTotalValue());
+                portfolio.getTotalValue(),
+                portfolio.getRealizedPnl(),
+                portfolio.getUnrealizedPnl());
     }
 }
@@ -0,0 +1,60 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.batch.BatchJobLauncher;
+import com.trade_risk_system.batch.reconcile.ReconciliationJobConfig;
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.response.ReconciliationMismatchResponse;
+import com.trade_risk_system.model.enums.MismatchKind;
+import com.trade_risk_system.repository.ReconciliationMismatchRepository;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Checks stored positions against the trade log every night and serves the
+ * resulting mismatch report. The nightly run only reports; the
+ * {@code repair-positions} job, started through the {@code batch} actuator
+ * endpoint, also corrects what it finds.
+ */
+@Service
+public class ReconciliationService {
+
+    private final BatchJobLauncher batchJobLauncher;
+    private final ReconciliationMismatchRepository mismatchRepository;
+    private final ShardExecutor shardExecutor;
+
+    @Value("${application.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    public ReconciliationService(BatchJobLauncher batchJobLauncher,
+            ReconciliationMismatchRepository mismatchRepository, ShardExecutor shardExecutor) {
+        this.batchJobLauncher = batchJobLauncher;
+        this.mismatchRepository = mismatchRepository;
+        this.shardExecutor = shardExecutor;
+    }
+
+    @Scheduled(cron = "${application.reconciliation.cron:0 0 3 * * *}")
+    public void runReconciliation() {
+        if (enabled) {
+            batchJobLauncher.run(ReconciliationJobConfig.REPORT_JOB_NAME, LocalDate.now());
+        }
+    }
+
+    /**
+     * Mismatches found by either job for the business date, from all shards.
+     *
+     * @param kind optional filter on the kind of mismatch
+     */
+    @Workload(WorkloadType.ANALYTICS)
+    public Page<ReconciliationMismatchResponse> getMismatches(LocalDate businessDate, MismatchKind kind,
+            Pageable pageable) {
+        return shardExecutor.scatterPage(pageable, ReconciliationMismatchResponse.class,
+                page -> mismatchRepository.findResponses(businessDate, kind, page));
+    }
+}
@@ -0,0 +1,177 @@
+package com.trade_risk_system.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory version counters for cached resources, used as ETags so that a
+ * conditional GET can be answered without reading Redis or the database.
+ *
+ * {@link com.trade_risk_system.event.SideEffectBus} reports every eviction and
+ * clear here after it has been applied; each bumps the version of the key's
+ * stripe (one of {@value #STRIPES} per cache) or of the whole cache. Other
+ * instances learn of it through the {@value #CHANNEL} pub/sub channel and bump
+ * their own counters. Keys sharing a stripe share a version, which costs an
+ * occasional full response, never a wrong 304.
+ *
+ * Counters are local, so an ETag is only recognised by the instance that
+ * issued it. It also names the instance's current subscription and time
+ * window: a resubscribe (after which missed messages cannot be ruled out) or
+ * the end of the {@code max-age} window retires every ETag issued before.
+ * No ETags are issued while the instance is not subscribed.
+ */
+@Service
+public class ResourceVersionService implements MessageListener, SubscriptionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceVersionService.class);
+
+    public static final String CHANNEL = "cache-versions";
+
+    private static final int STRIPES = 1024;
+
+    private static final String CLEAR = "*";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, Versions> caches = new ConcurrentHashMap<>();
+    private volatile String generation;
+
+    @Value("${application.http.etags.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.http.etags.max-age:10m}")
+    private Duration maxAge;
+
+    public ResourceVersionService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /** Versions of one cache: a cache-wide epoch, bumped on clear, and one counter per key stripe. */
+    private static final class Versions {
+
+        private final AtomicLong epoch = new AtomicLong();
+        private final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+    }
+
+    /**
+     * ETag of one entry of a cache, or null if none can be issued.
+     */
+    public String etag(String cacheName, Object key) {
+        String prefix = prefix();
+        if (prefix == null) {
+            return null;
+        }
+        Versions versions = versions(cacheName);
+        return prefix + Long.toString(versions.epoch.get(), 36) + "."
+                + Long.toString(versions.stripes.get(stripe(key)), 36);
+    }
+
+    /**
+     * ETag of a resource that changes with any entry of the cache, or null if
+     * none can be issued.
+     */
+    public String etag(String cacheName) {
+        String prefix = prefix();
+        if (prefix == null) {
+            return null;
+        }
+        return prefix + Long.toString(versions(cacheName).epoch.get(), 36);
+    }
+
+    /**
+     * Bumps the versions of evicted keys and cleared caches, here and on the
+     * other instances. Call after the evictions have been applied: a reader
+     * that sees the new version must not find the old entry.
+     */
+    public void changed(Map<String, ? extends Collection<?>> evictions, Collection<String> clears) {
+        if (evictions.isEmpty() && clears.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder(origin);
+        evictions.forEach((cacheName, keys) -> {
+            Versions versions = versions(cacheName);
+            for (Object key : keys) {
+                int stripe = stripe(key);
+                versions.stripes.incrementAndGet(stripe);
+                message.append('\n').append(cacheName).append(' ').append(stripe);
+            }
+        });
+        for (String cacheName : clears) {
+            versions(cacheName).epoch.incrementAndGet();
+            message.append('\n').append(cacheName).append(' ').append(CLEAR);
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message.toString());
+        } catch (RuntimeException e) {
+            // Other instances keep their ETags until their window or subscription ends
+            log.warn("CACHE_VERSION_PUBLISH_FAILED | Caches: {} | Error: {}", evictions.keySet(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] lines = new String(message.getBody(), StandardCharsets.UTF_8).split("\n");
+        if (lines[0].equals(origin)) {
+            return;
+        }
+        for (int i = 1; i < lines.length; i++) {
+            int separator = lines[i].indexOf(' ');
+            if (separator < 0) {
+                continue;
+            }
+            Versions versions = versions(lines[i].substring(0, separator));
+            String stripe = lines[i].substring(separator + 1);
+            if (stripe.equals(CLEAR)) {
+                versions.epoch.incrementAndGet();
+            } else {
+                versions.stripes.incrementAndGet(Integer.parseInt(stripe) & (STRIPES - 1));
+            }
+        }
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        generation = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+        log.info("CACHE_VERSIONS_SUBSCRIBED | Channel: {} | Generation: {}", CHANNEL, generation);
+    }
+
+    @Override
+    public void onChannelUnsubscribed(byte[] channel, long count) {
+        generation = null;
+        log.warn("CACHE_VERSIONS_UNSUBSCRIBED | Channel: {}", CHANNEL);
+    }
+
+    private String prefix() {
+        String current = generation;
+        if (!enabled || current == null) {
+            return null;
+        }
+        long window = System.currentTimeMillis() / Math.max(1, maxAge.toMillis());
+        return current + "." + Long.toString(window, 36) + ".";
+    }
+
+    private Versions versions(String cacheName) {
+        return caches.computeIfAbsent(cacheName, name -> new Versions());
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,211 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.dto.request.RiskBatchRequest;
+import com.trade_risk_system.dto.response.RiskBatchResponse;
+import com.trade_risk_system.dto.response.RiskResponse;
+import com.trade_risk_system.event.SideEffectBus;
+import com.trade_risk_system.exception.ResourceNotFoundException;
+import com.trade_risk_system.model.RiskMetric;
+import com.trade_risk_system.repository.PortfolioRepository;
+import com.trade_risk_system.repository.RiskMetricRepository;
+import com.trade_risk_system.sharding.ShardContext;
+import com.trade_risk_system.sharding.ShardDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Risk of many portfolios in one call, with the same figures as
+ * {@link RiskService#calculatePortfolioRisk}.
+ *
+ * Cached entries are read with one Redis MGET. The portfolios and positions
+ * of all misses on a shard are loaded with one {@code IN} query, their risk is
+ * computed in parallel, and their snapshots are saved in one transaction per
+ * shard. After commit the computed entries are written back to the
+ * {@code risk} cache in one pipeline.
+ */
+@Service
+public class RiskBatchService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskBatchService.class);
+
+    private static final String LOAD_SQL = "SELECT pf.id, pf.user_id, pf.realized_pnl, pf.unrealized_pnl, "
+            + "p.quantity, COALESCE(i.current_price, p.avg_price) "
+            + "FROM portfolios pf "
+            + "LEFT JOIN positions p ON p.portfolio_id = pf.id "
+            + "LEFT JOIN instruments i ON i.id = p.instrument_id "
+            + "WHERE pf.id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PortfolioRepository portfolioRepository;
+    private final RiskMetricRepository riskMetricRepository;
+    private final CachePipelineService cachePipelineService;
+    private final SideEffectBus sideEffectBus;
+    private final ShardDirectory shardDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool computePool;
+
+    public RiskBatchService(JdbcTemplate jdbcTemplate,
+            PortfolioRepository portfolioRepository,
+            RiskMetricRepository riskMetricRepository,
+            CachePipelineService cachePipelineService,
+            SideEffectBus sideEffectBus,
+            ShardDirectory shardDirectory,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.risk.batch.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.portfolioRepository = portfolioRepository;
+        this.riskMetricRepository = riskMetricRepository;
+        this.cachePipelineService = cachePipelineService;
+        this.sideEffectBus = sideEffectBus;
+        this.shardDirectory = shardDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.computePool = new ForkJoinPool(workers, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("risk-batch-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /** A portfolio's P&L and the values of its positions at current marks. */
+    private record Holdings(Long portfolioId, Long userId, BigDecimal realizedPnl, BigDecimal unrealizedPnl,
+            List<BigDecimal> positionValues) {
+    }
+
+    /**
+     * Returns the risk of the requested portfolios, serving what the cache
+     * holds and computing the rest. Unknown ids are reported, not failed.
+     */
+    public RiskBatchResponse getRisks(RiskBatchRequest request) {
+        long start = System.nanoTime();
+        List<Long> portfolioIds = new ArrayList<>(new LinkedHashSet<>(request.portfolioIds()));
+
+        Map<Long, RiskResponse> cached = cachePipelineService.getAll("risk", portfolioIds, RiskResponse.class);
+        Map<Integer, List<Long>> missesByShard = new TreeMap<>();
+        for (Long portfolioId : portfolioIds) {
+            if (!cached.containsKey(portfolioId)) {
+                try {
+                    missesByShard.computeIfAbsent(shardDirectory.shardOfPortfolio(portfolioId),
+                            shard -> new ArrayList<>()).add(portfolioId);
+                } catch (ResourceNotFoundException e) {
+                    // Id of no configured shard; reported as not found below
+                }
+            }
+        }
+
+        Map<Long, RiskResponse> computed = new HashMap<>();
+        missesByShard.forEach((shard, misses) -> {
+            computed.putAll(shardDirectory.isSharded()
+                    ? ShardContext.call(shard, () -> transactionTemplate.execute(status -> compute(misses)))
+                    : transactionTemplate.execute(status -> compute(misses)));
+        });
+        cachePipelineService.putAll("risk", computed);
+
+        List<RiskResponse> risks = new ArrayList<>(portfolioIds.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long portfolioId : portfolioIds) {
+            RiskResponse risk = cached.containsKey(portfolioId) ? cached.get(portfolioId) : computed.get(portfolioId);
+            if (risk != null) {
+                risks.add(risk);
+            } else {
+                notFound.add(portfolioId);
+            }
+        }
+
+        log.info("RISK_BATCH | Portfolios: {} | Cached: {} | Computed: {} | Not found: {} | Total: {}ms",
+                portfolioIds.size(), cached.size(), computed.size(), notFound.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return new RiskBatchResponse(risks, notFound, cached.size(), computed.size());
+    }
+
+    /**
+     * Computes and records the risk of portfolios on the current shard, in the
+     * caller's transaction.
+     */
+    private Map<Long, RiskResponse> compute(List<Long> portfolioIds) {
+        Map<Long, RiskResponse> computed = new HashMap<>();
+        Map<Long, Holdings> holdings = new LinkedHashMap<>();
+        // Ids are longs, so inlining them is safe
+        String ids = portfolioIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        jdbcTemplate.query(LOAD_SQL.formatted(ids), rs -> {
+            long portfolioId = rs.getLong(1);
+            Holdings portfolio = holdings.get(portfolioId);
+            if (portfolio == null) {
+                portfolio = new Holdings(portfolioId, rs.getObject(2, Long.class), rs.getBigDecimal(3),
+                        rs.getBigDecimal(4), new ArrayList<>());
+                holdings.put(portfolioId, portfolio);
+            }
+            int quantity = rs.getInt(5);
+            if (!rs.wasNull()) {
+                portfolio.positionValues().add(rs.getBigDecimal(6).multiply(BigDecimal.valueOf(quantity)));
+            }
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        List<RiskMetric> measured = inParallel(holdings.values().stream().toList(), now);
+
+        List<RiskMetric> snapshots = new ArrayList<>();
+        int index = 0;
+        for (Holdings portfolio : holdings.values()) {
+            RiskMetric snapshot = measured.get(index++);
+            if (portfolio.positionValues().isEmpty()) {
+                computed.put(portfolio.portfolioId(), RiskService.emptyResponse(portfolio.portfolioId(),
+                        portfolio.realizedPnl(), portfolio.unrealizedPnl()));
+            } else {
+                snapshot.setPortfolio(portfolioRepository.getReferenceById(portfolio.portfolioId()));
+                snapshots.add(snapshot);
+            }
+            if (portfolio.userId() != null) {
+                sideEffectBus.audit("RISK_CALCULATED", portfolio.userId());
+            }
+        }
+        riskMetricRepository.saveAll(snapshots);
+        snapshots.forEach(snapshot -> computed.put(snapshot.getPortfolio().getId(),
+                RiskService.mapToResponse(snapshot)));
+        return computed;
+    }
+
+    private List<RiskMetric> inParallel(List<Holdings> holdings, LocalDateTime now) {
+        try {
+            return computePool.submit(() -> holdings.parallelStream()
+                    .map(portfolio -> RiskService.measure(portfolio.positionValues(), portfolio.realizedPnl(),
+                            portfolio.unrealizedPnl(), now))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while computing risk", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Risk computation failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        computePool.shutdownNow();
+    }
+}
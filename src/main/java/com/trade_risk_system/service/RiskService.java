@@ -1,6 +1,9 @@
 package com.trade_risk_system.service;
 
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadType;
 import com.trade_risk_system.dto.response.RiskResponse;
+import com.trade_risk_system.event.SideEffectBus;
 import com.trade_risk_system.exception.ResourceNotFoundException;
 import com.trade_risk_system.model.Portfolio;
 import com.trade_risk_system.model.Position;
@@ -8,6 +11,7 @@ import com.trade_risk_system.model.RiskMetric;
 import com.trade_risk_system.repository.PortfolioRepository;
 import com.trade_risk_system.repository.PositionRepository;
 import com.trade_risk_system.repository.RiskMetricRepository;
+import com.trade_risk_system.sharding.ShardKey;
 import com.trade_risk_system.util.MoneyUtils;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -20,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -31,7 +36,7 @@ public class RiskService {
     private final PortfolioRepository portfolioRepository;
     private final PositionRepository positionRepository;
     private final RiskMetricRepository riskMetricRepository;
-    private final AuditService auditService;
+    private final SideEffectBus sideEffectBus;
 
     /**
      * Computes the real-time risk exposure for a portfolio.
@@ -39,6 +44,9 @@ public class RiskService {
      * - Total Exposure: Sum of (quantity * currentPrice) for all held positions.
      * - Concentration Risk: (Value of largest position / Total Exposure).
      * - Risk Score: Concentration risk normalized to a 0-100 scale.
+     * Realized and unrealized P&L are read from the portfolio, which keeps
+     * them current.
+     * Runs on the portfolio's shard.
      * 
      * @param portfolioId The ID of the portfolio to analyze
      * @return RiskResponse containing analytical metrics
@@ -46,7 +54,7 @@ public class RiskService {
      */
     @Transactional
     @Cacheable(value = "risk", key = "#portfolioId")
-    public RiskResponse calculatePortfolioRisk(Long portfolioId) {
+    public RiskResponse calculatePortfolioRisk(@ShardKey(ShardKey.Type.PORTFOLIO) Long portfolioId) {
         log.info("RISK_CALCULATION_START | Portfolio: {}", portfolioId);
 
         // A) Fetch Portfolio
@@ -57,21 +65,55 @@ public class RiskService {
         List<Position> positions = positionRepository.findByPortfolioIdWithInstrument(portfolioId);
 
         if (positions.isEmpty()) {
-            RiskResponse emptyResponse = new RiskResponse(portfolioId, BigDecimal.ZERO, BigDecimal.ZERO,
-                    BigDecimal.ZERO, LocalDateTime.now());
-            auditService.logAction("RISK_CALCULATED", portfolio.getUser().getId());
-            return emptyResponse;
+            sideEffectBus.audit("RISK_CALCULATED", portfolio.getUser().getId());
+            return emptyResponse(portfolioId, portfolio.getRealizedPnl(), portfolio.getUnrealizedPnl());
         }
 
         // C) Compute Metrics
-        BigDecimal totalExposure = BigDecimal.ZERO;
-        BigDecimal maxPositionValue = BigDecimal.ZERO;
-
+        List<BigDecimal> positionValues = new ArrayList<>(positions.size());
         for (Position pos : positions) {
             BigDecimal currentPrice = pos.getInstrument().getCurrentPrice();
             BigDecimal priceToUse = (currentPrice != null) ? currentPrice : pos.getAvgPrice();
-            BigDecimal posValue = priceToUse.multiply(BigDecimal.valueOf(pos.getQuantity()));
+            positionValues.add(priceToUse.multiply(BigDecimal.valueOf(pos.getQuantity())));
+        }
+
+        // D) Persist RiskMetric snapshot
+        RiskMetric snapshot = measure(positionValues, portfolio.getRealizedPnl(), portfolio.getUnrealizedPnl(),
+                LocalDateTime.now());
+        snapshot.setPortfolio(portfolio);
+
+        riskMetricRepository.save(snapshot);
+
+        // E) Audit Integration
+        sideEffectBus.audit("RISK_CALCULATED", portfolio.getUser().getId());
+
+        log.info("RISK_CALCULATION_SUCCESS | Portfolio: {} | Exposure: {} | Score: {}",
+                portfolioId, snapshot.getTotalExposure(), snapshot.getRiskScore());
+
+        return mapToResponse(snapshot);
+    }
+
+    @Workload(WorkloadType.ANALYTICS)
+    public Page<RiskResponse> getRiskHistory(@ShardKey(ShardKey.Type.PORTFOLIO) Long portfolioId,
+            Pageable pageable) {
+        return riskMetricRepository.findResponsesByPortfolioId(portfolioId, pageable);
+    }
+
+    @Workload(WorkloadType.ANALYTICS)
+    public Page<RiskResponse> getRiskHistoryByDate(@ShardKey(ShardKey.Type.PORTFOLIO) Long portfolioId,
+            LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        return riskMetricRepository.findResponsesByPortfolioIdAndTimestampBetween(portfolioId, start, end, pageable);
+    }
 
+    /**
+     * Risk figures of positions worth the given values at their current
+     * marks, as an unsaved snapshot without its portfolio.
+     */
+    static RiskMetric measure(List<BigDecimal> positionValues, BigDecimal realizedPnl, BigDecimal unrealizedPnl,
+            LocalDateTime timestamp) {
+        BigDecimal totalExposure = BigDecimal.ZERO;
+        BigDecimal maxPositionValue = BigDecimal.ZERO;
+        for (BigDecimal posValue : positionValues) {
             totalExposure = totalExposure.add(posValue);
             if (posValue.compareTo(maxPositionValue) > 0) {
                 maxPositionValue = posValue;
@@ -83,47 +125,32 @@ public class RiskService {
                 : BigDecimal.ZERO;
         BigDecimal riskScore = MoneyUtils.scale(concentrationRisk.multiply(BigDecimal.valueOf(100)));
 
-        // D) Persist RiskMetric snapshot
-        RiskMetric snapshot = RiskMetric.builder()
-                .portfolio(portfolio)
+        return RiskMetric.builder()
                 .totalExposure(MoneyUtils.scale(totalExposure))
                 .concentrationRisk(concentrationRisk)
                 .riskScore(riskScore)
-                .timestamp(LocalDateTime.now())
+                .realizedPnl(realizedPnl)
+                .unrealizedPnl(unrealizedPnl)
+                .timestamp(timestamp)
                 .build();
-
-        riskMetricRepository.save(snapshot);
-
-        // E) Audit Integration
-        auditService.logAction("RISK_CALCULATED", portfolio.getUser().getId());
-
-        log.info("RISK_CALCULATION_SUCCESS | Portfolio: {} | Exposure: {} | Score: {}",
-                portfolioId, totalExposure, riskScore);
-
-        return mapToResponse(portfolioId, MoneyUtils.scale(totalExposure), concentrationRisk, riskScore,
-                snapshot.getTimestamp());
-    }
-
-    public Page<RiskResponse> getRiskHistory(Long portfolioId, Pageable pageable) {
-        return riskMetricRepository.findByPortfolioId(portfolioId, pageable)
-                .map(m -> mapToResponse(m.getPortfolio().getId(), m.getTotalExposure(), m.getConcentrationRisk(),
-                        m.getRiskScore(), m.getTimestamp()));
     }
 
-    public Page<RiskResponse> getRiskHistoryByDate(Long portfolioId, LocalDateTime start, LocalDateTime end,
-            Pageable pageable) {
-        return riskMetricRepository.findByPortfolioIdAndTimestampBetween(portfolioId, start, end, pageable)
-                .map(m -> mapToResponse(m.getPortfolio().getId(), m.getTotalExposure(), m.getConcentrationRisk(),
-                        m.getRiskScore(), m.getTimestamp()));
+    /**
+     * Risk of a portfolio without positions; no snapshot is kept for it.
+     */
+    static RiskResponse emptyResponse(Long portfolioId, BigDecimal realizedPnl, BigDecimal unrealizedPnl) {
+        return new RiskResponse(portfolioId, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, realizedPnl,
+                unrealizedPnl, LocalDateTime.now());
     }
 
-    private RiskResponse mapToResponse(Long portfolioId, BigDecimal totalExposure, BigDecimal concentrationRisk,
-            BigDecimal riskScore, LocalDateTime timestamp) {
+    static RiskResponse mapToResponse(RiskMetric snapshot) {
         return new RiskResponse(
-                portfolioId,
-                totalExposure,
-                concentrationRisk,
-                riskScore,
-                timestamp);
+                snapshot.getPortfolio().getId(),
+                snapshot.getTotalExposure(),
+                snapshot.getConcentrationRisk(),
+                snapshot.getRiskScore(),
+                snapshot.getRealizedPnl(),
+                snapshot.getUnrealizedPnl(),
+                snapshot.getTimestamp());
     }
 }
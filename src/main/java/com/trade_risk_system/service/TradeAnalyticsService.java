@@ -0,0 +1,165 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.analytics.TradeColumnStore;
+import com.trade_risk_system.archive.TradeArchiveStore;
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadContext;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.response.TradeAggregateResponse;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import com.trade_risk_system.sharding.ShardExecutor;
+import com.trade_risk_system.util.MoneyUtils;
+import com.trade_risk_system.util.StreamingQueries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Trade aggregates served from {@link TradeColumnStore} instead of the OLTP
+ * table.
+ * The store is loaded from every shard (archived and live trades) in the
+ * background after startup, rebuilt on a schedule, and fed each executed
+ * trade after commit by {@link TradeService}. Trades executed by other
+ * instances appear after the next rebuild.
+ */
+@Service
+@Workload(WorkloadType.ANALYTICS)
+public class TradeAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeAnalyticsService.class);
+
+    static final int MAX_GROUPS = 1000;
+
+    private static final String LOAD_SQL = "SELECT id, user_id, instrument_id, quantity, price, side, timestamp "
+            + "FROM trades WHERE status = 'EXECUTED'";
+
+    private static final TradeArchiveStore.Filter ALL_ARCHIVED = new TradeArchiveStore.Filter(null, null, null, null,
+            null);
+
+    private final TradeColumnStore tradeColumnStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TradePartitionService tradePartitionService;
+    private final ShardExecutor shardExecutor;
+
+    @Value("${application.analytics.trades.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.trades.export.fetch-size:" + StreamingQueries.MYSQL_ROW_STREAMING + "}")
+    private int fetchSize;
+
+    public TradeAnalyticsService(TradeColumnStore tradeColumnStore,
+            JdbcTemplate jdbcTemplate,
+            TradePartitionService tradePartitionService,
+            ShardExecutor shardExecutor) {
+        this.tradeColumnStore = tradeColumnStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tradePartitionService = tradePartitionService;
+        this.shardExecutor = shardExecutor;
+    }
+
+    /**
+     * Starts the initial load without holding up startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                WorkloadContext.call(WorkloadType.ANALYTICS, this::rebuild);
+            } catch (Exception e) {
+                log.error("Initial trade analytics load failed: {}", e.getMessage(), e);
+            }
+        }, "trade-analytics-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Scheduled(cron = "${application.analytics.trades.rebuild-cron:0 30 1 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reloads the store from all shards.
+     *
+     * @return rows loaded
+     */
+    public int rebuild() {
+        long start = System.nanoTime();
+        int rows = tradeColumnStore.rebuild(sink -> shardExecutor.forEachShard(shard -> {
+            tradePartitionService.forEachArchived(ALL_ARCHIVED, row -> {
+                if (row.status() == TradeStatus.EXECUTED) {
+                    sink.accept(row.id(), row.userId(), row.instrumentId(), row.quantity(), row.price(), row.side(),
+                            row.timestamp());
+                }
+                return true;
+            });
+            jdbcTemplate.query(StreamingQueries.forwardOnly(LOAD_SQL, fetchSize),
+                    rs -> {
+                        sink.accept(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4),
+                                rs.getBigDecimal(5), TradeSide.valueOf(rs.getString(6)),
+                                rs.getObject(7, LocalDateTime.class));
+                    });
+        }));
+        log.info("TRADE_ANALYTICS_LOADED | Rows: {} | Duration: {}ms", rows,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return rows;
+    }
+
+    /**
+     * Aggregates executed trades by instrument, user or time bucket.
+     * Instrument and user groups come back largest notional first, capped at
+     * {@code limit}; time buckets come back in time order.
+     *
+     * @param bucket bucket width, required for TIME grouping
+     * @param from   inclusive lower bound, required for TIME grouping
+     * @param to     exclusive upper bound, required for TIME grouping
+     */
+    public List<TradeAggregateResponse> aggregate(TradeColumnStore.GroupBy groupBy, Duration bucket,
+            LocalDateTime from, LocalDateTime to, Long instrumentId, Long userId, int limit) {
+        List<TradeColumnStore.Aggregate> groups = tradeColumnStore.aggregate(
+                new TradeColumnStore.Query(groupBy, bucket, from, to, instrumentId, userId));
+        if (groupBy == TradeColumnStore.GroupBy.TIME) {
+            return groups.stream().map(group -> toResponse(groupBy, group, from, bucket)).toList();
+        }
+        return groups.stream()
+                .sorted(Comparator.comparing(TradeColumnStore.Aggregate::notional).reversed())
+                .limit(Math.min(Math.max(limit, 1), MAX_GROUPS))
+                .map(group -> toResponse(groupBy, group, from, bucket))
+                .toList();
+    }
+
+    private static TradeAggregateResponse toResponse(TradeColumnStore.GroupBy groupBy,
+            TradeColumnStore.Aggregate group, LocalDateTime from, Duration bucket) {
+        long volume = group.buyQuantity() + group.sellQuantity();
+        BigDecimal imbalance = volume == 0 ? BigDecimal.ZERO
+                : BigDecimal.valueOf(group.buyQuantity() - group.sellQuantity())
+                        .divide(BigDecimal.valueOf(volume), MoneyUtils.RATIO_SCALE, MoneyUtils.ROUNDING);
+        return new TradeAggregateResponse(
+                groupBy == TradeColumnStore.GroupBy.INSTRUMENT ? group.key() : null,
+                groupBy == TradeColumnStore.GroupBy.USER ? group.key() : null,
+                groupBy == TradeColumnStore.GroupBy.TIME ? from.plus(bucket.multipliedBy(group.key())) : null,
+                group.trades(),
+                group.buyQuantity(),
+                group.sellQuantity(),
+                volume,
+                group.notional(),
+                imbalance);
+    }
+}
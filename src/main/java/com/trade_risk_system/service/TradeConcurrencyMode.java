@@ -0,0 +1,16 @@
+package com.trade_risk_system.service;
+
+/**
+ * How a trade protects the position it changes from concurrent trades.
+ */
+public enum TradeConcurrencyMode {
+
+    /** Locks the position row for the whole trade; concurrent trades on it queue. */
+    PESSIMISTIC,
+
+    /**
+     * Reads the position without a lock and relies on its version column; a
+     * trade that loses the race is rolled back and run again.
+     */
+    OPTIMISTIC
+}
@@ -0,0 +1,266 @@
+package com.trade_risk_system.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trade_risk_system.archive.TradeArchiveStore;
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.sharding.ShardContext;
+import com.trade_risk_system.sharding.ShardDirectory;
+import com.trade_risk_system.util.StreamingQueries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Streams trades straight from a forward-only JDBC cursor to the response.
+ * Rows are written as they are read; no entities, persistence context or
+ * intermediate lists are built, so memory stays flat for any range.
+ * With several shards the shards are read one after the other; a user's
+ * trades are all on one shard. Each shard's archived trades are streamed from
+ * its archive files before its live rows.
+ */
+@Service
+@Workload(WorkloadType.ANALYTICS)
+public class TradeExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeExportService.class);
+
+    private static final String SELECT_SQL = "SELECT t.id, t.user_id, t.instrument_id, i.symbol, t.quantity, "
+            + "t.price, t.side, t.status, t.timestamp "
+            + "FROM trades t JOIN instruments i ON i.id = t.instrument_id";
+
+    private static final String CSV_HEADER = "id,userId,instrumentId,symbol,quantity,price,side,status,timestamp";
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Export filter; every field is optional.
+     *
+     * @param start inclusive lower bound on timestamp
+     * @param end   exclusive upper bound on timestamp
+     */
+    public record Filter(Long instrumentId, Long userId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ShardDirectory shardDirectory;
+    private final TradePartitionService tradePartitionService;
+
+    @Value("${application.trades.export.fetch-size:" + StreamingQueries.MYSQL_ROW_STREAMING + "}")
+    private int fetchSize;
+
+    public TradeExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ShardDirectory shardDirectory,
+            TradePartitionService tradePartitionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.shardDirectory = shardDirectory;
+        this.tradePartitionService = tradePartitionService;
+    }
+
+    /**
+     * Writes all trades matching the filter, oldest first within each shard,
+     * to the stream, archived trades included.
+     *
+     * @return number of rows written
+     */
+    public long export(Filter filter, Format format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (filter.instrumentId() != null) {
+            sql.append(" AND t.instrument_id = ?");
+            args.add(filter.instrumentId());
+        }
+        if (filter.userId() != null) {
+            sql.append(" AND t.user_id = ?");
+            args.add(filter.userId());
+        }
+        if (filter.start() != null) {
+            sql.append(" AND t.timestamp >= ?");
+            args.add(filter.start());
+        }
+        if (filter.end() != null) {
+            sql.append(" AND t.timestamp < ?");
+            args.add(filter.end());
+        }
+        sql.append(" ORDER BY t.timestamp, t.id");
+
+        TradeArchiveStore.Filter archived = new TradeArchiveStore.Filter(filter.instrumentId(), filter.userId(),
+                filter.start(), filter.end(), null);
+        long start = System.nanoTime();
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long[] rows = { 0 };
+        List<Integer> shards = filter.userId() != null
+                ? List.of(shardDirectory.shardOfUser(filter.userId()))
+                : IntStream.range(0, shardDirectory.getShardCount()).boxed().toList();
+        try {
+            for (int shard : shards) {
+                ShardContext.call(shard, () -> {
+                    tradePartitionService.forEachArchived(archived, row -> {
+                        try {
+                            writer.write(row);
+                            rows[0]++;
+                            return true;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    jdbcTemplate.query(StreamingQueries.forwardOnly(sql.toString(), fetchSize, args.toArray()), rs -> {
+                        try {
+                            writer.write(rs);
+                            rows[0]++;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    return null;
+                });
+            }
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            log.warn("TRADE_EXPORT_ABORTED | Rows: {} | Error: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        log.info("TRADE_EXPORT_DONE | Format: {} | Filter: {} | Rows: {} | Duration: {}ms",
+                format, filter, rows[0], (System.nanoTime() - start) / 1_000_000);
+        return rows[0];
+    }
+
+    private interface RowWriter {
+        void write(long id, long userId, long instrumentId, String symbol, int quantity, BigDecimal price,
+                String side, String status, LocalDateTime timestamp) throws IOException;
+
+        void finish() throws IOException;
+
+        default void write(ResultSet rs) throws IOException, SQLException {
+            write(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4), rs.getInt(5), rs.getBigDecimal(6),
+                    rs.getString(7), rs.getString(8), rs.getObject(9, LocalDateTime.class));
+        }
+
+        default void write(TradeResponse row) throws IOException {
+            write(row.id(), row.userId(), row.instrumentId(), row.symbol(), row.quantity(), row.price(),
+                    row.side().name(), row.status().name(), row.timestamp());
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        }
+
+        @Override
+        public void write(long id, long userId, long instrumentId, String symbol, int quantity, BigDecimal price,
+                String side, String status, LocalDateTime timestamp) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeNumberField("userId", userId);
+            generator.writeNumberField("instrumentId", instrumentId);
+            generator.writeStringField("symbol", symbol);
+            generator.writeNumberField("quantity", quantity);
+            generator.writeNumberField("price", price);
+            generator.writeStringField("side", side);
+            generator.writeStringField("status", status);
+            generator.writeStringField("timestamp", timestamp != null ? timestamp.toString() : null);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(long id, long userId, long instrumentId, String symbol, int quantity, BigDecimal price,
+                String side, String status, LocalDateTime timestamp) throws IOException {
+            writer.write(Long.toString(id));
+            writer.write(',');
+            writer.write(Long.toString(userId));
+            writer.write(',');
+            writer.write(Long.toString(instrumentId));
+            writer.write(',');
+            writer.write(escape(symbol));
+            writer.write(',');
+            writer.write(Integer.toString(quantity));
+            writer.write(',');
+            writer.write(price != null ? price.toPlainString() : "");
+            writer.write(',');
+            writer.write(side);
+            writer.write(',');
+            writer.write(status);
+            writer.write(',');
+            writer.write(timestamp != null ? timestamp.toString() : "");
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.archive.PartitionGranularity;
+import com.trade_risk_system.archive.RangePartition;
+import com.trade_risk_system.archive.RangePartitionManager;
+import com.trade_risk_system.archive.TradeArchiveStore;
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.sharding.ShardContext;
+import com.trade_risk_system.sharding.ShardExecutor;
+import com.trade_risk_system.sharding.ShardIds;
+import com.trade_risk_system.util.StreamingQueries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Maintains the monthly partitions of {@code trades} and the cold archive
+ * tier behind them.
+ * Future partitions are created ahead of time; partitions older than
+ * {@code archive-after} are written to compressed columnar files by
+ * {@link TradeArchiveStore} and dropped. Trade reads that run past the oldest
+ * live row continue into the archive of the shard they run on, so archiving
+ * does not change what the trade endpoints return.
+ */
+@Service
+@Workload(WorkloadType.ANALYTICS)
+public class TradePartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TradePartitionService.class);
+
+    private static final String ARCHIVE_SQL = "SELECT t.id, t.user_id, t.instrument_id, i.symbol, t.quantity, "
+            + "t.price, t.side, t.status, t.timestamp "
+            + "FROM trades PARTITION (%s) t LEFT JOIN instruments i ON i.id = t.instrument_id "
+            + "ORDER BY t.timestamp, t.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TradeArchiveStore archiveStore;
+    private final RangePartitionManager partitionManager;
+    private final ShardExecutor shardExecutor;
+
+    @Value("${application.trades.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.trades.partitioning.future-partitions:3}")
+    private int futurePartitions;
+
+    @Value("${application.trades.partitioning.archive-after:180d}")
+    private Duration archiveAfter;
+
+    public TradePartitionService(JdbcTemplate jdbcTemplate,
+            TradeArchiveStore archiveStore,
+            @Value("${application.trades.partitioning.granularity:MONTH}") PartitionGranularity granularity,
+            ShardExecutor shardExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveStore = archiveStore;
+        this.partitionManager = new RangePartitionManager(jdbcTemplate, "trades", granularity);
+        this.shardExecutor = shardExecutor;
+    }
+
+    /**
+     * Splits current periods off the migration's history partition if it
+     * reaches into them, then creates upcoming partitions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        if (enabled) {
+            shardExecutor.forEachShard(shard -> partitionManager.withMaintenanceLock(() -> {
+                partitionManager.repairHistoryPartition(LocalDate.now());
+                return partitionManager.ensureFuturePartitions(LocalDate.now(), futurePartitions);
+            }));
+        }
+    }
+
+    /**
+     * Creates upcoming partitions, then archives and drops old ones.
+     */
+    @Scheduled(cron = "${application.trades.partitioning.cron:0 45 0 * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        shardExecutor.forEachShard(shard -> partitionManager.withMaintenanceLock(() -> {
+            partitionManager.ensureFuturePartitions(LocalDate.now(), futurePartitions);
+            return archiveExpired(LocalDateTime.now().minus(archiveAfter), archiveStore.forShard(shard));
+        }));
+    }
+
+    /**
+     * Archives and drops every partition of the current shard that ends at or
+     * before the cutoff.
+     *
+     * @return archive files written
+     */
+    public List<Path> archiveExpired(LocalDateTime cutoff) {
+        return archiveExpired(cutoff, currentArchive());
+    }
+
+    private List<Path> archiveExpired(LocalDateTime cutoff, TradeArchiveStore store) {
+        List<Path> archived = new ArrayList<>();
+        for (RangePartition partition : partitionManager.partitionsEndingBefore(cutoff)) {
+            long start = System.nanoTime();
+            try (TradeArchiveStore.ArchiveWriter writer = store.openWriter(
+                    partition.lowerBound(), partition.upperBound())) {
+                jdbcTemplate.query(
+                        StreamingQueries.forwardOnly(ARCHIVE_SQL.formatted(partition.name()),
+                                StreamingQueries.MYSQL_ROW_STREAMING),
+                        rs -> {
+                            try {
+                                writer.write(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4),
+                                        rs.getInt(5), rs.getObject(6, BigDecimal.class), rs.getString(7),
+                                        rs.getString(8), rs.getObject(9, LocalDateTime.class));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                Path file = writer.commit();
+                partitionManager.dropPartition(partition.name());
+                archived.add(file);
+                log.info("TRADE_PARTITION_ARCHIVED | Partition: {} | Rows: {} | File: {} | Duration: {}ms",
+                        partition.name(), writer.getRows(), file,
+                        Duration.ofNanos(System.nanoTime() - start).toMillis());
+            } catch (IOException | RuntimeException e) {
+                // Keep the partition; the next run retries it
+                log.error("Failed to archive trade partition {}: {}", partition.name(), e.getMessage(), e);
+                break;
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Reads archived trades of the current shard, newest first.
+     */
+    public List<TradeResponse> readArchived(TradeArchiveStore.Filter filter, long skip, int limit) {
+        return currentArchive().read(filter, true, skip, limit);
+    }
+
+    /**
+     * Visits archived trades of the current shard, oldest first, until the
+     * visitor returns false.
+     */
+    public void forEachArchived(TradeArchiveStore.Filter filter, Predicate<TradeResponse> visitor) {
+        currentArchive().scan(filter, false, visitor);
+    }
+
+    /**
+     * Continues a newest-first live slice into the archive once the live rows
+     * run out. Slices in any other order are returned unchanged.
+     *
+     * @param live      slice read from the live table
+     * @param filter    the slice's filter, applied to archived rows
+     * @param liveCount number of matching live rows; only called when the page
+     *                  starts past the last live row
+     */
+    public Slice<TradeResponse> appendArchived(Slice<TradeResponse> live, TradeArchiveStore.Filter filter,
+            LongSupplier liveCount) {
+        Pageable pageable = live.getPageable();
+        if (live.hasNext() || pageable.isUnpaged() || !isNewestFirst(pageable.getSort())) {
+            return live;
+        }
+        int room = pageable.getPageSize() - live.getNumberOfElements();
+        long skip = live.hasContent() ? 0 : Math.max(0, pageable.getOffset() - liveCount.getAsLong());
+        List<TradeResponse> archived = readArchived(filter, skip, room + 1);
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<TradeResponse> content = new ArrayList<>(live.getContent());
+        content.addAll(archived.subList(0, Math.min(room, archived.size())));
+        return new SliceImpl<>(content, pageable, archived.size() > room);
+    }
+
+    private static boolean isNewestFirst(Sort sort) {
+        Sort.Order first = sort.stream().findFirst().orElse(null);
+        return first != null && first.getProperty().equals("timestamp") && first.isDescending();
+    }
+
+    private TradeArchiveStore currentArchive() {
+        Integer shard = ShardContext.current();
+        return archiveStore.forShard(shard != null ? shard : ShardIds.GLOBAL_SHARD);
+    }
+}
@@ -1,155 +1,201 @@
 package com.trade_risk_system.service;
 
+import com.trade_risk_system.analytics.TradeColumnStore;
+import com.trade_risk_system.archive.TradeArchiveStore;
+import com.trade_risk_system.datasource.Workload;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.dto.common.CursorPage;
+import com.trade_risk_system.dto.common.KeysetCursor;
 import com.trade_risk_system.dto.request.TradeRequest;
 import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.event.SideEffectBus;
 import com.trade_risk_system.exception.ResourceNotFoundException;
 import com.trade_risk_system.exception.TradeValidationException;
 import com.trade_risk_system.model.*;
 import com.trade_risk_system.model.enums.TradeSide;
 import com.trade_risk_system.model.enums.TradeStatus;
 import com.trade_risk_system.repository.*;
+import com.trade_risk_system.sharding.ShardExecutor;
+import com.trade_risk_system.sharding.ShardKey;
+import com.trade_risk_system.util.MoneyUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Core business service for managing trade lifecycles and portfolio holdings.
  * Implements high-performance trade execution with immediate risk impact.
+ * A trade runs entirely on the shard of the trading user's portfolio; trade
+ * listings are gathered from all shards. Newest-first listings continue into
+ * the archived partitions once the live table runs out.
  */
 @Service
 @Slf4j
 @Transactional(readOnly = true)
 public class TradeService {
 
+    static final int MAX_CURSOR_PAGE_SIZE = 500;
+
+    /** Lower bound of a cursor page without a start, so every page query is a bounded range. */
+    private static final LocalDateTime EARLIEST_TRADE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final Comparator<TradeResponse> NEWEST_FIRST = Comparator
+            .comparing(TradeResponse::timestamp).thenComparing(TradeResponse::id).reversed();
+
+    /** Maximum JDBC statements a single {@link #executeTrade} may issue. */
+    public static final int EXECUTE_TRADE_QUERY_BUDGET = 7;
+
     private final TradeRepository tradeRepository;
     private final UserRepository userRepository;
     private final InstrumentRepository instrumentRepository;
     private final PortfolioRepository portfolioRepository;
     private final PositionRepository positionRepository;
-    private final AuditService auditService;
+    private final SideEffectBus sideEffectBus;
     private final CacheEvictionService cacheEvictionService;
+    private final ShardExecutor shardExecutor;
+    private final TradePartitionService tradePartitionService;
+    private final TradeColumnStore tradeColumnStore;
+
+    @Value("${application.trades.concurrency.mode:PESSIMISTIC}")
+    private TradeConcurrencyMode concurrencyMode;
 
     public TradeService(TradeRepository tradeRepository,
             UserRepository userRepository,
             InstrumentRepository instrumentRepository,
             PortfolioRepository portfolioRepository,
             PositionRepository positionRepository,
-            AuditService auditService,
-            CacheEvictionService cacheEvictionService) {
+            SideEffectBus sideEffectBus,
+            CacheEvictionService cacheEvictionService,
+            ShardExecutor shardExecutor,
+            TradePartitionService tradePartitionService,
+            TradeColumnStore tradeColumnStore) {
         this.tradeRepository = tradeRepository;
         this.userRepository = userRepository;
         this.instrumentRepository = instrumentRepository;
         this.portfolioRepository = portfolioRepository;
         this.positionRepository = positionRepository;
-        this.auditService = auditService;
+        this.sideEffectBus = sideEffectBus;
         this.cacheEvictionService = cacheEvictionService;
+        this.shardExecutor = shardExecutor;
+        this.tradePartitionService = tradePartitionService;
+        this.tradeColumnStore = tradeColumnStore;
     }
 
     /**
      * Executes a trade within a transactional boundary.
-     * Transaction Flow: PENDING -> Position Update -> Portfolio Recalculation ->
-     * EXECUTED.
-     * 
+     * Transaction Flow: Validate -> Position Update -> EXECUTED Trade ->
+     * Portfolio Recalculation. Sells book realized P&L; the portfolio's value
+     * and unrealized P&L come from one aggregate over its positions.
+     *
+     * Query budget: at most {@value #EXECUTE_TRADE_QUERY_BUDGET} JDBC statements per trade,
+     * checked by tests:
+     * instrument lookup, portfolio lookup, position lookup, trade insert,
+     * position insert/update/delete, portfolio value aggregate and portfolio update.
+     * The user is referenced by id only; the audit row is written asynchronously.
+     * Pooled id allocation adds one round trip per 50 new trades or positions.
+     *
+     * In {@link TradeConcurrencyMode#PESSIMISTIC} mode the instruments are
+     * share-locked first, in the same order as price updates lock them, then
+     * the portfolio and position rows are locked when read, and the valuation
+     * is a locking read of the latest committed prices. In {@link TradeConcurrencyMode#OPTIMISTIC}
+     * mode they are read without a lock and their versions are checked when
+     * written; a conflict fails the whole trade, which
+     * {@link ConcurrentTradeExecutor} runs again. Either way a concurrent trade
+     * or revaluation of the same portfolio cannot overwrite its P&L.
+     *
      * @param request The trade request details
      * @param userId  The ID of the user executing the trade
      * @return Standardized TradeResponse
-     * @throws ResourceNotFoundException if user or instrument is missing
+     * @throws ResourceNotFoundException if the instrument or the user's portfolio is missing
      * @throws TradeValidationException  if sell quantity exceeds held position
      */
     @Transactional
-    public TradeResponse executeTrade(TradeRequest request, Long userId) {
+    @Workload(WorkloadType.TRADING)
+    public TradeResponse executeTrade(TradeRequest request, @ShardKey(ShardKey.Type.USER) Long userId) {
         log.info("TRADE_EXECUTION_START | User: {} | Instrument: {} | Side: {} | Qty: {}",
                 userId, request.instrumentId(), request.side(), request.quantity());
 
-        // A) Validate Instrument
-        Instrument instrument = instrumentRepository.findById(request.instrumentId())
+        // A) Validate Instrument (share-locked with the portfolio's other instruments unless optimistic)
+        Instrument instrument = (concurrencyMode == TradeConcurrencyMode.OPTIMISTIC
+                ? instrumentRepository.findById(request.instrumentId())
+                : instrumentRepository.findForTradeForShare(request.instrumentId(), userId).stream()
+                        .filter(candidate -> candidate.getId().equals(request.instrumentId()))
+                        .findFirst())
                 .orElseThrow(
                         () -> new ResourceNotFoundException("Instrument not found with id: " + request.instrumentId()));
 
-        // B) Fetch User and Portfolio
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-
-        Portfolio portfolio = portfolioRepository.findByUserId(userId)
+        // B) Fetch Portfolio (locked unless optimistic); every user with a portfolio exists,
+        // so the user is not loaded
+        Portfolio portfolio = (concurrencyMode == TradeConcurrencyMode.OPTIMISTIC
+                ? portfolioRepository.findByUserId(userId)
+                : portfolioRepository.findByUserIdForUpdate(userId))
                 .orElseThrow(() -> new ResourceNotFoundException("Portfolio not found for user: " + userId));
 
-        // C) Validation for SELL
+        // C) Read the position once (locked unless optimistic) and validate SELL against it
+        Optional<Position> position = concurrencyMode == TradeConcurrencyMode.OPTIMISTIC
+                ? positionRepository.findUnlockedByPortfolioIdAndInstrumentId(portfolio.getId(), instrument.getId())
+                : positionRepository.findByPortfolioIdAndInstrumentId(portfolio.getId(), instrument.getId());
         if (request.side() == TradeSide.SELL) {
-            Position position = positionRepository
-                    .findByPortfolioIdAndInstrumentId(portfolio.getId(), instrument.getId())
-                    .orElseThrow(() -> new TradeValidationException(
-                            "Permission denied: No position held in " + instrument.getSymbol()));
-
-            if (request.quantity() > position.getQuantity()) {
-                throw new TradeValidationException("Insufficient quantity. Available: " + position.getQuantity());
+            if (position.isEmpty()) {
+                throw new TradeValidationException("Permission denied: No position held in " + instrument.getSymbol());
+            }
+            if (request.quantity() > position.get().getQuantity()) {
+                throw new TradeValidationException("Insufficient quantity. Available: " + position.get().getQuantity());
             }
         }
 
-        // D) Create PENDING Trade
-        Trade trade = Trade.builder()
-                .user(user)
+        // D) Update or create Position (written at the next flush)
+        updatePosition(position, portfolio, instrument, request.quantity(), request.price(), request.side());
+
+        // E) Persist the trade as EXECUTED; PENDING is never visible outside this transaction
+        Trade trade = tradeRepository.save(Trade.builder()
+                .user(userRepository.getReferenceById(userId))
                 .instrument(instrument)
                 .quantity(request.quantity())
                 .price(request.price())
                 .side(request.side())
-                .status(TradeStatus.PENDING)
+                .status(TradeStatus.EXECUTED)
                 .timestamp(LocalDateTime.now())
-                .build();
-
-        // E) Persist Trade (to get ID)
-        trade = tradeRepository.save(trade);
+                .build());
 
-        // F) Update or create Position
-        updatePosition(portfolio, instrument, request.quantity(), request.price(), request.side());
-
-        // G) Update Portfolio totalValue (Recalculate from all positions)
+        // F) Update Portfolio totalValue (aggregated in the database)
         recalculatePortfolioValue(portfolio);
 
-        // H) Mark EXECUTED
-        trade.setStatus(TradeStatus.EXECUTED);
-        tradeRepository.save(trade);
-
-        // I) Audit Integration
-        auditService.logAction("TRADE_EXECUTED", userId);
+        // G) Audit Integration (recorded after commit)
+        sideEffectBus.audit("TRADE_EXECUTED", userId);
 
-        // J) Evict caches for the affected portfolio only
+        // H) Evict caches for the affected portfolio only (applied after commit in one round trip)
         Long portfolioId = portfolio.getId();
         cacheEvictionService.evictPortfolioCache(portfolioId);
         cacheEvictionService.evictRiskCache(portfolioId);
 
+        // I) Feed the in-memory analytics columns once the trade is committed
+        sideEffectBus.afterCommit(() -> tradeColumnStore.append(trade.getId(), userId, instrument.getId(),
+                trade.getQuantity(), trade.getPrice(), trade.getSide(), trade.getTimestamp()));
+
         log.info("TRADE_EXECUTION_SUCCESS | TradeID: {} | User: {} | Status: EXECUTED", trade.getId(), userId);
         return mapToResponse(trade);
     }
 
-    private void updatePosition(Portfolio portfolio, Instrument instrument, Integer quantity,
-            java.math.BigDecimal price,
-            TradeSide side) {
-        Optional<Position> positionOptional = positionRepository.findByPortfolioIdAndInstrumentId(portfolio.getId(),
-                instrument.getId());
-
+    private void updatePosition(Optional<Position> positionOptional, Portfolio portfolio, Instrument instrument,
+            Integer quantity, java.math.BigDecimal price, TradeSide side) {
         if (side == TradeSide.BUY) {
             if (positionOptional.isPresent()) {
                 Position position = positionOptional.get();
-                // Formula: newAvgPrice = ((oldQty * oldAvg) + (newQty * tradePrice)) / (oldQty
-                // + newQty)
-                java.math.BigDecimal oldTotalCost = position.getAvgPrice()
-                        .multiply(java.math.BigDecimal.valueOf(position.getQuantity()));
-                java.math.BigDecimal newTradeCost = price
-                        .multiply(java.math.BigDecimal.valueOf(quantity));
-                int newTotalQty = position.getQuantity() + quantity;
-
-                position.setQuantity(newTotalQty);
-                position.setAvgPrice(oldTotalCost.add(newTradeCost)
-                        .divide(java.math.BigDecimal.valueOf(newTotalQty),
-                                com.trade_risk_system.util.MoneyUtils.PRICE_SCALE,
-                                com.trade_risk_system.util.MoneyUtils.ROUNDING));
-                positionRepository.save(position);
+                // Weighted average; position reconciliation replays the same formula
+                position.setAvgPrice(MoneyUtils.averagePrice(position.getAvgPrice(), position.getQuantity(),
+                        price, quantity));
+                position.setQuantity(position.getQuantity() + quantity);
             } else {
                 Position newPosition = Position.builder()
                         .portfolio(portfolio)
@@ -161,42 +207,88 @@ public class TradeService {
             }
         } else { // SELL
             Position position = positionOptional.get(); // Already validated in executeTrade
+            // Realized P&L against the average price; the average itself is unchanged by a sell
+            portfolio.setRealizedPnl(MoneyUtils.scale(portfolio.getRealizedPnl().add(
+                    price.subtract(position.getAvgPrice()).multiply(java.math.BigDecimal.valueOf(quantity)))));
             int newQty = position.getQuantity() - quantity;
             if (newQty == 0) {
                 positionRepository.delete(position);
             } else {
                 position.setQuantity(newQty);
-                positionRepository.save(position);
             }
         }
     }
 
     private void recalculatePortfolioValue(Portfolio portfolio) {
-        List<Position> positions = positionRepository.findByPortfolioIdWithInstrument(portfolio.getId());
-        java.math.BigDecimal totalValue = positions.stream()
-                .map(p -> {
-                    java.math.BigDecimal currentPrice = p.getInstrument().getCurrentPrice();
-                    java.math.BigDecimal priceToUse = (currentPrice != null) ? currentPrice : p.getAvgPrice();
-                    return priceToUse.multiply(java.math.BigDecimal.valueOf(p.getQuantity()));
-                })
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-        portfolio.setTotalValue(com.trade_risk_system.util.MoneyUtils.scale(totalValue));
-        portfolioRepository.save(portfolio);
+        // Either query auto-flushes the pending position change first. A locked trade
+        // values with a locking read: a plain read would use the snapshot of the
+        // transaction's first read, from before the portfolio was locked.
+        PortfolioValuation valuation = concurrencyMode == TradeConcurrencyMode.OPTIMISTIC
+                ? positionRepository.valueByPortfolioId(portfolio.getId())
+                : PortfolioValuation.sum(positionRepository.valuePositionsForShare(portfolio.getId()));
+        portfolio.setTotalValue(MoneyUtils.scale(valuation.marketValue()));
+        portfolio.setUnrealizedPnl(MoneyUtils.scale(valuation.unrealizedPnl()));
+    }
+
+    public Slice<TradeResponse> getAllTrades(Pageable pageable) {
+        TradeArchiveStore.Filter archived = new TradeArchiveStore.Filter(null, null, null, null, null);
+        return shardExecutor.scatterSlice(pageable, TradeResponse.class,
+                page -> tradePartitionService.appendArchived(tradeRepository.findResponsesBy(page), archived,
+                        tradeRepository::count));
     }
 
-    public Page<TradeResponse> getAllTrades(Pageable pageable) {
-        return tradeRepository.findAll(pageable)
-                .map(this::mapToResponse);
+    public Slice<TradeResponse> getTradesByInstrument(Long instrumentId, Pageable pageable) {
+        TradeArchiveStore.Filter archived = new TradeArchiveStore.Filter(instrumentId, null, null, null, null);
+        return shardExecutor.scatterSlice(pageable, TradeResponse.class,
+                page -> tradePartitionService.appendArchived(
+                        tradeRepository.findResponsesByInstrumentId(instrumentId, page), archived,
+                        () -> tradeRepository.countByInstrumentId(instrumentId)));
     }
 
-    public Page<TradeResponse> getTradesByInstrument(Long instrumentId, Pageable pageable) {
-        return tradeRepository.findByInstrumentId(instrumentId, pageable)
-                .map(this::mapToResponse);
+    public Slice<TradeResponse> getTradesByDateRange(LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        // BETWEEN includes end; the archive filter's upper bound is exclusive
+        TradeArchiveStore.Filter archived = new TradeArchiveStore.Filter(null, null, start, end.plusNanos(1), null);
+        return shardExecutor.scatterSlice(pageable, TradeResponse.class,
+                page -> tradePartitionService.appendArchived(
+                        tradeRepository.findResponsesByTimestampBetween(start, end, page), archived,
+                        () -> tradeRepository.countByTimestampBetween(start, end)));
     }
 
-    public Page<TradeResponse> getTradesByDateRange(LocalDateTime start, LocalDateTime end, Pageable pageable) {
-        return tradeRepository.findByTimestampBetween(start, end, pageable)
-                .map(this::mapToResponse);
+    /**
+     * Returns one page of trades, newest first, using keyset pagination on
+     * (timestamp, id). Each page is one index range scan starting at the cursor,
+     * so its cost does not grow with how deep the page is, and no count query is
+     * run. Pages that reach past the live rows are filled from the archive.
+     *
+     * @param instrumentId optional instrument filter
+     * @param start        optional inclusive lower bound
+     * @param end          optional exclusive upper bound
+     * @param cursor       cursor from the previous page, or null for the first page
+     * @param limit        page size, capped at MAX_CURSOR_PAGE_SIZE
+     */
+    public CursorPage<TradeResponse> getTradesPage(Long instrumentId, LocalDateTime start, LocalDateTime end,
+            String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CURSOR_PAGE_SIZE);
+        LocalDateTime upper = end != null ? end : LocalDateTime.now();
+        LocalDateTime lower = start != null ? start : EARLIEST_TRADE;
+        KeysetCursor position = cursor != null ? KeysetCursor.decode(cursor) : KeysetCursor.before(upper);
+
+        TradeArchiveStore.Filter archived = new TradeArchiveStore.Filter(instrumentId, null, start, end, position);
+        List<TradeResponse> rows = shardExecutor.scatterSorted(NEWEST_FIRST, pageSize + 1, () -> {
+            List<TradeResponse> live = instrumentId != null
+                    ? tradeRepository.findPageBeforeByInstrumentId(instrumentId, lower, upper,
+                            position.timestamp(), position.id(), Limit.of(pageSize + 1))
+                    : tradeRepository.findPageBefore(lower, upper,
+                            position.timestamp(), position.id(), Limit.of(pageSize + 1));
+            if (live.size() > pageSize) {
+                return live;
+            }
+            // Archived rows are all older than the live ones
+            List<TradeResponse> page = new ArrayList<>(live);
+            page.addAll(tradePartitionService.readArchived(archived, 0, pageSize + 1 - live.size()));
+            return page;
+        });
+        return CursorPage.of(rows, pageSize, row -> new KeysetCursor(row.timestamp(), row.id()));
     }
 
     private TradeResponse mapToResponse(Trade trade) {
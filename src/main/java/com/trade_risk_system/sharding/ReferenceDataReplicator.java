@@ -0,0 +1,116 @@
+package com.trade_risk_system.sharding;
+
+import com.trade_risk_system.datasource.DataSourceConfig.DataSourcePools;
+import com.trade_risk_system.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Copies reference data from the global shard to the other shards.
+ *
+ * Instruments are a replicated table: every shard holds all of them, so
+ * positions and trades can join them locally. Changes are pushed after commit
+ * and a full resync runs at startup and every {@code reference-sync-interval}
+ * to repair missed pushes. Users are copied to a shard when their portfolio is
+ * placed there, inside the same transaction. Does nothing with a single shard.
+ */
+@Component
+public class ReferenceDataReplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataReplicator.class);
+
+    private static final String SELECT_INSTRUMENTS = "SELECT id, symbol, name, current_price FROM instruments";
+    private static final String UPSERT_INSTRUMENT = "INSERT INTO instruments (id, symbol, name, current_price) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE symbol = VALUES(symbol), name = VALUES(name), "
+            + "current_price = VALUES(current_price)";
+    private static final String UPSERT_USER = "INSERT INTO users (id, username, email, password, role) "
+            + "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE username = VALUES(username), email = VALUES(email), "
+            + "password = VALUES(password), role = VALUES(role)";
+
+    private record InstrumentRow(long id, String symbol, String name, BigDecimal currentPrice) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate globalJdbcTemplate;
+    private final List<JdbcTemplate> shardJdbcTemplates = new ArrayList<>();
+
+    public ReferenceDataReplicator(JdbcTemplate jdbcTemplate, DataSourcePools pools) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.globalJdbcTemplate = new NamedParameterJdbcTemplate(pools.shard(ShardIds.GLOBAL_SHARD).primary());
+        pools.shards().stream()
+                .filter(shard -> shard.id() != ShardIds.GLOBAL_SHARD)
+                .forEach(shard -> shardJdbcTemplates.add(new JdbcTemplate(shard.primary())));
+    }
+
+    /**
+     * Pushes the given instruments to every other shard.
+     */
+    public void replicateInstruments(Collection<Long> ids) {
+        if (shardJdbcTemplates.isEmpty() || ids.isEmpty()) {
+            return;
+        }
+        push(globalJdbcTemplate.query(SELECT_INSTRUMENTS + " WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids), ReferenceDataReplicator::mapInstrument));
+    }
+
+    /**
+     * Pushes all instruments to every other shard.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${application.datasource.sharding.reference-sync-interval:5m}",
+            initialDelayString = "${application.datasource.sharding.reference-sync-interval:5m}")
+    public void replicateAllInstruments() {
+        if (shardJdbcTemplates.isEmpty()) {
+            return;
+        }
+        push(globalJdbcTemplate.getJdbcTemplate().query(SELECT_INSTRUMENTS, ReferenceDataReplicator::mapInstrument));
+    }
+
+    /**
+     * Copies the user to the current shard, in the current transaction.
+     */
+    public void copyUser(User user) {
+        jdbcTemplate.update(UPSERT_USER, user.getId(), user.getUsername(), user.getEmail(), user.getPassword(),
+                user.getRole().name());
+    }
+
+    private void push(List<InstrumentRow> instruments) {
+        if (instruments.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < shardJdbcTemplates.size(); i++) {
+            try {
+                shardJdbcTemplates.get(i).batchUpdate(UPSERT_INSTRUMENT, instruments, instruments.size(),
+                        (ps, row) -> {
+                            ps.setLong(1, row.id());
+                            ps.setString(2, row.symbol());
+                            ps.setString(3, row.name());
+                            ps.setBigDecimal(4, row.currentPrice());
+                        });
+            } catch (RuntimeException e) {
+                // The next full resync repairs this shard
+                log.error("Failed to replicate {} instruments to shard {}: {}", instruments.size(), i + 1,
+                        e.getMessage(), e);
+            }
+        }
+        log.debug("Instruments replicated: {} rows to {} shards", instruments.size(), shardJdbcTemplates.size());
+    }
+
+    private static InstrumentRow mapInstrument(ResultSet rs, int rowNum) throws SQLException {
+        return new InstrumentRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4));
+    }
+}
@@ -0,0 +1,50 @@
+package com.trade_risk_system.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the code running on the current thread works against, as set by
+ * {@link ShardRoutingAspect}, {@link ShardExecutor} or {@link #call}. Without
+ * a shard set, connections go to the global shard.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * The current shard, or null when none is set.
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the task with the given shard set on the current thread. Must be
+     * called outside a transaction, or inside one already bound to that shard.
+     */
+    public static <T> T call(int shard, Supplier<T> task) {
+        Integer previous = enter(shard);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static Integer enter(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.trade_risk_system.sharding;
+
+import com.trade_risk_system.datasource.DataSourceConfig.DataSourcePools;
+import com.trade_risk_system.exception.ResourceNotFoundException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Knows which shard holds a portfolio and everything under it.
+ *
+ * A portfolio's shard is encoded in its id (see {@link ShardIds}), so portfolio
+ * lookups need no round trip. Users are mapped to the shard of their portfolio
+ * through the {@code shard_directory} table on the global shard; entries never
+ * change once written and are cached for the life of the process. With a single
+ * shard every lookup answers the global shard without touching the database.
+ */
+@Component
+public class ShardDirectory {
+
+    private static final String LOOKUP_SQL = "SELECT shard_id FROM shard_directory WHERE user_id = ?";
+    private static final String PORTFOLIO_SQL = "SELECT portfolio_id FROM shard_directory WHERE user_id = ?";
+    private static final String REGISTER_SQL =
+            "INSERT INTO shard_directory (user_id, portfolio_id, shard_id) VALUES (?, ?, ?)";
+
+    private final int shardCount;
+    private final JdbcTemplate globalJdbcTemplate;
+    private final Map<Long, Integer> userShards = new ConcurrentHashMap<>();
+
+    public ShardDirectory(DataSourcePools pools) {
+        this.shardCount = pools.shards().size();
+        // Bypasses the routed DataSource so lookups never join a transaction bound to another shard
+        this.globalJdbcTemplate = new JdbcTemplate(pools.shard(ShardIds.GLOBAL_SHARD).primary());
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * The shard holding the portfolio.
+     *
+     * @throws ResourceNotFoundException if the id belongs to no configured shard
+     */
+    public int shardOfPortfolio(long portfolioId) {
+        int shard = ShardIds.shardOf(portfolioId);
+        if (shard >= shardCount) {
+            throw new ResourceNotFoundException("Portfolio not found with id: " + portfolioId);
+        }
+        return shard;
+    }
+
+    /**
+     * The shard holding the user's portfolio, trades and audit rows; the
+     * global shard for users without a portfolio.
+     */
+    public int shardOfUser(long userId) {
+        if (!isSharded()) {
+            return ShardIds.GLOBAL_SHARD;
+        }
+        return findShardOfUser(userId).orElse(ShardIds.GLOBAL_SHARD);
+    }
+
+    /**
+     * The shard holding the user's portfolio, if the user has one.
+     */
+    public OptionalInt findShardOfUser(long userId) {
+        Integer cached = userShards.get(userId);
+        if (cached != null) {
+            return OptionalInt.of(cached);
+        }
+        List<Integer> rows = globalJdbcTemplate.queryForList(LOOKUP_SQL, Integer.class, userId);
+        if (rows.isEmpty()) {
+            // Not cached: the user may still open a portfolio
+            return OptionalInt.empty();
+        }
+        userShards.put(userId, rows.get(0));
+        return OptionalInt.of(rows.get(0));
+    }
+
+    /**
+     * Picks the shard for a user's new portfolio, spreading users evenly.
+     */
+    public int placePortfolio(long userId) {
+        if (!isSharded()) {
+            return ShardIds.GLOBAL_SHARD;
+        }
+        return Math.floorMod(Long.hashCode(userId * 0x9E3779B97F4A7C15L), shardCount);
+    }
+
+    /**
+     * Records where a new portfolio was placed. Registering the same portfolio
+     * again is a no-op, so a retried creation can repeat it.
+     *
+     * @throws DuplicateKeyException if the user is registered with another portfolio
+     */
+    public void register(long userId, long portfolioId, int shard) {
+        try {
+            globalJdbcTemplate.update(REGISTER_SQL, userId, portfolioId, shard);
+        } catch (DuplicateKeyException e) {
+            List<Long> registered = globalJdbcTemplate.queryForList(PORTFOLIO_SQL, Long.class, userId);
+            if (!registered.equals(List.of(portfolioId))) {
+                throw e;
+            }
+        }
+        userShards.put(userId, shard);
+    }
+}
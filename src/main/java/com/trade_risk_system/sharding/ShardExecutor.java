@@ -0,0 +1,253 @@
+package com.trade_risk_system.sharding;
+
+import com.trade_risk_system.datasource.WorkloadContext;
+import com.trade_risk_system.datasource.WorkloadType;
+import com.trade_risk_system.exception.BadRequestException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs a query on every shard in parallel and merges the results
+ * (scatter-gather). Each shard's part runs in its own read-only transaction
+ * with the caller's workload and security context.
+ *
+ * With a single shard the query runs once on the calling thread, inside the
+ * caller's transaction, and its result is returned unchanged.
+ */
+@Component
+public class ShardExecutor implements DisposableBean {
+
+    private final ShardDirectory shardDirectory;
+    private final TransactionTemplate readOnly;
+    private final ShardingProperties properties;
+    private final ExecutorService executor;
+
+    public ShardExecutor(ShardDirectory shardDirectory, PlatformTransactionManager transactionManager,
+            ShardingProperties properties) {
+        this.shardDirectory = shardDirectory;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.properties = properties;
+        this.executor = shardDirectory.isSharded()
+                ? Executors.newFixedThreadPool(Math.max(1, properties.scatterParallelism()), scatterThreadFactory())
+                : null;
+    }
+
+    /**
+     * Runs the task once per shard and returns the results in shard order.
+     */
+    public <T> List<T> scatter(IntFunction<T> task) {
+        if (!shardDirectory.isSharded()) {
+            return List.of(task.apply(ShardIds.GLOBAL_SHARD));
+        }
+        WorkloadType workload = WorkloadContext.current();
+        SecurityContext security = SecurityContextHolder.getContext();
+        List<Callable<T>> tasks = new ArrayList<>(shardDirectory.getShardCount());
+        for (int shard = 0; shard < shardDirectory.getShardCount(); shard++) {
+            int target = shard;
+            tasks.add(() -> {
+                SecurityContextHolder.setContext(security);
+                try {
+                    return WorkloadContext.call(workload, () -> ShardContext.call(target,
+                            () -> readOnly.execute(status -> task.apply(target))));
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        }
+
+        List<Future<T>> futures;
+        try {
+            futures = executor.invokeAll(tasks, properties.scatterTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while querying shards", e);
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (int shard = 0; shard < futures.size(); shard++) {
+            try {
+                results.add(futures.get(shard).get());
+            } catch (CancellationException e) {
+                throw new DataAccessResourceFailureException(
+                        "Shard " + shard + " did not answer within " + properties.scatterTimeout());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessResourceFailureException("Interrupted while querying shards", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new DataAccessResourceFailureException("Query failed on shard " + shard, e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs the task on each shard in turn, on the calling thread and outside
+     * any transaction, for maintenance work that must touch every shard.
+     */
+    public void forEachShard(IntConsumer task) {
+        for (int shard = 0; shard < shardDirectory.getShardCount(); shard++) {
+            int target = shard;
+            ShardContext.call(target, () -> {
+                task.accept(target);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Runs a sorted, limited query on every shard and keeps the first
+     * {@code limit} rows overall. The query must return its rows in
+     * {@code order} and at most {@code limit} of them.
+     */
+    public <T> List<T> scatterSorted(Comparator<? super T> order, int limit, Supplier<List<T>> query) {
+        if (!shardDirectory.isSharded()) {
+            return query.get();
+        }
+        List<T> merged = merge(scatter(shard -> query.get()), order);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * Serves an offset page across shards: every shard returns its first
+     * {@code offset + size} rows, which are merged and cut to the page.
+     * Sorting is limited to components of the record type, with id as the
+     * tie-breaker and the default order.
+     */
+    public <T extends Record> Slice<T> scatterSlice(Pageable pageable, Class<T> type,
+            Function<Pageable, Slice<T>> query) {
+        if (!shardDirectory.isSharded()) {
+            return query.apply(pageable);
+        }
+        Pageable window = fanOut(pageable);
+        Comparator<T> order = comparator(window.getSort(), type);
+        List<Slice<T>> slices = scatter(shard -> query.apply(window));
+        List<T> merged = merge(slices.stream().map(Slice::getContent).toList(), order);
+        boolean hasNext = merged.size() > window.getPageSize() || slices.stream().anyMatch(Slice::hasNext);
+        return new SliceImpl<>(page(merged, pageable), pageable, hasNext);
+    }
+
+    /**
+     * Like {@link #scatterSlice}, with the total summed over the shards' counts.
+     */
+    public <T extends Record> Page<T> scatterPage(Pageable pageable, Class<T> type,
+            Function<Pageable, Page<T>> query) {
+        if (!shardDirectory.isSharded()) {
+            return query.apply(pageable);
+        }
+        Pageable window = fanOut(pageable);
+        Comparator<T> order = comparator(window.getSort(), type);
+        List<Page<T>> pages = scatter(shard -> query.apply(window));
+        List<T> merged = merge(pages.stream().map(Page::getContent).toList(), order);
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        return new PageImpl<>(page(merged, pageable), pageable, total);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private Pageable fanOut(Pageable pageable) {
+        long rows = pageable.getOffset() + pageable.getPageSize();
+        if (rows > properties.maxScatterRows()) {
+            throw new BadRequestException("Pages beyond the first " + properties.maxScatterRows()
+                    + " rows are not available; use the cursor endpoint");
+        }
+        Sort sort = pageable.getSort();
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by(sort.isSorted() ? sort.iterator().next().getDirection() : Sort.Direction.ASC,
+                    "id"));
+        }
+        return PageRequest.of(0, (int) rows, sort);
+    }
+
+    private static <T> List<T> page(List<T> merged, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return merged.subList(from, to);
+    }
+
+    private static <T> List<T> merge(List<List<T>> parts, Comparator<? super T> order) {
+        List<T> merged = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+        parts.forEach(merged::addAll);
+        merged.sort(order);
+        return merged;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T extends Record> Comparator<T> comparator(Sort sort, Class<T> type) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            RecordComponent component = null;
+            for (RecordComponent candidate : type.getRecordComponents()) {
+                if (candidate.getName().equals(order.getProperty())) {
+                    component = candidate;
+                }
+            }
+            if (component == null || !Comparable.class.isAssignableFrom(component.getType())) {
+                throw new BadRequestException("Sorting by '" + order.getProperty() + "' is not supported");
+            }
+            Method accessor = component.getAccessor();
+            accessor.trySetAccessible();
+            Comparator<Comparable> values = order.isAscending()
+                    ? Comparator.nullsFirst(Comparator.naturalOrder())
+                    : Comparator.nullsLast(Comparator.reverseOrder());
+            Comparator<T> next = Comparator.comparing(row -> (Comparable) read(accessor, row), values);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private static Object read(Method accessor, Record row) {
+        try {
+            return accessor.invoke(row);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + accessor.getName(), e);
+        }
+    }
+
+    private static ThreadFactory scatterThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.trade_risk_system.sharding;
+
+/**
+ * Id layout across shards. Every shard hands out ids from its own range,
+ * starting at {@code shard << 40}, so ids stay unique across shards. Shard 0
+ * keeps the ids it had before sharding.
+ *
+ * Portfolio ids come from their shard's AUTO_INCREMENT, so a portfolio's shard
+ * can be read straight off its id. Pooled sequence blocks are cached per
+ * process and may be used on any shard; those ids are unique but say nothing
+ * about where the row lives.
+ */
+public final class ShardIds {
+
+    /** Shard holding users, instruments and the shard directory. */
+    public static final int GLOBAL_SHARD = 0;
+
+    /** Low bits available to ids within one shard (about 10^12 ids). */
+    public static final int SHARD_SHIFT = 40;
+
+    private ShardIds() {
+    }
+
+    /**
+     * The shard whose id range contains the id.
+     */
+    public static int shardOf(long id) {
+        return (int) (id >>> SHARD_SHIFT);
+    }
+
+    /**
+     * The first id of the shard's range.
+     */
+    public static long firstId(int shard) {
+        return ((long) shard << SHARD_SHIFT) + 1;
+    }
+}
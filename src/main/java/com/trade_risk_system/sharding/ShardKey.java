@@ -0,0 +1,26 @@
+package com.trade_risk_system.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the parameter that decides which shard a service method runs on.
+ * The method, including its transaction, then runs entirely on that shard.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ShardKey {
+
+    Type value();
+
+    enum Type {
+        /** A portfolio id; the shard is encoded in the id. */
+        PORTFOLIO,
+        /** A user id; the shard is looked up in the shard directory. */
+        USER
+    }
+}
@@ -0,0 +1,63 @@
+package com.trade_risk_system.sharding;
+
+import com.trade_risk_system.datasource.DataSourceConfig.DataSourcePools;
+import com.trade_risk_system.datasource.DataSourceConfig.ShardDataSources;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the Flyway migrations to every shard, not only the global one, so
+ * all shards share one schema. Each extra shard then has its id generators
+ * moved to the start of its own id range (see {@link ShardIds}); both
+ * statements only ever raise the counters, so this is safe to repeat.
+ */
+@Component
+public class ShardMigrationStrategy implements FlywayMigrationStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardMigrationStrategy.class);
+
+    /** Pooled sequences hand out the block below next_val; see V7. */
+    private static final String[] SEQUENCES = { "trades_seq", "positions_seq", "risk_metrics_seq" };
+    private static final String[] IDENTITY_TABLES = { "portfolios", "audit_logs", "pnl_snapshots",
+            "reconciliation_mismatches", "change_events" };
+    private static final int SEQUENCE_BLOCK = 50;
+
+    private final DataSourcePools pools;
+
+    public ShardMigrationStrategy(DataSourcePools pools) {
+        this.pools = pools;
+    }
+
+    @Override
+    public void migrate(Flyway flyway) {
+        flyway.migrate();
+        for (ShardDataSources shard : pools.shards()) {
+            if (shard.id() == ShardIds.GLOBAL_SHARD) {
+                continue;
+            }
+            Flyway.configure(flyway.getConfiguration().getClassLoader())
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(shard.primary())
+                    .load()
+                    .migrate();
+            reserveIdRange(new JdbcTemplate(shard.primary()), shard.id());
+            log.info("SHARD_MIGRATED | Shard: {} | First id: {}", shard.name(), ShardIds.firstId(shard.id()));
+        }
+    }
+
+    private static void reserveIdRange(JdbcTemplate jdbcTemplate, int shard) {
+        long firstId = ShardIds.firstId(shard);
+        for (String sequence : SEQUENCES) {
+            jdbcTemplate.update("UPDATE " + sequence + " SET next_val = GREATEST(next_val, ?)",
+                    firstId + SEQUENCE_BLOCK);
+        }
+        for (String table : IDENTITY_TABLES) {
+            // InnoDB ignores values below the current maximum
+            jdbcTemplate.execute("ALTER TABLE " + table + " AUTO_INCREMENT = " + firstId);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.trade_risk_system.sharding;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets the {@link ShardContext} for methods with a {@link ShardKey} parameter.
+ * Runs outside the transaction and cache interceptors so the transaction's
+ * connection comes from the right shard.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardRoutingAspect {
+
+    private final ShardDirectory shardDirectory;
+    private final Map<Method, KeyParameter> keyParameters = new ConcurrentHashMap<>();
+
+    public ShardRoutingAspect(ShardDirectory shardDirectory) {
+        this.shardDirectory = shardDirectory;
+    }
+
+    @Around("execution(* *(.., @com.trade_risk_system.sharding.ShardKey (*), ..))")
+    public Object bindShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!shardDirectory.isSharded()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        KeyParameter key = keyParameters.computeIfAbsent(method, ShardRoutingAspect::findKeyParameter);
+        Object value = joinPoint.getArgs()[key.index()];
+        if (value == null) {
+            return joinPoint.proceed();
+        }
+        long id = ((Number) value).longValue();
+        int shard = key.type() == ShardKey.Type.PORTFOLIO
+                ? shardDirectory.shardOfPortfolio(id)
+                : shardDirectory.shardOfUser(id);
+
+        Integer current = ShardContext.current();
+        if (current != null && current != shard) {
+            throw new IllegalStateException("Cross-shard call: " + method.getName() + " needs shard " + shard
+                    + " but runs on shard " + current);
+        }
+        Integer previous = ShardContext.enter(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private static KeyParameter findKeyParameter(Method method) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey shardKey) {
+                    return new KeyParameter(i, shardKey.value());
+                }
+            }
+        }
+        throw new IllegalStateException("No @ShardKey parameter on " + method);
+    }
+
+    private record KeyParameter(int index, ShardKey.Type type) {
+    }
+}
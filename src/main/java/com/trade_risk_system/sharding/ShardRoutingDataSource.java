@@ -0,0 +1,27 @@
+package com.trade_risk_system.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the database of the current thread's shard ({@link ShardContext}),
+ * defaulting to the global shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(Map<Integer, ? extends DataSource> shards) {
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(ShardIds.GLOBAL_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard != null ? shard : ShardIds.GLOBAL_SHARD;
+    }
+}
@@ -0,0 +1,33 @@
+package com.trade_risk_system.sharding;
+
+import com.trade_risk_system.datasource.ReplicaRoutingProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Sharding settings ({@code application.datasource.sharding}). Shard 0 is
+ * always the {@code spring.datasource} database; {@code shards} adds shards
+ * 1..n. With no extra shards, sharding is off and nothing is routed.
+ *
+ * @param shards             additional shard databases, in shard id order
+ * @param scatterTimeout     how long a scatter-gather waits for all shards
+ * @param scatterParallelism threads running per-shard queries of scatter-gathers
+ * @param maxScatterRows     deepest offset page (offset + size) served across shards
+ */
+@ConfigurationProperties("application.datasource.sharding")
+public record ShardingProperties(
+        @DefaultValue List<Shard> shards,
+        @DefaultValue("10s") Duration scatterTimeout,
+        @DefaultValue("16") int scatterParallelism,
+        @DefaultValue("10000") int maxScatterRows) {
+
+    /**
+     * @param replicas read replicas of this shard, used when replica routing is enabled
+     */
+    public record Shard(String name, String url, String username, String password,
+            @DefaultValue List<ReplicaRoutingProperties.Replica> replicas) {
+    }
+}
@@ -36,4 +36,14 @@ public final class MoneyUtils {
     public static BigDecimal scaleRatio(BigDecimal value) {
         return value.setScale(RATIO_SCALE, ROUNDING);
     }
+
+    /**
+     * Average price of a position after buying {@code quantity} more at
+     * {@code price}: ((oldQty * oldAvg) + (quantity * price)) / (oldQty + quantity).
+     */
+    public static BigDecimal averagePrice(BigDecimal oldAvg, int oldQuantity, BigDecimal price, int quantity) {
+        BigDecimal totalCost = oldAvg.multiply(BigDecimal.valueOf(oldQuantity))
+                .add(price.multiply(BigDecimal.valueOf(quantity)));
+        return totalCost.divide(BigDecimal.valueOf(oldQuantity + quantity), PRICE_SCALE, ROUNDING);
+    }
 }
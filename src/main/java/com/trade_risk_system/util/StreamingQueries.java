@@ -0,0 +1,41 @@
+package com.trade_risk_system.util;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Helpers for forward-only, streamed JDBC reads.
+ * Used with {@code JdbcTemplate.query(PreparedStatementCreator, RowCallbackHandler)}
+ * so large result sets are consumed row by row without being buffered.
+ */
+public final class StreamingQueries {
+
+    /**
+     * MySQL Connector/J streams rows one at a time when the fetch size is
+     * Integer.MIN_VALUE; any other value buffers the full result unless
+     * {@code useCursorFetch=true} is set on the connection.
+     */
+    public static final int MYSQL_ROW_STREAMING = Integer.MIN_VALUE;
+
+    private StreamingQueries() {
+        // Utility class — no instantiation
+    }
+
+    /**
+     * Creates a forward-only, read-only statement with the given fetch size and
+     * binds the arguments in order.
+     */
+    public static PreparedStatementCreator forwardOnly(String sql, int fetchSize, Object... args) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        };
+    }
+}
@@ -0,0 +1,32 @@
+-- V10: Realized and unrealized P&L per portfolio, with daily snapshots
+-- realized_pnl accumulates (sell price - avg price) * quantity on every sell.
+-- unrealized_pnl is (mark - avg price) * quantity summed over open positions,
+-- where the mark is the instrument's current price, or the average price when
+-- there is none. Both are kept up to date by trades and price changes;
+-- existing portfolios start with no realized P&L.
+
+ALTER TABLE portfolios
+    ADD COLUMN realized_pnl DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    ADD COLUMN unrealized_pnl DECIMAL(19, 4) NOT NULL DEFAULT 0;
+
+UPDATE portfolios p
+SET p.unrealized_pnl = (
+    SELECT COALESCE(SUM((COALESCE(i.current_price, pos.avg_price) - pos.avg_price) * pos.quantity), 0)
+    FROM positions pos JOIN instruments i ON i.id = pos.instrument_id
+    WHERE pos.portfolio_id = p.id);
+
+ALTER TABLE risk_metrics
+    ADD COLUMN realized_pnl DECIMAL(19, 4),
+    ADD COLUMN unrealized_pnl DECIMAL(19, 4);
+
+CREATE TABLE pnl_snapshots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    portfolio_id BIGINT NOT NULL,
+    as_of_date DATE NOT NULL,
+    realized_pnl DECIMAL(19, 4) NOT NULL,
+    unrealized_pnl DECIMAL(19, 4) NOT NULL,
+    total_value DECIMAL(19, 4),
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_pnl_portfolio FOREIGN KEY (portfolio_id) REFERENCES portfolios(id),
+    UNIQUE KEY uk_pnl_portfolio_date (portfolio_id, as_of_date)
+) ENGINE=InnoDB;
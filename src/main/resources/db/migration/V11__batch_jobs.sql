@@ -0,0 +1,42 @@
+-- V11: Checkpoints for restartable batch jobs, and end-of-day position snapshots
+-- batch_job_executions is used on the global shard only: one row per job and
+-- business date. batch_step_partitions lives on every shard next to the data
+-- it tracks, so a chunk's writes and its checkpoint commit together.
+
+CREATE TABLE batch_job_executions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    business_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at DATETIME(6) NOT NULL,
+    ended_at DATETIME(6),
+    exit_message VARCHAR(1000),
+    UNIQUE KEY uk_batch_job_date (job_name, business_date)
+) ENGINE=InnoDB;
+
+CREATE TABLE batch_step_partitions (
+    job_name VARCHAR(100) NOT NULL,
+    business_date DATE NOT NULL,
+    step_name VARCHAR(100) NOT NULL,
+    partition_no INT NOT NULL,
+    after_id BIGINT NOT NULL,
+    last_id BIGINT NOT NULL,
+    checkpoint_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    read_count BIGINT NOT NULL DEFAULT 0,
+    write_count BIGINT NOT NULL DEFAULT 0,
+    skip_count BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (job_name, business_date, step_name, partition_no)
+) ENGINE=InnoDB;
+
+CREATE TABLE position_snapshots (
+    as_of_date DATE NOT NULL,
+    portfolio_id BIGINT NOT NULL,
+    instrument_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    avg_price DECIMAL(19, 4) NOT NULL,
+    mark_price DECIMAL(19, 4) NOT NULL,
+    market_value DECIMAL(19, 4) NOT NULL,
+    PRIMARY KEY (as_of_date, portfolio_id, instrument_id)
+) ENGINE=InnoDB;
@@ -0,0 +1,22 @@
+-- V12: Position reconciliation report
+-- One row per difference found by replaying a portfolio's executed trades,
+-- on the shard that holds the portfolio. instrument_id is null for
+-- differences in the portfolio's total value.
+
+CREATE TABLE reconciliation_mismatches (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    business_date DATE NOT NULL,
+    portfolio_id BIGINT NOT NULL,
+    instrument_id BIGINT,
+    kind VARCHAR(30) NOT NULL,
+    expected_quantity INT,
+    actual_quantity INT,
+    expected_avg_price DECIMAL(19, 4),
+    actual_avg_price DECIMAL(19, 4),
+    expected_value DECIMAL(19, 4),
+    actual_value DECIMAL(19, 4),
+    repaired BOOLEAN NOT NULL DEFAULT FALSE,
+    detected_at DATETIME(6) NOT NULL,
+    INDEX idx_recon_date_portfolio (business_date, portfolio_id)
+) ENGINE=InnoDB;
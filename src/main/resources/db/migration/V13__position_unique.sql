@@ -0,0 +1,7 @@
+-- V13: At most one position per portfolio and instrument
+-- Trade execution already assumes this. In optimistic mode two first buys of
+-- an instrument take no lock, so the key is what stops both inserting; the
+-- loser is retried and updates the winner's row.
+
+ALTER TABLE positions
+    ADD CONSTRAINT uk_position_portfolio_instrument UNIQUE (portfolio_id, instrument_id);
@@ -0,0 +1,69 @@
+-- V14: Change feed of positions, portfolio values and risk snapshots
+-- Triggers append one row per change in the writing transaction, so no write
+-- path needs an extra statement and a rolled-back change leaves no event.
+-- Rows are inserted without a sequence number; the application numbers them
+-- shortly after commit, in commit order, so a reader that has seen seq N has
+-- seen every change numbered below it. instrument_id is 0 for events that
+-- are not about one position. Each event carries the full new state of its
+-- row, so older events for the same row can be compacted away.
+
+CREATE TABLE change_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    seq BIGINT,
+    entity VARCHAR(20) NOT NULL,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    portfolio_id BIGINT NOT NULL,
+    instrument_id BIGINT NOT NULL DEFAULT 0,
+    quantity INT,
+    avg_price DECIMAL(19, 4),
+    total_value DECIMAL(19, 4),
+    realized_pnl DECIMAL(19, 4),
+    unrealized_pnl DECIMAL(19, 4),
+    risk_score DECIMAL(19, 4),
+    total_exposure DECIMAL(19, 4),
+    changed_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_change_seq UNIQUE (seq),
+    INDEX idx_change_key (portfolio_id, entity, instrument_id, seq),
+    INDEX idx_change_time (changed_at, seq)
+) ENGINE=InnoDB;
+
+-- One row: the last sequence number handed out, and the highest one whose
+-- deletions have been purged
+CREATE TABLE change_feed_state (
+    id INT PRIMARY KEY,
+    last_seq BIGINT NOT NULL,
+    purged_through BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+INSERT INTO change_feed_state (id, last_seq, purged_through) VALUES (1, 0, 0);
+
+CREATE TRIGGER trg_change_position_insert AFTER INSERT ON positions FOR EACH ROW
+    INSERT INTO change_events (entity, portfolio_id, instrument_id, quantity, avg_price, changed_at)
+    VALUES ('POSITION', NEW.portfolio_id, NEW.instrument_id, NEW.quantity, NEW.avg_price, NOW(6));
+
+CREATE TRIGGER trg_change_position_update AFTER UPDATE ON positions FOR EACH ROW
+    INSERT INTO change_events (entity, portfolio_id, instrument_id, quantity, avg_price, changed_at)
+    SELECT 'POSITION', NEW.portfolio_id, NEW.instrument_id, NEW.quantity, NEW.avg_price, NOW(6)
+    FROM DUAL
+    WHERE NOT (NEW.quantity <=> OLD.quantity AND NEW.avg_price <=> OLD.avg_price);
+
+CREATE TRIGGER trg_change_position_delete AFTER DELETE ON positions FOR EACH ROW
+    INSERT INTO change_events (entity, deleted, portfolio_id, instrument_id, changed_at)
+    VALUES ('POSITION', TRUE, OLD.portfolio_id, OLD.instrument_id, NOW(6));
+
+CREATE TRIGGER trg_change_portfolio_insert AFTER INSERT ON portfolios FOR EACH ROW
+    INSERT INTO change_events (entity, portfolio_id, total_value, realized_pnl, unrealized_pnl, changed_at)
+    VALUES ('PORTFOLIO', NEW.id, NEW.total_value, NEW.realized_pnl, NEW.unrealized_pnl, NOW(6));
+
+CREATE TRIGGER trg_change_portfolio_update AFTER UPDATE ON portfolios FOR EACH ROW
+    INSERT INTO change_events (entity, portfolio_id, total_value, realized_pnl, unrealized_pnl, changed_at)
+    SELECT 'PORTFOLIO', NEW.id, NEW.total_value, NEW.realized_pnl, NEW.unrealized_pnl, NOW(6)
+    FROM DUAL
+    WHERE NOT (NEW.total_value <=> OLD.total_value AND NEW.realized_pnl <=> OLD.realized_pnl
+        AND NEW.unrealized_pnl <=> OLD.unrealized_pnl);
+
+CREATE TRIGGER trg_change_risk_insert AFTER INSERT ON risk_metrics FOR EACH ROW
+    INSERT INTO change_events (entity, portfolio_id, risk_score, total_exposure, realized_pnl, unrealized_pnl,
+        changed_at)
+    VALUES ('RISK', NEW.portfolio_id, NEW.risk_score, NEW.total_exposure, NEW.realized_pnl, NEW.unrealized_pnl,
+        NOW(6));
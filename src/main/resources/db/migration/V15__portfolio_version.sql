@@ -0,0 +1,4 @@
+-- V15: Add version column for optimistic locking on portfolios
+-- Optimistic trades read the portfolio without a lock; the version stops a
+-- trade from overwriting the realized P&L of another trade or a revaluation.
+ALTER TABLE portfolios ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
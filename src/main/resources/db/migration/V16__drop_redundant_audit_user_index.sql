@@ -0,0 +1,21 @@
+-- V16: Drop the single-column user_id index of audit_logs
+-- MySQL created it for the V1 foreign key and left it behind when V4 dropped
+-- the key. It is a prefix of idx_audit_user_ts (V5), as idx_trade_user was of
+-- idx_trade_user_ts (V9). Its name depends on how the key was created, so any
+-- index whose only column is user_id is dropped, and none if there is none.
+
+SET @redundant = (
+    SELECT GROUP_CONCAT(CONCAT('DROP INDEX `', index_name, '`') SEPARATOR ', ')
+    FROM (
+        SELECT index_name
+        FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'audit_logs' AND index_name <> 'PRIMARY'
+        GROUP BY index_name
+        HAVING COUNT(*) = 1 AND MAX(column_name) = 'user_id'
+    ) single_column
+);
+
+SET @ddl = IF(@redundant IS NULL, 'DO 0', CONCAT('ALTER TABLE audit_logs ', @redundant));
+PREPARE drop_redundant FROM @ddl;
+EXECUTE drop_redundant;
+DEALLOCATE PREPARE drop_redundant;
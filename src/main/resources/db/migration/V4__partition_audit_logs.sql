@@ -0,0 +1,20 @@
+-- V4: Range-partition audit_logs by timestamp for retention and archival
+-- MySQL partitioned tables cannot have foreign keys, and every unique key must
+-- contain the partitioning column: the FK to users is dropped and the primary
+-- key becomes (id, timestamp). Only the initial layout is created here;
+-- AuditPartitionService splits new periods off p_future at runtime.
+
+ALTER TABLE audit_logs DROP FOREIGN KEY fk_audit_user;
+
+UPDATE audit_logs SET timestamp = CURRENT_TIMESTAMP(6) WHERE timestamp IS NULL;
+
+ALTER TABLE audit_logs
+    MODIFY COLUMN timestamp DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, timestamp);
+
+ALTER TABLE audit_logs
+    PARTITION BY RANGE COLUMNS (timestamp) (
+        PARTITION p_history VALUES LESS THAN ('2026-10-01 00:00:00'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE)
+    );
@@ -0,0 +1,7 @@
+-- V5: Composite indexes for keyset pagination of audit logs on (timestamp, id)
+-- Each filter column leads so a page is a single index range scan in order.
+
+ALTER TABLE audit_logs
+    ADD INDEX idx_audit_user_ts (user_id, timestamp, id),
+    ADD INDEX idx_audit_action_ts (action, timestamp, id),
+    ADD INDEX idx_audit_ts (timestamp, id);
@@ -0,0 +1,5 @@
+-- V6: Composite indexes for keyset pagination of trades on (timestamp, id)
+
+ALTER TABLE trades
+    ADD INDEX idx_trade_ts (timestamp, id),
+    ADD INDEX idx_trade_instrument_ts (instrument_id, timestamp, id);
@@ -0,0 +1,16 @@
+-- V7: Pooled id allocation for trades, positions and risk_metrics.
+-- MySQL has no sequences, so Hibernate emulates them with one single-row table
+-- per sequence and hands out ids in blocks of 50 (allocationSize). This lets
+-- inserts be sent as JDBC batches, which IDENTITY columns prevent.
+-- The AUTO_INCREMENT attribute stays; explicitly supplied ids are accepted.
+-- audit_logs keeps AUTO_INCREMENT: it is written by AuditLogWriter's JDBC batches.
+-- Each sequence starts a full block past the current maximum id.
+
+CREATE TABLE trades_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO trades_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM trades;
+
+CREATE TABLE positions_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO positions_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM positions;
+
+CREATE TABLE risk_metrics_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO risk_metrics_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM risk_metrics;
@@ -0,0 +1,14 @@
+-- V8: Shard directory. Lives on the global shard (shard 0) and maps each user
+-- to the shard holding their portfolio, positions, trades, risk metrics and
+-- audit rows. Every existing portfolio is on shard 0. On the other shards the
+-- table exists but stays empty.
+
+CREATE TABLE shard_directory (
+    user_id BIGINT NOT NULL PRIMARY KEY,
+    portfolio_id BIGINT NOT NULL,
+    shard_id INT NOT NULL,
+    CONSTRAINT uk_shard_directory_portfolio UNIQUE (portfolio_id)
+) ENGINE=InnoDB;
+
+INSERT INTO shard_directory (user_id, portfolio_id, shard_id)
+SELECT user_id, id, 0 FROM portfolios WHERE user_id IS NOT NULL;
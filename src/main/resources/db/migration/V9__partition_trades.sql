@@ -0,0 +1,29 @@
+-- V9: Range-partition trades by timestamp so old months can be archived
+-- As with audit_logs (V4), partitioned tables cannot have foreign keys and every
+-- unique key must contain the partitioning column: the FKs to users and
+-- instruments are dropped and the primary key becomes (id, timestamp).
+-- Range filters on timestamp are pruned to the partitions they cover; the
+-- (user_id, timestamp) and (instrument_id, timestamp) indexes serve per-user
+-- and per-instrument ranges inside each partition. The single-column indexes
+-- are prefixes of these and are dropped. TradePartitionService splits new
+-- months off p_future at runtime.
+
+ALTER TABLE trades
+    DROP FOREIGN KEY fk_trade_user,
+    DROP FOREIGN KEY fk_trade_instrument;
+
+UPDATE trades SET timestamp = CURRENT_TIMESTAMP(6) WHERE timestamp IS NULL;
+
+ALTER TABLE trades
+    MODIFY COLUMN timestamp DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, timestamp),
+    ADD INDEX idx_trade_user_ts (user_id, timestamp, id),
+    DROP INDEX idx_trade_user,
+    DROP INDEX idx_trade_instrument;
+
+ALTER TABLE trades
+    PARTITION BY RANGE COLUMNS (timestamp) (
+        PARTITION p_history VALUES LESS THAN ('2026-10-01 00:00:00'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE)
+    );
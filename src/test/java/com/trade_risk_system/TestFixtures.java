@@ -0,0 +1,94 @@
+package com.trade_risk_system;
+
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.model.Position;
+import com.trade_risk_system.model.User;
+import com.trade_risk_system.model.enums.Role;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Users, instruments, portfolios and positions for JPA tests, persisted
+ * through a {@link TestEntityManager} in the caller's transaction. Amounts
+ * are given as strings so tests read like the figures they check.
+ */
+public final class TestFixtures {
+
+    private final TestEntityManager entityManager;
+
+    public TestFixtures(TestEntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * A trader, not yet persisted, for tests that save through a repository.
+     */
+    public static User newUser(String username) {
+        return User.builder()
+                .username(username).email(username + "@example.com").password("x").role(Role.TRADER).build();
+    }
+
+    /**
+     * Runs every per-shard call of the mocked executor once, for the global
+     * shard, on the calling thread.
+     */
+    public static void runOnSingleShard(ShardExecutor shardExecutor) {
+        doAnswer(invocation -> {
+            invocation.<IntConsumer>getArgument(0).accept(0);
+            return null;
+        }).when(shardExecutor).forEachShard(any());
+        doAnswer(invocation -> List.of(invocation.<IntFunction<?>>getArgument(0).apply(0)))
+                .when(shardExecutor).scatter(any());
+        doAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get())
+                .when(shardExecutor).scatterSorted(any(), anyInt(), any());
+    }
+
+    public User user(String username) {
+        return entityManager.persist(newUser(username));
+    }
+
+    /**
+     * An instrument named after its symbol; a null price means it was never marked.
+     */
+    public Instrument instrument(String symbol, String price) {
+        return instrument(symbol, symbol, price);
+    }
+
+    public Instrument instrument(String symbol, String name, String price) {
+        return entityManager.persist(Instrument.builder()
+                .symbol(symbol).name(name).currentPrice(price != null ? new BigDecimal(price) : null).build());
+    }
+
+    /**
+     * An empty portfolio of a new user with that name.
+     */
+    public Portfolio portfolio(String username) {
+        return portfolio(username, "0");
+    }
+
+    public Portfolio portfolio(String username, String totalValue) {
+        return portfolio(username, totalValue, "0");
+    }
+
+    public Portfolio portfolio(String username, String totalValue, String unrealizedPnl) {
+        return entityManager.persist(Portfolio.builder().user(user(username))
+                .totalValue(new BigDecimal(totalValue)).unrealizedPnl(new BigDecimal(unrealizedPnl)).build());
+    }
+
+    public Position position(Portfolio portfolio, Instrument instrument, int quantity, String avgPrice) {
+        return entityManager.persist(Position.builder()
+                .portfolio(portfolio).instrument(instrument).quantity(quantity).avgPrice(new BigDecimal(avgPrice))
+                .build());
+    }
+}
@@ -0,0 +1,125 @@
+package com.trade_risk_system.analytics;
+
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.model.enums.TradeSide;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Aggregates over the in-memory trade columns, checked against totals
+ * computed directly from the generated rows.
+ */
+class TradeColumnStoreTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 5, 1, 0, 0);
+
+    /** Spans several chunks so the scan runs on more than one worker. */
+    private static final int ROWS = 3 * TradeColumnStore.CHUNK_ROWS + 123;
+
+    private final TradeColumnStore store = new TradeColumnStore(4);
+
+    @AfterEach
+    void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    void groupsByInstrumentAcrossChunks() {
+        fill();
+
+        List<TradeColumnStore.Aggregate> groups = store.aggregate(query(TradeColumnStore.GroupBy.INSTRUMENT,
+                null, null, null));
+
+        assertThat(groups).hasSize(10);
+        assertThat(groups.stream().mapToLong(TradeColumnStore.Aggregate::trades).sum()).isEqualTo(ROWS);
+        TradeColumnStore.Aggregate seven = groups.stream().filter(group -> group.key() == 1007L).findFirst()
+                .orElseThrow();
+        long trades = 0;
+        long buys = 0;
+        long sells = 0;
+        BigDecimal notional = BigDecimal.ZERO;
+        for (int i = 0; i < ROWS; i++) {
+            if (i % 10 == 7) {
+                trades++;
+                if (i % 3 == 0) {
+                    buys += quantity(i);
+                } else {
+                    sells += quantity(i);
+                }
+                notional = notional.add(price(i).multiply(BigDecimal.valueOf(quantity(i))));
+            }
+        }
+        assertThat(seven.trades()).isEqualTo(trades);
+        assertThat(seven.buyQuantity()).isEqualTo(buys);
+        assertThat(seven.sellQuantity()).isEqualTo(sells);
+        assertThat(seven.notional()).isEqualByComparingTo(notional);
+    }
+
+    @Test
+    void filtersAndTimeBuckets() {
+        fill();
+
+        // One row per second; ten-minute buckets over the first hour
+        List<TradeColumnStore.Aggregate> buckets = store.aggregate(new TradeColumnStore.Query(
+                TradeColumnStore.GroupBy.TIME, Duration.ofMinutes(10), START, START.plusHours(1), null, 42L));
+
+        assertThat(buckets).extracting(TradeColumnStore.Aggregate::key).containsExactly(0L, 1L, 2L, 3L, 4L, 5L);
+        long expected = 0;
+        for (int i = 0; i < 600; i++) {
+            expected += i % 100 == 42 ? 1 : 0;
+        }
+        assertThat(buckets.get(0).trades()).isEqualTo(expected);
+
+        assertThat(store.aggregate(query(TradeColumnStore.GroupBy.USER, 99_999L, null, null))).isEmpty();
+        assertThatThrownBy(() -> store.aggregate(new TradeColumnStore.Query(TradeColumnStore.GroupBy.TIME,
+                Duration.ofSeconds(1), START, START.plusDays(30), null, null)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rebuildKeepsTradesAppendedWhileItRuns() {
+        LocalDateTime now = LocalDateTime.now();
+        int rows = store.rebuild(sink -> {
+            sink.accept(1, 1, 1, 10, BigDecimal.ONE, TradeSide.BUY, now);
+            // Trade 2 is committed during the rebuild and also read by it; trade 3 is only appended
+            store.append(2, 1, 1, 20, BigDecimal.ONE, TradeSide.BUY, now);
+            store.append(3, 1, 1, 30, BigDecimal.ONE, TradeSide.SELL, now);
+            sink.accept(2, 1, 1, 20, BigDecimal.ONE, TradeSide.BUY, now);
+        });
+
+        assertThat(rows).isEqualTo(3);
+        TradeColumnStore.Aggregate total = store.aggregate(query(TradeColumnStore.GroupBy.USER, null, null, null))
+                .get(0);
+        assertThat(total.buyQuantity()).isEqualTo(30);
+        assertThat(total.sellQuantity()).isEqualTo(30);
+    }
+
+    private void fill() {
+        for (int i = 0; i < ROWS; i++) {
+            store.append(i, i % 100, 1000 + i % 10, quantity(i), price(i), i % 3 == 0 ? TradeSide.BUY : TradeSide.SELL,
+                    START.plusSeconds(i));
+        }
+        assertThat(store.size()).isEqualTo(ROWS);
+    }
+
+    private static int quantity(int i) {
+        return 1 + i % 50;
+    }
+
+    private static BigDecimal price(int i) {
+        return BigDecimal.valueOf(10_000 + i % 997, 2);
+    }
+
+    private static TradeColumnStore.Query query(TradeColumnStore.GroupBy groupBy, Long userId, LocalDateTime from,
+            LocalDateTime to) {
+        return new TradeColumnStore.Query(groupBy, null, from, to, null, userId);
+    }
+}
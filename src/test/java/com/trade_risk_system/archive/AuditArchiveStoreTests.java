@@ -0,0 +1,101 @@
+package com.trade_risk_system.archive;
+
+import com.trade_risk_system.dto.response.AuditLogResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes audit partitions to archive files and reads them back by time range,
+ * including partitions whose lower bound was unknown when they were archived.
+ */
+class AuditArchiveStoreTests {
+
+    private static final LocalDateTime SEPTEMBER = LocalDateTime.of(2026, 9, 1, 0, 0);
+    private static final LocalDateTime OCTOBER = LocalDateTime.of(2026, 10, 1, 0, 0);
+    private static final LocalDateTime NOVEMBER = LocalDateTime.of(2026, 11, 1, 0, 0);
+    private static final LocalDateTime FAR_PAST = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private AuditArchiveStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new AuditArchiveStore(directory.toString());
+    }
+
+    @Test
+    void filesAreNamedAfterTheirOldestRowWhenTheLowerBoundIsUnknown() throws IOException {
+        write(null, OCTOBER, 1, SEPTEMBER.plusDays(14));
+        // A backdated row routed into the oldest remaining partition
+        write(OCTOBER, NOVEMBER, 3, SEPTEMBER.plusDays(20), OCTOBER.plusDays(1));
+
+        assertThat(fileNames()).containsExactlyInAnyOrder(
+                "audit_logs_20260915000000_20261001000000.csv.gz",
+                "audit_logs_20260921000000_20261101000000.csv.gz");
+        assertThat(store.read(SEPTEMBER.plusDays(20), NOVEMBER, null, null, 10))
+                .extracting(AuditLogResponse::id).containsExactly(3L, 4L);
+        assertThat(store.read(SEPTEMBER.plusDays(20), SEPTEMBER.plusDays(21), null, null, 10))
+                .extracting(AuditLogResponse::id).containsExactly(3L);
+    }
+
+    @Test
+    void filesWithOpenLowerBoundsAreReadInOrderOfTheirUpperBounds() throws IOException {
+        // Archives written before lower bounds were kept, both named "min"
+        rename(write(OCTOBER, NOVEMBER, 10, OCTOBER.plusDays(1), OCTOBER.plusDays(2)),
+                "audit_logs_min_20261101000000.csv.gz");
+        rename(write(SEPTEMBER, OCTOBER, 1, SEPTEMBER.plusDays(1), SEPTEMBER.plusDays(2)),
+                "audit_logs_min_20261001000000.csv.gz");
+
+        assertThat(store.read(FAR_PAST, NOVEMBER, null, null, 10))
+                .extracting(AuditLogResponse::id).containsExactly(1L, 2L, 10L, 11L);
+        assertThat(store.read(OCTOBER, NOVEMBER, null, null, 10))
+                .extracting(AuditLogResponse::id).containsExactly(10L, 11L);
+        assertThat(store.read(FAR_PAST, NOVEMBER, 2L, "ACTION", 10))
+                .extracting(AuditLogResponse::id).containsExactly(2L);
+    }
+
+    @Test
+    void actionsWithSeparatorsRoundTrip() throws IOException {
+        try (AuditArchiveStore.ArchiveWriter writer = store.openWriter(OCTOBER, NOVEMBER)) {
+            writer.write(1, null, "NOTE, \"quoted\"", OCTOBER.plusHours(1));
+            writer.commit();
+        }
+
+        assertThat(store.read(OCTOBER, NOVEMBER, null, null, 10)).containsExactly(
+                new AuditLogResponse(1L, null, "NOTE, \"quoted\"", OCTOBER.plusHours(1)));
+    }
+
+    /** Writes one row per timestamp with consecutive ids; each row's user is its id. */
+    private Path write(LocalDateTime from, LocalDateTime to, long firstId, LocalDateTime... timestamps)
+            throws IOException {
+        try (AuditArchiveStore.ArchiveWriter writer = store.openWriter(from, to)) {
+            long id = firstId;
+            for (LocalDateTime timestamp : timestamps) {
+                writer.write(id, id, "ACTION", timestamp);
+                id++;
+            }
+            return writer.commit();
+        }
+    }
+
+    private void rename(Path file, String name) throws IOException {
+        Files.move(file, file.resolveSibling(name));
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.trade_risk_system.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reads partition bounds from stubbed {@code INFORMATION_SCHEMA.PARTITIONS}
+ * rows, before and after the migration's history partition is dropped, and
+ * splits current periods off a history partition that reaches into them.
+ */
+class RangePartitionManagerTests {
+
+    private static final LocalDateTime OCTOBER = LocalDateTime.of(2026, 10, 1, 0, 0);
+    private static final LocalDateTime NOVEMBER = LocalDateTime.of(2026, 11, 1, 0, 0);
+    private static final LocalDateTime DECEMBER = LocalDateTime.of(2026, 12, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private RangePartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new RangePartitionManager(jdbcTemplate, "audit_logs", PartitionGranularity.MONTH);
+    }
+
+    @Test
+    void historyPartitionHasNoLowerBound() {
+        partitions(new String[] { "p_history", "'2026-10-01 00:00:00'" },
+                new String[] { "p_20261001", "'2026-11-01 00:00:00'" },
+                new String[] { "p_future", "MAXVALUE" });
+
+        assertThat(manager.listPartitions()).containsExactly(
+                new RangePartition("p_history", null, OCTOBER),
+                new RangePartition("p_20261001", OCTOBER, NOVEMBER),
+                new RangePartition("p_future", NOVEMBER, null));
+        assertThat(manager.oldestRetainedBound()).isEmpty();
+    }
+
+    @Test
+    void oldestPartitionKeepsItsLowerBoundAfterOlderOnesAreDropped() {
+        partitions(new String[] { "p_20261001", "'2026-11-01 00:00:00'" },
+                new String[] { "p_20261101", "'2026-12-01 00:00:00'" },
+                new String[] { "p_future", "MAXVALUE" });
+
+        assertThat(manager.listPartitions()).containsExactly(
+                new RangePartition("p_20261001", OCTOBER, NOVEMBER),
+                new RangePartition("p_20261101", NOVEMBER, DECEMBER),
+                new RangePartition("p_future", DECEMBER, null));
+        assertThat(manager.oldestRetainedBound()).contains(OCTOBER);
+        assertThat(manager.partitionsEndingBefore(DECEMBER)).extracting(RangePartition::lowerBound)
+                .containsExactly(OCTOBER, NOVEMBER);
+    }
+
+    @Test
+    void namesThatDoNotFitTheBoundsAreIgnored() {
+        assertThat(RangePartitionManager.boundFromName("p_20261101", NOVEMBER)).isNull();
+        assertThat(RangePartitionManager.boundFromName("p_20261341", NOVEMBER)).isNull();
+        assertThat(RangePartitionManager.boundFromName("p_2026", NOVEMBER)).isNull();
+        assertThat(RangePartitionManager.boundFromName("p_20261001", null)).isEqualTo(OCTOBER);
+    }
+
+    @Test
+    void historyPartitionReachingIntoCurrentPeriodsIsSplitAtTheCurrentPeriod() {
+        partitions(new String[] { "p_history", "'2026-10-01 00:00:00'" },
+                new String[] { "p_future", "MAXVALUE" });
+
+        assertThat(manager.repairHistoryPartition(LocalDate.of(2026, 8, 15)))
+                .containsExactly("p_20260801", "p_20260901");
+        verify(jdbcTemplate).execute("ALTER TABLE audit_logs REORGANIZE PARTITION p_history INTO ("
+                + "PARTITION p_history VALUES LESS THAN ('2026-08-01 00:00:00'), "
+                + "PARTITION p_20260801 VALUES LESS THAN ('2026-09-01 00:00:00'), "
+                + "PARTITION p_20260901 VALUES LESS THAN ('2026-10-01 00:00:00'))");
+    }
+
+    @Test
+    void historyPartitionEndingBeforeTheCurrentPeriodIsLeftAlone() {
+        partitions(new String[] { "p_history", "'2026-10-01 00:00:00'" },
+                new String[] { "p_future", "MAXVALUE" });
+
+        assertThat(manager.repairHistoryPartition(LocalDate.of(2026, 10, 19))).isEmpty();
+        assertThat(manager.repairHistoryPartition(LocalDate.of(2027, 3, 2))).isEmpty();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void periodPartitionsAreNotTreatedAsHistory() {
+        partitions(new String[] { "p_20261001", "'2026-11-01 00:00:00'" },
+                new String[] { "p_future", "MAXVALUE" });
+
+        assertThat(manager.repairHistoryPartition(LocalDate.of(2026, 10, 19))).isEmpty();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private void partitions(String[]... rows) {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<String[]>>any(), eq("audit_logs")))
+                .thenReturn(List.of(rows));
+    }
+}
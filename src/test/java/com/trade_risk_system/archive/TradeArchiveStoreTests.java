@@ -0,0 +1,144 @@
+package com.trade_risk_system.archive;
+
+import com.trade_risk_system.dto.common.KeysetCursor;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes two monthly trade partitions to columnar archive files and reads
+ * them back through filters, cursors and row-group skipping.
+ */
+class TradeArchiveStoreTests {
+
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime FEBRUARY = LocalDateTime.of(2026, 2, 1, 0, 0);
+    private static final LocalDateTime MARCH = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+    /** More rows per month than fit in one row group. */
+    private static final int ROWS_PER_MONTH = TradeArchiveStore.ROW_GROUP_ROWS + 1000;
+
+    @TempDir
+    Path directory;
+
+    private TradeArchiveStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new TradeArchiveStore(directory.toString());
+        writeMonth(JANUARY, FEBRUARY, 1);
+        writeMonth(FEBRUARY, MARCH, ROWS_PER_MONTH + 1);
+    }
+
+    @Test
+    void rowsRoundTripExactly() {
+        TradeResponse first = store.read(all(), false, 0, 1).get(0);
+
+        assertThat(first).isEqualTo(new TradeResponse(1L, 1L, 1L, "SYM1", 1, new BigDecimal("100.0001"),
+                TradeSide.SELL, TradeStatus.EXECUTED, JANUARY.plusNanos(1000)));
+        assertThat(store.archivedUntil()).isEqualTo(MARCH);
+    }
+
+    @Test
+    void newestFirstReadsSpanFilesAndRowGroups() {
+        List<TradeResponse> newest = store.read(all(), true, 0, 3);
+        assertThat(newest).extracting(TradeResponse::id)
+                .containsExactly(2L * ROWS_PER_MONTH, 2L * ROWS_PER_MONTH - 1, 2L * ROWS_PER_MONTH - 2);
+
+        List<TradeResponse> boundary = store.read(all(), true, ROWS_PER_MONTH - 1, 2);
+        assertThat(boundary).extracting(TradeResponse::id)
+                .containsExactly((long) ROWS_PER_MONTH + 1, (long) ROWS_PER_MONTH);
+    }
+
+    @Test
+    void filtersAndCursorsSelectRows() {
+        LocalDateTime mid = FEBRUARY.plusSeconds(100);
+        List<TradeResponse> rows = store.read(new TradeArchiveStore.Filter(3L, null, FEBRUARY, mid, null),
+                false, 0, Integer.MAX_VALUE);
+        assertThat(rows).isNotEmpty().allSatisfy(row -> {
+            assertThat(row.instrumentId()).isEqualTo(3L);
+            assertThat(row.timestamp()).isBetween(FEBRUARY, mid.minusNanos(1));
+        });
+
+        TradeResponse last = rows.get(rows.size() - 1);
+        List<TradeResponse> before = store.read(new TradeArchiveStore.Filter(null, null, null, null,
+                new KeysetCursor(last.timestamp(), last.id())), true, 0, 1);
+        assertThat(before).extracting(TradeResponse::id).containsExactly(last.id() - 1);
+    }
+
+    @Test
+    void incompleteFilesAreNeverVisible() throws IOException {
+        try (TradeArchiveStore.ArchiveWriter writer = store.openWriter(MARCH, MARCH.plusMonths(1))) {
+            writer.write(1, 1, 1, "SYM", 1, BigDecimal.ONE, "BUY", "EXECUTED", MARCH);
+        }
+
+        assertThat(store.archivedUntil()).isEqualTo(MARCH);
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .containsExactlyInAnyOrder("trades_20260101000000_20260201000000.tcol",
+                            "trades_20260201000000_20260301000000.tcol");
+        }
+    }
+
+    @Test
+    void filesWithUnknownLowerBoundsAreOrderedByTheirUpperBounds() throws IOException {
+        TradeArchiveStore shard = store.forShard(1);
+        Path older = writeRows(shard, null, FEBRUARY, 1, JANUARY.plusDays(3), JANUARY.plusDays(4));
+        Path newer = writeRows(shard, null, MARCH, 3, FEBRUARY.plusDays(1), FEBRUARY.plusDays(2));
+        assertThat(older.getFileName()).hasToString("trades_20260104000000_20260201000000.tcol");
+        assertThat(shard.read(new TradeArchiveStore.Filter(null, null, null, JANUARY.plusDays(4), null),
+                false, 0, 10)).extracting(TradeResponse::id).containsExactly(1L);
+
+        // Files archived before lower bounds were kept are both named "min"
+        Files.move(newer, newer.resolveSibling("trades_min_20260301000000.tcol"));
+        Files.move(older, older.resolveSibling("trades_min_20260201000000.tcol"));
+
+        assertThat(shard.read(all(), false, 0, 10)).extracting(TradeResponse::id).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(shard.read(all(), true, 0, 10)).extracting(TradeResponse::id).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(shard.archivedUntil()).isEqualTo(MARCH);
+    }
+
+    private Path writeRows(TradeArchiveStore target, LocalDateTime from, LocalDateTime to, long firstId,
+            LocalDateTime... timestamps) throws IOException {
+        try (TradeArchiveStore.ArchiveWriter writer = target.openWriter(from, to)) {
+            long id = firstId;
+            for (LocalDateTime timestamp : timestamps) {
+                writer.write(id, 1, 1, "SYM", 1, BigDecimal.ONE, "BUY", "EXECUTED", timestamp);
+                id++;
+            }
+            return writer.commit();
+        }
+    }
+
+    private void writeMonth(LocalDateTime from, LocalDateTime to, long firstId) throws IOException {
+        try (TradeArchiveStore.ArchiveWriter writer = store.openWriter(from, to)) {
+            List<Long> ids = new ArrayList<>();
+            for (long id = firstId; id < firstId + ROWS_PER_MONTH; id++) {
+                ids.add(id);
+            }
+            for (long id : ids) {
+                writer.write(id, id % 7, id % 5, "SYM" + id % 5, (int) (id % 100), new BigDecimal("100.0001"),
+                        id % 2 == 0 ? "BUY" : "SELL", "EXECUTED", from.plusNanos(1000 * (id - firstId + 1)));
+            }
+            assertThat(writer.getRows()).isEqualTo(ROWS_PER_MONTH);
+            writer.commit();
+        }
+    }
+
+    private static TradeArchiveStore.Filter all() {
+        return new TradeArchiveStore.Filter(null, null, null, null, null);
+    }
+}
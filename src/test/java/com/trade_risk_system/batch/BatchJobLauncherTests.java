@@ -0,0 +1,217 @@
+package com.trade_risk_system.batch;
+
+import com.trade_risk_system.sharding.ShardDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs a job over real checkpoint tables on H2: partitioning, restart after a
+ * failure, item skipping and transient retries. Chunks commit for real, so the
+ * tests run outside the usual rollback-only transaction.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "application.batch.partitions-per-shard=3",
+        "application.batch.chunk-size=4",
+        "application.batch.retry-backoff=1ms"
+})
+@Import({ BatchJobLauncher.class, BatchJobRepository.class, BatchJobLauncherTests.TestJob.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BatchJobLauncherTests {
+
+    private static final int PORTFOLIOS = 25;
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2026, 3, 31);
+
+    @TestConfiguration
+    static class TestJob {
+
+        @Bean
+        RecordingStep recordingStep(JdbcTemplate jdbcTemplate) {
+            return new RecordingStep(jdbcTemplate);
+        }
+
+        @Bean
+        BatchJob testJob(RecordingStep recordingStep) {
+            return new BatchJob("test", List.of(recordingStep));
+        }
+    }
+
+    /**
+     * Copies portfolio ids into {@code batch_test_output}, failing on demand.
+     */
+    static class RecordingStep implements BatchStep<Long> {
+
+        private final JdbcTemplate jdbcTemplate;
+        final Map<Long, AtomicInteger> committedWrites = new ConcurrentHashMap<>();
+        volatile Long failReadAt;
+        volatile Long failWriteAt;
+        final AtomicInteger transientFailures = new AtomicInteger();
+
+        RecordingStep(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        public String name() {
+            return "copy";
+        }
+
+        @Override
+        public List<Long> read(LocalDate businessDate, long afterId, long lastId) {
+            if (failReadAt != null && failReadAt > afterId && failReadAt <= lastId) {
+                throw new IllegalStateException("Cannot read " + failReadAt);
+            }
+            return jdbcTemplate.queryForList("SELECT id FROM portfolios WHERE id > ? AND id <= ? ORDER BY id",
+                    Long.class, afterId, lastId);
+        }
+
+        @Override
+        public void write(LocalDate businessDate, List<Long> items) {
+            jdbcTemplate.batchUpdate("INSERT INTO batch_test_output (portfolio_id) VALUES (?)",
+                    items.stream().map(id -> new Object[] { id }).toList());
+            if (transientFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+            }
+            if (failWriteAt != null && items.contains(failWriteAt)) {
+                throw new IllegalArgumentException("Bad item " + failWriteAt);
+            }
+        }
+
+        @Override
+        public Object keyOf(Long item) {
+            return item;
+        }
+    }
+
+    @Autowired
+    private BatchJobLauncher launcher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecordingStep step;
+
+    @Autowired
+    private BatchJob testJob;
+
+    @MockitoBean
+    private ShardDirectory shardDirectory;
+
+    @BeforeEach
+    void setUp() {
+        when(shardDirectory.getShardCount()).thenReturn(1);
+        jdbcTemplate.execute("CREATE TABLE batch_job_executions (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "job_name VARCHAR(100) NOT NULL, business_date DATE NOT NULL, status VARCHAR(20) NOT NULL, "
+                + "started_at TIMESTAMP(6) NOT NULL, ended_at TIMESTAMP(6), exit_message VARCHAR(1000), "
+                + "UNIQUE (job_name, business_date))");
+        jdbcTemplate.execute("CREATE TABLE batch_step_partitions (job_name VARCHAR(100) NOT NULL, "
+                + "business_date DATE NOT NULL, step_name VARCHAR(100) NOT NULL, partition_no INT NOT NULL, "
+                + "after_id BIGINT NOT NULL, last_id BIGINT NOT NULL, checkpoint_id BIGINT NOT NULL, "
+                + "status VARCHAR(20) NOT NULL, read_count BIGINT DEFAULT 0 NOT NULL, "
+                + "write_count BIGINT DEFAULT 0 NOT NULL, skip_count BIGINT DEFAULT 0 NOT NULL, "
+                + "updated_at TIMESTAMP(6) NOT NULL, PRIMARY KEY (job_name, business_date, step_name, partition_no))");
+        jdbcTemplate.execute("CREATE TABLE batch_test_output (portfolio_id BIGINT PRIMARY KEY)");
+        for (long id = 1; id <= PORTFOLIOS; id++) {
+            jdbcTemplate.update("INSERT INTO portfolios (id, total_value, realized_pnl, unrealized_pnl) "
+                    + "VALUES (?, 0, 0, 0)", id);
+        }
+        step.failReadAt = null;
+        step.failWriteAt = null;
+        step.transientFailures.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE batch_job_executions");
+        jdbcTemplate.execute("DROP TABLE batch_step_partitions");
+        jdbcTemplate.execute("DROP TABLE batch_test_output");
+        jdbcTemplate.update("DELETE FROM portfolios");
+    }
+
+    @Test
+    void processesEveryPortfolioOnceAcrossPartitionsAndChunks() {
+        BatchJobProgress.JobReport report = launcher.execute(testJob, BUSINESS_DATE);
+
+        assertThat(report.status()).isEqualTo(BatchStatus.COMPLETED);
+        BatchJobProgress.StepReport stepReport = report.steps().get(0);
+        assertThat(stepReport.partitions()).isEqualTo(3);
+        assertThat(stepReport.partitionsCompleted()).isEqualTo(3);
+        assertThat(stepReport.written()).isEqualTo(PORTFOLIOS);
+        assertThat(outputIds()).hasSize(PORTFOLIOS);
+
+        BatchJobProgress.JobReport again = launcher.execute(testJob, BUSINESS_DATE);
+        assertThat(again.message()).isEqualTo("Already completed");
+        assertThat(outputIds()).hasSize(PORTFOLIOS);
+    }
+
+    @Test
+    void restartResumesAfterLastCommittedChunk() {
+        step.failReadAt = 7L;
+
+        BatchJobProgress.JobReport failed = launcher.execute(testJob, BUSINESS_DATE);
+
+        assertThat(failed.status()).isEqualTo(BatchStatus.FAILED);
+        assertThat(outputIds()).doesNotContain(7L).contains(1L, 2L, 3L, 4L);
+
+        step.failReadAt = null;
+        BatchJobProgress.JobReport restarted = launcher.execute(testJob, BUSINESS_DATE);
+
+        assertThat(restarted.status()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(restarted.restarted()).isTrue();
+        assertThat(restarted.steps().get(0).written()).isEqualTo(PORTFOLIOS);
+        // A rewritten chunk would have hit the primary key
+        assertThat(restarted.steps().get(0).skipped()).isZero();
+        assertThat(outputIds()).hasSize(PORTFOLIOS);
+    }
+
+    @Test
+    void failingItemIsSkippedAndTheRestOfItsChunkWritten() {
+        step.failWriteAt = 10L;
+
+        BatchJobProgress.JobReport report = launcher.execute(testJob, BUSINESS_DATE);
+
+        assertThat(report.status()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(report.steps().get(0).skipped()).isEqualTo(1);
+        assertThat(report.steps().get(0).written()).isEqualTo(PORTFOLIOS - 1);
+        assertThat(outputIds()).hasSize(PORTFOLIOS - 1).doesNotContain(10L);
+    }
+
+    @Test
+    void transientFailureRetriesTheChunk() {
+        step.transientFailures.set(2);
+
+        BatchJobProgress.JobReport report = launcher.execute(testJob, BUSINESS_DATE);
+
+        assertThat(report.status()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(report.steps().get(0).retries()).isEqualTo(2);
+        assertThat(report.steps().get(0).skipped()).isZero();
+        assertThat(outputIds()).hasSize(PORTFOLIOS);
+    }
+
+    private Set<Long> outputIds() {
+        return Set.copyOf(jdbcTemplate.queryForList("SELECT portfolio_id FROM batch_test_output", Long.class));
+    }
+}
@@ -0,0 +1,163 @@
+package com.trade_risk_system.batch.reconcile;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.model.Trade;
+import com.trade_risk_system.model.enums.MismatchKind;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import com.trade_risk_system.service.CacheEvictionService;
+import com.trade_risk_system.service.TradePartitionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Replays archived and live trades for a chunk of portfolios on H2 and checks
+ * the mismatches found and the guarded repairs.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class PositionReconciliationStepTests {
+
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2026, 3, 31);
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TradePartitionService tradePartitionService = mock(TradePartitionService.class);
+    private final CacheEvictionService cacheEvictionService = mock(CacheEvictionService.class);
+
+    private TestFixtures fixtures;
+    private Instrument aapl;
+    private Instrument msft;
+    private Instrument tsla;
+    private Portfolio alice;
+    private Portfolio bob;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+        aapl = fixtures.instrument("AAPL", "120.0000");
+        msft = fixtures.instrument("MSFT", "50.0000");
+        tsla = fixtures.instrument("TSLA", "10.0000");
+        alice = fixtures.portfolio("alice", "2430.0000");
+        bob = fixtures.portfolio("bob", "250.0000");
+
+        // alice: 10 AAPL archived, 10 more live; MSFT bought and sold back
+        archived(alice, aapl, TradeSide.BUY, 10, "100.0000");
+        trade(alice, aapl, TradeSide.BUY, 10, "110.0000", TradeStatus.EXECUTED, 1);
+        trade(alice, aapl, TradeSide.BUY, 100, "110.0000", TradeStatus.REJECTED, 2);
+        trade(alice, msft, TradeSide.BUY, 5, "40.0000", TradeStatus.EXECUTED, 3);
+        trade(alice, msft, TradeSide.SELL, 5, "45.0000", TradeStatus.EXECUTED, 4);
+        fixtures.position(alice, aapl, 20, "105.0000");
+        fixtures.position(alice, tsla, 3, "10.0000");
+
+        trade(bob, msft, TradeSide.BUY, 4, "50.0000", TradeStatus.EXECUTED, 5);
+        fixtures.position(bob, msft, 5, "50.0000");
+        entityManager.flush();
+    }
+
+    @Test
+    void reportsEveryDifferenceWithoutChangingPositions() {
+        Portfolio carol = fixtures.portfolio("carol", "0");
+        trade(carol, tsla, TradeSide.BUY, 2, "10.0000", TradeStatus.EXECUTED, 6);
+        entityManager.flush();
+        PositionReconciliationStep step = step(false);
+
+        List<PositionReconciliationStep.Mismatch> mismatches = step.read(BUSINESS_DATE, 0, Long.MAX_VALUE);
+
+        assertThat(mismatches)
+                .extracting(PositionReconciliationStep.Mismatch::portfolioId,
+                        PositionReconciliationStep.Mismatch::instrumentId, PositionReconciliationStep.Mismatch::kind)
+                .containsExactly(
+                        tuple(alice.getId(), tsla.getId(), MismatchKind.UNEXPECTED_POSITION),
+                        tuple(alice.getId(), null, MismatchKind.TOTAL_VALUE_DIFFERS),
+                        tuple(bob.getId(), msft.getId(), MismatchKind.POSITION_DIFFERS),
+                        tuple(bob.getId(), null, MismatchKind.TOTAL_VALUE_DIFFERS),
+                        tuple(carol.getId(), tsla.getId(), MismatchKind.MISSING_POSITION),
+                        tuple(carol.getId(), null, MismatchKind.TOTAL_VALUE_DIFFERS));
+        assertThat(mismatches.get(1).expectedValue()).isEqualByComparingTo("2400");
+        assertThat(mismatches.get(2).expectedQuantity()).isEqualTo(4);
+        assertThat(mismatches.get(2).actualQuantity()).isEqualTo(5);
+
+        step.write(BUSINESS_DATE, mismatches);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reconciliation_mismatches "
+                + "WHERE job_name = 'reconcile-positions' AND repaired = FALSE", Integer.class)).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM positions", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    void repairSkipsPositionsChangedSinceTheyWereRead() {
+        PositionReconciliationStep step = step(true);
+        List<PositionReconciliationStep.Mismatch> mismatches = step.read(BUSINESS_DATE, 0, Long.MAX_VALUE);
+        // A trade lands on bob's position between read and write
+        jdbcTemplate.update("UPDATE positions SET version = version + 1 WHERE portfolio_id = ?", bob.getId());
+
+        step.write(BUSINESS_DATE, mismatches);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM positions WHERE portfolio_id = ?",
+                Integer.class, alice.getId())).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM positions WHERE portfolio_id = ?",
+                Integer.class, bob.getId())).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT total_value FROM portfolios WHERE id = ?",
+                BigDecimal.class, alice.getId())).isEqualByComparingTo("2400");
+        assertThat(jdbcTemplate.queryForList("SELECT kind FROM reconciliation_mismatches WHERE repaired = FALSE",
+                String.class)).containsExactly(MismatchKind.POSITION_DIFFERS.name());
+        verify(cacheEvictionService).evictPortfolioCache(alice.getId());
+        verify(cacheEvictionService).evictPortfolioCache(bob.getId());
+    }
+
+    private PositionReconciliationStep step(boolean repair) {
+        String jobName = repair ? ReconciliationJobConfig.REPAIR_JOB_NAME : ReconciliationJobConfig.REPORT_JOB_NAME;
+        return new PositionReconciliationStep(jobName, repair, jdbcTemplate, tradePartitionService,
+                cacheEvictionService, 100);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void archived(Portfolio portfolio, Instrument instrument, TradeSide side, int quantity, String price) {
+        TradeResponse trade = new TradeResponse(1L, portfolio.getUser().getId(), instrument.getId(),
+                instrument.getSymbol(), quantity, new BigDecimal(price), side, TradeStatus.EXECUTED,
+                START.minusMonths(6));
+        TradeResponse otherUser = new TradeResponse(2L, -1L, instrument.getId(), instrument.getSymbol(), 99,
+                new BigDecimal(price), TradeSide.BUY, TradeStatus.EXECUTED, START.minusMonths(6));
+        doAnswer(invocation -> {
+            Predicate<TradeResponse> visitor = invocation.getArgument(1);
+            visitor.test(trade);
+            visitor.test(otherUser);
+            return null;
+        }).when(tradePartitionService).forEachArchived(any(), any());
+    }
+
+    private void trade(Portfolio portfolio, Instrument instrument, TradeSide side, int quantity, String price,
+            TradeStatus status, int minutes) {
+        entityManager.persist(Trade.builder().user(portfolio.getUser()).instrument(instrument).quantity(quantity)
+                .price(new BigDecimal(price)).side(side).status(status).timestamp(START.plusMinutes(minutes))
+                .build());
+    }
+}
@@ -0,0 +1,249 @@
+package com.trade_risk_system.benchmark;
+
+import com.trade_risk_system.analytics.TradeColumnStore;
+import com.trade_risk_system.dto.request.TradeRequest;
+import com.trade_risk_system.event.SideEffectBus;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.model.Position;
+import com.trade_risk_system.model.User;
+import com.trade_risk_system.model.enums.Role;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.service.CacheEvictionService;
+import com.trade_risk_system.service.ConcurrentTradeExecutor;
+import com.trade_risk_system.service.TradeConcurrencyMode;
+import com.trade_risk_system.service.TradePartitionService;
+import com.trade_risk_system.service.TradeService;
+import com.trade_risk_system.sharding.ShardExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Trade throughput under pessimistic and optimistic position concurrency.
+ * "hot" sends every thread's trades to one position, so nearly every
+ * optimistic trade collides; "spread" gives each thread its own portfolio and
+ * instrument, so no trade collides and the lock is pure overhead. Each run
+ * reports trades per second, p99 latency, retries and trades that gave up.
+ * Optimistic mode pays off when collisions are rare; on hot positions the
+ * retries cost more than the queueing they avoid.
+ *
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ * Runs on the embedded test database, whose locking differs from InnoDB, so
+ * compare the modes with each other rather than against production numbers.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({ TradeService.class, ConcurrentTradeExecutor.class, TradeConcurrencyBenchmark.Metrics.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeConcurrencyBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeConcurrencyBenchmark.class);
+
+    private static final int THREADS = 8;
+    private static final int TRADES_PER_THREAD = 200;
+    private static final int OPENING_QUANTITY = 1_000_000;
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private ConcurrentTradeExecutor tradeExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private SideEffectBus sideEffectBus;
+
+    @MockitoBean
+    private CacheEvictionService cacheEvictionService;
+
+    @MockitoBean
+    private ShardExecutor shardExecutor;
+
+    @MockitoBean
+    private TradePartitionService tradePartitionService;
+
+    @MockitoBean
+    private TradeColumnStore tradeColumnStore;
+
+    private final AtomicInteger fixtureCount = new AtomicInteger();
+
+    @Test
+    void compareModesOnHotAndSpreadPositions() {
+        // Hot runs queue on one row; the embedded default of one second is too short
+        jdbcTemplate.execute("SET DEFAULT_LOCK_TIMEOUT 30000");
+
+        // Warm up JIT, pools and id blocks
+        run(TradeConcurrencyMode.PESSIMISTIC, false);
+        run(TradeConcurrencyMode.OPTIMISTIC, false);
+
+        List<Result> results = List.of(
+                run(TradeConcurrencyMode.PESSIMISTIC, true),
+                run(TradeConcurrencyMode.OPTIMISTIC, true),
+                run(TradeConcurrencyMode.PESSIMISTIC, false),
+                run(TradeConcurrencyMode.OPTIMISTIC, false));
+
+        for (Result result : results) {
+            log.info("TRADE_CONCURRENCY_BENCHMARK | Workload: {} | Mode: {} | Threads: {} | Trades: {} "
+                    + "| Trades/s: {} | p99: {}ms | Retries: {} | Gave up: {}",
+                    result.workload(), result.mode(), THREADS, result.executed(), result.tradesPerSecond(),
+                    result.p99Millis(), result.retries(), result.gaveUp());
+        }
+        for (Result result : results) {
+            assertThat(result.positionsConsistent()).as("%s %s", result.workload(), result.mode()).isTrue();
+            if (result.mode() == TradeConcurrencyMode.PESSIMISTIC) {
+                assertThat(result.retries()).isZero();
+                assertThat(result.gaveUp()).isZero();
+            }
+        }
+    }
+
+    /**
+     * Runs {@value #TRADES_PER_THREAD} trades on each of {@value #THREADS}
+     * threads, alternating buys of 2 and sells of 1, on fresh portfolios.
+     */
+    private Result run(TradeConcurrencyMode mode, boolean hot) {
+        TradeService service = AopTestUtils.getTargetObject(tradeService);
+        ReflectionTestUtils.setField(service, "concurrencyMode", mode);
+        ReflectionTestUtils.setField(tradeExecutor, "mode", mode);
+        Fixture[] fixtures = new Fixture[THREADS];
+        Fixture shared = hot ? fixture() : null;
+        for (int thread = 0; thread < THREADS; thread++) {
+            fixtures[thread] = hot ? shared : fixture();
+        }
+        double retriesBefore = meterRegistry.counter("trades.concurrency.retries").count();
+        AtomicInteger gaveUp = new AtomicInteger();
+        long[][] latencies = new long[THREADS][TRADES_PER_THREAD];
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> netBought = new ArrayList<>();
+        long begin;
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                Fixture fixture = fixtures[thread];
+                long[] threadLatencies = latencies[thread];
+                netBought.add(pool.submit(() -> {
+                    start.await();
+                    int net = 0;
+                    for (int i = 0; i < TRADES_PER_THREAD; i++) {
+                        boolean buy = i % 2 == 0;
+                        TradeRequest request = new TradeRequest(fixture.userId(), fixture.instrumentId(),
+                                buy ? 2 : 1, new BigDecimal("100.0000"), buy ? TradeSide.BUY : TradeSide.SELL);
+                        long tradeStart = System.nanoTime();
+                        try {
+                            tradeExecutor.executeTrade(request, fixture.userId());
+                            net += buy ? 2 : -1;
+                        } catch (RuntimeException e) {
+                            gaveUp.incrementAndGet();
+                        }
+                        threadLatencies[i] = System.nanoTime() - tradeStart;
+                    }
+                    return net;
+                }));
+            }
+            begin = System.nanoTime();
+            start.countDown();
+            int totalNet = 0;
+            for (Future<Integer> future : netBought) {
+                totalNet += future.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+
+            int trades = THREADS * TRADES_PER_THREAD;
+            long[] sorted = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            boolean consistent = hot
+                    ? quantity(shared) == OPENING_QUANTITY + totalNet
+                    : Arrays.stream(fixtures).mapToInt(this::quantity).sum() == THREADS * OPENING_QUANTITY + totalNet;
+            return new Result(hot ? "hot" : "spread", mode, trades - gaveUp.get(),
+                    (trades - gaveUp.get()) * 1_000_000_000L / Math.max(elapsed, 1),
+                    sorted[(int) (sorted.length * 0.99)] / 1_000_000,
+                    (long) (meterRegistry.counter("trades.concurrency.retries").count() - retriesBefore),
+                    gaveUp.get(), consistent);
+        } catch (Exception e) {
+            throw new IllegalStateException("Benchmark run failed", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** A user whose portfolio holds {@value #OPENING_QUANTITY} of a new instrument. */
+    private Fixture fixture() {
+        int n = fixtureCount.incrementAndGet();
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User user = entityManager.persist(User.builder().username("bench" + n)
+                    .email("bench" + n + "@example.com").password("x").role(Role.TRADER).build());
+            Portfolio portfolio = entityManager.persist(Portfolio.builder()
+                    .user(user).totalValue(BigDecimal.ZERO).build());
+            Instrument instrument = entityManager.persist(Instrument.builder()
+                    .symbol("BENCH" + n).name("Benchmark").currentPrice(new BigDecimal("100.0000")).build());
+            Position position = entityManager.persist(Position.builder().portfolio(portfolio).instrument(instrument)
+                    .quantity(OPENING_QUANTITY).avgPrice(new BigDecimal("100.0000")).build());
+            return new Fixture(user.getId(), instrument.getId(), position.getId());
+        });
+    }
+
+    private int quantity(Fixture fixture) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM positions WHERE id = ?", Integer.class,
+                fixture.positionId());
+    }
+
+    private record Fixture(Long userId, Long instrumentId, Long positionId) {
+    }
+
+    private record Result(String workload, TradeConcurrencyMode mode, int executed, long tradesPerSecond,
+            long p99Millis, long retries, int gaveUp, boolean positionsConsistent) {
+    }
+}
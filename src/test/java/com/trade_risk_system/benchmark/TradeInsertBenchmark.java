@@ -0,0 +1,98 @@
+package com.trade_risk_system.benchmark;
+
+import com.trade_risk_system.diagnostics.QueryCountingDataSourcePostProcessor;
+import com.trade_risk_system.diagnostics.QueryStats;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Trade;
+import com.trade_risk_system.model.User;
+import com.trade_risk_system.model.enums.Role;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Trade insert throughput with and without JDBC batching.
+ * "row-at-a-time" flushes after every persist, which is what an IDENTITY id
+ * forces (each INSERT runs immediately to read back its key). "batched" relies
+ * on pooled ids and {@code hibernate.jdbc.batch_size}.
+ *
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ * Runs on the embedded test database, so absolute numbers understate the gain
+ * on a networked MySQL; the statement counts carry over.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(QueryCountingDataSourcePostProcessor.class)
+class TradeInsertBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeInsertBenchmark.class);
+
+    private static final int ROWS = 5_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void batchedInsertsBeatRowAtATime() {
+        User user = entityManager.persist(User.builder()
+                .username("bench").email("bench@example.com").password("x").role(Role.TRADER).build());
+        Instrument instrument = entityManager.persist(Instrument.builder()
+                .symbol("BENCH").name("Benchmark").currentPrice(BigDecimal.TEN).build());
+        entityManager.flush();
+
+        // Warm up JIT and id pools
+        insert(user, instrument, 500, 1);
+        insert(user, instrument, 500, BATCH_SIZE);
+
+        Result rowAtATime = insert(user, instrument, ROWS, 1);
+        Result batched = insert(user, instrument, ROWS, BATCH_SIZE);
+
+        log.info("TRADE_INSERT_BENCHMARK | Rows: {} | Row-at-a-time: {} statements, {} rows/s "
+                + "| Batched: {} statements, {} rows/s",
+                ROWS, rowAtATime.statements(), rowAtATime.rowsPerSecond(),
+                batched.statements(), batched.rowsPerSecond());
+
+        assertThat(rowAtATime.statements()).isGreaterThanOrEqualTo(ROWS);
+        assertThat(batched.statements()).isLessThanOrEqualTo(ROWS / BATCH_SIZE * 2);
+    }
+
+    private Result insert(User user, Instrument instrument, int rows, int flushEvery) {
+        QueryStats stats = QueryStats.start();
+        long start = System.nanoTime();
+        for (int i = 1; i <= rows; i++) {
+            entityManager.persist(Trade.builder()
+                    .user(user).instrument(instrument).quantity(i).price(BigDecimal.TEN)
+                    .side(TradeSide.BUY).status(TradeStatus.EXECUTED).timestamp(LocalDateTime.now()).build());
+            if (i % flushEvery == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                user = entityManager.getEntityManager().getReference(User.class, user.getId());
+                instrument = entityManager.getEntityManager().getReference(Instrument.class, instrument.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        long nanos = System.nanoTime() - start;
+        QueryStats.stop();
+        return new Result(stats.getStatements(), rows * 1_000_000_000L / Math.max(nanos, 1));
+    }
+
+    private record Result(int statements, long rowsPerSecond) {
+    }
+}
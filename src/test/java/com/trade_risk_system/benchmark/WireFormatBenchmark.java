@@ -0,0 +1,119 @@
+package com.trade_risk_system.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.trade_risk_system.config.CborConfig;
+import com.trade_risk_system.dto.common.ApiResponse;
+import com.trade_risk_system.dto.request.TradeRequest;
+import com.trade_risk_system.dto.response.RiskResponse;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encoding cost of the trade and risk payloads in JSON and in CBOR, with the
+ * mappers the application builds. Each case reports operations per second
+ * and payload size: decoding a {@link TradeRequest}, encoding the
+ * {@code ApiResponse} of a {@link TradeResponse}, and encoding the
+ * {@code ApiResponse} of a {@link RiskResponse}.
+ *
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ * Measures (de)serialization only; HTTP framing and compression are not
+ * included.
+ */
+@Tag("benchmark")
+class WireFormatBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatBenchmark.class);
+
+    private static final int WARMUP_OPERATIONS = 200_000;
+    private static final int OPERATIONS = 1_000_000;
+
+    private static final TradeRequest TRADE_REQUEST =
+            new TradeRequest(1042L, 17L, 250, new BigDecimal("101.2500"), TradeSide.BUY);
+
+    private static final ApiResponse<TradeResponse> TRADE_RESPONSE = ApiResponse.success(
+            "Trade executed successfully", new TradeResponse(5_000_123L, 1042L, 17L, "AAPL", 250,
+                    new BigDecimal("101.2500"), TradeSide.BUY, TradeStatus.EXECUTED,
+                    LocalDateTime.of(2026, 3, 2, 14, 30, 15, 123_456_000)));
+
+    private static final ApiResponse<RiskResponse> RISK_RESPONSE = ApiResponse.success(new RiskResponse(1042L,
+            new BigDecimal("1523750.0000"), new BigDecimal("0.41250000"), new BigDecimal("41.2500"),
+            new BigDecimal("-1250.5000"), new BigDecimal("38125.0000"),
+            LocalDateTime.of(2026, 3, 2, 14, 30, 15, 123_456_000)));
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final ObjectMapper cbor = new CborConfig()
+            .cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                    .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS))
+            .getObjectMapper();
+
+    @Test
+    void compareJsonAndCbor() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (String format : List.of("json", "cbor")) {
+            ObjectMapper mapper = format.equals("json") ? json : cbor;
+            byte[] request = mapper.writeValueAsBytes(TRADE_REQUEST);
+            assertThat(mapper.readValue(request, TradeRequest.class)).isEqualTo(TRADE_REQUEST);
+            assertThat(mapper.readValue(mapper.writeValueAsBytes(TRADE_RESPONSE),
+                    new TypeReference<ApiResponse<TradeResponse>>() {
+                    }).getData()).isEqualTo(TRADE_RESPONSE.getData());
+            assertThat(mapper.readValue(mapper.writeValueAsBytes(RISK_RESPONSE),
+                    new TypeReference<ApiResponse<RiskResponse>>() {
+                    }).getData()).isEqualTo(RISK_RESPONSE.getData());
+
+            results.add(measure(format, "decode TradeRequest", request.length,
+                    () -> mapper.readValue(request, TradeRequest.class)));
+            results.add(measure(format, "encode trade response", mapper.writeValueAsBytes(TRADE_RESPONSE).length,
+                    () -> mapper.writeValueAsBytes(TRADE_RESPONSE)));
+            results.add(measure(format, "encode risk response", mapper.writeValueAsBytes(RISK_RESPONSE).length,
+                    () -> mapper.writeValueAsBytes(RISK_RESPONSE)));
+        }
+
+        for (Result result : results) {
+            log.info("WIRE_FORMAT_BENCHMARK | Format: {} | Case: {} | Ops/s: {} | Bytes: {}",
+                    result.format(), result.operation(), result.operationsPerSecond(), result.bytes());
+        }
+        for (int i = 0; i < 3; i++) {
+            assertThat(results.get(i + 3).bytes()).isLessThan(results.get(i).bytes());
+        }
+    }
+
+    private static Result measure(String format, String operation, int bytes, Operation body) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            sink = body.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink = body.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isNotNull();
+        return new Result(format, operation, OPERATIONS * 1_000_000_000L / Math.max(elapsed, 1), bytes);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    private record Result(String format, String operation, long operationsPerSecond, int bytes) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.trade_risk_system.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trade_risk_system.dto.common.ApiResponse;
+import com.trade_risk_system.dto.request.TradeRequest;
+import com.trade_risk_system.dto.response.RiskResponse;
+import com.trade_risk_system.model.enums.TradeSide;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CborConfigTests {
+
+    private final ObjectMapper cbor = new CborConfig()
+            .cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json())
+            .getObjectMapper();
+
+    @Test
+    void decimalsAreWrittenAsScaledIntegers() throws Exception {
+        byte[] bytes = cbor.writeValueAsBytes(new BigDecimal("123.4500"));
+
+        // Tag 4 (decimal fraction), array of two: exponent -4, mantissa 1234500
+        assertThat(bytes).startsWith(0xC4, 0x82, 0x23, 0x1A);
+        assertThat(cbor.readValue(bytes, BigDecimal.class)).isEqualTo(new BigDecimal("123.4500"));
+    }
+
+    @Test
+    void tradeRequestsAndRiskResponsesRoundTrip() throws Exception {
+        TradeRequest request = new TradeRequest(7L, 11L, 250, new BigDecimal("101.2500"), TradeSide.BUY);
+        ApiResponse<RiskResponse> risk = ApiResponse.success(new RiskResponse(7L, new BigDecimal("25312.5000"),
+                new BigDecimal("0.62500000"), new BigDecimal("62.5000"), new BigDecimal("-12.0000"),
+                new BigDecimal("312.5000"), LocalDateTime.of(2026, 3, 2, 12, 0, 1, 5000)));
+
+        TradeRequest decodedRequest = cbor.readValue(cbor.writeValueAsBytes(request), TradeRequest.class);
+        ApiResponse<RiskResponse> decodedRisk = cbor.readValue(cbor.writeValueAsBytes(risk),
+                new TypeReference<ApiResponse<RiskResponse>>() {
+                });
+
+        assertThat(decodedRequest).isEqualTo(request);
+        assertThat(decodedRisk.getData()).isEqualTo(risk.getData());
+    }
+}
@@ -0,0 +1,100 @@
+package com.trade_risk_system.config;
+
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Duplicate positions are folded into the oldest row before V13 adds the
+ * unique key, keeping total quantity and cost, so the key can be added.
+ */
+class PositionDuplicateMergerTests {
+
+    private final PositionDuplicateMerger merger = new PositionDuplicateMerger();
+    private final Context context = mock(Context.class);
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:position-merge", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE positions (id BIGINT PRIMARY KEY, portfolio_id BIGINT NOT NULL, "
+                + "instrument_id BIGINT NOT NULL, quantity INT, avg_price DECIMAL(19,4), version BIGINT DEFAULT 0)");
+        when(context.getConnection()).thenReturn(dataSource.getConnection());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE positions");
+        dataSource.destroy();
+    }
+
+    @Test
+    void runsOnlyBeforeTheUniqueKeyMigration() {
+        assertThat(merger.supports(Event.BEFORE_EACH_MIGRATE, migrating("13"))).isTrue();
+        assertThat(merger.supports(Event.BEFORE_EACH_MIGRATE, migrating("12"))).isFalse();
+        assertThat(merger.supports(Event.AFTER_EACH_MIGRATE, migrating("13"))).isFalse();
+        assertThat(merger.supports(Event.BEFORE_MIGRATE, mock(Context.class))).isFalse();
+    }
+
+    @Test
+    void duplicatesAreMergedIntoTheOldestRowAtTheWeightedAveragePrice() {
+        position(1, 7, 100, 10, "100.0000");
+        position(2, 7, 200, 5, "50.0000");
+        position(3, 7, 100, 30, "120.0000");
+        position(4, 8, 100, 20, "90.0000");
+        position(5, 7, 100, 0, "999.0000");
+
+        merger.handle(Event.BEFORE_EACH_MIGRATE, context);
+
+        // 10 * 100 + 30 * 120 + 0 * 999 = 4600 over 40
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, quantity, avg_price FROM positions ORDER BY id");
+        assertThat(rows).extracting(row -> row.get("ID")).containsExactly(1L, 2L, 4L);
+        assertThat(rows.get(0).get("QUANTITY")).isEqualTo(40);
+        assertThat((BigDecimal) rows.get(0).get("AVG_PRICE")).isEqualByComparingTo("115.0000");
+        assertThat((BigDecimal) rows.get(1).get("AVG_PRICE")).isEqualByComparingTo("50.0000");
+
+        jdbcTemplate.execute("ALTER TABLE positions ADD CONSTRAINT uk_position_portfolio_instrument "
+                + "UNIQUE (portfolio_id, instrument_id)");
+    }
+
+    @Test
+    void withoutDuplicatesNothingChanges() {
+        position(1, 7, 100, 10, "100.0000");
+
+        merger.handle(Event.BEFORE_EACH_MIGRATE, context);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM positions WHERE id = 1", Integer.class))
+                .isEqualTo(10);
+    }
+
+    private Context migrating(String version) {
+        MigrationInfo info = mock(MigrationInfo.class);
+        when(info.getVersion()).thenReturn(MigrationVersion.fromVersion(version));
+        Context migration = mock(Context.class);
+        when(migration.getMigrationInfo()).thenReturn(info);
+        return migration;
+    }
+
+    private void position(long id, long portfolioId, long instrumentId, int quantity, String avgPrice) {
+        jdbcTemplate.update("INSERT INTO positions (id, portfolio_id, instrument_id, quantity, avg_price) "
+                + "VALUES (?, ?, ?, ?, ?)", id, portfolioId, instrumentId, quantity, new BigDecimal(avgPrice));
+    }
+}
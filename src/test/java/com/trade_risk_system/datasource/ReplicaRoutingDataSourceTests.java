@@ -0,0 +1,118 @@
+package com.trade_risk_system.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes between three in-memory databases standing in for a primary and two
+ * replicas. Each database holds a one-row {@code node} table naming itself.
+ */
+class ReplicaRoutingDataSourceTests {
+
+    private ReplicaNode replica1;
+    private ReplicaNode replica2;
+    private ReplicaHealthMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        replica1 = new ReplicaNode("replica-1", database("replica-1"));
+        replica2 = new ReplicaNode("replica-2", database("replica-2"));
+        List<ReplicaNode> replicas = List.of(replica1, replica2);
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMillis(200));
+        monitor = new ReplicaHealthMonitor(replicas, tracker, "SELECT lag FROM node", Duration.ofSeconds(30));
+
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replicas, tracker));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbcTemplate = new JdbcTemplate(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        monitor.checkAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsAlternateBetweenReplicas() {
+        assertThat(List.of(readOnlyNode(), readOnlyNode(), readOnlyNode(), readOnlyNode()))
+                .containsExactlyInAnyOrder("replica-1", "replica-2", "replica-1", "replica-2");
+        assertThat(readWriteNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void unhealthyOrLaggingReplicasAreSkipped() {
+        new JdbcTemplate(replica1.getDataSource()).update("UPDATE node SET lag = 120");
+        monitor.checkAll();
+
+        assertThat(replica1.isHealthy()).isFalse();
+        assertThat(List.of(readOnlyNode(), readOnlyNode())).containsOnly("replica-2");
+
+        new JdbcTemplate(replica2.getDataSource()).update("UPDATE node SET lag = NULL");
+        monitor.checkAll();
+
+        assertThat(readOnlyNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimaryUntilReplicasCatchUp() throws InterruptedException {
+        authenticate("alice");
+        readWriteNode();
+
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        authenticate("bob");
+        assertThat(readOnlyNode()).startsWith("replica-");
+
+        authenticate("alice");
+        Thread.sleep(300);
+        assertThat(readOnlyNode()).startsWith("replica-");
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private String readWriteNode() {
+        return readWrite.execute(status -> {
+            jdbcTemplate.update("UPDATE node SET writes = writes + 1");
+            return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+        });
+    }
+
+    private static void authenticate(String user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                user, null, AuthorityUtils.createAuthorityList("ROLE_TRADER")));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS node");
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20), lag BIGINT, writes INT)");
+        jdbc.update("INSERT INTO node VALUES (?, 0, 0)", name);
+        return dataSource;
+    }
+}
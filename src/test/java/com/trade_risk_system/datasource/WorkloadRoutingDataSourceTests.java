@@ -0,0 +1,103 @@
+package com.trade_risk_system.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that {@link Workload} bindings pick the right pool and that an
+ * exhausted analytics pool leaves trading connections available.
+ */
+class WorkloadRoutingDataSourceTests {
+
+    private final Map<WorkloadType, HikariDataSource> pools = new EnumMap<>(WorkloadType.class);
+    private Reports reports;
+
+    @BeforeEach
+    void setUp() {
+        for (WorkloadType workload : WorkloadType.values()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(workload.key());
+            pool.setJdbcUrl("jdbc:h2:mem:" + workload.key() + ";DB_CLOSE_DELAY=-1");
+            pool.setMaximumPoolSize(1);
+            pool.setConnectionTimeout(250);
+            new JdbcTemplate(pool).execute("CREATE TABLE IF NOT EXISTS node AS SELECT '" + workload.key() + "' AS name");
+            pools.put(workload, pool);
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                new WorkloadRoutingDataSource(pools, WorkloadType.INTERACTIVE));
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Reports(jdbcTemplate));
+        factory.addAspect(new WorkloadAspect());
+        reports = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void annotatedMethodsUseTheirPool() {
+        assertThat(reports.history()).isEqualTo("analytics");
+        assertThat(reports.execute()).isEqualTo("trading");
+        assertThat(reports.lookup()).isEqualTo("interactive");
+    }
+
+    @Test
+    void exhaustedAnalyticsPoolDoesNotStarveTrading() throws SQLException {
+        List<Connection> held = new ArrayList<>();
+        try {
+            held.add(pools.get(WorkloadType.ANALYTICS).getConnection());
+
+            assertThatThrownBy(reports::history).hasRootCauseInstanceOf(SQLTransientConnectionException.class);
+            assertThat(reports.execute()).isEqualTo("trading");
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+
+    @Workload(WorkloadType.ANALYTICS)
+    static class Reports {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        Reports(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        String history() {
+            return node();
+        }
+
+        @Workload(WorkloadType.TRADING)
+        String execute() {
+            return node();
+        }
+
+        @Workload(WorkloadType.INTERACTIVE)
+        String lookup() {
+            return node();
+        }
+
+        private String node() {
+            return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.trade_risk_system.event;
+
+import com.trade_risk_system.service.AuditService;
+import com.trade_risk_system.service.CachePipelineService;
+import com.trade_risk_system.service.ResourceVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Side effects raised inside a transaction are held back until it commits,
+ * dropped when it rolls back, and dispatched at once outside a transaction.
+ */
+class SideEffectBusTests {
+
+    private final CachePipelineService cachePipelineService = mock(CachePipelineService.class);
+    private final AuditService auditService = mock(AuditService.class);
+    private final ResourceVersionService resourceVersionService = mock(ResourceVersionService.class);
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("instruments");
+
+    private SideEffectBus bus;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        bus = new SideEffectBus(cachePipelineService, cacheManager, auditService, resourceVersionService);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(
+                new DriverManagerDataSource("jdbc:h2:mem:side-effects;DB_CLOSE_DELAY=-1")));
+    }
+
+    @Test
+    void evictionsAndAuditsWaitForCommitAndGoOutTogether() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bus.evict("instruments", 1L);
+            bus.evict("portfolios", 7L);
+            bus.evict("instruments", 2L);
+            bus.evict("instruments", 1L);
+            bus.audit("TRADE_EXECUTED", 7L);
+
+            verifyNoInteractions(cachePipelineService, auditService, resourceVersionService);
+        });
+
+        Map<String, Set<Object>> evicted = Map.of("instruments", Set.of(1L, 2L), "portfolios", Set.of(7L));
+        var order = inOrder(cachePipelineService, resourceVersionService, auditService);
+        order.verify(cachePipelineService).evict(evicted);
+        order.verify(resourceVersionService).changed(evicted, Set.of());
+        order.verify(auditService).logAction("TRADE_EXECUTED", 7L);
+    }
+
+    @Test
+    void rolledBackTransactionLeavesNoTrace() {
+        List<String> callbacks = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bus.evict("instruments", 1L);
+            bus.audit("TRADE_EXECUTED", 7L);
+            bus.afterCommit(() -> callbacks.add("ran"));
+            status.setRollbackOnly();
+        });
+
+        verifyNoInteractions(cachePipelineService, auditService, resourceVersionService);
+        assertThat(callbacks).isEmpty();
+    }
+
+    @Test
+    void outsideATransactionEffectsAreDispatchedAtOnce() {
+        bus.evict("instruments", 1L);
+        verify(cachePipelineService).evict(Map.of("instruments", Set.of(1L)));
+
+        bus.audit("LOGIN", 7L);
+        verify(auditService).logAction("LOGIN", 7L);
+    }
+
+    @Test
+    void clearingACacheSupersedesItsKeyEvictions() {
+        cacheManager.getCache("instruments").put(1L, "cached");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bus.evict("instruments", 1L);
+            bus.clear("instruments");
+        });
+
+        assertThat(cacheManager.getCache("instruments").get(1L)).isNull();
+        verify(cachePipelineService).evict(Map.of());
+        verify(resourceVersionService).changed(Map.of(), Set.of("instruments"));
+    }
+
+    @Test
+    void innerTransactionCommitsItsOwnBatch() {
+        transactionTemplate.executeWithoutResult(outer -> {
+            bus.evict("instruments", 1L);
+            TransactionTemplate inner = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            inner.executeWithoutResult(status -> bus.evict("instruments", 2L));
+
+            verify(cachePipelineService).evict(Map.of("instruments", Set.of(2L)));
+            verify(cachePipelineService, never()).evict(Map.of("instruments", Set.of(1L)));
+            outer.setRollbackOnly();
+        });
+
+        verify(cachePipelineService, never()).evict(Map.of("instruments", Set.of(1L)));
+        verify(cachePipelineService).evict(anyMap());
+        verify(resourceVersionService).changed(anyMap(), any());
+    }
+}
@@ -0,0 +1,153 @@
+package com.trade_risk_system.repository;
+
+import com.trade_risk_system.dto.response.PortfolioResponse;
+import com.trade_risk_system.dto.response.RiskResponse;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.model.RiskMetric;
+import com.trade_risk_system.model.Trade;
+import com.trade_risk_system.model.User;
+import com.trade_risk_system.model.enums.Role;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that list endpoints read each page with a fixed number of
+ * statements, independent of page size: one for a Slice, two for a Page
+ * (content plus count), and none per row.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProjectionQueryCountTests {
+
+    private static final int ROWS = 20;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private RiskMetricRepository riskMetricRepository;
+
+    private Statistics statistics;
+    private Long instrumentId;
+    private Long portfolioId;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Instrument[] instruments = new Instrument[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            instruments[i] = entityManager.persist(Instrument.builder()
+                    .symbol("SYM" + i).name("Instrument " + i).currentPrice(BigDecimal.TEN).build());
+        }
+        instrumentId = instruments[0].getId();
+
+        for (int i = 0; i < ROWS; i++) {
+            User user = entityManager.persist(User.builder()
+                    .username("user" + i).email("user" + i + "@example.com").password("x").role(Role.TRADER)
+                    .build());
+            Portfolio portfolio = entityManager.persist(Portfolio.builder()
+                    .user(user).totalValue(BigDecimal.ZERO).build());
+            if (i == 0) {
+                portfolioId = portfolio.getId();
+            }
+            entityManager.persist(Trade.builder()
+                    .user(user).instrument(instruments[i]).quantity(1).price(BigDecimal.TEN)
+                    .side(TradeSide.BUY).status(TradeStatus.EXECUTED).timestamp(now.minusMinutes(i)).build());
+            entityManager.persist(RiskMetric.builder()
+                    .portfolio(entityManager.find(Portfolio.class, portfolioId))
+                    .totalExposure(BigDecimal.TEN).concentrationRisk(BigDecimal.ONE).riskScore(BigDecimal.ONE)
+                    .timestamp(now.minusMinutes(i)).build());
+        }
+        entityManager.flush();
+        // Start from an empty persistence context so lazy associations would hit the database
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void tradeSlicesUseOneStatementPerPage() {
+        PageRequest page = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "timestamp"));
+
+        Slice<TradeResponse> all = tradeRepository.findResponsesBy(page);
+        assertThat(all.getContent()).hasSize(PAGE_SIZE).allSatisfy(row -> assertThat(row.symbol()).isNotNull());
+        assertThat(all.hasNext()).isTrue();
+        assertStatements(1);
+
+        Slice<TradeResponse> byInstrument = tradeRepository.findResponsesByInstrumentId(instrumentId, page);
+        assertThat(byInstrument.getContent()).extracting(TradeResponse::symbol).containsExactly("SYM0");
+        assertStatements(1);
+
+        Slice<TradeResponse> byDate = tradeRepository.findResponsesByTimestampBetween(
+                now.minusHours(1), now, page.next());
+        assertThat(byDate.getContent()).hasSize(PAGE_SIZE);
+        assertStatements(1);
+    }
+
+    @Test
+    void portfolioPageUsesContentAndCountStatements() {
+        Page<PortfolioResponse> page = portfolioRepository.findAllAsResponses(PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE)
+                .allSatisfy(row -> assertThat(row.username()).startsWith("user"));
+        assertThat(page.getTotalElements()).isEqualTo(ROWS);
+        assertStatements(2);
+    }
+
+    @Test
+    void riskHistoryPageUsesContentAndCountStatements() {
+        PageRequest request = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "timestamp"));
+
+        Page<RiskResponse> history = riskMetricRepository.findResponsesByPortfolioId(portfolioId, request);
+        assertThat(history.getContent()).hasSize(PAGE_SIZE)
+                .allSatisfy(row -> assertThat(row.portfolioId()).isEqualTo(portfolioId));
+        assertThat(history.getTotalElements()).isEqualTo(ROWS);
+        assertStatements(2);
+
+        Page<RiskResponse> byDate = riskMetricRepository.findResponsesByPortfolioIdAndTimestampBetween(
+                portfolioId, now.minusHours(1), now, request);
+        assertThat(byDate.getContent()).hasSize(PAGE_SIZE);
+        assertStatements(2);
+    }
+
+    private void assertStatements(long expected) {
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        statistics.clear();
+    }
+}
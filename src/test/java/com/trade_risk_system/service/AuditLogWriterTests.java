@@ -0,0 +1,166 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.sharding.ShardDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * When queued audit rows reach the database: on a full batch, on the flush
+ * interval, on the caller's thread when the queue overflows, or on shutdown.
+ */
+class AuditLogWriterTests {
+
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Batch> batches = new CopyOnWriteArrayList<>();
+
+    private AuditLogWriter writer;
+
+    record Batch(int size, String thread) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        writer = new AuditLogWriter(jdbcTemplate, mock(ShardDirectory.class));
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "overflowPolicy", AuditLogWriter.OverflowPolicy.CALLER_RUNS);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<Object>>any())).thenAnswer(invocation -> {
+                    batches.add(new Batch(invocation.<Collection<?>>getArgument(1).size(),
+                            Thread.currentThread().getName()));
+                    return new int[0][];
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer.isRunning()) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void fullBatchIsWrittenWithoutWaitingForTheInterval() {
+        start(3, NEVER);
+
+        submit(3);
+
+        awaitWrittenRows(3);
+        assertThat(batches).containsExactly(new Batch(3, "audit-log-writer"));
+        assertThat(writer.getQueueSize()).isZero();
+    }
+
+    @Test
+    void partialBatchIsWrittenOnTheInterval() {
+        start(500, Duration.ofMillis(50));
+
+        submit(2);
+
+        awaitWrittenRows(2);
+        assertThat(batches).extracting(Batch::thread).containsOnly("audit-log-writer");
+    }
+
+    @Test
+    void callerWritesTheRowItselfWhenTheQueueIsFull() {
+        ReflectionTestUtils.setField(writer, "queueCapacity", 2);
+        start(500, NEVER);
+
+        submit(3);
+
+        assertThat(batches).containsExactly(new Batch(1, Thread.currentThread().getName()));
+        assertThat(writer.getQueueSize()).isEqualTo(2);
+        assertThat(writer.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void rowIsDroppedAndCountedWhenTheQueueIsFull() {
+        ReflectionTestUtils.setField(writer, "queueCapacity", 2);
+        ReflectionTestUtils.setField(writer, "overflowPolicy", AuditLogWriter.OverflowPolicy.DROP);
+        start(500, NEVER);
+
+        submit(3);
+
+        assertThat(batches).isEmpty();
+        assertThat(writer.getDroppedCount()).isEqualTo(1);
+
+        // Queued rows still reach the database on shutdown
+        writer.stop();
+        assertThat(writtenRows()).isEqualTo(2);
+    }
+
+    @Test
+    void rowQueuedAfterTheFinalDrainIsWrittenByItsCaller() throws Exception {
+        start(500, NEVER);
+
+        // Holds a submit between its running check and queueing the row until stop() has returned
+        CountDownLatch inSubmit = new CountDownLatch(1);
+        CountDownLatch writerStopped = new CountDownLatch(1);
+        ReflectionTestUtils.setField(writer, "queue", new ConcurrentLinkedQueue<Object>() {
+            @Override
+            public boolean offer(Object row) {
+                inSubmit.countDown();
+                try {
+                    writerStopped.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.offer(row);
+            }
+        });
+
+        CompletableFuture<Void> submit = CompletableFuture.runAsync(() -> writer.submit("TRADE_EXECUTED", 1L));
+        assertThat(inSubmit.await(5, TimeUnit.SECONDS)).isTrue();
+        writer.stop();
+        writerStopped.countDown();
+        submit.get(5, TimeUnit.SECONDS);
+
+        assertThat(writtenRows()).isEqualTo(1);
+        assertThat(writer.getQueueSize()).isZero();
+    }
+
+    private void start(int flushSize, Duration flushInterval) {
+        ReflectionTestUtils.setField(writer, "flushSize", flushSize);
+        ReflectionTestUtils.setField(writer, "flushInterval", flushInterval);
+        writer.start();
+    }
+
+    private void submit(int rows) {
+        for (long userId = 1; userId <= rows; userId++) {
+            writer.submit("TRADE_EXECUTED", userId);
+        }
+    }
+
+    private void awaitWrittenRows(int rows) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (writtenRows() < rows && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(writtenRows()).isEqualTo(rows);
+    }
+
+    private int writtenRows() {
+        return batches.stream().mapToInt(Batch::size).sum();
+    }
+}
@@ -0,0 +1,115 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.dto.common.CursorPage;
+import com.trade_risk_system.dto.response.AuditLogResponse;
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.model.AuditLog;
+import com.trade_risk_system.model.User;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pages through audit logs by handing each page's cursor back, and checks the
+ * pages join up: newest first, rows sharing a timestamp split across pages,
+ * nothing repeated or skipped.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(AuditService.class)
+class AuditServiceTests {
+
+    private static final LocalDateTime OPEN = LocalDateTime.of(2026, 10, 1, 9, 30);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AuditService auditService;
+
+    @MockitoBean
+    private AuditLogWriter auditLogWriter;
+
+    @MockitoBean
+    private ShardExecutor shardExecutor;
+
+    private Long traderId;
+    private final List<Long> tradeAudits = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TestFixtures.runOnSingleShard(shardExecutor);
+        TestFixtures fixtures = new TestFixtures(entityManager);
+        User trader = fixtures.user("trader");
+        User other = fixtures.user("other");
+        traderId = trader.getId();
+
+        // Oldest first; three rows share a timestamp with a fractional second
+        LocalDateTime tied = OPEN.plusMinutes(1).plusNanos(123_456_000);
+        tradeAudits.add(audit(trader, "TRADE_EXECUTED", OPEN));
+        tradeAudits.add(audit(trader, "TRADE_EXECUTED", tied));
+        tradeAudits.add(audit(trader, "TRADE_EXECUTED", tied));
+        tradeAudits.add(audit(trader, "TRADE_EXECUTED", tied));
+        audit(trader, "LOGIN", OPEN.plusMinutes(2));
+        audit(other, "TRADE_EXECUTED", OPEN.plusMinutes(3));
+        tradeAudits.add(audit(trader, "TRADE_EXECUTED", OPEN.plusMinutes(4)));
+        entityManager.flush();
+    }
+
+    @Test
+    void cursorsWalkEveryMatchingRowOnceNewestFirst() {
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<AuditLogResponse> page = auditService.getAuditLogs(traderId, "TRADE_EXECUTED",
+                    OPEN, OPEN.plusHours(1), cursor, 2);
+            page.content().forEach(row -> seen.add(row.id()));
+            pageSizes.add(page.content().size());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<Long> newestFirst = new ArrayList<>(tradeAudits);
+        Collections.reverse(newestFirst);
+        assertThat(seen).containsExactlyElementsOf(newestFirst);
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void rangeEndIsExclusiveAndStartInclusive() {
+        CursorPage<AuditLogResponse> page = auditService.getAuditLogs(null, null,
+                OPEN, OPEN.plusMinutes(3), null, 10);
+
+        assertThat(page.content()).extracting(AuditLogResponse::action)
+                .containsExactly("LOGIN", "TRADE_EXECUTED", "TRADE_EXECUTED", "TRADE_EXECUTED", "TRADE_EXECUTED");
+        assertThat(page.content().get(4).id()).isEqualTo(tradeAudits.get(0));
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        assertThatThrownBy(() -> auditService.getAuditLogs(traderId, null, OPEN, OPEN.plusHours(1),
+                "bm90LWEtY3Vyc29y", 2)).isInstanceOf(BadRequestException.class);
+    }
+
+    private Long audit(User user, String action, LocalDateTime timestamp) {
+        return entityManager.persist(AuditLog.builder().user(user).action(action).timestamp(timestamp).build())
+                .getId();
+    }
+}
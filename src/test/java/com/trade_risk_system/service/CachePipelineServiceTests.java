@@ -0,0 +1,90 @@
+package com.trade_risk_system.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Evicting keys of several caches sends one multi-key DEL with the keys
+ * {@code RedisCache} itself would use.
+ */
+class CachePipelineServiceTests {
+
+    private final RedisCacheManager redisCacheManager = mock(RedisCacheManager.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+
+    @BeforeEach
+    void setUp() {
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        doAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection))
+                .when(redisTemplate).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    void keysOfSeveralCachesAreRemovedWithOneDel() {
+        CachePipelineService service = new CachePipelineService(redisCacheManager, redisTemplate);
+        Map<String, List<Object>> evictions = new LinkedHashMap<>();
+        evictions.put("instruments", List.of(1L, 2L));
+        evictions.put("userDetails", List.of("trader"));
+
+        service.evict(evictions);
+
+        ArgumentCaptor<byte[][]> keys = ArgumentCaptor.forClass(byte[][].class);
+        verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+        verify(keyCommands, times(1)).del(keys.capture());
+        assertThat(Arrays.stream(keys.getValue()).map(key -> new String(key, StandardCharsets.UTF_8)))
+                .containsExactly("instruments::1", "instruments::2", "userDetails::trader");
+    }
+
+    @Test
+    void nothingToEvictSkipsRedis() {
+        new CachePipelineService(redisCacheManager, redisTemplate).evict(Map.of("instruments", List.of()));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void redisFailureDoesNotReachTheCaller() {
+        when(keyCommands.del(any(byte[][].class))).thenThrow(new IllegalStateException("connection refused"));
+
+        new CachePipelineService(redisCacheManager, redisTemplate).evict(Map.of("instruments", List.of(1L)));
+
+        verify(keyCommands).del(any(byte[][].class));
+    }
+
+    @Test
+    void withoutRedisEachKeyIsEvictedFromItsCache() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("instruments");
+        cacheManager.getCache("instruments").put(1L, "AAPL");
+        cacheManager.getCache("instruments").put(2L, "MSFT");
+
+        new CachePipelineService(cacheManager, redisTemplate).evict(Map.of("instruments", List.of(1L)));
+
+        assertThat(cacheManager.getCache("instruments").get(1L)).isNull();
+        assertThat(cacheManager.getCache("instruments").get(2L)).isNotNull();
+        verifyNoInteractions(redisTemplate);
+    }
+}
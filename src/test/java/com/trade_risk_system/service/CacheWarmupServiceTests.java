@@ -0,0 +1,129 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.config.CacheWarmupHealthIndicator;
+import com.trade_risk_system.dto.response.InstrumentResponse;
+import com.trade_risk_system.dto.response.PortfolioResponse;
+import com.trade_risk_system.repository.InstrumentRepository;
+import com.trade_risk_system.repository.PortfolioRepository;
+import com.trade_risk_system.repository.UserRepository;
+import com.trade_risk_system.security.CustomUserDetailsService;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Warm-up fills each cache in batches, gives up on loaders that outlive the
+ * time budget, and keeps the readiness indicator out of service until it has
+ * finished one way or the other.
+ */
+class CacheWarmupServiceTests {
+
+    private final InstrumentRepository instrumentRepository = mock(InstrumentRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PortfolioRepository portfolioRepository = mock(PortfolioRepository.class);
+    private final CachePipelineService cachePipelineService = mock(CachePipelineService.class);
+    private final ShardExecutor shardExecutor = mock(ShardExecutor.class);
+
+    private CacheWarmupService warmupService;
+    private CacheWarmupHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        warmupService = new CacheWarmupService(instrumentRepository, userRepository, portfolioRepository,
+                new CustomUserDetailsService(userRepository), cachePipelineService, shardExecutor);
+        ReflectionTestUtils.setField(warmupService, "enabled", true);
+        ReflectionTestUtils.setField(warmupService, "parallelism", 3);
+        ReflectionTestUtils.setField(warmupService, "timeBudget", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(warmupService, "activeWindow", Duration.ofDays(7));
+        ReflectionTestUtils.setField(warmupService, "maxEntries", 100);
+        ReflectionTestUtils.setField(warmupService, "batchSize", 2);
+        healthIndicator = new CacheWarmupHealthIndicator(warmupService);
+
+        TestFixtures.runOnSingleShard(shardExecutor);
+        when(cachePipelineService.putAll(anyString(), anyMap()))
+                .thenAnswer(invocation -> invocation.<Map<?, ?>>getArgument(1).size());
+        when(instrumentRepository.findAllAsResponses()).thenReturn(List.of(
+                instrument(1L, "AAPL"), instrument(2L, "MSFT"), instrument(3L, "GOOG")));
+        when(userRepository.findActiveSince(any(), any())).thenReturn(List.of(TestFixtures.newUser("trader")));
+        when(portfolioRepository.findActiveSinceAsResponses(any(), any())).thenReturn(List.of(
+                new PortfolioResponse(7L, 1L, "trader", BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO)));
+    }
+
+    @Test
+    void warmUpLoadsEveryCacheInBatchesBeforeReportingReady() {
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        CacheWarmupService.Report report = warmupService.warmUp();
+
+        assertThat(report.status()).isEqualTo(CacheWarmupService.Status.COMPLETED);
+        assertThat(report.entriesLoaded())
+                .containsExactlyInAnyOrderEntriesOf(Map.of("instruments", 3, "userDetails", 1, "portfolios", 1));
+        verify(cachePipelineService, times(2)).putAll(eq("instruments"), anyMap());
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void loaderThatOutlivesTheBudgetIsAbandoned() {
+        ReflectionTestUtils.setField(warmupService, "timeBudget", Duration.ofMillis(200));
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        when(instrumentRepository.findAllAsResponses()).thenAnswer(invocation -> {
+            neverReleased.await();
+            return List.of();
+        });
+
+        CacheWarmupService.Report report = warmupService.warmUp();
+
+        assertThat(report.status()).isEqualTo(CacheWarmupService.Status.TIMED_OUT);
+        assertThat(report.durationMs()).isLessThan(Duration.ofSeconds(5).toMillis());
+        assertThat(report.entriesLoaded())
+                .containsExactlyInAnyOrderEntriesOf(Map.of("userDetails", 1, "portfolios", 1));
+        verify(cachePipelineService, never()).putAll(eq("instruments"), anyMap());
+        // Warm-up is best effort: a timed-out run still lets traffic in
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void failedLoaderDoesNotHoldBackReadiness() {
+        when(portfolioRepository.findActiveSinceAsResponses(any(), any()))
+                .thenThrow(new IllegalStateException("shard unavailable"));
+
+        CacheWarmupService.Report report = warmupService.warmUp();
+
+        assertThat(report.status()).isEqualTo(CacheWarmupService.Status.FAILED);
+        assertThat(report.entriesLoaded()).containsOnlyKeys("instruments", "userDetails");
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void disabledWarmUpLoadsNothing() {
+        ReflectionTestUtils.setField(warmupService, "enabled", false);
+
+        assertThat(warmupService.warmUp().status()).isEqualTo(CacheWarmupService.Status.DISABLED);
+        verify(cachePipelineService, never()).putAll(anyString(), anyMap());
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    private static InstrumentResponse instrument(Long id, String symbol) {
+        return new InstrumentResponse(id, symbol, symbol, new BigDecimal("100.0000"));
+    }
+}
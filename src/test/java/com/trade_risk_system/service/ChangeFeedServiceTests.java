@@ -0,0 +1,179 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.dto.response.ChangeEventResponse;
+import com.trade_risk_system.dto.response.ChangeFeedResponse;
+import com.trade_risk_system.exception.CursorExpiredException;
+import com.trade_risk_system.model.enums.ChangeEntity;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "application.changes.compaction-chunk-size=2"
+})
+@Import(ChangeFeedService.class)
+class ChangeFeedServiceTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 12, 0);
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private ShardExecutor shardExecutor;
+
+    @BeforeEach
+    void setUp() {
+        TestFixtures.runOnSingleShard(shardExecutor);
+        // The triggers of V14 are MySQL-only; events are inserted directly here
+        jdbcTemplate.execute("CREATE TABLE change_events (id BIGINT AUTO_INCREMENT PRIMARY KEY, seq BIGINT UNIQUE, "
+                + "entity VARCHAR(20) NOT NULL, deleted BOOLEAN DEFAULT FALSE NOT NULL, "
+                + "portfolio_id BIGINT NOT NULL, instrument_id BIGINT DEFAULT 0 NOT NULL, quantity INT, "
+                + "avg_price DECIMAL(19, 4), total_value DECIMAL(19, 4), realized_pnl DECIMAL(19, 4), "
+                + "unrealized_pnl DECIMAL(19, 4), risk_score DECIMAL(19, 4), total_exposure DECIMAL(19, 4), "
+                + "changed_at TIMESTAMP(6) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE change_feed_state (id INT PRIMARY KEY, last_seq BIGINT NOT NULL, "
+                + "purged_through BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO change_feed_state (id, last_seq, purged_through) VALUES (1, 0, 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE change_events");
+        jdbcTemplate.execute("DROP TABLE change_feed_state");
+    }
+
+    @Test
+    void readsSequencedChangesInPagesFromTheCursor() {
+        position(1, 10, 5, false, NOW);
+        portfolio(1, "500.0000", NOW);
+        position(2, 10, 3, false, NOW.plusSeconds(1));
+
+        assertThat(changeFeedService.sequence()).isEqualTo(3);
+        ChangeFeedResponse first = changeFeedService.getChanges(null, null, 2);
+        ChangeFeedResponse second = changeFeedService.getChanges(first.cursor(), null, 2);
+        ChangeFeedResponse third = changeFeedService.getChanges(second.cursor(), null, 2);
+
+        assertThat(first.changes()).extracting(ChangeEventResponse::entity)
+                .containsExactly(ChangeEntity.POSITION, ChangeEntity.PORTFOLIO);
+        assertThat(first.changes().get(1).instrumentId()).isNull();
+        assertThat(first.changes().get(1).totalValue()).isEqualByComparingTo("500");
+        assertThat(first.hasMore()).isTrue();
+        assertThat(second.changes()).extracting(ChangeEventResponse::portfolioId).containsExactly(2L);
+        assertThat(second.hasMore()).isFalse();
+        assertThat(third.changes()).isEmpty();
+        assertThat(third.cursor()).isEqualTo(second.cursor());
+    }
+
+    @Test
+    void unsequencedChangesAreNotReadYet() {
+        position(1, 10, 5, false, NOW);
+        changeFeedService.sequence();
+        ChangeFeedResponse seen = changeFeedService.getChanges(null, null, 10);
+        position(1, 10, 7, false, NOW.plusSeconds(1));
+
+        assertThat(changeFeedService.getChanges(seen.cursor(), null, 10).changes()).isEmpty();
+        changeFeedService.sequence();
+        assertThat(changeFeedService.getChanges(seen.cursor(), null, 10).changes())
+                .extracting(ChangeEventResponse::quantity).containsExactly(7);
+    }
+
+    @Test
+    void filteredReadsMovePastOtherPortfolios() {
+        position(1, 10, 5, false, NOW);
+        position(2, 10, 5, false, NOW);
+        changeFeedService.sequence();
+
+        ChangeFeedResponse response = changeFeedService.getChanges(null, 2L, 10);
+        position(1, 10, 6, false, NOW.plusSeconds(1));
+        changeFeedService.sequence();
+
+        assertThat(response.changes()).extracting(ChangeEventResponse::portfolioId).containsExactly(2L);
+        assertThat(changeFeedService.getChanges(response.cursor(), 2L, 10).changes()).isEmpty();
+        assertThat(changeFeedService.getChanges(response.cursor(), null, 10).changes())
+                .extracting(ChangeEventResponse::portfolioId).containsExactly(1L);
+    }
+
+    @Test
+    void compactionKeepsTheLatestEventPerRowAndExpiresCursorsBeforePurgedDeletions() {
+        position(1, 10, 1, false, NOW.minusDays(10));
+        changeFeedService.sequence();
+        String oldCursor = changeFeedService.getChanges(null, null, 10).cursor();
+        position(1, 10, 2, false, NOW.minusDays(9));
+        position(1, 10, 3, false, NOW.minusDays(9));
+        position(1, 11, 4, false, NOW.minusDays(9));
+        position(1, 11, 0, true, NOW.minusDays(8));
+        position(1, 12, 5, false, NOW.minusMinutes(30));
+        position(1, 12, 6, false, NOW.minusMinutes(10));
+        changeFeedService.sequence();
+
+        ChangeFeedService.Compaction compaction = changeFeedService.compact(NOW);
+
+        assertThat(compaction.superseded()).isEqualTo(3);
+        assertThat(compaction.tombstones()).isEqualTo(1);
+        List<ChangeEventResponse> snapshot = changeFeedService.getChanges(null, null, 10).changes();
+        assertThat(snapshot).extracting(ChangeEventResponse::instrumentId, ChangeEventResponse::quantity)
+                .containsExactly(tuple(10L, 3), tuple(12L, 5), tuple(12L, 6));
+        assertThatThrownBy(() -> changeFeedService.getChanges(oldCursor, null, 10))
+                .isInstanceOf(CursorExpiredException.class);
+    }
+
+    @Test
+    void longPollCompletesWhenAChangeIsSequenced() {
+        CompletableFuture<ChangeFeedResponse> waiting =
+                changeFeedService.awaitChanges(null, null, 10, Duration.ofSeconds(30));
+        changeFeedService.wakeWaiters();
+        assertThat(waiting).isNotDone();
+
+        position(1, 10, 5, false, NOW);
+        changeFeedService.sequence();
+        changeFeedService.wakeWaiters();
+
+        assertThat(waiting).isCompleted();
+        assertThat(waiting.join().changes()).extracting(ChangeEventResponse::quantity).containsExactly(5);
+    }
+
+    @Test
+    void longPollWithoutChangesEndsEmptyAfterTheWait() {
+        CompletableFuture<ChangeFeedResponse> waiting =
+                changeFeedService.awaitChanges(null, null, 10, Duration.ofNanos(1));
+        changeFeedService.wakeWaiters();
+
+        assertThat(waiting).isCompleted();
+        assertThat(waiting.join().changes()).isEmpty();
+    }
+
+    private void position(long portfolioId, long instrumentId, int quantity, boolean deleted, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO change_events (entity, deleted, portfolio_id, instrument_id, quantity, "
+                + "avg_price, changed_at) VALUES ('POSITION', ?, ?, ?, ?, ?, ?)", deleted, portfolioId,
+                instrumentId, deleted ? null : quantity, deleted ? null : new BigDecimal("100.0000"), at);
+    }
+
+    private void portfolio(long portfolioId, String totalValue, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO change_events (entity, portfolio_id, total_value, realized_pnl, "
+                + "unrealized_pnl, changed_at) VALUES ('PORTFOLIO', ?, ?, 0, 0, ?)", portfolioId,
+                new BigDecimal(totalValue), at);
+    }
+}
@@ -0,0 +1,89 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.dto.request.TradeRequest;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.model.enums.TradeSide;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Which failures an optimistic trade is run again for.
+ */
+class ConcurrentTradeExecutorTests {
+
+    private static final TradeRequest BUY = new TradeRequest(1L, 2L, 10, new BigDecimal("100.0000"), TradeSide.BUY);
+
+    private final TradeService tradeService = mock(TradeService.class);
+    private final TradeResponse executed = mock(TradeResponse.class);
+
+    private ConcurrentTradeExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ConcurrentTradeExecutor(tradeService,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(executor, "mode", TradeConcurrencyMode.OPTIMISTIC);
+        ReflectionTestUtils.setField(executor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(executor, "backoff", Duration.ZERO);
+        ReflectionTestUtils.setField(executor, "maxBackoff", Duration.ZERO);
+    }
+
+    @Test
+    void secondInsertOfAPositionIsRetried() {
+        when(tradeService.executeTrade(any(), anyLong()))
+                .thenThrow(violation("PUBLIC.UK_POSITION_PORTFOLIO_INSTRUMENT_INDEX_8 ON PUBLIC.POSITIONS"))
+                .thenThrow(new OptimisticLockingFailureException("stale position"))
+                .thenReturn(executed);
+
+        assertThat(executor.executeTrade(BUY, 1L)).isSameAs(executed);
+        verify(tradeService, times(3)).executeTrade(BUY, 1L);
+    }
+
+    @Test
+    void duplicateKeyWithoutAConstraintNameIsRetried() {
+        when(tradeService.executeTrade(any(), anyLong()))
+                .thenThrow(new DuplicateKeyException("Duplicate entry"))
+                .thenReturn(executed);
+
+        assertThat(executor.executeTrade(BUY, 1L)).isSameAs(executed);
+    }
+
+    @Test
+    void otherIntegrityViolationsFailImmediately() {
+        DataIntegrityViolationException foreignKey = violation("FK_POSITION_INSTRUMENT");
+        when(tradeService.executeTrade(any(), anyLong())).thenThrow(foreignKey);
+
+        assertThatThrownBy(() -> executor.executeTrade(BUY, 1L)).isSameAs(foreignKey);
+        verify(tradeService, times(1)).executeTrade(BUY, 1L);
+
+        doThrow(new DataIntegrityViolationException("NOT NULL")).when(tradeService).executeTrade(any(), anyLong());
+        assertThatThrownBy(() -> executor.executeTrade(BUY, 1L)).isInstanceOf(DataIntegrityViolationException.class);
+        verify(tradeService, times(2)).executeTrade(BUY, 1L);
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("constraint violated", new SQLException("23505"), constraintName));
+    }
+}
@@ -0,0 +1,147 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.dto.request.InstrumentRequest;
+import com.trade_risk_system.dto.response.InstrumentImportResponse;
+import com.trade_risk_system.dto.response.InstrumentImportResponse.RowError;
+import com.trade_risk_system.event.SideEffectBus;
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.sharding.ReferenceDataReplicator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "application.instruments.import.batch-size=2"
+})
+@Import({ InstrumentImportService.class, LocalValidatorFactoryBean.class })
+class InstrumentImportServiceTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InstrumentImportService importService;
+
+    @MockitoBean
+    private CacheEvictionService cacheEvictionService;
+
+    @MockitoBean
+    private SideEffectBus sideEffectBus;
+
+    @MockitoBean
+    private ReferenceDataReplicator referenceDataReplicator;
+
+    @MockitoBean
+    private PnlService pnlService;
+
+    private TestFixtures fixtures;
+    private Instrument aapl;
+    private Instrument msft;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+        aapl = fixtures.instrument("AAPL", "Apple", "150.0000");
+        msft = fixtures.instrument("MSFT", "Microsoft", "300.0000");
+        entityManager.flush();
+    }
+
+    @Test
+    void importsCsvRowsAndReportsBadLines() {
+        String csv = """
+                symbol,name,price
+                AAPL,Apple,155.5
+                MSFT,Microsoft,300
+                GOOG,"Alphabet, Inc.",120
+
+                NVDA,Nvidia,abc
+                TSLA,,200
+                AMZN,Amazon
+                GOOG,"Alphabet \"\"Class A\"\"",121.25
+                """;
+
+        InstrumentImportResponse response = importService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(response.rows()).isEqualTo(7);
+        assertThat(response.inserted()).isEqualTo(1);
+        assertThat(response.updated()).isEqualTo(1);
+        assertThat(response.unchanged()).isEqualTo(1);
+        assertThat(response.duplicates()).isEqualTo(1);
+        assertThat(response.failed()).isEqualTo(3);
+        assertThat(response.errors()).extracting(RowError::line, RowError::symbol).containsExactly(
+                tuple(6L, "NVDA"), tuple(7L, "TSLA"), tuple(8L, "AMZN"));
+        assertThat(response.errors().get(1).message()).isEqualTo("Name is required");
+
+        entityManager.clear();
+        assertThat(entityManager.find(Instrument.class, aapl.getId()).getCurrentPrice())
+                .isEqualByComparingTo("155.5");
+        Instrument goog = entityManager.getEntityManager()
+                .createQuery("SELECT i FROM Instrument i WHERE i.symbol = 'GOOG'", Instrument.class)
+                .getSingleResult();
+        assertThat(goog.getName()).isEqualTo("Alphabet \"Class A\"");
+        assertThat(goog.getCurrentPrice()).isEqualByComparingTo("121.25");
+        verify(pnlService).applyPriceChange(aapl.getId(), new BigDecimal("150.0000"), new BigDecimal("155.5000"));
+        verify(cacheEvictionService).evictInstrumentCaches();
+    }
+
+    @Test
+    void upsertsInChunksAndClearsTheCachesOnce() {
+        InstrumentImportResponse response = importService.upsert(List.of(
+                new InstrumentRequest("IBM", "IBM", new BigDecimal("180")),
+                new InstrumentRequest("MSFT", "Microsoft Corp", new BigDecimal("300")),
+                new InstrumentRequest("ORCL", "Oracle", new BigDecimal("-1")),
+                new InstrumentRequest("INTC", "Intel", new BigDecimal("30"))));
+
+        assertThat(response.inserted()).isEqualTo(2);
+        assertThat(response.updated()).isEqualTo(1);
+        assertThat(response.errors()).extracting(RowError::line, RowError::message)
+                .containsExactly(tuple(3L, "Current price must be positive"));
+        entityManager.clear();
+        assertThat(entityManager.find(Instrument.class, msft.getId()).getName()).isEqualTo("Microsoft Corp");
+        // A name change alone does not re-mark positions
+        verifyNoInteractions(pnlService);
+        verify(sideEffectBus, times(2)).afterCommit(any());
+        verify(cacheEvictionService, times(1)).evictInstrumentCaches();
+    }
+
+    @Test
+    void nothingChangedLeavesTheCachesAlone() {
+        InstrumentImportResponse response = importService.upsert(List.of(
+                new InstrumentRequest("AAPL", "Apple", new BigDecimal("150"))));
+
+        assertThat(response.unchanged()).isEqualTo(1);
+        verifyNoInteractions(cacheEvictionService);
+    }
+
+    @Test
+    void rejectsFilesThatAreNotUtf8() {
+        byte[] csv = { 'A', ',', 'B', ',', '1', '\n', (byte) 0xC3, '(', ',', 'B', ',', '1', '\n' };
+
+        assertThatThrownBy(() -> importService.importCsv(new ByteArrayInputStream(csv)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("not valid UTF-8");
+    }
+}
@@ -0,0 +1,89 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(PnlService.class)
+class PnlServiceTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PnlService pnlService;
+
+    @MockitoBean
+    private CacheEvictionService cacheEvictionService;
+
+    @MockitoBean
+    private ShardExecutor shardExecutor;
+
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+    }
+
+    @Test
+    void priceChangeMovesValueAndUnrealizedPnlOfHoldersOnly() {
+        Instrument aapl = fixtures.instrument("AAPL", "150.0000");
+        Instrument msft = fixtures.instrument("MSFT", "300.0000");
+        Portfolio holder = fixtures.portfolio("holder");
+        Portfolio other = fixtures.portfolio("other");
+        fixtures.position(holder, aapl, 10, "100.0000");
+        fixtures.position(holder, msft, 2, "300.0000");
+        fixtures.position(other, msft, 5, "250.0000");
+        holder.setTotalValue(new BigDecimal("2100.0000"));
+        holder.setUnrealizedPnl(new BigDecimal("500.0000"));
+        other.setTotalValue(new BigDecimal("1500.0000"));
+        other.setUnrealizedPnl(new BigDecimal("250.0000"));
+        entityManager.flush();
+
+        int updated = pnlService.applyPriceChange(aapl.getId(), new BigDecimal("150.0000"), new BigDecimal("140.0000"));
+
+        assertThat(updated).isEqualTo(1);
+        Portfolio revalued = entityManager.find(Portfolio.class, holder.getId());
+        assertThat(revalued.getTotalValue()).isEqualByComparingTo("2000");
+        assertThat(revalued.getUnrealizedPnl()).isEqualByComparingTo("400");
+        Portfolio untouched = entityManager.find(Portfolio.class, other.getId());
+        assertThat(untouched.getTotalValue()).isEqualByComparingTo("1500");
+        assertThat(untouched.getUnrealizedPnl()).isEqualByComparingTo("250");
+        verify(cacheEvictionService).evictPortfolioCache(holder.getId());
+        verify(cacheEvictionService, never()).evictPortfolioCache(other.getId());
+    }
+
+    @Test
+    void firstPriceIsMarkedAgainstAveragePrice() {
+        Instrument instrument = fixtures.instrument("NEW", null);
+        Portfolio portfolio = fixtures.portfolio("holder");
+        fixtures.position(portfolio, instrument, 4, "10.0000");
+        portfolio.setTotalValue(new BigDecimal("40.0000"));
+        entityManager.flush();
+
+        pnlService.applyPriceChange(instrument.getId(), null, new BigDecimal("12.5000"));
+
+        Portfolio revalued = entityManager.find(Portfolio.class, portfolio.getId());
+        assertThat(revalued.getTotalValue()).isEqualByComparingTo("50");
+        assertThat(revalued.getUnrealizedPnl()).isEqualByComparingTo("10");
+    }
+}
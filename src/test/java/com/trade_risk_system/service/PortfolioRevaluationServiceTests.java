@@ -0,0 +1,125 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.dto.request.RevaluationRequest;
+import com.trade_risk_system.dto.response.RevaluationResponse;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "application.portfolios.revaluation.chunk-size=2"
+})
+@Import(PortfolioRevaluationService.class)
+class PortfolioRevaluationServiceTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PortfolioRevaluationService revaluationService;
+
+    @MockitoBean
+    private CacheEvictionService cacheEvictionService;
+
+    @MockitoBean
+    private ShardExecutor shardExecutor;
+
+    private TestFixtures fixtures;
+    private Instrument aapl;
+    private Instrument msft;
+    private Portfolio current;
+    private Portfolio stale;
+    private Portfolio staleHolder;
+    private Portfolio empty;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+        TestFixtures.runOnSingleShard(shardExecutor);
+        aapl = fixtures.instrument("AAPL", "150.0000");
+        msft = fixtures.instrument("MSFT", "300.0000");
+        current = fixtures.portfolio("current", "1500.0000", "500.0000");
+        fixtures.position(current, aapl, 10, "100.0000");
+        stale = fixtures.portfolio("stale", "600.0000", "0");
+        fixtures.position(stale, msft, 2, "300.0000");
+        fixtures.position(stale, aapl, 1, "150.0000");
+        staleHolder = fixtures.portfolio("holder", "1000.0000", "0");
+        fixtures.position(staleHolder, aapl, 10, "100.0000");
+        empty = fixtures.portfolio("empty", "0", "0");
+        entityManager.flush();
+    }
+
+    @Test
+    void revaluesEveryStalePortfolioInChunks() {
+        RevaluationResponse response = revaluationService.revalue(null);
+
+        assertThat(response.portfolios()).isEqualTo(4);
+        assertThat(response.chunks()).isEqualTo(2);
+        assertThat(response.stale()).isEqualTo(2);
+        assertThat(response.revalued()).isEqualTo(2);
+        assertThat(response.skipped()).isZero();
+        entityManager.clear();
+        assertThat(entityManager.find(Portfolio.class, stale.getId()).getTotalValue()).isEqualByComparingTo("750");
+        Portfolio holder = entityManager.find(Portfolio.class, staleHolder.getId());
+        assertThat(holder.getTotalValue()).isEqualByComparingTo("1500");
+        assertThat(holder.getUnrealizedPnl()).isEqualByComparingTo("500");
+        verify(cacheEvictionService).evictPortfolioCache(stale.getId());
+        verify(cacheEvictionService).evictRiskCache(staleHolder.getId());
+        verify(cacheEvictionService, never()).evictPortfolioCache(current.getId());
+        verify(cacheEvictionService, never()).evictPortfolioCache(empty.getId());
+    }
+
+    @Test
+    void revaluesOnlyHoldersOfTheInstrument() {
+        RevaluationResponse response = revaluationService.revalue(new RevaluationRequest(null, msft.getId()));
+
+        assertThat(response.portfolios()).isEqualTo(1);
+        assertThat(response.revalued()).isEqualTo(1);
+        entityManager.clear();
+        assertThat(entityManager.find(Portfolio.class, staleHolder.getId()).getTotalValue())
+                .isEqualByComparingTo("1000");
+    }
+
+    @Test
+    void revaluesOnlyTheListedPortfolios() {
+        RevaluationResponse response = revaluationService.revalue(
+                new RevaluationRequest(List.of(staleHolder.getId(), current.getId(), -1L), null));
+
+        assertThat(response.portfolios()).isEqualTo(2);
+        assertThat(response.revalued()).isEqualTo(1);
+        entityManager.clear();
+        assertThat(entityManager.find(Portfolio.class, stale.getId()).getTotalValue()).isEqualByComparingTo("600");
+        assertThat(entityManager.find(Portfolio.class, staleHolder.getId()).getTotalValue())
+                .isEqualByComparingTo("1500");
+    }
+
+    @Test
+    void portfolioChangedSinceItWasReadIsSkipped() {
+        List<PortfolioRevaluationService.Valuation> valuations = revaluationService.findStale(0, Long.MAX_VALUE);
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE portfolios SET total_value = 900 WHERE id = " + stale.getId())
+                .executeUpdate();
+
+        int written = revaluationService.apply(valuations);
+
+        assertThat(written).isEqualTo(1);
+        verify(cacheEvictionService, never()).evictPortfolioCache(stale.getId());
+        verify(cacheEvictionService).evictPortfolioCache(staleHolder.getId());
+    }
+}
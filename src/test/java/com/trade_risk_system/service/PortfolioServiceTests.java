@@ -0,0 +1,107 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.dto.request.PortfolioRequestDTO;
+import com.trade_risk_system.dto.response.PortfolioResponse;
+import com.trade_risk_system.exception.DuplicateResourceException;
+import com.trade_risk_system.repository.UserRepository;
+import com.trade_risk_system.sharding.ReferenceDataReplicator;
+import com.trade_risk_system.sharding.ShardDirectory;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Portfolio creation commits on the portfolio's shard before the shard
+ * directory is written; a retry after a failure in between must repair the
+ * directory instead of locking the user out.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(PortfolioService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PortfolioServiceTests {
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private CacheEvictionService cacheEvictionService;
+
+    @MockitoBean
+    private ShardDirectory shardDirectory;
+
+    @MockitoBean
+    private ShardExecutor shardExecutor;
+
+    @MockitoBean
+    private ReferenceDataReplicator referenceDataReplicator;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(TestFixtures.newUser("trader")).getId();
+        when(shardDirectory.findShardOfUser(anyLong())).thenReturn(OptionalInt.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM portfolios");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void retryAfterFailedRegistrationRegistersTheExistingPortfolio() {
+        doThrow(new IllegalStateException("global shard unavailable"))
+                .when(shardDirectory).register(anyLong(), anyLong(), anyInt());
+        assertThatThrownBy(() -> portfolioService.createPortfolio(new PortfolioRequestDTO(userId)))
+                .hasMessage("global shard unavailable");
+
+        reset(shardDirectory);
+        when(shardDirectory.findShardOfUser(anyLong())).thenReturn(OptionalInt.empty());
+        PortfolioResponse retried = portfolioService.createPortfolio(new PortfolioRequestDTO(userId));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM portfolios", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM portfolios", Long.class))
+                .isEqualTo(retried.id());
+        verify(shardDirectory).register(userId, retried.id(), 0);
+    }
+
+    @Test
+    void registeredPortfolioIsStillADuplicate() {
+        portfolioService.createPortfolio(new PortfolioRequestDTO(userId));
+        when(shardDirectory.findShardOfUser(userId)).thenReturn(OptionalInt.of(0));
+
+        assertThatThrownBy(() -> portfolioService.createPortfolio(new PortfolioRequestDTO(userId)))
+                .isInstanceOf(DuplicateResourceException.class);
+        verify(shardDirectory).register(anyLong(), anyLong(), anyInt());
+    }
+}
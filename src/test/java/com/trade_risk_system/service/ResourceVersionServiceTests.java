@@ -0,0 +1,99 @@
+package com.trade_risk_system.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ResourceVersionServiceTests {
+
+    private static final byte[] CHANNEL = ResourceVersionService.CHANNEL.getBytes(StandardCharsets.UTF_8);
+
+    private StringRedisTemplate redisTemplate;
+    private ResourceVersionService versions;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        versions = new ResourceVersionService(redisTemplate);
+        ReflectionTestUtils.setField(versions, "enabled", true);
+        ReflectionTestUtils.setField(versions, "maxAge", Duration.ofHours(1));
+        versions.onChannelSubscribed(CHANNEL, 1);
+    }
+
+    @Test
+    void evictionChangesOnlyTheKeysEtagAndIsPublished() {
+        String risk1 = versions.etag("risk", 1L);
+        String risk2 = versions.etag("risk", 2L);
+        String portfolio1 = versions.etag("portfolios", 1L);
+
+        versions.changed(Map.of("risk", Set.of(1L)), Set.of());
+
+        assertThat(versions.etag("risk", 1L)).isNotEqualTo(risk1);
+        assertThat(versions.etag("risk", 2L)).isEqualTo(risk2);
+        assertThat(versions.etag("portfolios", 1L)).isEqualTo(portfolio1);
+        verify(redisTemplate).convertAndSend(eq(ResourceVersionService.CHANNEL), contains("risk "));
+    }
+
+    @Test
+    void clearChangesEveryEtagOfTheCache() {
+        String list = versions.etag("instruments-list");
+        String risk = versions.etag("risk", 1L);
+
+        versions.changed(Map.of(), List.of("instruments-list", "risk"));
+
+        assertThat(versions.etag("instruments-list")).isNotEqualTo(list);
+        assertThat(versions.etag("risk", 1L)).isNotEqualTo(risk);
+    }
+
+    @Test
+    void changesPublishedByAnotherInstanceAreApplied() {
+        StringRedisTemplate publisher = mock(StringRedisTemplate.class);
+        ResourceVersionService other = new ResourceVersionService(publisher);
+        String before = versions.etag("portfolios", 7L);
+
+        other.changed(Map.of("portfolios", Set.of(7L)), Set.of());
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(publisher).convertAndSend(eq(ResourceVersionService.CHANNEL), published.capture());
+        versions.onMessage(new DefaultMessage(CHANNEL, published.getValue().getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(versions.etag("portfolios", 7L)).isNotEqualTo(before);
+    }
+
+    @Test
+    void ownMessagesAreNotAppliedTwice() {
+        versions.changed(Map.of("risk", Set.of(3L)), Set.of());
+        String afterChange = versions.etag("risk", 3L);
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(ResourceVersionService.CHANNEL), published.capture());
+
+        versions.onMessage(new DefaultMessage(CHANNEL, published.getValue().getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(versions.etag("risk", 3L)).isEqualTo(afterChange);
+    }
+
+    @Test
+    void noEtagsWithoutASubscriptionAndNewOnesAfterResubscribing() {
+        String before = versions.etag("risk", 1L);
+
+        versions.onChannelUnsubscribed(CHANNEL, 0);
+        assertThat(versions.etag("risk", 1L)).isNull();
+        versions.onChannelSubscribed(CHANNEL, 1);
+
+        assertThat(versions.etag("risk", 1L)).isNotNull().isNotEqualTo(before);
+    }
+}
@@ -0,0 +1,123 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.dto.request.RiskBatchRequest;
+import com.trade_risk_system.dto.response.RiskBatchResponse;
+import com.trade_risk_system.dto.response.RiskResponse;
+import com.trade_risk_system.event.SideEffectBus;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.sharding.ShardDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "application.risk.batch.parallelism=2"
+})
+@Import({ RiskBatchService.class, RiskService.class })
+class RiskBatchServiceTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RiskBatchService riskBatchService;
+
+    @Autowired
+    private RiskService riskService;
+
+    @MockitoBean
+    private CachePipelineService cachePipelineService;
+
+    @MockitoBean
+    private SideEffectBus sideEffectBus;
+
+    @MockitoBean
+    private ShardDirectory shardDirectory;
+
+    private TestFixtures fixtures;
+    private Portfolio concentrated;
+    private Portfolio spread;
+    private Portfolio empty;
+    private Portfolio cachedPortfolio;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+        Instrument aapl = fixtures.instrument("AAPL", "150.0000");
+        Instrument msft = fixtures.instrument("MSFT", null);
+        concentrated = fixtures.portfolio("concentrated");
+        fixtures.position(concentrated, aapl, 10, "100.0000");
+        spread = fixtures.portfolio("spread");
+        fixtures.position(spread, aapl, 2, "100.0000");
+        fixtures.position(spread, msft, 3, "100.0000");
+        empty = fixtures.portfolio("empty");
+        cachedPortfolio = fixtures.portfolio("cached");
+        entityManager.flush();
+    }
+
+    @Test
+    void servesCachedEntriesAndComputesTheRestInRequestOrder() {
+        RiskResponse cachedRisk = new RiskResponse(cachedPortfolio.getId(), BigDecimal.TEN, BigDecimal.ONE,
+                BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.ZERO, LocalDateTime.of(2026, 3, 2, 12, 0));
+        when(cachePipelineService.getAll(eq("risk"), anyCollection(), eq(RiskResponse.class)))
+                .thenReturn(Map.of(cachedPortfolio.getId(), cachedRisk));
+
+        RiskBatchResponse response = riskBatchService.getRisks(new RiskBatchRequest(List.of(spread.getId(),
+                cachedPortfolio.getId(), -1L, concentrated.getId(), empty.getId(), spread.getId())));
+
+        assertThat(response.risks()).extracting(RiskResponse::portfolioId).containsExactly(spread.getId(),
+                cachedPortfolio.getId(), concentrated.getId(), empty.getId());
+        assertThat(response.risks().get(1)).isSameAs(cachedRisk);
+        assertThat(response.notFound()).containsExactly(-1L);
+        assertThat(response.cached()).isEqualTo(1);
+        assertThat(response.computed()).isEqualTo(3);
+        // 300 of AAPL and 300 of MSFT at its average price
+        assertThat(response.risks().get(0).totalExposure()).isEqualByComparingTo("600");
+        assertThat(response.risks().get(0).riskScore()).isEqualByComparingTo("50");
+        assertThat(response.risks().get(3).totalExposure()).isEqualByComparingTo("0");
+        assertThat(entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(m) FROM RiskMetric m", Long.class).getSingleResult()).isEqualTo(2);
+
+        ArgumentCaptor<Map<Long, RiskResponse>> written = ArgumentCaptor.captor();
+        verify(cachePipelineService).putAll(eq("risk"), written.capture());
+        assertThat(written.getValue()).containsOnlyKeys(spread.getId(), concentrated.getId(), empty.getId());
+    }
+
+    @Test
+    void computesTheSameFiguresAsTheSingleRead() {
+        when(cachePipelineService.getAll(eq("risk"), anyCollection(), eq(RiskResponse.class)))
+                .thenReturn(new LinkedHashMap<>());
+
+        RiskBatchResponse response = riskBatchService.getRisks(
+                new RiskBatchRequest(List.of(concentrated.getId(), spread.getId())));
+
+        for (RiskResponse batch : response.risks()) {
+            RiskResponse single = riskService.calculatePortfolioRisk(batch.portfolioId());
+            assertThat(batch).usingRecursiveComparison().ignoringFields("timestamp")
+                    .withComparatorForType(BigDecimal::compareTo, BigDecimal.class).isEqualTo(single);
+        }
+        verify(cachePipelineService).putAll(eq("risk"), anyMap());
+    }
+}
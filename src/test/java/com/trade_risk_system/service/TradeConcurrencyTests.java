@@ -0,0 +1,252 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.analytics.TradeColumnStore;
+import com.trade_risk_system.dto.request.TradeRequest;
+import com.trade_risk_system.event.SideEffectBus;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.repository.InstrumentRepository;
+import com.trade_risk_system.repository.PortfolioRepository;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Two trades of one portfolio, committed by two threads at once, must both
+ * take effect: sells of different instruments both book their realized P&L,
+ * and first buys of one instrument end up in a single position. A price
+ * update racing a locked trade must not be lost from the portfolio value.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({ TradeService.class, ConcurrentTradeExecutor.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeConcurrencyTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private ConcurrentTradeExecutor tradeExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InstrumentRepository instrumentRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @MockitoBean
+    private SideEffectBus sideEffectBus;
+
+    @MockitoBean
+    private CacheEvictionService cacheEvictionService;
+
+    @MockitoBean
+    private ShardExecutor shardExecutor;
+
+    @MockitoBean
+    private TradePartitionService tradePartitionService;
+
+    @MockitoBean
+    private TradeColumnStore tradeColumnStore;
+
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM trades");
+        jdbcTemplate.update("DELETE FROM positions");
+        jdbcTemplate.update("DELETE FROM portfolios");
+        jdbcTemplate.update("DELETE FROM instruments");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @ParameterizedTest
+    @EnumSource(TradeConcurrencyMode.class)
+    void concurrentSellsOfOnePortfolioBothBookRealizedPnl(TradeConcurrencyMode mode) throws Exception {
+        TradeService service = AopTestUtils.getTargetObject(tradeService);
+        ReflectionTestUtils.setField(service, "concurrencyMode", mode);
+        ReflectionTestUtils.setField(tradeExecutor, "mode", mode);
+        // A locked trade waits for the other to commit; the embedded default of one second is too short
+        jdbcTemplate.execute("SET DEFAULT_LOCK_TIMEOUT 10000");
+
+        Long[] ids = new TransactionTemplate(transactionManager).execute(status -> {
+            Portfolio portfolio = fixtures.portfolio("trader", "4000.0000");
+            Instrument aapl = fixtures.instrument("AAPL", "150.0000");
+            Instrument msft = fixtures.instrument("MSFT", "250.0000");
+            fixtures.position(portfolio, aapl, 10, "100.0000");
+            fixtures.position(portfolio, msft, 10, "200.0000");
+            return new Long[] { portfolio.getUser().getId(), portfolio.getId(), aapl.getId(), msft.getId() };
+        });
+        Long userId = ids[0];
+
+        // Each trade waits here, after reading the portfolio and before committing,
+        // until the other one has got this far too or a short time has passed
+        CountDownLatch bothRead = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            bothRead.countDown();
+            bothRead.await(300, TimeUnit.MILLISECONDS);
+            return null;
+        }).when(sideEffectBus).audit(eq("TRADE_EXECUTED"), any());
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> sellAapl = pool.submit(() -> tradeExecutor.executeTrade(
+                    new TradeRequest(userId, ids[2], 10, new BigDecimal("150.0000"), TradeSide.SELL), userId));
+            Future<?> sellMsft = pool.submit(() -> tradeExecutor.executeTrade(
+                    new TradeRequest(userId, ids[3], 10, new BigDecimal("250.0000"), TradeSide.SELL), userId));
+            sellAapl.get(10, TimeUnit.SECONDS);
+            sellMsft.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // 10 * (150 - 100) + 10 * (250 - 200); both positions are closed
+        assertThat(jdbcTemplate.queryForObject("SELECT realized_pnl FROM portfolios WHERE id = ?",
+                BigDecimal.class, ids[1])).isEqualByComparingTo("1000");
+        assertThat(jdbcTemplate.queryForObject("SELECT total_value FROM portfolios WHERE id = ?",
+                BigDecimal.class, ids[1])).isEqualByComparingTo("0");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM positions", Integer.class)).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(TradeConcurrencyMode.class)
+    void concurrentFirstBuysOfAnInstrumentShareOnePosition(TradeConcurrencyMode mode) throws Exception {
+        TradeService service = AopTestUtils.getTargetObject(tradeService);
+        ReflectionTestUtils.setField(service, "concurrencyMode", mode);
+        ReflectionTestUtils.setField(tradeExecutor, "mode", mode);
+        jdbcTemplate.execute("SET DEFAULT_LOCK_TIMEOUT 10000");
+
+        Long[] ids = new TransactionTemplate(transactionManager).execute(status -> new Long[] {
+                fixtures.portfolio("trader").getUser().getId(), fixtures.instrument("AAPL", "150.0000").getId() });
+        Long userId = ids[0];
+
+        // Both buys find no position before either inserts one, unless the portfolio lock queues them
+        CountDownLatch bothRead = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            bothRead.countDown();
+            bothRead.await(300, TimeUnit.MILLISECONDS);
+            return null;
+        }).when(sideEffectBus).audit(eq("TRADE_EXECUTED"), any());
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> buys = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                buys.add(pool.submit(() -> tradeExecutor.executeTrade(
+                        new TradeRequest(userId, ids[1], 10, new BigDecimal("100.0000"), TradeSide.BUY), userId)));
+            }
+            for (Future<?> buy : buys) {
+                buy.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM positions", Integer.class)).isEqualTo(20);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trades", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void priceUpdateDuringALockedTradeIsKeptInThePortfolioValue() throws Exception {
+        TradeService service = AopTestUtils.getTargetObject(tradeService);
+        ReflectionTestUtils.setField(service, "concurrencyMode", TradeConcurrencyMode.PESSIMISTIC);
+        ReflectionTestUtils.setField(tradeExecutor, "mode", TradeConcurrencyMode.PESSIMISTIC);
+        jdbcTemplate.execute("SET DEFAULT_LOCK_TIMEOUT 10000");
+
+        Long[] ids = new TransactionTemplate(transactionManager).execute(status -> {
+            Portfolio portfolio = fixtures.portfolio("trader", "1500.0000", "500.0000");
+            Instrument aapl = fixtures.instrument("AAPL", "150.0000");
+            Instrument msft = fixtures.instrument("MSFT", "250.0000");
+            fixtures.position(portfolio, aapl, 10, "100.0000");
+            return new Long[] { portfolio.getUser().getId(), portfolio.getId(), aapl.getId(), msft.getId() };
+        });
+        Long userId = ids[0];
+
+        // The trade holds here after valuing the portfolio and before committing
+        CountDownLatch valued = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            valued.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(sideEffectBus).audit(eq("TRADE_EXECUTED"), any());
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> buyMsft = pool.submit(() -> tradeExecutor.executeTrade(
+                    new TradeRequest(userId, ids[3], 10, new BigDecimal("250.0000"), TradeSide.BUY), userId));
+            assertThat(valued.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // The same statements as InstrumentService.updatePrice, with AAPL moving 150 -> 200
+            Future<?> repriceAapl = pool.submit(() -> new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> {
+                        Instrument aapl = instrumentRepository.findByIdForUpdate(ids[2]).orElseThrow();
+                        aapl.setCurrentPrice(new BigDecimal("200.0000"));
+                        portfolioRepository.applyPriceChange(ids[2], new BigDecimal("150.0000"),
+                                new BigDecimal("200.0000"));
+                    }));
+            Thread.sleep(200);
+            assertThat(repriceAapl).isNotDone();
+
+            release.countDown();
+            buyMsft.get(10, TimeUnit.SECONDS);
+            repriceAapl.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // 10 * 200 + 10 * 250, and 10 * (200 - 100) + 10 * (250 - 250)
+        assertThat(jdbcTemplate.queryForObject("SELECT total_value FROM portfolios WHERE id = ?",
+                BigDecimal.class, ids[1])).isEqualByComparingTo("4500");
+        assertThat(jdbcTemplate.queryForObject("SELECT unrealized_pnl FROM portfolios WHERE id = ?",
+                BigDecimal.class, ids[1])).isEqualByComparingTo("1000");
+    }
+}
@@ -0,0 +1,157 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.analytics.TradeColumnStore;
+import com.trade_risk_system.diagnostics.QueryCountingDataSourcePostProcessor;
+import com.trade_risk_system.diagnostics.QueryStats;
+import com.trade_risk_system.dto.request.TradeRequest;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.event.SideEffectBus;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.model.Trade;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails when {@link TradeService#executeTrade} issues more JDBC statements
+ * than {@link TradeService#EXECUTE_TRADE_QUERY_BUDGET}. Statements are counted
+ * by the same DataSource wrapper that feeds the per-request metrics.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({ TradeService.class, QueryCountingDataSourcePostProcessor.class })
+class TradeExecutionQueryBudgetTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @MockitoBean
+    private SideEffectBus sideEffectBus;
+
+    @MockitoBean
+    private CacheEvictionService cacheEvictionService;
+
+    @MockitoBean
+    private ShardExecutor shardExecutor;
+
+    @MockitoBean
+    private TradePartitionService tradePartitionService;
+
+    @MockitoBean
+    private TradeColumnStore tradeColumnStore;
+
+    private TestFixtures fixtures;
+    private Long userId;
+    private Long portfolioId;
+    private Long instrumentId;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+        Portfolio portfolio = fixtures.portfolio("trader");
+        Instrument instrument = fixtures.instrument("AAPL", "Apple", "150.0000");
+        userId = portfolio.getUser().getId();
+        portfolioId = portfolio.getId();
+        instrumentId = instrument.getId();
+        allocateIdBlocks(instrument);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        QueryStats.stop();
+    }
+
+    @Test
+    void buyOpeningPositionStaysWithinBudget() {
+        TradeResponse response = execute(TradeSide.BUY, 10, "100.0000");
+
+        assertThat(response.status()).isEqualTo(TradeStatus.EXECUTED);
+        assertThat(portfolioValue()).isEqualByComparingTo("1500");
+        assertThat(entityManager.find(Portfolio.class, portfolioId).getUnrealizedPnl()).isEqualByComparingTo("500");
+    }
+
+    @Test
+    void buyAddingToPositionStaysWithinBudget() {
+        openPosition(10);
+
+        execute(TradeSide.BUY, 10, "120.0000");
+
+        assertThat(entityManager.find(Portfolio.class, portfolioId).getTotalValue()).isEqualByComparingTo("3000");
+    }
+
+    @Test
+    void sellClosingPositionStaysWithinBudget() {
+        openPosition(10);
+
+        execute(TradeSide.SELL, 10, "160.0000");
+
+        assertThat(portfolioValue()).isEqualByComparingTo("0");
+        assertThat(entityManager.find(Portfolio.class, portfolioId).getRealizedPnl()).isEqualByComparingTo("600");
+    }
+
+    private TradeResponse execute(TradeSide side, int quantity, String price) {
+        QueryStats stats = QueryStats.start();
+        TradeResponse response = tradeService.executeTrade(
+                new TradeRequest(userId, instrumentId, quantity, new BigDecimal(price), side), userId);
+        // Write what the commit would write
+        entityManager.flush();
+        int statements = stats.getStatements();
+        QueryStats.stop();
+        entityManager.clear();
+
+        assertThat(statements)
+                .as("JDBC statements for %s of %d", side, quantity)
+                .isLessThanOrEqualTo(TradeService.EXECUTE_TRADE_QUERY_BUDGET);
+        return response;
+    }
+
+    /**
+     * Pulls a block of pooled ids for trades and positions so the measured
+     * trade does not pay for the allocation, which happens once per 50 inserts.
+     * A fresh sequence's first block holds a single id, hence two rows each.
+     */
+    private void allocateIdBlocks(Instrument instrument) {
+        Portfolio portfolio = fixtures.portfolio("warmup");
+        for (int i = 0; i < 2; i++) {
+            // One position per instrument, as the unique key requires
+            Instrument warmup = fixtures.instrument("WARM" + i, "Warmup", "1");
+            fixtures.position(portfolio, warmup, 1, "1");
+            entityManager.persist(Trade.builder()
+                    .user(portfolio.getUser()).instrument(instrument).quantity(1).price(BigDecimal.ONE)
+                    .side(TradeSide.BUY).status(TradeStatus.EXECUTED).timestamp(LocalDateTime.now()).build());
+        }
+    }
+
+    private void openPosition(int quantity) {
+        fixtures.position(entityManager.find(Portfolio.class, portfolioId),
+                entityManager.find(Instrument.class, instrumentId), quantity, "100.0000");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private BigDecimal portfolioValue() {
+        return entityManager.find(Portfolio.class, portfolioId).getTotalValue();
+    }
+}
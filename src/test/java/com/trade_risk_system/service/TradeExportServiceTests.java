@@ -0,0 +1,171 @@
+package com.trade_risk_system.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Portfolio;
+import com.trade_risk_system.model.Trade;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import com.trade_risk_system.sharding.ShardDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exports a small set of live trades, preceded by one archived trade, in both
+ * formats and reads the output back.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "application.trades.export.fetch-size=100"
+})
+@Import(TradeExportService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class TradeExportServiceTests {
+
+    private static final LocalDateTime OPEN = LocalDateTime.of(2026, 10, 1, 9, 30);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TradeExportService tradeExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private ShardDirectory shardDirectory;
+
+    @MockitoBean
+    private TradePartitionService tradePartitionService;
+
+    private final List<TradeResponse> archived = new ArrayList<>();
+
+    private Long userId;
+    private Long appleId;
+    private Long berkshireId;
+
+    @BeforeEach
+    void setUp() {
+        TestFixtures fixtures = new TestFixtures(entityManager);
+        Portfolio portfolio = fixtures.portfolio("trader");
+        Instrument apple = fixtures.instrument("AAPL", "150.0000");
+        Instrument berkshire = fixtures.instrument("BRK,B", "420.0000");
+        userId = portfolio.getUser().getId();
+        appleId = apple.getId();
+        berkshireId = berkshire.getId();
+        // Persisted out of order: the export sorts by timestamp
+        trade(portfolio, berkshire, TradeSide.SELL, 2, "421.5000", OPEN.plusMinutes(5));
+        trade(portfolio, apple, TradeSide.BUY, 10, "150.2500", OPEN);
+        entityManager.flush();
+
+        archived.add(new TradeResponse(1L, userId, 99L, "OLD \"QUOTED\" CO", 5, new BigDecimal("12.0000"),
+                TradeSide.BUY, TradeStatus.EXECUTED, OPEN.minusYears(1)));
+        when(shardDirectory.getShardCount()).thenReturn(1);
+        doAnswer(invocation -> {
+            Predicate<TradeResponse> visitor = invocation.getArgument(1);
+            for (TradeResponse row : archived) {
+                if (!visitor.test(row)) {
+                    break;
+                }
+            }
+            return null;
+        }).when(tradePartitionService).forEachArchived(any(), any());
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerTradeWithArchivedTradesFirst() throws IOException {
+        String output = export(TradeExportService.Format.NDJSON);
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertThat(output).endsWith("\n");
+        assertThat(rows).extracting(row -> row.get("symbol").asText())
+                .containsExactly("OLD \"QUOTED\" CO", "AAPL", "BRK,B");
+
+        JsonNode apple = rows.get(1);
+        assertThat(apple.get("userId").asLong()).isEqualTo(userId);
+        assertThat(apple.get("instrumentId").asLong()).isEqualTo(appleId);
+        assertThat(apple.get("quantity").asInt()).isEqualTo(10);
+        assertThat(apple.get("price").decimalValue()).isEqualByComparingTo("150.25");
+        assertThat(apple.get("side").asText()).isEqualTo("BUY");
+        assertThat(apple.get("status").asText()).isEqualTo("EXECUTED");
+        assertThat(apple.get("timestamp").asText()).isEqualTo("2026-10-01T09:30");
+    }
+
+    @Test
+    void csvQuotesFieldsContainingSeparatorsOrQuotes() throws IOException {
+        String output = export(TradeExportService.Format.CSV);
+
+        assertThat(output.split("\n")).containsExactly(
+                "id,userId,instrumentId,symbol,quantity,price,side,status,timestamp",
+                "1," + userId + ",99,\"OLD \"\"QUOTED\"\" CO\",5,12.0000,BUY,EXECUTED,2025-10-01T09:30",
+                liveId(appleId) + "," + userId + "," + appleId + ",AAPL,10,150.2500,BUY,EXECUTED,2026-10-01T09:30",
+                liveId(berkshireId) + "," + userId + "," + berkshireId
+                        + ",\"BRK,B\",2,421.5000,SELL,EXECUTED,2026-10-01T09:35");
+    }
+
+    @Test
+    void filterAppliesToLiveRowsAndIsPassedToTheArchive() throws IOException {
+        archived.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = tradeExportService.export(new TradeExportService.Filter(berkshireId, null, null, null),
+                TradeExportService.Format.CSV, out);
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("\"BRK,B\"").doesNotContain("AAPL");
+        verify(tradePartitionService).forEachArchived(
+                argThat(filter -> berkshireId.equals(filter.instrumentId()) && filter.userId() == null), any());
+    }
+
+    private String export(TradeExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = tradeExportService.export(new TradeExportService.Filter(null, null, null, null), format, out);
+        assertThat(rows).isEqualTo(3);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Long liveId(Long instrumentId) {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT t.id FROM Trade t WHERE t.instrument.id = :instrumentId", Long.class)
+                .setParameter("instrumentId", instrumentId)
+                .getSingleResult();
+    }
+
+    private void trade(Portfolio portfolio, Instrument instrument, TradeSide side, int quantity, String price,
+            LocalDateTime timestamp) {
+        entityManager.persist(Trade.builder()
+                .user(portfolio.getUser()).instrument(instrument).quantity(quantity).price(new BigDecimal(price))
+                .side(side).status(TradeStatus.EXECUTED).timestamp(timestamp).build());
+    }
+}
@@ -0,0 +1,211 @@
+package com.trade_risk_system.service;
+
+import com.trade_risk_system.TestFixtures;
+import com.trade_risk_system.analytics.TradeColumnStore;
+import com.trade_risk_system.dto.common.ApiResponse;
+import com.trade_risk_system.dto.common.CursorPage;
+import com.trade_risk_system.dto.response.TradeResponse;
+import com.trade_risk_system.event.SideEffectBus;
+import com.trade_risk_system.exception.BadRequestException;
+import com.trade_risk_system.model.Instrument;
+import com.trade_risk_system.model.Trade;
+import com.trade_risk_system.model.User;
+import com.trade_risk_system.model.enums.TradeSide;
+import com.trade_risk_system.model.enums.TradeStatus;
+import com.trade_risk_system.sharding.ShardExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pages through trades by handing each page's cursor back: newest first,
+ * rows sharing a timestamp ordered and split by id, filters applied to every
+ * page, and each page read with an index range scan.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(TradeService.class)
+class TradeServiceTests {
+
+    private static final LocalDateTime OPEN = LocalDateTime.of(2026, 10, 1, 9, 30);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private SideEffectBus sideEffectBus;
+
+    @MockitoBean
+    private CacheEvictionService cacheEvictionService;
+
+    @MockitoBean
+    private ShardExecutor shardExecutor;
+
+    @MockitoBean
+    private TradePartitionService tradePartitionService;
+
+    @MockitoBean
+    private TradeColumnStore tradeColumnStore;
+
+    private Long aaplId;
+    private final List<Long> aaplTrades = new ArrayList<>();
+    private final List<Long> allTrades = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TestFixtures.runOnSingleShard(shardExecutor);
+        TestFixtures fixtures = new TestFixtures(entityManager);
+        User trader = fixtures.user("trader");
+        Instrument aapl = fixtures.instrument("AAPL", "150.0000");
+        Instrument msft = fixtures.instrument("MSFT", "250.0000");
+        aaplId = aapl.getId();
+
+        // Oldest first; three AAPL trades share a timestamp with a fractional second
+        LocalDateTime tied = OPEN.plusMinutes(1).plusNanos(123_456_000);
+        aaplTrades.add(trade(trader, aapl, OPEN));
+        aaplTrades.add(trade(trader, aapl, tied));
+        aaplTrades.add(trade(trader, aapl, tied));
+        aaplTrades.add(trade(trader, aapl, tied));
+        trade(trader, msft, OPEN.plusMinutes(2));
+        aaplTrades.add(trade(trader, aapl, OPEN.plusMinutes(3)));
+        entityManager.flush();
+    }
+
+    @Test
+    void cursorsWalkEveryTradeOnceNewestFirst() {
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<TradeResponse> page = tradeService.getTradesPage(null, null, OPEN.plusHours(1), cursor, 2);
+            page.content().forEach(row -> seen.add(row.id()));
+            pageSizes.add(page.content().size());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<Long> newestFirst = new ArrayList<>(allTrades);
+        Collections.reverse(newestFirst);
+        assertThat(seen).containsExactlyElementsOf(newestFirst);
+        assertThat(pageSizes).containsExactly(2, 2, 2);
+    }
+
+    @Test
+    void instrumentFilterHoldsOnEveryPageAndTiesSplitById() {
+        CursorPage<TradeResponse> first = tradeService.getTradesPage(aaplId, null, OPEN.plusHours(1), null, 2);
+        CursorPage<TradeResponse> second = tradeService.getTradesPage(aaplId, null, OPEN.plusHours(1),
+                first.nextCursor(), 2);
+        CursorPage<TradeResponse> last = tradeService.getTradesPage(aaplId, null, OPEN.plusHours(1),
+                second.nextCursor(), 2);
+
+        // The three tied trades straddle the first two pages, highest id first
+        assertThat(first.content()).extracting(TradeResponse::id)
+                .containsExactly(aaplTrades.get(4), aaplTrades.get(3));
+        assertThat(second.content()).extracting(TradeResponse::id)
+                .containsExactly(aaplTrades.get(2), aaplTrades.get(1));
+        assertThat(last.content()).extracting(TradeResponse::id).containsExactly(aaplTrades.get(0));
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    @Test
+    void rangeEndIsExclusiveAndStartInclusive() {
+        CursorPage<TradeResponse> page = tradeService.getTradesPage(null, OPEN, OPEN.plusMinutes(2), null, 10);
+
+        assertThat(page.content()).extracting(TradeResponse::id)
+                .containsExactly(aaplTrades.get(3), aaplTrades.get(2), aaplTrades.get(1), aaplTrades.get(0));
+        assertThat(page.nextCursor()).isNull();
+
+        CursorPage<TradeResponse> later = tradeService.getTradesPage(aaplId, OPEN.plusSeconds(1),
+                OPEN.plusHours(1), null, 10);
+        assertThat(later.content()).extracting(TradeResponse::id)
+                .containsExactly(aaplTrades.get(4), aaplTrades.get(3), aaplTrades.get(2), aaplTrades.get(1));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> tradeService.getTradesPage(null, null, null, "bm90LWEtY3Vyc29y", 2))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> tradeService.getTradesPage(null, null, null, "%%%", 2))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void pageQueriesAreIndexRangeScans() {
+        String seek = "t.timestamp >= ? AND t.timestamp < ? AND t.timestamp <= ? "
+                + "AND (t.timestamp < ? OR t.id < ?) ORDER BY t.timestamp DESC, t.id DESC LIMIT 3";
+
+        // The same predicates as TradeRepository.findPageBefore and findPageBeforeByInstrumentId
+        String unfiltered = plan("SELECT t.id FROM trades t WHERE " + seek);
+        String byInstrument = plan("SELECT t.id FROM trades t WHERE t.instrument_id = ? AND " + seek);
+
+        // A range bounded by the cursor; H2 only skips the sort step for the single-column
+        // prefix, MySQL also reads (instrument_id, timestamp, id) backwards in order
+        assertThat(unfiltered).contains("IDX_TRADE_TS: TIMESTAMP <= ?3", "index sorted");
+        assertThat(byInstrument).contains("IDX_TRADE_INSTRUMENT_TS:", "INSTRUMENT_ID = ?1", "TIMESTAMP <= ?4");
+    }
+
+    @Test
+    void cursorPageResponseCarriesTheNextCursor() {
+        CursorPage<TradeResponse> page = tradeService.getTradesPage(null, null, OPEN.plusHours(1), null, 2);
+        ApiResponse<List<TradeResponse>> response = ApiResponse.fromCursorPage(page);
+
+        assertThat(response.getData()).isEqualTo(page.content());
+        assertThat(response.getPageSize()).isEqualTo(2);
+        assertThat(response.getNextCursor()).isEqualTo(page.nextCursor()).isNotNull();
+        assertThat(response.getHasNext()).isTrue();
+        assertThat(response.getTotalElements()).isNull();
+
+        ApiResponse<List<TradeResponse>> last = ApiResponse.fromCursorPage(new CursorPage<>(List.of(), null));
+        assertThat(last.getHasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void slicePageResponseHasNoTotals() {
+        ApiResponse<List<String>> response = ApiResponse.fromSlice(
+                new SliceImpl<>(List.of("a", "b"), PageRequest.of(1, 2), true));
+
+        assertThat(response.getData()).containsExactly("a", "b");
+        assertThat(response.getPageNumber()).isEqualTo(1);
+        assertThat(response.getPageSize()).isEqualTo(2);
+        assertThat(response.getHasNext()).isTrue();
+        assertThat(response.getTotalElements()).isNull();
+        assertThat(response.getTotalPages()).isNull();
+        assertThat(response.getNextCursor()).isNull();
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private Long trade(User user, Instrument instrument, LocalDateTime timestamp) {
+        Long id = entityManager.persist(Trade.builder()
+                .user(user).instrument(instrument).quantity(10).price(new BigDecimal("100.0000"))
+                .side(TradeSide.BUY).status(TradeStatus.EXECUTED).timestamp(timestamp).build()).getId();
+        allTrades.add(id);
+        return id;
+    }
+}
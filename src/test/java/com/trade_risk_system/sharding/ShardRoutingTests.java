@@ -0,0 +1,187 @@
+package com.trade_risk_system.sharding;
+
+import com.trade_risk_system.datasource.DataSourceConfig.DataSourcePools;
+import com.trade_risk_system.datasource.DataSourceConfig.ShardDataSources;
+import com.trade_risk_system.exception.BadRequestException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Routes {@link ShardKey} methods and scatter-gathers over three in-memory
+ * H2 databases standing in for shards.
+ */
+class ShardRoutingTests {
+
+    private static final int SHARDS = 3;
+
+    private final List<HikariDataSource> databases = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private ShardDirectory directory;
+    private ShardExecutor executor;
+    private Lookups lookups;
+
+    @BeforeEach
+    void setUp() {
+        List<ShardDataSources> shards = new ArrayList<>();
+        Map<Integer, DataSource> targets = new HashMap<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            HikariDataSource database = new HikariDataSource();
+            database.setJdbcUrl("jdbc:h2:mem:shard" + shard + ";DB_CLOSE_DELAY=-1");
+            database.setMaximumPoolSize(4);
+            JdbcTemplate template = new JdbcTemplate(database);
+            template.execute("DROP ALL OBJECTS");
+            template.execute("CREATE TABLE node AS SELECT " + shard + " AS shard");
+            template.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, name VARCHAR(20))");
+            template.execute("CREATE TABLE shard_directory (user_id BIGINT PRIMARY KEY, portfolio_id BIGINT, "
+                    + "shard_id INT)");
+            databases.add(database);
+            shards.add(new ShardDataSources(shard, "shard-" + shard, database, List.of()));
+            targets.put(shard, database);
+        }
+        DataSourcePools pools = new DataSourcePools(List.copyOf(databases), shards);
+        DataSource routed = new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(targets));
+        jdbcTemplate = new JdbcTemplate(routed);
+
+        directory = new ShardDirectory(pools);
+        executor = new ShardExecutor(directory, new DataSourceTransactionManager(routed),
+                new ShardingProperties(List.of(), Duration.ofSeconds(5), 4, 100));
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Lookups(jdbcTemplate));
+        factory.addAspect(new ShardRoutingAspect(directory));
+        lookups = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+        databases.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void portfolioIdsRouteToTheShardEncodedInThem() {
+        assertThat(lookups.portfolioShard(42L)).isZero();
+        assertThat(lookups.portfolioShard(ShardIds.firstId(2))).isEqualTo(2);
+        assertThat(lookups.unrouted()).isZero();
+    }
+
+    @Test
+    void usersRouteToTheShardInTheDirectory() {
+        assertThat(lookups.userShard(7L)).isZero();
+
+        directory.register(7L, ShardIds.firstId(1), 1);
+
+        assertThat(lookups.userShard(7L)).isEqualTo(1);
+    }
+
+    @Test
+    void registeringTheSamePortfolioAgainIsANoOp() {
+        directory.register(7L, ShardIds.firstId(1), 1);
+        directory.register(7L, ShardIds.firstId(1), 1);
+
+        assertThatThrownBy(() -> directory.register(7L, ShardIds.firstId(1) + 1, 1))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(directory.findShardOfUser(7L)).hasValue(1);
+    }
+
+    @Test
+    void placementSpreadsUsersOverAllShards() {
+        assertThat(LongStream.rangeClosed(1, 300)
+                .map(directory::placePortfolio)
+                .distinct().count()).isEqualTo(SHARDS);
+    }
+
+    @Test
+    void slicesAreMergedInSortOrderAcrossShards() {
+        // ids 1..9 spread round-robin over the shards
+        for (long id = 1; id <= 9; id++) {
+            new JdbcTemplate(databases.get((int) (id % SHARDS))).update("INSERT INTO item VALUES (?, ?)", id, "i" + id);
+        }
+
+        Slice<Item> second = executor.scatterSlice(PageRequest.of(1, 3), Item.class, this::items);
+        assertThat(second.getContent()).extracting(Item::id).containsExactly(4L, 5L, 6L);
+        assertThat(second.hasNext()).isTrue();
+
+        Slice<Item> last = executor.scatterSlice(PageRequest.of(2, 3, Sort.by(Sort.Direction.DESC, "name")),
+                Item.class, this::items);
+        assertThat(last.getContent()).extracting(Item::id).containsExactly(3L, 2L, 1L);
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    void sortedScatterKeepsTheOverallFirstRows() {
+        for (long id = 1; id <= 9; id++) {
+            new JdbcTemplate(databases.get((int) (id % SHARDS))).update("INSERT INTO item VALUES (?, ?)", id, "i" + id);
+        }
+
+        List<Item> newest = executor.scatterSorted((a, b) -> Long.compare(b.id(), a.id()), 4,
+                () -> jdbcTemplate.query("SELECT id, name FROM item ORDER BY id DESC LIMIT 4",
+                        (rs, rowNum) -> new Item(rs.getLong(1), rs.getString(2))));
+
+        assertThat(newest).extracting(Item::id).containsExactly(9L, 8L, 7L, 6L);
+    }
+
+    @Test
+    void deepPagesAreRejected() {
+        assertThatThrownBy(() -> executor.scatterSlice(PageRequest.of(50, 10), Item.class, this::items))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> executor.scatterSlice(PageRequest.of(0, 10, Sort.by("missing")), Item.class,
+                this::items))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private Slice<Item> items(Pageable pageable) {
+        Sort.Order first = pageable.getSort().iterator().next();
+        String orderBy = first.getProperty() + " " + first.getDirection() + ", id";
+        List<Item> rows = jdbcTemplate.query("SELECT id, name FROM item ORDER BY " + orderBy + " LIMIT ?",
+                (rs, rowNum) -> new Item(rs.getLong(1), rs.getString(2)), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    record Item(Long id, String name) {
+    }
+
+    static class Lookups {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        Lookups(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        public int portfolioShard(@ShardKey(ShardKey.Type.PORTFOLIO) Long portfolioId) {
+            return unrouted();
+        }
+
+        public int userShard(@ShardKey(ShardKey.Type.USER) Long userId) {
+            return unrouted();
+        }
+
+        public int unrouted() {
+            return jdbcTemplate.queryForObject("SELECT shard FROM node", Integer.class);
+        }
+    }
+}